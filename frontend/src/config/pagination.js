@@ -0,0 +1,11 @@
+import api from './axios';
+
+// Listing endpoints return one page as a JSON array and the continuation token in this header
+export const NEXT_CURSOR_HEADER = 'x-next-cursor';
+
+// Fetches the single page after cursor (the first page when it is null). Callers keep nextCursor in state and
+// ask for the following page only when the user does, so a long queue is never loaded or copied all at once.
+export const fetchPage = async (url, cursor = null, pageSize = 50) => {
+  const response = await api.get(url, { params: { size: pageSize, cursor: cursor || undefined } });
+  return { items: response.data, nextCursor: response.headers[NEXT_CURSOR_HEADER] || null };
+};
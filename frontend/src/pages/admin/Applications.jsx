@@ -13,11 +13,15 @@ import {
   UserIcon,
   ClockIcon
 } from '@heroicons/react/24/outline';
+import { fetchPage } from '../../config/pagination';
 import api from '../../config/axios';
 
 const AdminApplications = () => {
   const [applications, setApplications] = useState([]);
+  const [summary, setSummary] = useState({});
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [searchTerm, setSearchTerm] = useState('');
   const [statusFilter, setStatusFilter] = useState('ALL');
   const [selectedApplication, setSelectedApplication] = useState(null);
@@ -25,21 +29,48 @@ const AdminApplications = () => {
 
   useEffect(() => {
     fetchApplications();
+    fetchSummary();
   }, []);
 
+  // The table is paged, so the summary cards come from the dashboard aggregates rather than the loaded rows
+  const fetchSummary = async () => {
+    try {
+      const response = await api.get('/api/admin/dashboard');
+      setSummary(response.data.summary || {});
+    } catch (error) {
+      console.error('Error fetching application summary:', error);
+      setSummary({});
+    }
+  };
+
   const fetchApplications = async () => {
     setLoading(true);
     try {
-      const response = await api.get('/api/admin/applications');
-      setApplications(response.data);
+      const page = await fetchPage('/api/admin/applications');
+      setApplications(page.items);
+      setNextCursor(page.nextCursor);
     } catch (error) {
       console.error('Error fetching applications:', error);
       setApplications([]);
+      setNextCursor(null);
     } finally {
       setLoading(false);
     }
   };
 
+  const loadMore = async () => {
+    setLoadingMore(true);
+    try {
+      const page = await fetchPage('/api/admin/applications', nextCursor);
+      setApplications(loaded => loaded.concat(page.items));
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error fetching more applications:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const filteredApplications = applications.filter(app => {
     const matchesSearch = 
       app.applicantName.toLowerCase().includes(searchTerm.toLowerCase()) ||
@@ -101,16 +132,6 @@ const AdminApplications = () => {
     setShowDocuments(true);
   };
 
-  const getStatusCounts = () => {
-    const counts = {};
-    applications.forEach(app => {
-      counts[app.status] = (counts[app.status] || 0) + 1;
-    });
-    return counts;
-  };
-
-  const statusCounts = getStatusCounts();
-
   if (loading) {
     return (
       <Layout title="Applications Management">
@@ -139,7 +160,7 @@ const AdminApplications = () => {
               </div>
               <div className="ml-4">
                 <p className="text-sm font-medium text-gray-500">Total Applications</p>
-                <p className="text-2xl font-semibold text-gray-900">{applications.length}</p>
+                <p className="text-2xl font-semibold text-gray-900">{summary.totalApplications || 0}</p>
               </div>
             </div>
           </div>
@@ -152,8 +173,7 @@ const AdminApplications = () => {
               <div className="ml-4">
                 <p className="text-sm font-medium text-gray-500">Pending Review</p>
                 <p className="text-2xl font-semibold text-gray-900">
-                  {(statusCounts['PENDING_RCPU'] || 0) + (statusCounts['PENDING_L1'] || 0) + 
-                   (statusCounts['PENDING_L2'] || 0) + (statusCounts['PENDING_L3'] || 0)}
+                  {summary.pendingApplications || 0}
                 </p>
               </div>
             </div>
@@ -167,7 +187,7 @@ const AdminApplications = () => {
               <div className="ml-4">
                 <p className="text-sm font-medium text-gray-500">Total Loan Value</p>
                 <p className="text-2xl font-semibold text-gray-900">
-                  {formatCurrency(applications.reduce((sum, app) => sum + (app.loanAmount || 0), 0))}
+                  {formatCurrency(summary.requestedLoanAmount || 0)}
                 </p>
               </div>
             </div>
@@ -181,8 +201,7 @@ const AdminApplications = () => {
               <div className="ml-4">
                 <p className="text-sm font-medium text-gray-500">Approved Applications</p>
                 <p className="text-2xl font-semibold text-gray-900">
-                  {(statusCounts['L1_APPROVED'] || 0) + (statusCounts['L2_APPROVED'] || 0) + 
-                   (statusCounts['L3_APPROVED'] || 0)}
+                  {summary.approvedApplications || 0}
                 </p>
               </div>
             </div>
@@ -197,7 +216,7 @@ const AdminApplications = () => {
                 <MagnifyingGlassIcon className="absolute left-3 top-1/2 transform -translate-y-1/2 h-5 w-5 text-gray-400" />
                 <input
                   type="text"
-                  placeholder="Search by applicant name, application ID, or email..."
+                  placeholder="Search loaded applications by applicant name, application ID, or email..."
                   className="input-field pl-10"
                   value={searchTerm}
                   onChange={(e) => setSearchTerm(e.target.value)}
@@ -223,6 +242,11 @@ const AdminApplications = () => {
               </select>
             </div>
           </div>
+          {nextCursor && (
+            <p className="text-sm text-gray-500 mt-3">
+              Search and status filters only cover the applications loaded so far. Use Load more to include the rest.
+            </p>
+          )}
         </div>
 
         {/* Applications Table */}
@@ -319,6 +343,14 @@ const AdminApplications = () => {
             </table>
           </div>
 
+          {nextCursor && (
+            <div className="flex justify-center py-4 border-t border-gray-200">
+              <button onClick={loadMore} disabled={loadingMore} className="btn-secondary">
+                {loadingMore ? 'Loading...' : 'Load more'}
+              </button>
+            </div>
+          )}
+
           {filteredApplications.length === 0 && (
             <div className="text-center py-12">
               <div className="text-gray-500">
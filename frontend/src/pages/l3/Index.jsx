@@ -12,10 +12,13 @@ import {
   CheckCircleIcon
 } from '@heroicons/react/24/outline';
 import api from '../../config/axios';
+import { fetchPage } from '../../config/pagination';
 
 const L3Index = () => {
   const [applications, setApplications] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [searchTerm, setSearchTerm] = useState('');
   const [statusFilter, setStatusFilter] = useState('ALL');
 
@@ -24,8 +27,9 @@ const L3Index = () => {
     const fetchApplications = async () => {
       setLoading(true);
       try {
-        const response = await api.get('/api/workflow/l3/applications');
-        setApplications(response.data);
+        const page = await fetchPage('/api/workflow/l3/applications');
+        setApplications(page.items);
+        setNextCursor(page.nextCursor);
       } catch (error) {
         console.error('Error fetching applications:', error);
 
@@ -37,8 +41,9 @@ const L3Index = () => {
           try {
             await api.post('/api/workflow/test/force-l3-status');
             // Then try to fetch again
-            const retryResponse = await api.get('/api/workflow/l3/applications');
-            setApplications(retryResponse.data);
+            const page = await fetchPage('/api/workflow/l3/applications');
+            setApplications(page.items);
+            setNextCursor(page.nextCursor);
             return;
           } catch (retryError) {
             console.error('Retry failed:', retryError);
@@ -111,6 +116,7 @@ const L3Index = () => {
             }
           ];
           setApplications(mockApplications);
+          setNextCursor(null);
         }
       } finally {
         setLoading(false);
@@ -120,6 +126,23 @@ const L3Index = () => {
     fetchApplications();
   }, []);
 
+  const loadMore = async () => {
+    setLoadingMore(true);
+    try {
+      const page = await fetchPage('/api/workflow/l3/applications', nextCursor);
+      setApplications(loaded => loaded.concat(page.items));
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error fetching more applications:', error);
+
+      if (error.response?.status === 401) {
+        window.location.href = '/login';
+      }
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const createTestApplication = async () => {
     try {
       const response = await api.post('/api/admin/test/create-l3-application');
@@ -324,7 +347,7 @@ const L3Index = () => {
                 <MagnifyingGlassIcon className="absolute left-3 top-1/2 transform -translate-y-1/2 h-5 w-5 text-gray-400" />
                 <input
                   type="text"
-                  placeholder="Search by applicant name or application ID..."
+                  placeholder="Search loaded applications by applicant name or application ID..."
                   className="input-field pl-10"
                   value={searchTerm}
                   onChange={(e) => setSearchTerm(e.target.value)}
@@ -344,6 +367,11 @@ const L3Index = () => {
               </select>
             </div>
           </div>
+          {nextCursor && (
+            <p className="text-sm text-gray-500 mt-3">
+              Search and status filters only cover the applications loaded so far. Use Load more to include the rest.
+            </p>
+          )}
         </div>
 
         {/* Applications Table */}
@@ -446,6 +474,14 @@ const L3Index = () => {
             </table>
           </div>
 
+          {nextCursor && (
+            <div className="flex justify-center py-4 border-t border-gray-200">
+              <button onClick={loadMore} disabled={loadingMore} className="btn-secondary">
+                {loadingMore ? 'Loading...' : 'Load more'}
+              </button>
+            </div>
+          )}
+
           {filteredApplications.length === 0 && (
             <div className="text-center py-12">
               <div className="text-gray-500">
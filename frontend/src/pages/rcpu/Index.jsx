@@ -3,11 +3,13 @@ import { Link } from 'react-router-dom';
 import Layout from '../../components/Layout';
 import { motion } from 'framer-motion';
 import { EyeIcon, MagnifyingGlassIcon, FunnelIcon } from '@heroicons/react/24/outline';
-import api from '../../config/axios';
+import { fetchPage } from '../../config/pagination';
 
 const RCPUIndex = () => {
   const [applications, setApplications] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [searchTerm, setSearchTerm] = useState('');
   const [statusFilter, setStatusFilter] = useState('ALL');
 
@@ -16,8 +18,9 @@ const RCPUIndex = () => {
     const fetchApplications = async () => {
       setLoading(true);
       try {
-        const response = await api.get('/api/workflow/rcpu/applications');
-        setApplications(response.data);
+        const page = await fetchPage('/api/workflow/rcpu/applications');
+        setApplications(page.items);
+        setNextCursor(page.nextCursor);
       } catch (error) {
         console.error('Error fetching applications:', error);
 
@@ -25,6 +28,7 @@ const RCPUIndex = () => {
           window.location.href = '/login';
         } else {
           setApplications([]);
+          setNextCursor(null);
         }
       } finally {
         setLoading(false);
@@ -34,6 +38,23 @@ const RCPUIndex = () => {
     fetchApplications();
   }, []);
 
+  const loadMore = async () => {
+    setLoadingMore(true);
+    try {
+      const page = await fetchPage('/api/workflow/rcpu/applications', nextCursor);
+      setApplications(loaded => loaded.concat(page.items));
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error fetching more applications:', error);
+
+      if (error.response?.status === 401) {
+        window.location.href = '/login';
+      }
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const filteredApplications = applications.filter(app => {
     const matchesSearch = app.applicantName.toLowerCase().includes(searchTerm.toLowerCase()) ||
                          app.id.toLowerCase().includes(searchTerm.toLowerCase());
@@ -102,7 +123,7 @@ const RCPUIndex = () => {
                 <MagnifyingGlassIcon className="absolute left-3 top-1/2 transform -translate-y-1/2 h-5 w-5 text-gray-400" />
                 <input
                   type="text"
-                  placeholder="Search by applicant name or application ID..."
+                  placeholder="Search loaded applications by applicant name or application ID..."
                   className="input-field pl-10"
                   value={searchTerm}
                   onChange={(e) => setSearchTerm(e.target.value)}
@@ -121,6 +142,11 @@ const RCPUIndex = () => {
               </select>
             </div>
           </div>
+          {nextCursor && (
+            <p className="text-sm text-gray-500 mt-3">
+              Search and status filters only cover the applications loaded so far. Use Load more to include the rest.
+            </p>
+          )}
         </div>
 
         {/* Applications Table */}
@@ -194,6 +220,14 @@ const RCPUIndex = () => {
             </table>
           </div>
 
+          {nextCursor && (
+            <div className="flex justify-center py-4 border-t border-gray-200">
+              <button onClick={loadMore} disabled={loadingMore} className="btn-secondary">
+                {loadingMore ? 'Loading...' : 'Load more'}
+              </button>
+            </div>
+          )}
+
           {filteredApplications.length === 0 && (
             <div className="text-center py-12">
               <div className="text-gray-500">
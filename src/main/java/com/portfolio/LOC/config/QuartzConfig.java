@@ -0,0 +1,98 @@
+package com.portfolio.LOC.config;
+
+import com.portfolio.LOC.job.BlobSweepJob;
+import com.portfolio.LOC.job.LedgerReconcileJob;
+import com.portfolio.LOC.job.OfferPdfRecoveryJob;
+import com.portfolio.LOC.job.OverdueEmiJob;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QuartzConfig {
+
+    @Value("${smartloan.jobs.overdue-emis.cron:0 15 0 * * ?}")
+    private String overdueEmisCron;
+
+    @Value("${smartloan.jobs.ledger-reconcile.cron:0 45 1 * * ?}")
+    private String ledgerReconcileCron;
+
+    @Value("${smartloan.jobs.offer-pdf-recovery.cron:0 * * * * ?}")
+    private String offerPdfRecoveryCron;
+
+    @Value("${smartloan.jobs.blob-sweep.cron:0 30 2 * * ?}")
+    private String blobSweepCron;
+
+    @Bean
+    public JobDetail overdueEmiJobDetail() {
+        return JobBuilder.newJob(OverdueEmiJob.class)
+            .withIdentity("overdueEmiJob")
+            .storeDurably()
+            .build();
+    }
+
+    @Bean
+    public Trigger overdueEmiTrigger(JobDetail overdueEmiJobDetail) {
+        return TriggerBuilder.newTrigger()
+            .forJob(overdueEmiJobDetail)
+            .withIdentity("overdueEmiTrigger")
+            .withSchedule(CronScheduleBuilder.cronSchedule(overdueEmisCron))
+            .build();
+    }
+
+    @Bean
+    public JobDetail ledgerReconcileJobDetail() {
+        return JobBuilder.newJob(LedgerReconcileJob.class)
+            .withIdentity("ledgerReconcileJob")
+            .storeDurably()
+            .build();
+    }
+
+    @Bean
+    public Trigger ledgerReconcileTrigger(JobDetail ledgerReconcileJobDetail) {
+        return TriggerBuilder.newTrigger()
+            .forJob(ledgerReconcileJobDetail)
+            .withIdentity("ledgerReconcileTrigger")
+            .withSchedule(CronScheduleBuilder.cronSchedule(ledgerReconcileCron))
+            .build();
+    }
+
+    @Bean
+    public JobDetail offerPdfRecoveryJobDetail() {
+        return JobBuilder.newJob(OfferPdfRecoveryJob.class)
+            .withIdentity("offerPdfRecoveryJob")
+            .storeDurably()
+            .build();
+    }
+
+    @Bean
+    public Trigger offerPdfRecoveryTrigger(JobDetail offerPdfRecoveryJobDetail) {
+        return TriggerBuilder.newTrigger()
+            .forJob(offerPdfRecoveryJobDetail)
+            .withIdentity("offerPdfRecoveryTrigger")
+            .withSchedule(CronScheduleBuilder.cronSchedule(offerPdfRecoveryCron))
+            .build();
+    }
+
+    @Bean
+    public JobDetail blobSweepJobDetail() {
+        return JobBuilder.newJob(BlobSweepJob.class)
+            .withIdentity("blobSweepJob")
+            .storeDurably()
+            .build();
+    }
+
+    @Bean
+    public Trigger blobSweepTrigger(JobDetail blobSweepJobDetail) {
+        return TriggerBuilder.newTrigger()
+            .forJob(blobSweepJobDetail)
+            .withIdentity("blobSweepTrigger")
+            .withSchedule(CronScheduleBuilder.cronSchedule(blobSweepCron))
+            .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.portfolio.LOC.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Runs EXPLAIN on the hot workflow queries at startup. The planner is cost based and may still pick a scan
+// on a small or freshly migrated table, so a scan only fails startup when the index that should back the
+// query is missing from the schema, so a dropped index is still caught before traffic is served
+@Component
+public class QueryPlanVerifier implements CommandLineRunner {
+
+    private static final List<CriticalQuery> CRITICAL_QUERIES = List.of(
+        new CriticalQuery("workflow queue page",
+            "SELECT id FROM loan_applications WHERE status = 'PENDING_L1' ORDER BY created_at, id",
+            "loan_applications", "status", "created_at"),
+        new CriticalQuery("duplicate PAN check",
+            "SELECT id FROM loan_applications WHERE pan_number = 'ABCDE1234F'",
+            "loan_applications", "pan_number"),
+        new CriticalQuery("duplicate Aadhaar check",
+            "SELECT id FROM loan_applications WHERE aadhaar_number = '123456789012'",
+            "loan_applications", "aadhaar_number"),
+        new CriticalQuery("overdue EMI scan",
+            "SELECT id FROM emi_schedule WHERE status = 'PENDING' AND due_date <= DATE '2024-01-01'",
+            "emi_schedule", "status", "due_date"),
+        new CriticalQuery("document by type",
+            "SELECT id FROM documents WHERE loan_application_id = 1 AND document_type = 'PAN'",
+            "documents", "loan_application_id", "document_type"),
+        new CriticalQuery("documents in upload order",
+            "SELECT id FROM documents WHERE loan_application_id = 1 ORDER BY created_at",
+            "documents", "loan_application_id", "created_at"),
+        new CriticalQuery("approval history",
+            "SELECT id FROM approval_history WHERE loan_application_id = 1 ORDER BY created_at",
+            "approval_history", "loan_application_id", "created_at"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${smartloan.schema.verify-query-plans:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+
+        String database = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+
+        List<String> missingIndexes = new ArrayList<>();
+        for (CriticalQuery query : CRITICAL_QUERIES) {
+            if (!isFullScan(database, query.sql())) {
+                continue;
+            }
+            if (hasIndex(query)) {
+                System.out.println("QueryPlanVerifier - Planner chose a table scan for " + query.name()
+                    + " but its index is present; leaving the choice to the optimizer");
+            } else {
+                missingIndexes.add(query.name() + " (" + query.table() + " " + String.join(", ", query.columns()) + ")");
+            }
+        }
+
+        if (!missingIndexes.isEmpty()) {
+            throw new RuntimeException("Missing index behind query plan for: " + String.join(", ", missingIndexes)
+                + ". Check that all schema migrations have been applied.");
+        }
+        System.out.println("QueryPlanVerifier - " + CRITICAL_QUERIES.size() + " critical queries are backed by indexes on " + database);
+    }
+
+    private boolean isFullScan(String database, String sql) {
+        if ("MySQL".equalsIgnoreCase(database)) {
+            // MySQL reports access type ALL for a full table scan
+            return jdbcTemplate.queryForList("EXPLAIN " + sql).stream()
+                .anyMatch(row -> "ALL".equals(row.get("type")));
+        }
+        if ("H2".equalsIgnoreCase(database)) {
+            // H2 annotates the chosen access path, e.g. /* PUBLIC.LOAN_APPLICATIONS.tableScan */
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+            return plan != null && plan.contains("tableScan");
+        }
+        System.out.println("QueryPlanVerifier - Plan check not supported on " + database + ", skipping");
+        return false;
+    }
+
+    // True when some index on the query's table starts with the query's columns, in order
+    private boolean hasIndex(CriticalQuery query) {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers()
+                ? query.table().toUpperCase(Locale.ROOT) : query.table();
+
+            Map<String, TreeMap<Short, String>> indexColumns = new TreeMap<>();
+            try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, true)) {
+                while (rows.next()) {
+                    String index = rows.getString("INDEX_NAME");
+                    String column = rows.getString("COLUMN_NAME");
+                    if (index != null && column != null) {
+                        indexColumns.computeIfAbsent(index, name -> new TreeMap<>())
+                            .put(rows.getShort("ORDINAL_POSITION"), column);
+                    }
+                }
+            }
+
+            for (TreeMap<Short, String> columns : indexColumns.values()) {
+                if (startsWith(new ArrayList<>(columns.values()), query.columns())) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    private static boolean startsWith(List<String> indexColumns, List<String> expected) {
+        if (indexColumns.size() < expected.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!indexColumns.get(i).equalsIgnoreCase(expected.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record CriticalQuery(String name, String sql, String table, List<String> columns) {
+
+        CriticalQuery(String name, String sql, String table, String... columns) {
+            this(name, sql, table, List.of(columns));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.portfolio.LOC.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Node-local timers, for work every node has to do itself; jobs that should run once per cluster go through Quartz
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
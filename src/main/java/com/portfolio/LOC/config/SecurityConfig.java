@@ -3,6 +3,7 @@ package com.portfolio.LOC.config;
 import com.portfolio.LOC.security.JwtAuthenticationEntryPoint;
 import com.portfolio.LOC.security.JwtAuthenticationFilter;
 import com.portfolio.LOC.service.CustomUserDetailsService;
+import com.portfolio.LOC.dto.CursorPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -91,6 +92,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList(CursorPage.NEXT_CURSOR_HEADER));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,11 +1,16 @@
 package com.portfolio.LOC.controller;
 
 import com.portfolio.LOC.service.AdminDashboardService;
+import com.portfolio.LOC.service.LoanRescheduleService;
+import com.portfolio.LOC.dto.CursorPage;
 import com.portfolio.LOC.dto.LoanApplicationResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,11 +35,150 @@ public class AdminController {
         }
     }
 
+    @PostMapping("/dashboard/rebuild")
+    public ResponseEntity<?> rebuildDashboardAggregates() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+
+            Map<String, Object> result = adminDashboardService.rebuildDashboardAggregates(userEmail);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping("/jobs/overdue-emis")
+    public ResponseEntity<?> getOverdueEmiJobStatus() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+
+            return ResponseEntity.ok(adminDashboardService.getOverdueEmiJobStatus(userEmail));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Rebuilds loan_delinquency from emi_schedule; safe to rerun at any time
+    @PostMapping("/delinquency/backfill")
+    public ResponseEntity<?> backfillDelinquency() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+
+            return ResponseEntity.ok(adminDashboardService.backfillDelinquency(userEmail));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Checks every loan ledger against its EMI rows and repairs any that differ
+    @PostMapping("/ledgers/reconcile")
+    public ResponseEntity<?> reconcileLedgers() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+
+            return ResponseEntity.ok(adminDashboardService.reconcileLedgers(userEmail));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Expected principal and interest collections per month, from the current month onwards
+    @GetMapping("/cash-flow-projection")
+    public ResponseEntity<?> getCashFlowProjection(@RequestParam(required = false) Integer months) {
+        try {
+            return ResponseEntity.ok(adminDashboardService.getCashFlowProjection(months));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Moves the listed floating-rate loans to a new rate, recomputing only their unpaid future instalments
+    @PostMapping("/rate-resets")
+    public ResponseEntity<?> resetRates(@RequestBody Map<String, Object> request) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+
+            BigDecimal annualInterestRate = new BigDecimal(request.get("annualInterestRate").toString());
+            LoanRescheduleService.Mode mode = LoanRescheduleService.Mode.valueOf(
+                request.getOrDefault("mode", LoanRescheduleService.Mode.REDUCE_EMI).toString());
+            List<Long> applicationIds = ((List<?>) request.get("applicationIds")).stream()
+                .map(id -> Long.valueOf(id.toString()))
+                .toList();
+            return ResponseEntity.ok(adminDashboardService.resetRates(applicationIds, annualInterestRate, mode, userEmail));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Renders waiting offer letters in bulk instead of one at a time on the offer worker pool
+    @PostMapping("/offer-letters/render")
+    public ResponseEntity<?> renderOfferLetters(@RequestParam(required = false) Integer limit) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+
+            return ResponseEntity.ok(adminDashboardService.renderOfferLetters(limit, userEmail));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Recounts blob references from the rows that hold them and deletes blobs nothing references
+    @PostMapping("/blobs/sweep")
+    public ResponseEntity<?> sweepBlobStore() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+
+            return ResponseEntity.ok(adminDashboardService.sweepBlobStore(userEmail));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Moves documents, RCPU reports and offer letters stored before the blob store into it; safe to rerun
+    @PostMapping("/blobs/migrate")
+    public ResponseEntity<?> migrateFilesToBlobStore() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+
+            return ResponseEntity.ok(adminDashboardService.migrateFilesToBlobStore(userEmail));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     @GetMapping("/applications")
-    public ResponseEntity<?> getAllApplications() {
+    public ResponseEntity<?> getAllApplications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = adminDashboardService.getAllApplications();
-            return ResponseEntity.ok(applications);
+            CursorPage<LoanApplicationResponse> applications = adminDashboardService.getAllApplications(cursor, size);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
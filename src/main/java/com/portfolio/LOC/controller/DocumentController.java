@@ -2,9 +2,10 @@ package com.portfolio.LOC.controller;
 
 import com.portfolio.LOC.entity.Document;
 import com.portfolio.LOC.service.DocumentService;
+import com.portfolio.LOC.util.FileResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -12,11 +13,12 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Files;
+import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/documents")
@@ -56,6 +58,45 @@ public class DocumentController {
         }
     }
     
+    // The file is the request body itself, sent with its own Content-Type, and is streamed to disk as it
+    // arrives. Form-encoded bodies would be read as parameters first, so they are not accepted here.
+    @PostMapping(value = "/upload/{applicationId}/stream", consumes = "!" + MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<?> streamDocument(
+            @PathVariable Long applicationId,
+            @RequestParam("documentType") String documentType,
+            @RequestParam("fileName") String fileName,
+            @RequestParam(value = "description", required = false) String description,
+            HttpServletRequest request) {
+        
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+            
+            if (request.getContentType() != null && request.getContentType().startsWith("multipart/")) {
+                throw new RuntimeException("Multipart uploads go to /api/documents/upload/" + applicationId);
+            }
+            Document.DocumentType docType = Document.DocumentType.valueOf(documentType.toUpperCase());
+            
+            Document document = documentService.uploadDocument(applicationId, docType, request.getInputStream(),
+                request.getContentLengthLong(), fileName, request.getContentType(), description, userEmail);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Document uploaded successfully");
+            response.put("documentId", document.getId());
+            response.put("fileName", document.getOriginalFileName());
+            response.put("documentType", document.getDocumentType().getDisplayName());
+            response.put("fileSize", document.getFileSize());
+            response.put("sha256", document.getSha256());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     @GetMapping("/application/{applicationId}")
     public ResponseEntity<?> getDocumentsByApplication(@PathVariable Long applicationId) {
         try {
@@ -75,26 +116,13 @@ public class DocumentController {
     }
     
     @GetMapping("/download/{documentId}")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable Long documentId) {
+    public ResponseEntity<?> downloadDocument(@PathVariable Long documentId, HttpServletRequest request,
+            HttpServletResponse response) {
         try {
             Document document = documentService.getDocument(documentId)
                 .orElseThrow(() -> new RuntimeException("Document not found"));
             
-            Resource file = documentService.downloadDocument(documentId);
-            
-            String contentType = document.getContentType();
-            if (contentType == null) {
-                contentType = Files.probeContentType(Paths.get(document.getFilePath()));
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-            }
-            
-            return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, 
-                    "attachment; filename=\"" + document.getOriginalFileName() + "\"")
-                .body(file);
+            return serveDocument(document, "attachment; filename=\"" + document.getOriginalFileName() + "\"", request, response);
                 
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
@@ -102,25 +130,13 @@ public class DocumentController {
     }
     
     @GetMapping("/view/{documentId}")
-    public ResponseEntity<Resource> viewDocument(@PathVariable Long documentId) {
+    public ResponseEntity<?> viewDocument(@PathVariable Long documentId, HttpServletRequest request,
+            HttpServletResponse response) {
         try {
             Document document = documentService.getDocument(documentId)
                 .orElseThrow(() -> new RuntimeException("Document not found"));
             
-            Resource file = documentService.downloadDocument(documentId);
-            
-            String contentType = document.getContentType();
-            if (contentType == null) {
-                contentType = Files.probeContentType(Paths.get(document.getFilePath()));
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-            }
-            
-            return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline")
-                .body(file);
+            return serveDocument(document, "inline", request, response);
                 
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
@@ -178,6 +194,14 @@ public class DocumentController {
         }
     }
 
+    private ResponseEntity<?> serveDocument(Document document, String contentDisposition, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        String contentType = document.getContentType() != null ? document.getContentType() : "application/octet-stream";
+        return FileResponses.serve(request, response, Paths.get(document.getFilePath()), document.getSha256(),
+            Objects.requireNonNullElse(document.getUpdatedAt(), document.getCreatedAt()), MediaType.parseMediaType(contentType),
+            contentDisposition);
+    }
+
     private Map<String, Object> convertDocumentToMap(Document document) {
         Map<String, Object> docMap = new HashMap<>();
         docMap.put("id", document.getId());
@@ -186,6 +210,7 @@ public class DocumentController {
         docMap.put("originalFileName", document.getOriginalFileName());
         docMap.put("contentType", document.getContentType());
         docMap.put("fileSize", document.getFileSize());
+        docMap.put("sha256", document.getSha256());
         docMap.put("description", document.getDescription());
         docMap.put("uploadedBy", document.getUploadedBy().getName());
         docMap.put("createdAt", document.getCreatedAt());
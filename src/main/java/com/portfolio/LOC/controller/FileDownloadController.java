@@ -3,17 +3,23 @@ package com.portfolio.LOC.controller;
 import com.portfolio.LOC.service.FileDownloadService;
 import com.portfolio.LOC.service.DocumentService;
 import com.portfolio.LOC.entity.Document;
+import com.portfolio.LOC.entity.LoanOfferLetter;
+import com.portfolio.LOC.entity.RcpuReport;
+import com.portfolio.LOC.util.FileResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.nio.file.Files;
+import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/files")
@@ -27,31 +33,38 @@ public class FileDownloadController {
     private DocumentService documentService;
     
     @GetMapping("/download/rcpu-report/{applicationId}")
-    public ResponseEntity<Resource> downloadRcpuReport(@PathVariable Long applicationId) {
+    public ResponseEntity<?> downloadRcpuReport(@PathVariable Long applicationId, HttpServletRequest request,
+            HttpServletResponse response) {
         try {
-            Resource file = fileDownloadService.downloadRcpuReport(applicationId);
-            String fileName = fileDownloadService.getRcpuReportFileName(applicationId);
+            RcpuReport report = fileDownloadService.getRcpuReport(applicationId)
+                .orElseThrow(() -> new RuntimeException("RCPU report not found for application ID: " + applicationId));
             
-            return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .body(file);
+            return FileResponses.serve(request, response, Paths.get(report.getReportFilePath()), report.getSha256(),
+                Objects.requireNonNullElse(report.getUpdatedAt(), report.getCreatedAt()), MediaType.APPLICATION_PDF,
+                "attachment; filename=\"" + report.getReportFileName() + "\"");
                 
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
     
+    // 202 with Retry-After while the letter is still being rendered, 409 once rendering has failed
     @GetMapping("/download/loan-offer/{applicationId}")
-    public ResponseEntity<Resource> downloadLoanOffer(@PathVariable Long applicationId) {
+    public ResponseEntity<?> downloadLoanOffer(@PathVariable Long applicationId, HttpServletRequest request,
+            HttpServletResponse response) {
         try {
-            Resource file = fileDownloadService.downloadLoanOffer(applicationId);
-            String fileName = fileDownloadService.getLoanOfferFileName(applicationId);
+            LoanOfferLetter offer = fileDownloadService.getLoanOffer(applicationId)
+                .orElseThrow(() -> new RuntimeException("Loan offer not found for application ID: " + applicationId));
+            if (offer.getPdfStatus() == LoanOfferLetter.PdfStatus.FAILED) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            if (offer.getPdfStatus() == LoanOfferLetter.PdfStatus.PENDING || offer.getPdfStatus() == LoanOfferLetter.PdfStatus.RENDERING) {
+                return ResponseEntity.accepted().header(HttpHeaders.RETRY_AFTER, "2").build();
+            }
             
-            return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .body(file);
+            return FileResponses.serve(request, response, Paths.get(offer.getFilePath()), offer.getSha256(),
+                Objects.requireNonNullElse(offer.getUpdatedAt(), offer.getCreatedAt()), MediaType.APPLICATION_PDF,
+                "attachment; filename=\"" + offer.getFileName() + "\"");
                 
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
@@ -71,6 +84,7 @@ public class FileDownloadController {
             
             if (fileDownloadService.hasLoanOffer(applicationId)) {
                 response.put("loanOfferFileName", fileDownloadService.getLoanOfferFileName(applicationId));
+                response.put("loanOfferPdfStatus", fileDownloadService.getLoanOfferPdfStatus(applicationId).orElse(null));
             }
             
             return ResponseEntity.ok(response);
@@ -83,26 +97,13 @@ public class FileDownloadController {
     }
 
     @GetMapping("/download/document/{documentId}")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable Long documentId) {
+    public ResponseEntity<?> downloadDocument(@PathVariable Long documentId, HttpServletRequest request,
+            HttpServletResponse response) {
         try {
             Document document = documentService.getDocument(documentId)
                 .orElseThrow(() -> new RuntimeException("Document not found"));
 
-            Resource file = documentService.downloadDocument(documentId);
-
-            String contentType = document.getContentType();
-            if (contentType == null) {
-                contentType = Files.probeContentType(Paths.get(document.getFilePath()));
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-            }
-
-            return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                    "attachment; filename=\"" + document.getOriginalFileName() + "\"")
-                .body(file);
+            return serveDocument(document, "attachment; filename=\"" + document.getOriginalFileName() + "\"", request, response);
 
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
@@ -110,28 +111,24 @@ public class FileDownloadController {
     }
 
     @GetMapping("/view/document/{documentId}")
-    public ResponseEntity<Resource> viewDocument(@PathVariable Long documentId) {
+    public ResponseEntity<?> viewDocument(@PathVariable Long documentId, HttpServletRequest request,
+            HttpServletResponse response) {
         try {
             Document document = documentService.getDocument(documentId)
                 .orElseThrow(() -> new RuntimeException("Document not found"));
 
-            Resource file = documentService.downloadDocument(documentId);
-
-            String contentType = document.getContentType();
-            if (contentType == null) {
-                contentType = Files.probeContentType(Paths.get(document.getFilePath()));
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-            }
-
-            return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline")
-                .body(file);
+            return serveDocument(document, "inline", request, response);
 
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
+
+    private ResponseEntity<?> serveDocument(Document document, String contentDisposition, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        String contentType = document.getContentType() != null ? document.getContentType() : "application/octet-stream";
+        return FileResponses.serve(request, response, Paths.get(document.getFilePath()), document.getSha256(),
+            Objects.requireNonNullElse(document.getUpdatedAt(), document.getCreatedAt()), MediaType.parseMediaType(contentType),
+            contentDisposition);
+    }
 }
@@ -1,11 +1,17 @@
 package com.portfolio.LOC.controller;
 
+import com.portfolio.LOC.dto.BulkIngestionReport;
 import com.portfolio.LOC.dto.LoanApplicationRequest;
+import com.portfolio.LOC.dto.CursorPage;
 import com.portfolio.LOC.dto.LoanApplicationResponse;
 import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.service.BulkIngestionService;
 import com.portfolio.LOC.service.LoanApplicationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,6 +28,9 @@ public class LoanApplicationController {
     
     @Autowired
     private LoanApplicationService loanApplicationService;
+
+    @Autowired
+    private BulkIngestionService bulkIngestionService;
     
     @PostMapping("/submit")
     public ResponseEntity<?> submitLoanApplication(@Valid @RequestBody LoanApplicationRequest request) {
@@ -47,11 +56,32 @@ public class LoanApplicationController {
         }
     }
     
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, BulkIngestionService.CSV_MEDIA_TYPE})
+    public ResponseEntity<?> bulkSubmitLoanApplications(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                        HttpServletRequest request) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String submittedByEmail = authentication.getName();
+
+            // One result per data row; rejected rows do not fail the upload
+            BulkIngestionReport report = bulkIngestionService.ingest(
+                request.getInputStream(), BulkIngestionService.Format.fromContentType(contentType), submittedByEmail);
+
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     @GetMapping
-    public ResponseEntity<?> getAllApplications() {
+    public ResponseEntity<?> getAllApplications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = loanApplicationService.getAllApplications();
-            return ResponseEntity.ok(applications);
+            CursorPage<LoanApplicationResponse> applications = loanApplicationService.getAllApplications(cursor, size);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -60,11 +90,14 @@ public class LoanApplicationController {
     }
     
     @GetMapping("/status/{status}")
-    public ResponseEntity<?> getApplicationsByStatus(@PathVariable String status) {
+    public ResponseEntity<?> getApplicationsByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
             LoanApplication.ApplicationStatus applicationStatus = LoanApplication.ApplicationStatus.valueOf(status.toUpperCase());
-            List<LoanApplicationResponse> applications = loanApplicationService.getApplicationsByStatus(applicationStatus);
-            return ResponseEntity.ok(applications);
+            CursorPage<LoanApplicationResponse> applications = loanApplicationService.getApplicationsByStatus(applicationStatus, cursor, size);
+            return applications.toResponseEntity();
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Invalid status: " + status);
@@ -102,12 +135,14 @@ public class LoanApplicationController {
     
     // Endpoints for different user roles
     @GetMapping("/pending-rcpu")
-    public ResponseEntity<?> getPendingRcpuApplications() {
+    public ResponseEntity<?> getPendingRcpuApplications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = loanApplicationService.getApplicationsByStatus(
-                LoanApplication.ApplicationStatus.PENDING_RCPU
+            CursorPage<LoanApplicationResponse> applications = loanApplicationService.getApplicationsByStatus(
+                LoanApplication.ApplicationStatus.PENDING_RCPU, cursor, size
             );
-            return ResponseEntity.ok(applications);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -116,12 +151,14 @@ public class LoanApplicationController {
     }
     
     @GetMapping("/pending-l1")
-    public ResponseEntity<?> getPendingL1Applications() {
+    public ResponseEntity<?> getPendingL1Applications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = loanApplicationService.getApplicationsByStatus(
-                LoanApplication.ApplicationStatus.PENDING_L1
+            CursorPage<LoanApplicationResponse> applications = loanApplicationService.getApplicationsByStatus(
+                LoanApplication.ApplicationStatus.PENDING_L1, cursor, size
             );
-            return ResponseEntity.ok(applications);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -130,12 +167,14 @@ public class LoanApplicationController {
     }
     
     @GetMapping("/pending-l2")
-    public ResponseEntity<?> getPendingL2Applications() {
+    public ResponseEntity<?> getPendingL2Applications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = loanApplicationService.getApplicationsByStatus(
-                LoanApplication.ApplicationStatus.PENDING_L2
+            CursorPage<LoanApplicationResponse> applications = loanApplicationService.getApplicationsByStatus(
+                LoanApplication.ApplicationStatus.PENDING_L2, cursor, size
             );
-            return ResponseEntity.ok(applications);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -144,12 +183,14 @@ public class LoanApplicationController {
     }
     
     @GetMapping("/pending-l3")
-    public ResponseEntity<?> getPendingL3Applications() {
+    public ResponseEntity<?> getPendingL3Applications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = loanApplicationService.getApplicationsByStatus(
-                LoanApplication.ApplicationStatus.PENDING_L3
+            CursorPage<LoanApplicationResponse> applications = loanApplicationService.getApplicationsByStatus(
+                LoanApplication.ApplicationStatus.PENDING_L3, cursor, size
             );
-            return ResponseEntity.ok(applications);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -1,13 +1,22 @@
 package com.portfolio.LOC.controller;
 
+import com.portfolio.LOC.dto.OfferSanctionRun;
+import com.portfolio.LOC.dto.ScheduleRevision;
+import com.portfolio.LOC.dto.SettlementPostingReport;
 import com.portfolio.LOC.entity.LoanOfferLetter;
 import com.portfolio.LOC.entity.EmiSchedule;
 import com.portfolio.LOC.service.LoanOfferService;
+import com.portfolio.LOC.service.BulkIngestionService;
 import com.portfolio.LOC.service.EmiScheduleService;
+import com.portfolio.LOC.service.LoanRescheduleService;
+import com.portfolio.LOC.service.OfferLetterPdfService;
+import com.portfolio.LOC.service.SettlementPostingService;
+import com.portfolio.LOC.util.FileResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -15,11 +24,13 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/loan-offers")
@@ -32,6 +43,15 @@ public class LoanOfferController {
     @Autowired
     private EmiScheduleService emiScheduleService;
     
+    @Autowired
+    private SettlementPostingService settlementPostingService;
+    
+    @Autowired
+    private LoanRescheduleService loanRescheduleService;
+    
+    @Autowired
+    private OfferLetterPdfService offerLetterPdfService;
+    
     @PostMapping("/generate/{applicationId}")
     public ResponseEntity<?> generateLoanOffer(
             @PathVariable Long applicationId,
@@ -50,9 +70,10 @@ public class LoanOfferController {
             );
             
             Map<String, Object> response = new HashMap<>();
-            response.put("message", "Loan offer generated successfully");
+            response.put("message", "Loan offer generated successfully; the offer letter PDF is being prepared");
             response.put("offerLetterNumber", offerLetter.getOfferLetterNumber());
             response.put("fileName", offerLetter.getFileName());
+            response.put("pdfStatus", offerLetter.getPdfStatus());
             response.put("approvedAmount", offerLetter.getApprovedLoanAmount());
             response.put("emiAmount", offerLetter.getEmiAmount());
             
@@ -65,6 +86,33 @@ public class LoanOfferController {
         }
     }
     
+    // End-of-day sanction run: {"items": [{"applicationId", "approvedAmount", "interestRate", "tenure"}, ...]}.
+    // Applications that cannot be sanctioned come back in the report, not as an error.
+    @PostMapping("/generate")
+    public ResponseEntity<?> generateLoanOffers(@RequestBody Map<String, Object> request) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+            
+            List<LoanOfferService.OfferRequest> offers = new ArrayList<>();
+            for (Object entry : (List<?>) request.get("items")) {
+                Map<?, ?> item = (Map<?, ?>) entry;
+                offers.add(new LoanOfferService.OfferRequest(
+                    Long.valueOf(item.get("applicationId").toString()),
+                    new BigDecimal(item.get("approvedAmount").toString()),
+                    new BigDecimal(item.get("interestRate").toString()),
+                    Integer.valueOf(item.get("tenure").toString())));
+            }
+            
+            OfferSanctionRun run = loanOfferService.generateLoanOffers(offers, userEmail);
+            return ResponseEntity.ok(run);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     @GetMapping("/{applicationId}")
     public ResponseEntity<?> getLoanOffer(@PathVariable Long applicationId) {
         try {
@@ -87,6 +135,8 @@ public class LoanOfferController {
             response.put("processingFee", offerLetter.getProcessingFee());
             response.put("generatedBy", offerLetter.getGeneratedBy().getName());
             response.put("createdAt", offerLetter.getCreatedAt());
+            response.put("pdfStatus", offerLetter.getPdfStatus());
+            response.put("pdfError", offerLetter.getPdfError());
             
             return ResponseEntity.ok(response);
             
@@ -97,8 +147,10 @@ public class LoanOfferController {
         }
     }
     
+    // 202 with Retry-After while the PDF is still being rendered; poll this or GET /{applicationId} for pdfStatus
     @GetMapping("/download/{applicationId}")
-    public ResponseEntity<Resource> downloadLoanOffer(@PathVariable Long applicationId) {
+    public ResponseEntity<?> downloadLoanOffer(@PathVariable Long applicationId, HttpServletRequest request,
+            HttpServletResponse response) {
         try {
             LoanOfferLetter offerLetter = loanOfferService.getLoanOffer(applicationId);
             
@@ -106,28 +158,39 @@ public class LoanOfferController {
                 return ResponseEntity.notFound().build();
             }
             
-            Resource file = new FileSystemResource(offerLetter.getFilePath());
-            
-            if (!file.exists()) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            String contentType = Files.probeContentType(Paths.get(offerLetter.getFilePath()));
-            if (contentType == null) {
-                contentType = "application/pdf";
+            if (offerLetter.getPdfStatus() != LoanOfferLetter.PdfStatus.READY) {
+                return pdfNotReady(offerLetter);
             }
             
-            return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, 
-                    "attachment; filename=\"" + offerLetter.getFileName() + "\"")
-                .body(file);
+            return FileResponses.serve(request, response, Paths.get(offerLetter.getFilePath()), offerLetter.getSha256(),
+                Objects.requireNonNullElse(offerLetter.getUpdatedAt(), offerLetter.getCreatedAt()), MediaType.APPLICATION_PDF,
+                "attachment; filename=\"" + offerLetter.getFileName() + "\"");
                 
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    // Renders a letter again after it failed every attempt
+    @PostMapping("/{applicationId}/pdf/retry")
+    public ResponseEntity<?> retryLoanOfferPdf(@PathVariable Long applicationId) {
+        try {
+            LoanOfferLetter offerLetter = offerLetterPdfService.retry(applicationId);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Offer letter PDF queued for rendering");
+            response.put("pdfStatus", offerLetter.getPdfStatus());
+            return ResponseEntity.accepted().body(response);
+            
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     @GetMapping("/{applicationId}/emi-schedule")
     public ResponseEntity<?> getEmiSchedule(@PathVariable Long applicationId) {
         try {
@@ -175,6 +238,62 @@ public class LoanOfferController {
         }
     }
     
+    // Part-prepayment against the outstanding principal; mode is REDUCE_EMI (default) or REDUCE_TENURE
+    @PostMapping("/{applicationId}/prepayments")
+    public ResponseEntity<?> prepay(
+            @PathVariable Long applicationId,
+            @RequestBody Map<String, Object> request) {
+        
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+            
+            BigDecimal amount = new BigDecimal(request.get("amount").toString());
+            ScheduleRevision revision = loanRescheduleService.prepay(applicationId, amount, mode(request), userEmail);
+            return ResponseEntity.ok(revision);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    // New annual rate for the loan's unpaid future instalments
+    @PostMapping("/{applicationId}/rate-resets")
+    public ResponseEntity<?> resetRate(
+            @PathVariable Long applicationId,
+            @RequestBody Map<String, Object> request) {
+        
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+            
+            BigDecimal annualInterestRate = new BigDecimal(request.get("annualInterestRate").toString());
+            ScheduleRevision revision = loanRescheduleService.resetRate(applicationId, annualInterestRate, mode(request), userEmail);
+            return ResponseEntity.ok(revision);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    // Bank settlement file as CSV; lines that cannot be posted come back as exceptions, not errors
+    @PostMapping(value = "/emi/settlements", consumes = BulkIngestionService.CSV_MEDIA_TYPE)
+    public ResponseEntity<?> postSettlements(HttpServletRequest request) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+            
+            SettlementPostingReport report = settlementPostingService.post(request.getInputStream(), userEmail);
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     @GetMapping("/overdue-emis")
     public ResponseEntity<?> getOverdueEmis() {
         try {
@@ -186,4 +305,19 @@ public class LoanOfferController {
             return ResponseEntity.badRequest().body(error);
         }
     }
+    
+    private static ResponseEntity<?> pdfNotReady(LoanOfferLetter offerLetter) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("pdfStatus", offerLetter.getPdfStatus());
+        if (offerLetter.getPdfStatus() == LoanOfferLetter.PdfStatus.FAILED) {
+            response.put("message", offerLetter.getPdfError());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        response.put("message", "Offer letter PDF is being prepared");
+        return ResponseEntity.accepted().header(HttpHeaders.RETRY_AFTER, "2").body(response);
+    }
+    
+    private static LoanRescheduleService.Mode mode(Map<String, Object> request) {
+        return LoanRescheduleService.Mode.valueOf(request.getOrDefault("mode", LoanRescheduleService.Mode.REDUCE_EMI).toString());
+    }
 }
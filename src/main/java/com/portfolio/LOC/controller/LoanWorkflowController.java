@@ -1,8 +1,10 @@
 package com.portfolio.LOC.controller;
 
+import com.portfolio.LOC.dto.CursorPage;
 import com.portfolio.LOC.dto.LoanApplicationResponse;
 import com.portfolio.LOC.service.LoanWorkflowService;
 import com.portfolio.LOC.service.ApprovalService;
+import com.portfolio.LOC.service.ApplicationListingService;
 import com.portfolio.LOC.entity.ApprovalHistory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -10,6 +12,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,10 +30,12 @@ public class LoanWorkflowController {
     
     // RCPU Endpoints
     @GetMapping("/rcpu/applications")
-    public ResponseEntity<?> getRcpuApplications() {
+    public ResponseEntity<?> getRcpuApplications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = loanWorkflowService.getApplicationsForRcpu();
-            return ResponseEntity.ok(applications);
+            CursorPage<LoanApplicationResponse> applications = loanWorkflowService.getApplicationsForRcpu(cursor, size);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -63,10 +68,12 @@ public class LoanWorkflowController {
     
     // L1 Manager Endpoints
     @GetMapping("/l1/applications")
-    public ResponseEntity<?> getL1Applications() {
+    public ResponseEntity<?> getL1Applications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = approvalService.getApplicationsForL1();
-            return ResponseEntity.ok(applications);
+            CursorPage<LoanApplicationResponse> applications = approvalService.getApplicationsForL1(cursor, size);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -100,10 +107,12 @@ public class LoanWorkflowController {
     
     // L2 Manager Endpoints
     @GetMapping("/l2/applications")
-    public ResponseEntity<?> getL2Applications() {
+    public ResponseEntity<?> getL2Applications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = approvalService.getApplicationsForL2();
-            return ResponseEntity.ok(applications);
+            CursorPage<LoanApplicationResponse> applications = approvalService.getApplicationsForL2(cursor, size);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -137,10 +146,12 @@ public class LoanWorkflowController {
     
     // L3 Manager (Admin) Endpoints
     @GetMapping("/l3/applications")
-    public ResponseEntity<?> getL3Applications() {
+    public ResponseEntity<?> getL3Applications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = approvalService.getApplicationsForL3();
-            return ResponseEntity.ok(applications);
+            CursorPage<LoanApplicationResponse> applications = approvalService.getApplicationsForL3(cursor, size);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -150,10 +161,12 @@ public class LoanWorkflowController {
 
     // Admin endpoint to get all applications (for admin dashboard)
     @GetMapping("/admin/all-applications")
-    public ResponseEntity<?> getAllApplicationsForAdmin() {
+    public ResponseEntity<?> getAllApplicationsForAdmin(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = loanWorkflowService.getAllApplications();
-            return ResponseEntity.ok(applications);
+            CursorPage<LoanApplicationResponse> applications = loanWorkflowService.getAllApplications(cursor, size);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -215,18 +228,22 @@ public class LoanWorkflowController {
     @PostMapping("/test/auto-approve-rcpu")
     public ResponseEntity<?> autoApproveRcpu() {
         try {
-            List<LoanApplicationResponse> applications = loanWorkflowService.getApplicationsForRcpu();
             int processedCount = 0;
+            String cursor = null;
 
-            for (LoanApplicationResponse app : applications) {
-                try {
-                    // Auto-approve with RCPU user
-                    loanWorkflowService.processRcpuDecision(app.getId(), "approve", "rcpu@smartloan.com");
-                    processedCount++;
-                } catch (Exception e) {
-                    System.err.println("Failed to process application " + app.getId() + ": " + e.getMessage());
+            do {
+                CursorPage<LoanApplicationResponse> applications = loanWorkflowService.getApplicationsForRcpu(cursor, null);
+                for (LoanApplicationResponse app : applications.getItems()) {
+                    try {
+                        // Auto-approve with RCPU user
+                        loanWorkflowService.processRcpuDecision(app.getId(), "approve", "rcpu@smartloan.com");
+                        processedCount++;
+                    } catch (Exception e) {
+                        System.err.println("Failed to process application " + app.getId() + ": " + e.getMessage());
+                    }
                 }
-            }
+                cursor = applications.getNextCursor();
+            } while (cursor != null);
 
             Map<String, Object> result = new HashMap<>();
             result.put("message", "Auto-approved " + processedCount + " applications through RCPU");
@@ -244,7 +261,7 @@ public class LoanWorkflowController {
     @GetMapping("/test/application-status")
     public ResponseEntity<?> checkApplicationStatus() {
         try {
-            List<LoanApplicationResponse> allApplications = loanWorkflowService.getAllApplications();
+            List<LoanApplicationResponse> allApplications = loadAllApplications();
 
             Map<String, Object> result = new HashMap<>();
             result.put("totalApplications", allApplications.size());
@@ -270,7 +287,7 @@ public class LoanWorkflowController {
     @PostMapping("/test/force-l3-status")
     public ResponseEntity<?> forceL3Status() {
         try {
-            List<LoanApplicationResponse> allApplications = loanWorkflowService.getAllApplications();
+            List<LoanApplicationResponse> allApplications = loadAllApplications();
             int updatedCount = 0;
 
             for (LoanApplicationResponse app : allApplications) {
@@ -296,4 +313,16 @@ public class LoanWorkflowController {
             return ResponseEntity.badRequest().body(error);
         }
     }
+
+    // The test endpoints below work on the whole portfolio, so walk every page
+    private List<LoanApplicationResponse> loadAllApplications() {
+        List<LoanApplicationResponse> allApplications = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<LoanApplicationResponse> page = loanWorkflowService.getAllApplications(cursor, ApplicationListingService.MAX_PAGE_SIZE);
+            allApplications.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return allApplications;
+    }
 }
@@ -2,6 +2,7 @@ package com.portfolio.LOC.controller;
 
 import com.portfolio.LOC.entity.RcpuReport;
 import com.portfolio.LOC.service.RcpuService;
+import com.portfolio.LOC.dto.CursorPage;
 import com.portfolio.LOC.dto.LoanApplicationResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -23,10 +24,12 @@ public class RcpuController {
     private RcpuService rcpuService;
     
     @GetMapping("/applications")
-    public ResponseEntity<?> getRcpuApplications() {
+    public ResponseEntity<?> getRcpuApplications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LoanApplicationResponse> applications = rcpuService.getApplicationsForRcpu();
-            return ResponseEntity.ok(applications);
+            CursorPage<LoanApplicationResponse> applications = rcpuService.getApplicationsForRcpu(cursor, size);
+            return applications.toResponseEntity();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
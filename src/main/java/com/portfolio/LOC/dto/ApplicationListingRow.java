@@ -0,0 +1,134 @@
+package com.portfolio.LOC.dto;
+
+import com.portfolio.LOC.entity.LoanApplication;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Read-only row for the listing endpoints, selected with a JPQL constructor expression so that
+// listings never materialize managed LoanApplication entities or their association proxies
+public class ApplicationListingRow {
+
+    private final Long id;
+    private final String applicationId;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String phoneNumber;
+    private final BigDecimal monthlyIncome;
+    private final BigDecimal loanAmount;
+    private final LoanApplication.LoanPurpose loanPurpose;
+    private final Integer loanTenure;
+    private final LoanApplication.ApplicationStatus status;
+    private final Integer eligibilityScore;
+    private final BigDecimal estimatedEmi;
+    private final String submittedByName;
+    private final String submittedByEmail;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final boolean hasRcpuReport;
+    private final boolean hasLoanOffer;
+
+    public ApplicationListingRow(Long id, String applicationId, String firstName, String lastName, String email,
+                                 String phoneNumber, BigDecimal monthlyIncome, BigDecimal loanAmount,
+                                 LoanApplication.LoanPurpose loanPurpose, Integer loanTenure,
+                                 LoanApplication.ApplicationStatus status, Integer eligibilityScore,
+                                 BigDecimal estimatedEmi, String submittedByName, String submittedByEmail,
+                                 LocalDateTime createdAt, LocalDateTime updatedAt, Long rcpuReportId, Long loanOfferId) {
+        this.id = id;
+        this.applicationId = applicationId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.monthlyIncome = monthlyIncome;
+        this.loanAmount = loanAmount;
+        this.loanPurpose = loanPurpose;
+        this.loanTenure = loanTenure;
+        this.status = status;
+        this.eligibilityScore = eligibilityScore;
+        this.estimatedEmi = estimatedEmi;
+        this.submittedByName = submittedByName;
+        this.submittedByEmail = submittedByEmail;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.hasRcpuReport = rcpuReportId != null;
+        this.hasLoanOffer = loanOfferId != null;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public BigDecimal getMonthlyIncome() {
+        return monthlyIncome;
+    }
+
+    public BigDecimal getLoanAmount() {
+        return loanAmount;
+    }
+
+    public LoanApplication.LoanPurpose getLoanPurpose() {
+        return loanPurpose;
+    }
+
+    public Integer getLoanTenure() {
+        return loanTenure;
+    }
+
+    public LoanApplication.ApplicationStatus getStatus() {
+        return status;
+    }
+
+    public Integer getEligibilityScore() {
+        return eligibilityScore;
+    }
+
+    public BigDecimal getEstimatedEmi() {
+        return estimatedEmi;
+    }
+
+    public String getSubmittedByName() {
+        return submittedByName;
+    }
+
+    public String getSubmittedByEmail() {
+        return submittedByEmail;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public boolean hasRcpuReport() {
+        return hasRcpuReport;
+    }
+
+    public boolean hasLoanOffer() {
+        return hasLoanOffer;
+    }
+}
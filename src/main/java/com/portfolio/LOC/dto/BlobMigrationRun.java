@@ -0,0 +1,56 @@
+package com.portfolio.LOC.dto;
+
+// Outcome of moving pre-blob-store files into the blob store. Deduplicated rows are migrated rows whose
+// content the store already held, so their bytes were freed rather than moved.
+public class BlobMigrationRun {
+
+    private long migrated;
+    private long deduplicated;
+    private long missing;
+    private long bytesMoved;
+    private long bytesFreed;
+    private long durationMillis;
+
+    public void addMigrated(long bytes, boolean duplicate) {
+        migrated++;
+        if (duplicate) {
+            deduplicated++;
+            bytesFreed += bytes;
+        } else {
+            bytesMoved += bytes;
+        }
+    }
+
+    public void addMissing() {
+        missing++;
+    }
+
+    public long getMigrated() {
+        return migrated;
+    }
+
+    public long getDeduplicated() {
+        return deduplicated;
+    }
+
+    // Rows whose file no longer exists; they are left as they are
+    public long getMissing() {
+        return missing;
+    }
+
+    public long getBytesMoved() {
+        return bytesMoved;
+    }
+
+    public long getBytesFreed() {
+        return bytesFreed;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+}
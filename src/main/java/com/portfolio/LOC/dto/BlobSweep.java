@@ -0,0 +1,48 @@
+package com.portfolio.LOC.dto;
+
+// Outcome of one blob store sweep
+public class BlobSweep {
+
+    private final long recounted;
+    private final long registered;
+    private final long collected;
+    private final long bytesFreed;
+    private final long stagedFilesRemoved;
+    private final long durationMillis;
+
+    public BlobSweep(long recounted, long registered, long collected, long bytesFreed, long stagedFilesRemoved,
+                     long durationMillis) {
+        this.recounted = recounted;
+        this.registered = registered;
+        this.collected = collected;
+        this.bytesFreed = bytesFreed;
+        this.stagedFilesRemoved = stagedFilesRemoved;
+        this.durationMillis = durationMillis;
+    }
+
+    // Blobs whose reference count was corrected from the referencing rows
+    public long getRecounted() {
+        return recounted;
+    }
+
+    // Files found in the store without a blob row
+    public long getRegistered() {
+        return registered;
+    }
+
+    public long getCollected() {
+        return collected;
+    }
+
+    public long getBytesFreed() {
+        return bytesFreed;
+    }
+
+    public long getStagedFilesRemoved() {
+        return stagedFilesRemoved;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
@@ -0,0 +1,90 @@
+package com.portfolio.LOC.dto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Per-row outcome of a bulk ingestion request; row numbers are 1-based data rows (CSV header excluded)
+public class BulkIngestionReport {
+
+    private int totalRows;
+    private int created;
+    private int rejected;
+    private long elapsedMillis;
+    private final List<RowResult> rows = new ArrayList<>();
+
+    public void addCreated(int row, String applicationId) {
+        rows.add(new RowResult(row, RowStatus.CREATED, applicationId, null));
+        created++;
+        totalRows++;
+    }
+
+    public void addRejected(int row, String message) {
+        rows.add(new RowResult(row, RowStatus.REJECTED, null, message));
+        rejected++;
+        totalRows++;
+    }
+
+    // Rows finish chunk by chunk, and a chunk's rejections are recorded before its inserts
+    public void sortRows() {
+        rows.sort(Comparator.comparingInt(RowResult::getRow));
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<RowResult> getRows() {
+        return rows;
+    }
+
+    public enum RowStatus {
+        CREATED, REJECTED
+    }
+
+    public static class RowResult {
+        private final int row;
+        private final RowStatus status;
+        private final String applicationId;
+        private final String message;
+
+        public RowResult(int row, RowStatus status, String applicationId, String message) {
+            this.row = row;
+            this.status = status;
+            this.applicationId = applicationId;
+            this.message = message;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public RowStatus getStatus() {
+            return status;
+        }
+
+        public String getApplicationId() {
+            return applicationId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
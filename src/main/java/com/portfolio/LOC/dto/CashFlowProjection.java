@@ -0,0 +1,80 @@
+package com.portfolio.LOC.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Expected principal and interest collections per calendar month, starting with the current month.
+// Each instalment contributes what is still unpaid on it; instalments due before the first month are not included.
+public class CashFlowProjection {
+
+    private final LocalDateTime generatedAt;
+    private final long durationMillis;
+    private final long loans;
+    private final BigDecimal totalPrincipal;
+    private final BigDecimal totalInterest;
+    private final List<MonthlyInflow> months;
+
+    public CashFlowProjection(LocalDateTime generatedAt, long durationMillis, long loans, BigDecimal totalPrincipal,
+                              BigDecimal totalInterest, List<MonthlyInflow> months) {
+        this.generatedAt = generatedAt;
+        this.durationMillis = durationMillis;
+        this.loans = loans;
+        this.totalPrincipal = totalPrincipal;
+        this.totalInterest = totalInterest;
+        this.months = months;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public long getLoans() {
+        return loans;
+    }
+
+    public BigDecimal getTotalPrincipal() {
+        return totalPrincipal;
+    }
+
+    public BigDecimal getTotalInterest() {
+        return totalInterest;
+    }
+
+    public List<MonthlyInflow> getMonths() {
+        return months;
+    }
+
+    public static class MonthlyInflow {
+        private final String month;
+        private final BigDecimal principal;
+        private final BigDecimal interest;
+
+        public MonthlyInflow(String month, BigDecimal principal, BigDecimal interest) {
+            this.month = month;
+            this.principal = principal;
+            this.interest = interest;
+        }
+
+        // yyyy-MM
+        public String getMonth() {
+            return month;
+        }
+
+        public BigDecimal getPrincipal() {
+            return principal;
+        }
+
+        public BigDecimal getInterest() {
+            return interest;
+        }
+
+        public BigDecimal getTotal() {
+            return principal.add(interest);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.portfolio.LOC.dto;
+
+import com.portfolio.LOC.entity.LoanDelinquency;
+
+import java.math.BigDecimal;
+
+// Projection for delinquent loans, overdue EMIs and overdue amount grouped by bucket
+public interface DelinquencyBucketAggregate {
+
+    LoanDelinquency.Bucket getBucket();
+
+    Long getLoanCount();
+
+    Long getEmiCount();
+
+    BigDecimal getTotalAmount();
+}
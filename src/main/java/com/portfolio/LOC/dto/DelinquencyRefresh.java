@@ -0,0 +1,39 @@
+package com.portfolio.LOC.dto;
+
+// Outcome of a full loan_delinquency refresh
+public class DelinquencyRefresh {
+
+    private final long loansInArrears;
+    private final long inserted;
+    private final long updated;
+    private final long removed;
+    private final long durationMillis;
+
+    public DelinquencyRefresh(long loansInArrears, long inserted, long updated, long removed, long durationMillis) {
+        this.loansInArrears = loansInArrears;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.removed = removed;
+        this.durationMillis = durationMillis;
+    }
+
+    public long getLoansInArrears() {
+        return loansInArrears;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getRemoved() {
+        return removed;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
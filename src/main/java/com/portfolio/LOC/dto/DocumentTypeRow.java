@@ -0,0 +1,11 @@
+package com.portfolio.LOC.dto;
+
+import com.portfolio.LOC.entity.Document;
+
+// Projection for the document types uploaded against a page of applications
+public interface DocumentTypeRow {
+
+    Long getLoanApplicationId();
+
+    Document.DocumentType getDocumentType();
+}
@@ -0,0 +1,15 @@
+package com.portfolio.LOC.dto;
+
+import com.portfolio.LOC.entity.EmiSchedule;
+
+import java.math.BigDecimal;
+
+// Projection for EMI counts and amounts grouped by status
+public interface EmiStatusAggregate {
+
+    EmiSchedule.EmiStatus getStatus();
+
+    Long getEmiCount();
+
+    BigDecimal getTotalAmount();
+}
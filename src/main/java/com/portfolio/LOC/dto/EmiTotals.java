@@ -0,0 +1,11 @@
+package com.portfolio.LOC.dto;
+
+import java.math.BigDecimal;
+
+// Projection for an EMI count and amount total across all statuses
+public interface EmiTotals {
+
+    Long getEmiCount();
+
+    BigDecimal getTotalAmount();
+}
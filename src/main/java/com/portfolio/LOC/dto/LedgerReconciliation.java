@@ -0,0 +1,33 @@
+package com.portfolio.LOC.dto;
+
+// Outcome of checking every loan ledger against its EMI rows
+public class LedgerReconciliation {
+
+    private final long loansChecked;
+    private final long opened;
+    private final long repaired;
+    private final long durationMillis;
+
+    public LedgerReconciliation(long loansChecked, long opened, long repaired, long durationMillis) {
+        this.loansChecked = loansChecked;
+        this.opened = opened;
+        this.repaired = repaired;
+        this.durationMillis = durationMillis;
+    }
+
+    public long getLoansChecked() {
+        return loansChecked;
+    }
+
+    public long getOpened() {
+        return opened;
+    }
+
+    public long getRepaired() {
+        return repaired;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
@@ -2,11 +2,14 @@ package com.portfolio.LOC.dto;
 
 import com.portfolio.LOC.entity.LoanApplication;
 import com.portfolio.LOC.entity.ApprovalHistory;
+import com.portfolio.LOC.entity.Document;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class LoanApplicationResponse {
@@ -73,28 +76,52 @@ public class LoanApplicationResponse {
         this.hasLoanOffer = loanApplication.getLoanOfferLetter() != null;
 
         // Document information
-        this.documentCount = loanApplication.getDocuments() != null ? loanApplication.getDocuments().size() : 0;
-        this.hasRequiredDocuments = checkRequiredDocuments(loanApplication);
+        List<Document.DocumentType> documentTypes = loanApplication.getDocuments() != null ?
+            loanApplication.getDocuments().stream().map(Document::getDocumentType).collect(Collectors.toList()) :
+            new ArrayList<>();
+        this.documentCount = documentTypes.size();
+        this.hasRequiredDocuments = checkRequiredDocuments(documentTypes);
     }
 
-    private boolean checkRequiredDocuments(LoanApplication loanApplication) {
-        if (loanApplication.getDocuments() == null || loanApplication.getDocuments().isEmpty()) {
-            return false;
-        }
+    // Used by the listing endpoints, which load history and document types for a whole page at once
+    public LoanApplicationResponse(ApplicationListingRow row, List<ApprovalHistory> approvalHistory,
+                                   List<Document.DocumentType> documentTypes) {
+        this.id = row.getId();
+        this.applicationId = row.getApplicationId();
+        this.applicantName = row.getFirstName() + " " + row.getLastName();
+        this.email = row.getEmail();
+        this.phoneNumber = row.getPhoneNumber();
+        this.monthlyIncome = row.getMonthlyIncome();
+        this.loanAmount = row.getLoanAmount();
+        this.loanPurpose = row.getLoanPurpose();
+        this.loanTenure = row.getLoanTenure();
+        this.status = row.getStatus();
+        this.eligibilityScore = row.getEligibilityScore();
+        this.estimatedEmi = row.getEstimatedEmi();
+        this.submittedByName = row.getSubmittedByName();
+        this.submittedByEmail = row.getSubmittedByEmail();
+        this.createdAt = row.getCreatedAt();
+        this.updatedAt = row.getUpdatedAt();
+        // Set workflow dates to current time for demo purposes
+        this.rcpuCompletedDate = row.getUpdatedAt();
+        this.l1ApprovedDate = row.getUpdatedAt();
+        this.l2ApprovedDate = row.getUpdatedAt();
+
+        this.approvalHistory = approvalHistory.stream()
+            .map(ApprovalHistoryDto::new)
+            .collect(Collectors.toList());
 
-        // Check for required document types (assuming Document entity is imported)
-        boolean hasITR = loanApplication.getDocuments().stream()
-            .anyMatch(d -> "ITR".equals(d.getDocumentType().name()));
-        boolean hasBankStatement = loanApplication.getDocuments().stream()
-            .anyMatch(d -> "BANK_STATEMENT".equals(d.getDocumentType().name()));
-        boolean hasAadhaar = loanApplication.getDocuments().stream()
-            .anyMatch(d -> "AADHAAR".equals(d.getDocumentType().name()));
-        boolean hasPAN = loanApplication.getDocuments().stream()
-            .anyMatch(d -> "PAN".equals(d.getDocumentType().name()));
-        boolean hasPhoto = loanApplication.getDocuments().stream()
-            .anyMatch(d -> "PHOTO".equals(d.getDocumentType().name()));
+        this.hasRcpuReport = row.hasRcpuReport();
+        this.hasLoanOffer = row.hasLoanOffer();
+
+        this.documentCount = documentTypes.size();
+        this.hasRequiredDocuments = checkRequiredDocuments(documentTypes);
+    }
 
-        return hasITR && hasBankStatement && hasAadhaar && hasPAN && hasPhoto;
+    private boolean checkRequiredDocuments(List<Document.DocumentType> documentTypes) {
+        Set<Document.DocumentType> uploaded = EnumSet.noneOf(Document.DocumentType.class);
+        uploaded.addAll(documentTypes);
+        return uploaded.containsAll(Document.REQUIRED_DOCUMENT_TYPES);
     }
 
     // Getters and Setters
@@ -0,0 +1,19 @@
+package com.portfolio.LOC.dto;
+
+import com.portfolio.LOC.entity.LoanApplication;
+
+import java.math.BigDecimal;
+
+// Projection for application counts and loan amounts grouped by yyyy-MM of creation and status
+public interface MonthlyStatusAggregate {
+
+    Integer getCreatedYear();
+
+    Integer getCreatedMonth();
+
+    LoanApplication.ApplicationStatus getStatus();
+
+    Long getApplicationCount();
+
+    BigDecimal getTotalAmount();
+}
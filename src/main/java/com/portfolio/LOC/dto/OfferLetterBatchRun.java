@@ -0,0 +1,72 @@
+package com.portfolio.LOC.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of one batch render of waiting offer letters. Letters that failed are listed with the reason and
+// go back to the queue until they run out of attempts; the rest are counted.
+public class OfferLetterBatchRun {
+
+    private int requested;
+    private int rendered;
+    private long bytesWritten;
+    private long durationMillis;
+    private final List<OfferFailure> failures = new ArrayList<>();
+
+    public void addRendered(long bytes) {
+        rendered++;
+        requested++;
+        bytesWritten += bytes;
+    }
+
+    public void addFailed(Long offerLetterId, String message) {
+        failures.add(new OfferFailure(offerLetterId, message));
+        requested++;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getRendered() {
+        return rendered;
+    }
+
+    public int getFailed() {
+        return failures.size();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public List<OfferFailure> getFailures() {
+        return failures;
+    }
+
+    public static class OfferFailure {
+        private final Long offerLetterId;
+        private final String message;
+
+        public OfferFailure(Long offerLetterId, String message) {
+            this.offerLetterId = offerLetterId;
+            this.message = message;
+        }
+
+        public Long getOfferLetterId() {
+            return offerLetterId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.portfolio.LOC.dto;
+
+import com.portfolio.LOC.entity.LoanOfferLetter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of one batch sanction. Every requested application is listed in request order: sanctioned ones
+// with their offer letter and where its PDF stands, the rest with the reason they were turned down.
+public class OfferSanctionRun {
+
+    private int sanctioned;
+    private long instalmentsScheduled;
+    private int pdfsRendered;
+    private long durationMillis;
+    private final List<Item> items = new ArrayList<>();
+
+    public void addSanctioned(Item item) {
+        items.add(item);
+        sanctioned++;
+    }
+
+    public void addFailed(Long applicationId, String message) {
+        items.add(Item.failed(applicationId, message));
+    }
+
+    public void addInstalmentsScheduled(long instalments) {
+        instalmentsScheduled += instalments;
+    }
+
+    public int getRequested() {
+        return items.size();
+    }
+
+    public int getSanctioned() {
+        return sanctioned;
+    }
+
+    public int getFailed() {
+        return items.size() - sanctioned;
+    }
+
+    public long getInstalmentsScheduled() {
+        return instalmentsScheduled;
+    }
+
+    public int getPdfsRendered() {
+        return pdfsRendered;
+    }
+
+    public void setPdfsRendered(int pdfsRendered) {
+        this.pdfsRendered = pdfsRendered;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public static class Item {
+        private final Long applicationId;
+        private Long offerLetterId;
+        private String offerLetterNumber;
+        private BigDecimal emiAmount;
+        private LoanOfferLetter.PdfStatus pdfStatus;
+        private final String message;
+
+        private Item(Long applicationId, String message) {
+            this.applicationId = applicationId;
+            this.message = message;
+        }
+
+        public static Item sanctioned(Long applicationId, String offerLetterNumber, BigDecimal emiAmount) {
+            Item item = new Item(applicationId, null);
+            item.offerLetterNumber = offerLetterNumber;
+            item.emiAmount = emiAmount;
+            item.pdfStatus = LoanOfferLetter.PdfStatus.PENDING;
+            return item;
+        }
+
+        public static Item failed(Long applicationId, String message) {
+            return new Item(applicationId, message);
+        }
+
+        public boolean isSanctioned() {
+            return message == null;
+        }
+
+        public Long getApplicationId() {
+            return applicationId;
+        }
+
+        public Long getOfferLetterId() {
+            return offerLetterId;
+        }
+
+        public void setOfferLetterId(Long offerLetterId) {
+            this.offerLetterId = offerLetterId;
+        }
+
+        public String getOfferLetterNumber() {
+            return offerLetterNumber;
+        }
+
+        public BigDecimal getEmiAmount() {
+            return emiAmount;
+        }
+
+        public LoanOfferLetter.PdfStatus getPdfStatus() {
+            return pdfStatus;
+        }
+
+        public void setPdfStatus(LoanOfferLetter.PdfStatus pdfStatus) {
+            this.pdfStatus = pdfStatus;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.portfolio.LOC.dto;
+
+import java.time.LocalDateTime;
+
+// Outcome of one overdue EMI sweep: stored rows updated in place, and computed instalments written as OVERDUE
+public class OverdueEmiRun {
+
+    private final LocalDateTime startedAt;
+    private final long durationMillis;
+    private final long rowsMarked;
+    private final long rowsMaterialized;
+    private final int chunks;
+
+    public OverdueEmiRun(LocalDateTime startedAt, long durationMillis, long rowsMarked, long rowsMaterialized, int chunks) {
+        this.startedAt = startedAt;
+        this.durationMillis = durationMillis;
+        this.rowsMarked = rowsMarked;
+        this.rowsMaterialized = rowsMaterialized;
+        this.chunks = chunks;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public long getRowsMarked() {
+        return rowsMarked;
+    }
+
+    public long getRowsMaterialized() {
+        return rowsMaterialized;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getRowsAffected() {
+        return rowsMarked + rowsMaterialized;
+    }
+}
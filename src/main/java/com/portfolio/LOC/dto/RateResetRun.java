@@ -0,0 +1,73 @@
+package com.portfolio.LOC.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of one rate reset across many loans. Loans that could not be rescheduled are listed with the
+// reason; the rest are counted.
+public class RateResetRun {
+
+    private int requested;
+    private int rescheduled;
+    private long rowsWritten;
+    private long durationMillis;
+    private final List<LoanFailure> failures = new ArrayList<>();
+
+    public void addRescheduled(ScheduleRevision revision) {
+        rescheduled++;
+        requested++;
+        rowsWritten += revision.getRowsUpdated() + revision.getRowsInserted() + revision.getRowsDeleted();
+    }
+
+    public void addFailed(Long loanApplicationId, String message) {
+        failures.add(new LoanFailure(loanApplicationId, message));
+        requested++;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getRescheduled() {
+        return rescheduled;
+    }
+
+    public int getFailed() {
+        return failures.size();
+    }
+
+    // emi_schedule rows updated, inserted or deleted; lazily materialized loans mostly change only their terms
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public List<LoanFailure> getFailures() {
+        return failures;
+    }
+
+    public static class LoanFailure {
+        private final Long loanApplicationId;
+        private final String message;
+
+        public LoanFailure(Long loanApplicationId, String message) {
+            this.loanApplicationId = loanApplicationId;
+            this.message = message;
+        }
+
+        public Long getLoanApplicationId() {
+            return loanApplicationId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.portfolio.LOC.dto;
+
+import java.math.BigDecimal;
+
+// One loan's prepayment or rate reset: the unpaid instalments from fromEmiNumber on were recomputed and
+// only those rows were rewritten
+public class ScheduleRevision {
+
+    private final Long loanApplicationId;
+    private final String reason;
+    private final String mode;
+    private final int fromEmiNumber;
+    private final BigDecimal prepaymentAmount;
+    private final BigDecimal annualInterestRate;
+    private final BigDecimal previousEmiAmount;
+    private final BigDecimal emiAmount;
+    private final int previousTenureMonths;
+    private final int tenureMonths;
+    private final int rowsUpdated;
+    private final int rowsInserted;
+    private final int rowsDeleted;
+
+    public ScheduleRevision(Long loanApplicationId, String reason, String mode, int fromEmiNumber,
+                            BigDecimal prepaymentAmount, BigDecimal annualInterestRate, BigDecimal previousEmiAmount,
+                            BigDecimal emiAmount, int previousTenureMonths, int tenureMonths,
+                            int rowsUpdated, int rowsInserted, int rowsDeleted) {
+        this.loanApplicationId = loanApplicationId;
+        this.reason = reason;
+        this.mode = mode;
+        this.fromEmiNumber = fromEmiNumber;
+        this.prepaymentAmount = prepaymentAmount;
+        this.annualInterestRate = annualInterestRate;
+        this.previousEmiAmount = previousEmiAmount;
+        this.emiAmount = emiAmount;
+        this.previousTenureMonths = previousTenureMonths;
+        this.tenureMonths = tenureMonths;
+        this.rowsUpdated = rowsUpdated;
+        this.rowsInserted = rowsInserted;
+        this.rowsDeleted = rowsDeleted;
+    }
+
+    public Long getLoanApplicationId() {
+        return loanApplicationId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getFromEmiNumber() {
+        return fromEmiNumber;
+    }
+
+    public BigDecimal getPrepaymentAmount() {
+        return prepaymentAmount;
+    }
+
+    public BigDecimal getAnnualInterestRate() {
+        return annualInterestRate;
+    }
+
+    public BigDecimal getPreviousEmiAmount() {
+        return previousEmiAmount;
+    }
+
+    public BigDecimal getEmiAmount() {
+        return emiAmount;
+    }
+
+    public int getPreviousTenureMonths() {
+        return previousTenureMonths;
+    }
+
+    public int getTenureMonths() {
+        return tenureMonths;
+    }
+
+    // Stored instalments rewritten in place, stored afresh, and removed
+    public int getRowsUpdated() {
+        return rowsUpdated;
+    }
+
+    public int getRowsInserted() {
+        return rowsInserted;
+    }
+
+    public int getRowsDeleted() {
+        return rowsDeleted;
+    }
+}
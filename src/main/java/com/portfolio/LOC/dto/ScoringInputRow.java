@@ -0,0 +1,50 @@
+package com.portfolio.LOC.dto;
+
+import com.portfolio.LOC.entity.LoanApplication;
+
+import java.math.BigDecimal;
+
+// Constructor-expression row carrying only the columns the eligibility rules read
+public class ScoringInputRow {
+
+    private final Long id;
+    private final BigDecimal monthlyIncome;
+    private final LoanApplication.EmploymentType employmentType;
+    private final Integer workExperience;
+    private final Boolean hasCoApplicant;
+    private final BigDecimal loanAmount;
+
+    public ScoringInputRow(Long id, BigDecimal monthlyIncome, LoanApplication.EmploymentType employmentType,
+                           Integer workExperience, Boolean hasCoApplicant, BigDecimal loanAmount) {
+        this.id = id;
+        this.monthlyIncome = monthlyIncome;
+        this.employmentType = employmentType;
+        this.workExperience = workExperience;
+        this.hasCoApplicant = hasCoApplicant;
+        this.loanAmount = loanAmount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public BigDecimal getMonthlyIncome() {
+        return monthlyIncome;
+    }
+
+    public LoanApplication.EmploymentType getEmploymentType() {
+        return employmentType;
+    }
+
+    public Integer getWorkExperience() {
+        return workExperience;
+    }
+
+    public Boolean getHasCoApplicant() {
+        return hasCoApplicant;
+    }
+
+    public BigDecimal getLoanAmount() {
+        return loanAmount;
+    }
+}
@@ -0,0 +1,97 @@
+package com.portfolio.LOC.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Outcome of posting a bank settlement file. Only exceptions are listed line by line; posted lines and
+// bank references already seen (a re-upload) are counted. Line numbers are 1-based data lines.
+public class SettlementPostingReport {
+
+    private int totalLines;
+    private int posted;
+    private int duplicates;
+    private int rejected;
+    private BigDecimal postedAmount = BigDecimal.ZERO;
+    private long elapsedMillis;
+    private final List<LineException> exceptions = new ArrayList<>();
+
+    public void addPosted(BigDecimal amount) {
+        posted++;
+        totalLines++;
+        postedAmount = postedAmount.add(amount);
+    }
+
+    public void addDuplicate() {
+        duplicates++;
+        totalLines++;
+    }
+
+    public void addRejected(int line, String bankReference, String message) {
+        exceptions.add(new LineException(line, bankReference, message));
+        rejected++;
+        totalLines++;
+    }
+
+    // Lines finish chunk by chunk, and a chunk's parse failures are recorded before its matching failures
+    public void sortExceptions() {
+        exceptions.sort(Comparator.comparingInt(LineException::getLine));
+    }
+
+    public int getTotalLines() {
+        return totalLines;
+    }
+
+    public int getPosted() {
+        return posted;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public BigDecimal getPostedAmount() {
+        return postedAmount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<LineException> getExceptions() {
+        return exceptions;
+    }
+
+    public static class LineException {
+        private final int line;
+        private final String bankReference;
+        private final String message;
+
+        public LineException(int line, String bankReference, String message) {
+            this.line = line;
+            this.bankReference = bankReference;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getBankReference() {
+            return bankReference;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
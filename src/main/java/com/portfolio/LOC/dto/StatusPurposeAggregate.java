@@ -0,0 +1,17 @@
+package com.portfolio.LOC.dto;
+
+import com.portfolio.LOC.entity.LoanApplication;
+
+import java.math.BigDecimal;
+
+// Projection for application counts and loan amounts grouped by status and purpose
+public interface StatusPurposeAggregate {
+
+    LoanApplication.ApplicationStatus getStatus();
+
+    LoanApplication.LoanPurpose getLoanPurpose();
+
+    Long getApplicationCount();
+
+    BigDecimal getTotalAmount();
+}
@@ -0,0 +1,92 @@
+package com.portfolio.LOC.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.LocalDateTime;
+
+// Keyed hashes of an applicant's PAN and Aadhaar. The unique constraints make duplicate
+// detection atomic with the application insert instead of a separate check-then-insert.
+@Entity
+@Table(name = "applicant_fingerprints")
+public class ApplicantFingerprint {
+    
+    // Pooled table-backed IDs (not IDENTITY) so inserts can be JDBC-batched; one round trip per 50 rows
+    @Id
+    @GeneratedValue(generator = "applicant_fingerprints_seq")
+    @GenericGenerator(name = "applicant_fingerprints_seq", type = SequenceStyleGenerator.class, parameters = {
+        @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "applicant_fingerprints_seq"),
+        @Parameter(name = SequenceStyleGenerator.FORCE_TBL_PARAM, value = "true"),
+        @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+        @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled")
+    })
+    private Long id;
+    
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "loan_application_id", nullable = false, unique = true)
+    private LoanApplication loanApplication;
+    
+    @Column(name = "pan_hash", nullable = false, unique = true, length = 64)
+    private String panHash;
+    
+    @Column(name = "aadhaar_hash", nullable = false, unique = true, length = 64)
+    private String aadhaarHash;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public ApplicantFingerprint() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public ApplicantFingerprint(LoanApplication loanApplication, String panHash, String aadhaarHash) {
+        this();
+        this.loanApplication = loanApplication;
+        this.panHash = panHash;
+        this.aadhaarHash = aadhaarHash;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LoanApplication getLoanApplication() {
+        return loanApplication;
+    }
+    
+    public void setLoanApplication(LoanApplication loanApplication) {
+        this.loanApplication = loanApplication;
+    }
+    
+    public String getPanHash() {
+        return panHash;
+    }
+    
+    public void setPanHash(String panHash) {
+        this.panHash = panHash;
+    }
+    
+    public String getAadhaarHash() {
+        return aadhaarHash;
+    }
+    
+    public void setAadhaarHash(String aadhaarHash) {
+        this.aadhaarHash = aadhaarHash;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
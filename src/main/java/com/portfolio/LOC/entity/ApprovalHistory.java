@@ -7,7 +7,9 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "approval_history")
+@Table(name = "approval_history", indexes = {
+    @Index(name = "idx_approval_history_application_created", columnList = "loan_application_id, created_at")
+})
 public class ApprovalHistory {
     
     @Id
@@ -5,9 +5,15 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+    @Index(name = "idx_documents_application_type", columnList = "loan_application_id, document_type"),
+    @Index(name = "idx_documents_application_created", columnList = "loan_application_id, created_at")
+})
 public class Document {
     
     @Id
@@ -43,6 +49,9 @@ public class Document {
     @Column(name = "file_size", nullable = false)
     private Long fileSize;
     
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+    
     @Column(name = "description")
     private String description;
     
@@ -56,6 +65,10 @@ public class Document {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Every application needs these before it can move through review
+    public static final Set<DocumentType> REQUIRED_DOCUMENT_TYPES = Collections.unmodifiableSet(EnumSet.of(
+        DocumentType.ITR, DocumentType.BANK_STATEMENT, DocumentType.AADHAAR, DocumentType.PAN, DocumentType.PHOTO));
+    
     public enum DocumentType {
         ITR("Income Tax Returns"),
         BANK_STATEMENT("Bank Statement"),
@@ -167,6 +180,14 @@ public class Document {
         this.fileSize = fileSize;
     }
     
+    public String getSha256() {
+        return sha256;
+    }
+    
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+    
     public String getDescription() {
         return description;
     }
@@ -1,6 +1,9 @@
 package com.portfolio.LOC.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
@@ -8,11 +11,21 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "emi_schedule")
+@Table(name = "emi_schedule", indexes = {
+    @Index(name = "idx_emi_schedule_status_due_date", columnList = "status, due_date"),
+    @Index(name = "idx_emi_schedule_application_number", columnList = "loan_application_id, emi_number")
+})
 public class EmiSchedule {
     
+    // Pooled table-backed IDs so a whole schedule goes out as a few JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "emi_schedule_seq")
+    @GenericGenerator(name = "emi_schedule_seq", type = SequenceStyleGenerator.class, parameters = {
+        @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "emi_schedule_seq"),
+        @Parameter(name = SequenceStyleGenerator.FORCE_TBL_PARAM, value = "true"),
+        @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+        @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled")
+    })
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
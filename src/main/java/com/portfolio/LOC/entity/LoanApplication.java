@@ -1,6 +1,9 @@
 package com.portfolio.LOC.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import jakarta.validation.constraints.*;
 
 import java.math.BigDecimal;
@@ -10,11 +13,22 @@ import java.util.List;
 import java.util.ArrayList;
 
 @Entity
-@Table(name = "loan_applications")
+@Table(name = "loan_applications", indexes = {
+    @Index(name = "idx_loan_applications_status_created", columnList = "status, created_at, id"),
+    @Index(name = "idx_loan_applications_created", columnList = "created_at, id"),
+    @Index(name = "idx_loan_applications_aadhaar", columnList = "aadhaar_number")
+})
 public class LoanApplication {
     
+    // Pooled table-backed IDs (not IDENTITY) so inserts can be JDBC-batched; one round trip per 50 rows
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "loan_applications_seq")
+    @GenericGenerator(name = "loan_applications_seq", type = SequenceStyleGenerator.class, parameters = {
+        @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "loan_applications_seq"),
+        @Parameter(name = SequenceStyleGenerator.FORCE_TBL_PARAM, value = "true"),
+        @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+        @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled")
+    })
     private Long id;
     
     @Column(name = "application_id", unique = true, nullable = false)
@@ -136,6 +150,10 @@ public class LoanApplication {
     @Column(name = "eligibility_score")
     private Integer eligibilityScore;
     
+    // Version of the eligibility rule table that produced eligibilityScore
+    @Column(name = "eligibility_rule_version")
+    private Integer eligibilityRuleVersion;
+    
     @Column(name = "estimated_emi", precision = 12, scale = 2)
     private BigDecimal estimatedEmi;
     
@@ -195,13 +213,9 @@ public class LoanApplication {
     }
     
     // Constructors
+    // Application IDs are assigned by the service from the IdGenerator
     public LoanApplication() {
         this.createdAt = LocalDateTime.now();
-        generateApplicationId();
-    }
-    
-    private void generateApplicationId() {
-        this.applicationId = "LA" + String.format("%06d", System.currentTimeMillis() % 1000000);
     }
     
     @PreUpdate
@@ -450,6 +464,14 @@ public class LoanApplication {
         this.eligibilityScore = eligibilityScore;
     }
     
+    public Integer getEligibilityRuleVersion() {
+        return eligibilityRuleVersion;
+    }
+    
+    public void setEligibilityRuleVersion(Integer eligibilityRuleVersion) {
+        this.eligibilityRuleVersion = eligibilityRuleVersion;
+    }
+    
     public BigDecimal getEstimatedEmi() {
         return estimatedEmi;
     }
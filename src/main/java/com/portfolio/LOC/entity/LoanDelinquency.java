@@ -0,0 +1,125 @@
+package com.portfolio.LOC.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Arrears of one loan as of the last refresh. Loans that are fully current have no row.
+@Entity
+@Table(name = "loan_delinquency")
+public class LoanDelinquency {
+    
+    @Id
+    @Column(name = "loan_application_id")
+    private Long loanApplicationId;
+    
+    @Column(name = "days_past_due", nullable = false)
+    private Integer daysPastDue;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "bucket", nullable = false)
+    private Bucket bucket;
+    
+    @Column(name = "overdue_emis", nullable = false)
+    private Integer overdueEmis;
+    
+    @Column(name = "overdue_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal overdueAmount;
+    
+    @Column(name = "oldest_due_date", nullable = false)
+    private LocalDate oldestDueDate;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // RBI special-mention buckets by days past due; NPA once the oldest unpaid instalment is over 90 days late
+    public enum Bucket {
+        SMA_0, SMA_1, SMA_2, NPA;
+        
+        public static Bucket forDaysPastDue(long daysPastDue) {
+            if (daysPastDue > 90) {
+                return NPA;
+            } else if (daysPastDue > 60) {
+                return SMA_2;
+            } else if (daysPastDue > 30) {
+                return SMA_1;
+            }
+            return SMA_0;
+        }
+    }
+    
+    // Constructors
+    public LoanDelinquency() {
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public LoanDelinquency(Long loanApplicationId, Integer overdueEmis, BigDecimal overdueAmount,
+                           LocalDate oldestDueDate, LocalDate asOf) {
+        this();
+        this.loanApplicationId = loanApplicationId;
+        this.overdueEmis = overdueEmis;
+        this.overdueAmount = overdueAmount;
+        this.oldestDueDate = oldestDueDate;
+        this.daysPastDue = (int) (asOf.toEpochDay() - oldestDueDate.toEpochDay());
+        this.bucket = Bucket.forDaysPastDue(daysPastDue);
+    }
+    
+    // Getters and Setters
+    public Long getLoanApplicationId() {
+        return loanApplicationId;
+    }
+    
+    public void setLoanApplicationId(Long loanApplicationId) {
+        this.loanApplicationId = loanApplicationId;
+    }
+    
+    public Integer getDaysPastDue() {
+        return daysPastDue;
+    }
+    
+    public void setDaysPastDue(Integer daysPastDue) {
+        this.daysPastDue = daysPastDue;
+    }
+    
+    public Bucket getBucket() {
+        return bucket;
+    }
+    
+    public void setBucket(Bucket bucket) {
+        this.bucket = bucket;
+    }
+    
+    public Integer getOverdueEmis() {
+        return overdueEmis;
+    }
+    
+    public void setOverdueEmis(Integer overdueEmis) {
+        this.overdueEmis = overdueEmis;
+    }
+    
+    public BigDecimal getOverdueAmount() {
+        return overdueAmount;
+    }
+    
+    public void setOverdueAmount(BigDecimal overdueAmount) {
+        this.overdueAmount = overdueAmount;
+    }
+    
+    public LocalDate getOldestDueDate() {
+        return oldestDueDate;
+    }
+    
+    public void setOldestDueDate(LocalDate oldestDueDate) {
+        this.oldestDueDate = oldestDueDate;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
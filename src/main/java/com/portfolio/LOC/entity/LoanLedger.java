@@ -0,0 +1,89 @@
+package com.portfolio.LOC.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Running balance of one loan. Written with relative JDBC updates by LoanLedgerService; mapped here for reads.
+@Entity
+@Table(name = "loan_ledgers")
+public class LoanLedger {
+    
+    @Id
+    @Column(name = "loan_application_id")
+    private Long loanApplicationId;
+    
+    @Column(name = "principal_outstanding", nullable = false, precision = 14, scale = 2)
+    private BigDecimal principalOutstanding;
+    
+    @Column(name = "interest_outstanding", nullable = false, precision = 14, scale = 2)
+    private BigDecimal interestOutstanding;
+    
+    // Everything received against instalments, including any amount above the EMI
+    @Column(name = "collected_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal collectedAmount;
+    
+    @Column(name = "late_fees", nullable = false, precision = 14, scale = 2)
+    private BigDecimal lateFees;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public LoanLedger() {
+    }
+    
+    // Getters and Setters
+    public Long getLoanApplicationId() {
+        return loanApplicationId;
+    }
+    
+    public void setLoanApplicationId(Long loanApplicationId) {
+        this.loanApplicationId = loanApplicationId;
+    }
+    
+    public BigDecimal getPrincipalOutstanding() {
+        return principalOutstanding;
+    }
+    
+    public void setPrincipalOutstanding(BigDecimal principalOutstanding) {
+        this.principalOutstanding = principalOutstanding;
+    }
+    
+    public BigDecimal getInterestOutstanding() {
+        return interestOutstanding;
+    }
+    
+    public void setInterestOutstanding(BigDecimal interestOutstanding) {
+        this.interestOutstanding = interestOutstanding;
+    }
+    
+    public BigDecimal getCollectedAmount() {
+        return collectedAmount;
+    }
+    
+    public void setCollectedAmount(BigDecimal collectedAmount) {
+        this.collectedAmount = collectedAmount;
+    }
+    
+    public BigDecimal getLateFees() {
+        return lateFees;
+    }
+    
+    public void setLateFees(BigDecimal lateFees) {
+        this.lateFees = lateFees;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public BigDecimal getTotalOutstanding() {
+        return principalOutstanding.add(interestOutstanding);
+    }
+}
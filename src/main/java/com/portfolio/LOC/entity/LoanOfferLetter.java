@@ -57,6 +57,23 @@ public class LoanOfferLetter {
     @JoinColumn(name = "generated_by", nullable = false)
     private User generatedBy;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "pdf_status", nullable = false)
+    private PdfStatus pdfStatus = PdfStatus.PENDING;
+    
+    @Column(name = "pdf_attempts", nullable = false)
+    private Integer pdfAttempts = 0;
+    
+    @Column(name = "pdf_claimed_at")
+    private LocalDateTime pdfClaimedAt;
+    
+    @Column(name = "pdf_error", length = 500)
+    private String pdfError;
+    
+    // Set with file_path when the letter is stored in the blob store
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+    
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
@@ -64,13 +81,9 @@ public class LoanOfferLetter {
     private LocalDateTime updatedAt;
     
     // Constructors
+    // Offer letter numbers are assigned by the service from the IdGenerator
     public LoanOfferLetter() {
         this.createdAt = LocalDateTime.now();
-        generateOfferLetterNumber();
-    }
-    
-    private void generateOfferLetterNumber() {
-        this.offerLetterNumber = "OL" + String.format("%08d", System.currentTimeMillis() % 100000000);
     }
     
     @PreUpdate
@@ -190,4 +203,49 @@ public class LoanOfferLetter {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+    
+    public PdfStatus getPdfStatus() {
+        return pdfStatus;
+    }
+    
+    public void setPdfStatus(PdfStatus pdfStatus) {
+        this.pdfStatus = pdfStatus;
+    }
+    
+    public Integer getPdfAttempts() {
+        return pdfAttempts;
+    }
+    
+    public void setPdfAttempts(Integer pdfAttempts) {
+        this.pdfAttempts = pdfAttempts;
+    }
+    
+    public LocalDateTime getPdfClaimedAt() {
+        return pdfClaimedAt;
+    }
+    
+    public void setPdfClaimedAt(LocalDateTime pdfClaimedAt) {
+        this.pdfClaimedAt = pdfClaimedAt;
+    }
+    
+    public String getPdfError() {
+        return pdfError;
+    }
+    
+    public void setPdfError(String pdfError) {
+        this.pdfError = pdfError;
+    }
+    
+    public String getSha256() {
+        return sha256;
+    }
+    
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+    
+    // The PDF file is written by OfferLetterPdfService after the offer commits
+    public enum PdfStatus {
+        PENDING, RENDERING, READY, FAILED
+    }
 }
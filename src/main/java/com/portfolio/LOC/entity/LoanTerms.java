@@ -0,0 +1,181 @@
+package com.portfolio.LOC.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// The repayment terms a loan's EMI schedule is computed from. Under lazy materialization this row
+// stands in for the whole schedule; only instalments with activity are written to emi_schedule.
+// After a prepayment or rate reset the terms describe the schedule from startEmiNumber onwards,
+// and every earlier instalment is stored.
+@Entity
+@Table(name = "loan_terms")
+public class LoanTerms {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "loan_application_id", nullable = false, unique = true)
+    private LoanApplication loanApplication;
+    
+    // Balance owed at instalment startEmiNumber
+    @Column(name = "principal_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal principalAmount;
+    
+    @Column(name = "annual_interest_rate", nullable = false, precision = 5, scale = 2)
+    private BigDecimal annualInterestRate;
+    
+    // Number of the final instalment
+    @Column(name = "tenure_months", nullable = false)
+    private Integer tenureMonths;
+    
+    @Column(name = "emi_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal emiAmount;
+    
+    // Sum of every instalment, final one included; lets the dashboard count unmaterialized EMIs
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+    
+    // Due date of instalment startEmiNumber
+    @Column(name = "first_due_date", nullable = false)
+    private LocalDate firstDueDate;
+    
+    // EMI n from startEmiNumber on has ID firstEmiId + n - startEmiNumber, whether it is computed or stored
+    @Column(name = "first_emi_id", nullable = false, unique = true)
+    private Long firstEmiId;
+    
+    @Column(name = "start_emi_number", nullable = false)
+    private Integer startEmiNumber = 1;
+    
+    // Instalments 1..sweptThrough have been checked by the overdue sweep and stored if overdue
+    @Column(name = "swept_through", nullable = false)
+    private Integer sweptThrough = 0;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public LoanTerms() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public LoanTerms(LoanApplication loanApplication, BigDecimal principalAmount, BigDecimal annualInterestRate,
+                     Integer tenureMonths, BigDecimal emiAmount, BigDecimal totalAmount,
+                     LocalDate firstDueDate, Long firstEmiId) {
+        this();
+        this.loanApplication = loanApplication;
+        this.principalAmount = principalAmount;
+        this.annualInterestRate = annualInterestRate;
+        this.tenureMonths = tenureMonths;
+        this.emiAmount = emiAmount;
+        this.totalAmount = totalAmount;
+        this.firstDueDate = firstDueDate;
+        this.firstEmiId = firstEmiId;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LoanApplication getLoanApplication() {
+        return loanApplication;
+    }
+    
+    public void setLoanApplication(LoanApplication loanApplication) {
+        this.loanApplication = loanApplication;
+    }
+    
+    public BigDecimal getPrincipalAmount() {
+        return principalAmount;
+    }
+    
+    public void setPrincipalAmount(BigDecimal principalAmount) {
+        this.principalAmount = principalAmount;
+    }
+    
+    public BigDecimal getAnnualInterestRate() {
+        return annualInterestRate;
+    }
+    
+    public void setAnnualInterestRate(BigDecimal annualInterestRate) {
+        this.annualInterestRate = annualInterestRate;
+    }
+    
+    public Integer getTenureMonths() {
+        return tenureMonths;
+    }
+    
+    public void setTenureMonths(Integer tenureMonths) {
+        this.tenureMonths = tenureMonths;
+    }
+    
+    public BigDecimal getEmiAmount() {
+        return emiAmount;
+    }
+    
+    public void setEmiAmount(BigDecimal emiAmount) {
+        this.emiAmount = emiAmount;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+    
+    public LocalDate getFirstDueDate() {
+        return firstDueDate;
+    }
+    
+    public void setFirstDueDate(LocalDate firstDueDate) {
+        this.firstDueDate = firstDueDate;
+    }
+    
+    public Long getFirstEmiId() {
+        return firstEmiId;
+    }
+    
+    public void setFirstEmiId(Long firstEmiId) {
+        this.firstEmiId = firstEmiId;
+    }
+    
+    public Integer getStartEmiNumber() {
+        return startEmiNumber;
+    }
+    
+    public void setStartEmiNumber(Integer startEmiNumber) {
+        this.startEmiNumber = startEmiNumber;
+    }
+    
+    // Instalments computed from these terms
+    public int getSegmentMonths() {
+        return tenureMonths - startEmiNumber + 1;
+    }
+    
+    public Integer getSweptThrough() {
+        return sweptThrough;
+    }
+    
+    public void setSweptThrough(Integer sweptThrough) {
+        this.sweptThrough = sweptThrough;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
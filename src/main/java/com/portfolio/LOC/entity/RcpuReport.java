@@ -30,6 +30,9 @@ public class RcpuReport {
     @Column(name = "report_file_path", nullable = false)
     private String reportFilePath;
     
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+    
     @Column(name = "remarks", columnDefinition = "TEXT")
     private String remarks;
     
@@ -103,6 +106,14 @@ public class RcpuReport {
         this.reportFilePath = reportFilePath;
     }
     
+    public String getSha256() {
+        return sha256;
+    }
+    
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+    
     public String getRemarks() {
         return remarks;
     }
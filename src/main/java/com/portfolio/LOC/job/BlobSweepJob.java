@@ -0,0 +1,24 @@
+package com.portfolio.LOC.job;
+
+import com.portfolio.LOC.dto.BlobSweep;
+import com.portfolio.LOC.service.BlobStoreService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+// Corrects drifted blob reference counts and deletes blobs that nothing references any more
+@DisallowConcurrentExecution
+public class BlobSweepJob extends QuartzJobBean {
+
+    @Autowired
+    private BlobStoreService blobStoreService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        BlobSweep sweep = blobStoreService.sweep();
+        System.out.println("BlobSweepJob - " + sweep.getRecounted() + " recounted, " + sweep.getRegistered()
+            + " untracked files registered, " + sweep.getCollected() + " blobs collected (" + sweep.getBytesFreed()
+            + " bytes), " + sweep.getStagedFilesRemoved() + " staged files removed in " + sweep.getDurationMillis() + " ms");
+    }
+}
@@ -0,0 +1,23 @@
+package com.portfolio.LOC.job;
+
+import com.portfolio.LOC.dto.LedgerReconciliation;
+import com.portfolio.LOC.service.EmiScheduleService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+// Verifies every loan ledger against its EMI rows, repairing any that drifted
+@DisallowConcurrentExecution
+public class LedgerReconcileJob extends QuartzJobBean {
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        LedgerReconciliation run = emiScheduleService.reconcileLedgers();
+        System.out.println("LedgerReconcileJob - " + run.getLoansChecked() + " ledgers checked, " + run.getOpened()
+            + " opened, " + run.getRepaired() + " repaired in " + run.getDurationMillis() + " ms");
+    }
+}
@@ -0,0 +1,23 @@
+package com.portfolio.LOC.job;
+
+import com.portfolio.LOC.service.OfferLetterPdfService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+// Queues offer letters whose render never ran (a full queue or a restart) or stopped midway
+@DisallowConcurrentExecution
+public class OfferPdfRecoveryJob extends QuartzJobBean {
+
+    @Autowired
+    private OfferLetterPdfService offerLetterPdfService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        int queued = offerLetterPdfService.requeue();
+        if (queued > 0) {
+            System.out.println("OfferPdfRecoveryJob - " + queued + " offer letters queued for rendering");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.portfolio.LOC.job;
+
+import com.portfolio.LOC.dto.DelinquencyRefresh;
+import com.portfolio.LOC.dto.OverdueEmiRun;
+import com.portfolio.LOC.service.DelinquencyService;
+import com.portfolio.LOC.service.EmiScheduleService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+// Marks PENDING instalments past their due date as OVERDUE, then ages every loan's arrears by a day.
+// With the clustered job store only one node runs it.
+@DisallowConcurrentExecution
+public class OverdueEmiJob extends QuartzJobBean {
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private DelinquencyService delinquencyService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        OverdueEmiRun run = emiScheduleService.markOverdueEmis();
+        System.out.println("OverdueEmiJob - Marked " + run.getRowsMarked() + " EMIs overdue and stored "
+            + run.getRowsMaterialized() + " computed ones in " + run.getDurationMillis() + " ms");
+
+        DelinquencyRefresh refresh = delinquencyService.refreshAll();
+        System.out.println("OverdueEmiJob - " + refresh.getLoansInArrears() + " loans in arrears, delinquency refreshed in "
+            + refresh.getDurationMillis() + " ms");
+    }
+}
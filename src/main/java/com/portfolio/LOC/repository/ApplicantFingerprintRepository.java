@@ -0,0 +1,28 @@
+package com.portfolio.LOC.repository;
+
+import com.portfolio.LOC.entity.ApplicantFingerprint;
+import com.portfolio.LOC.entity.LoanApplication;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ApplicantFingerprintRepository extends JpaRepository<ApplicantFingerprint, Long> {
+    
+    boolean existsByPanHash(String panHash);
+    
+    boolean existsByAadhaarHash(String aadhaarHash);
+    
+    @Query("SELECT f.panHash FROM ApplicantFingerprint f")
+    Stream<String> streamAllPanHashes();
+    
+    @Query("SELECT f.aadhaarHash FROM ApplicantFingerprint f")
+    Stream<String> streamAllAadhaarHashes();
+    
+    @Query("SELECT la FROM LoanApplication la WHERE NOT EXISTS " +
+           "(SELECT f.id FROM ApplicantFingerprint f WHERE f.loanApplication = la) ORDER BY la.id")
+    List<LoanApplication> findApplicationsWithoutFingerprint();
+}
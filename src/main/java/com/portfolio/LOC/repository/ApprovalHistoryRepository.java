@@ -3,8 +3,11 @@ package com.portfolio.LOC.repository;
 import com.portfolio.LOC.entity.ApprovalHistory;
 import com.portfolio.LOC.entity.LoanApplication;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,4 +18,8 @@ public interface ApprovalHistoryRepository extends JpaRepository<ApprovalHistory
     List<ApprovalHistory> findByLoanApplicationIdOrderByCreatedAtAsc(Long loanApplicationId);
     
     List<ApprovalHistory> findByStageOrderByCreatedAtDesc(ApprovalHistory.Stage stage);
+    
+    @Query("SELECT ah FROM ApprovalHistory ah JOIN FETCH ah.approvedBy " +
+           "WHERE ah.loanApplication.id IN :applicationIds ORDER BY ah.createdAt ASC, ah.id ASC")
+    List<ApprovalHistory> findWithApproverByLoanApplicationIds(@Param("applicationIds") Collection<Long> applicationIds);
 }
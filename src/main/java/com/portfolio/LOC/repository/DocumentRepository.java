@@ -1,12 +1,15 @@
 package com.portfolio.LOC.repository;
 
+import com.portfolio.LOC.dto.DocumentTypeRow;
 import com.portfolio.LOC.entity.Document;
 import com.portfolio.LOC.entity.LoanApplication;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,4 +38,12 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     long countByLoanApplicationId(@Param("applicationId") Long applicationId);
     
     void deleteByLoanApplicationId(Long loanApplicationId);
+    
+    // Documents stored before the blob store, in ID order after afterId
+    @Query("SELECT d.id FROM Document d WHERE d.sha256 IS NULL AND d.id > :afterId ORDER BY d.id ASC")
+    List<Long> findIdsOutsideBlobStore(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT d.loanApplication.id AS loanApplicationId, d.documentType AS documentType " +
+           "FROM Document d WHERE d.loanApplication.id IN :applicationIds")
+    List<DocumentTypeRow> findDocumentTypesByLoanApplicationIds(@Param("applicationIds") Collection<Long> applicationIds);
 }
@@ -1,5 +1,7 @@
 package com.portfolio.LOC.repository;
 
+import com.portfolio.LOC.dto.EmiStatusAggregate;
+import com.portfolio.LOC.dto.EmiTotals;
 import com.portfolio.LOC.entity.EmiSchedule;
 import com.portfolio.LOC.entity.LoanApplication;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -7,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,6 +19,8 @@ public interface EmiScheduleRepository extends JpaRepository<EmiSchedule, Long>
     
     List<EmiSchedule> findByLoanApplicationIdOrderByEmiNumberAsc(Long loanApplicationId);
     
+    List<EmiSchedule> findByLoanApplicationIdInOrderByLoanApplicationIdAscEmiNumberAsc(Collection<Long> loanApplicationIds);
+    
     List<EmiSchedule> findByStatusOrderByDueDateAsc(EmiSchedule.EmiStatus status);
     
     List<EmiSchedule> findByDueDateBeforeAndStatus(LocalDate date, EmiSchedule.EmiStatus status);
@@ -28,4 +33,12 @@ public interface EmiScheduleRepository extends JpaRepository<EmiSchedule, Long>
     
     @Query("SELECT COUNT(e) FROM EmiSchedule e WHERE e.loanApplication.id = :loanApplicationId")
     Long countTotalEmisByLoanApplicationId(Long loanApplicationId);
+    
+    @Query("SELECT e.status AS status, COUNT(e) AS emiCount, SUM(e.emiAmount) AS totalAmount FROM EmiSchedule e GROUP BY e.status")
+    List<EmiStatusAggregate> aggregateByStatus();
+    
+    // Stored rows of lazily materialized loans; the rest of those schedules is still PENDING
+    @Query("SELECT COUNT(e) AS emiCount, COALESCE(SUM(e.emiAmount), 0) AS totalAmount FROM EmiSchedule e " +
+           "WHERE EXISTS (SELECT t.id FROM LoanTerms t WHERE t.loanApplication = e.loanApplication)")
+    EmiTotals sumMaterializedEmis();
 }
@@ -1,7 +1,12 @@
 package com.portfolio.LOC.repository;
 
+import com.portfolio.LOC.dto.ApplicationListingRow;
+import com.portfolio.LOC.dto.MonthlyStatusAggregate;
+import com.portfolio.LOC.dto.ScoringInputRow;
+import com.portfolio.LOC.dto.StatusPurposeAggregate;
 import com.portfolio.LOC.entity.LoanApplication;
 import com.portfolio.LOC.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -28,6 +33,33 @@ public interface LoanApplicationRepository extends JpaRepository<LoanApplication
     @Query("SELECT la FROM LoanApplication la WHERE la.status IN :statuses ORDER BY la.createdAt ASC")
     List<LoanApplication> findByStatusInOrderByCreatedAtAsc(@Param("statuses") List<LoanApplication.ApplicationStatus> statuses);
     
+    // Listing pages select only the listing columns; the outer joins turn the inverse one-to-ones into presence flags
+    String LISTING_ROW_SELECT = "SELECT new com.portfolio.LOC.dto.ApplicationListingRow(" +
+           "la.id, la.applicationId, la.firstName, la.lastName, la.email, la.phoneNumber, la.monthlyIncome, " +
+           "la.loanAmount, la.loanPurpose, la.loanTenure, la.status, la.eligibilityScore, la.estimatedEmi, " +
+           "u.name, u.email, la.createdAt, la.updatedAt, r.id, o.id) " +
+           "FROM LoanApplication la JOIN la.submittedBy u LEFT JOIN la.rcpuReport r LEFT JOIN la.loanOfferLetter o ";
+    
+    @Query(LISTING_ROW_SELECT + "WHERE la.status = :status ORDER BY la.createdAt ASC, la.id ASC")
+    List<ApplicationListingRow> findQueuePage(@Param("status") LoanApplication.ApplicationStatus status, Pageable pageable);
+    
+    @Query(LISTING_ROW_SELECT + "WHERE la.status = :status " +
+           "AND (la.createdAt > :createdAt OR (la.createdAt = :createdAt AND la.id > :id)) " +
+           "ORDER BY la.createdAt ASC, la.id ASC")
+    List<ApplicationListingRow> findQueuePageAfter(@Param("status") LoanApplication.ApplicationStatus status,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+    
+    @Query(LISTING_ROW_SELECT + "ORDER BY la.createdAt DESC, la.id DESC")
+    List<ApplicationListingRow> findLatestPage(Pageable pageable);
+    
+    @Query(LISTING_ROW_SELECT + "WHERE la.createdAt < :createdAt OR (la.createdAt = :createdAt AND la.id < :id) " +
+           "ORDER BY la.createdAt DESC, la.id DESC")
+    List<ApplicationListingRow> findLatestPageBefore(@Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+    
     @Query("SELECT la FROM LoanApplication la WHERE la.submittedBy.email = :email ORDER BY la.createdAt DESC")
     List<LoanApplication> findBySubmittedByEmailOrderByCreatedAtDesc(@Param("email") String email);
     
@@ -40,6 +72,38 @@ public interface LoanApplicationRepository extends JpaRepository<LoanApplication
     @Query("SELECT la FROM LoanApplication la WHERE la.firstName LIKE %:name% OR la.lastName LIKE %:name% OR la.applicationId LIKE %:applicationId%")
     List<LoanApplication> searchByNameOrApplicationId(@Param("name") String name, @Param("applicationId") String applicationId);
     
+    List<LoanApplication> findTop10ByOrderByUpdatedAtDesc();
+    
+    List<LoanApplication> findTop4ByOrderByCreatedAtDesc();
+    
+    @Query("SELECT la.status AS status, la.loanPurpose AS loanPurpose, COUNT(la) AS applicationCount, " +
+           "SUM(la.loanAmount) AS totalAmount FROM LoanApplication la GROUP BY la.status, la.loanPurpose")
+    List<StatusPurposeAggregate> aggregateByStatusAndPurpose();
+    
+    @Query("SELECT YEAR(la.createdAt) AS createdYear, MONTH(la.createdAt) AS createdMonth, la.status AS status, " +
+           "COUNT(la) AS applicationCount, SUM(la.loanAmount) AS totalAmount FROM LoanApplication la " +
+           "GROUP BY YEAR(la.createdAt), MONTH(la.createdAt), la.status")
+    List<MonthlyStatusAggregate> aggregateByMonthAndStatus();
+    
+    // Applications scored under a different rule version, walked in primary-key order
+    @Query("SELECT new com.portfolio.LOC.dto.ScoringInputRow(la.id, la.monthlyIncome, la.employmentType, " +
+           "la.workExperience, la.hasCoApplicant, la.loanAmount) FROM LoanApplication la " +
+           "WHERE la.id > :afterId AND (la.eligibilityRuleVersion IS NULL OR la.eligibilityRuleVersion <> :version) " +
+           "ORDER BY la.id ASC")
+    List<ScoringInputRow> findStaleScoringInputs(@Param("version") Integer version,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+    
+    // Applications with a schedule, stored or lazily computed, walked in primary-key order
+    @Query("SELECT la.id FROM LoanApplication la WHERE la.id > :afterId " +
+           "AND (EXISTS (SELECT t.id FROM LoanTerms t WHERE t.loanApplication = la) " +
+           "OR EXISTS (SELECT e.id FROM EmiSchedule e WHERE e.loanApplication = la)) ORDER BY la.id ASC")
+    List<Long> findScheduledIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Primary keys in order; a page of size 1 at page n - 1 is the key that closes the next block of n loans
+    @Query("SELECT la.id FROM LoanApplication la WHERE la.id > :afterId ORDER BY la.id ASC")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
     boolean existsByPanNumber(String panNumber);
     
     boolean existsByAadhaarNumber(String aadhaarNumber);
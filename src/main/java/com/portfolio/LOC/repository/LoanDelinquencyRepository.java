@@ -0,0 +1,17 @@
+package com.portfolio.LOC.repository;
+
+import com.portfolio.LOC.dto.DelinquencyBucketAggregate;
+import com.portfolio.LOC.entity.LoanDelinquency;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LoanDelinquencyRepository extends JpaRepository<LoanDelinquency, Long> {
+    
+    @Query("SELECT d.bucket AS bucket, COUNT(d) AS loanCount, SUM(d.overdueEmis) AS emiCount, " +
+           "SUM(d.overdueAmount) AS totalAmount FROM LoanDelinquency d GROUP BY d.bucket")
+    List<DelinquencyBucketAggregate> aggregateByBucket();
+}
@@ -0,0 +1,9 @@
+package com.portfolio.LOC.repository;
+
+import com.portfolio.LOC.entity.LoanLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LoanLedgerRepository extends JpaRepository<LoanLedger, Long> {
+}
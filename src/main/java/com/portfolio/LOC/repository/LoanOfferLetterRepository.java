@@ -2,9 +2,14 @@ package com.portfolio.LOC.repository;
 
 import com.portfolio.LOC.entity.LoanOfferLetter;
 import com.portfolio.LOC.entity.LoanApplication;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,4 +22,16 @@ public interface LoanOfferLetterRepository extends JpaRepository<LoanOfferLetter
     Optional<LoanOfferLetter> findByOfferLetterNumber(String offerLetterNumber);
     
     boolean existsByLoanApplication(LoanApplication loanApplication);
+    
+    // Letters waiting for a render, plus those whose renderer stopped before finishing, in ID order after afterId
+    @Query("SELECT o.id FROM LoanOfferLetter o WHERE o.id > :afterId " +
+           "AND (o.pdfStatus = com.portfolio.LOC.entity.LoanOfferLetter$PdfStatus.PENDING " +
+           "OR (o.pdfStatus = com.portfolio.LOC.entity.LoanOfferLetter$PdfStatus.RENDERING AND o.pdfClaimedAt < :staleBefore)) " +
+           "ORDER BY o.id ASC")
+    List<Long> findIdsToRender(@Param("afterId") Long afterId, @Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+    
+    // Rendered letters stored before the blob store, in ID order after afterId
+    @Query("SELECT o.id FROM LoanOfferLetter o WHERE o.sha256 IS NULL AND o.id > :afterId " +
+           "AND o.pdfStatus = com.portfolio.LOC.entity.LoanOfferLetter$PdfStatus.READY ORDER BY o.id ASC")
+    List<Long> findIdsOutsideBlobStore(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,34 @@
+package com.portfolio.LOC.repository;
+
+import com.portfolio.LOC.dto.EmiTotals;
+import com.portfolio.LOC.entity.LoanTerms;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LoanTermsRepository extends JpaRepository<LoanTerms, Long> {
+    
+    Optional<LoanTerms> findByLoanApplicationId(Long loanApplicationId);
+    
+    List<LoanTerms> findByLoanApplicationIdIn(Collection<Long> loanApplicationIds);
+    
+    // The terms whose reserved EMI ID block could contain emiId; callers still check the upper bound
+    Optional<LoanTerms> findFirstByFirstEmiIdLessThanEqualOrderByFirstEmiIdDesc(Long emiId);
+    
+    @Query("SELECT t FROM LoanTerms t WHERE t.firstDueDate <= :date AND t.sweptThrough < t.tenureMonths")
+    List<LoanTerms> findWithUnsweptInstalmentsDueBy(LocalDate date);
+    
+    @Query("SELECT t FROM LoanTerms t WHERE t.firstDueDate < :date AND t.sweptThrough < t.tenureMonths " +
+           "AND t.id > :afterId ORDER BY t.id")
+    List<LoanTerms> findWithUnsweptInstalmentsDueBefore(LocalDate date, Long afterId, Pageable pageable);
+    
+    @Query("SELECT COALESCE(SUM(t.tenureMonths), 0) AS emiCount, COALESCE(SUM(t.totalAmount), 0) AS totalAmount FROM LoanTerms t")
+    EmiTotals sumScheduledEmis();
+}
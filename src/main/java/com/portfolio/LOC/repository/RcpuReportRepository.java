@@ -2,9 +2,13 @@ package com.portfolio.LOC.repository;
 
 import com.portfolio.LOC.entity.RcpuReport;
 import com.portfolio.LOC.entity.LoanApplication;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +19,8 @@ public interface RcpuReportRepository extends JpaRepository<RcpuReport, Long> {
     Optional<RcpuReport> findByLoanApplicationId(Long loanApplicationId);
     
     boolean existsByLoanApplication(LoanApplication loanApplication);
+    
+    // Reports stored before the blob store, in ID order after afterId
+    @Query("SELECT r.id FROM RcpuReport r WHERE r.sha256 IS NULL AND r.id > :afterId ORDER BY r.id ASC")
+    List<Long> findIdsOutsideBlobStore(@Param("afterId") Long afterId, Pageable pageable);
 }
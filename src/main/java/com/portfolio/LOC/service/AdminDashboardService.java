@@ -2,19 +2,29 @@ package com.portfolio.LOC.service;
 
 import com.portfolio.LOC.entity.LoanApplication;
 import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanDelinquency;
 import com.portfolio.LOC.entity.User;
-import com.portfolio.LOC.entity.ApprovalHistory;
 import com.portfolio.LOC.repository.LoanApplicationRepository;
-import com.portfolio.LOC.repository.EmiScheduleRepository;
 import com.portfolio.LOC.repository.UserRepository;
-import com.portfolio.LOC.repository.ApprovalHistoryRepository;
 import com.portfolio.LOC.dto.LoanApplicationResponse;
+import com.portfolio.LOC.dto.BlobMigrationRun;
+import com.portfolio.LOC.dto.BlobSweep;
+import com.portfolio.LOC.dto.CashFlowProjection;
+import com.portfolio.LOC.dto.CursorPage;
+import com.portfolio.LOC.dto.DelinquencyBucketAggregate;
+import com.portfolio.LOC.dto.DelinquencyRefresh;
+import com.portfolio.LOC.dto.LedgerReconciliation;
+import com.portfolio.LOC.dto.OfferLetterBatchRun;
+import com.portfolio.LOC.dto.RateResetRun;
+import com.portfolio.LOC.util.IdGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -26,13 +36,54 @@ public class AdminDashboardService {
     private LoanApplicationRepository loanApplicationRepository;
     
     @Autowired
-    private EmiScheduleRepository emiScheduleRepository;
+    private EmiScheduleService emiScheduleService;
+    
+    @Autowired
+    private DelinquencyService delinquencyService;
+    
+    @Autowired
+    private CashFlowProjectionService cashFlowProjectionService;
+    
+    @Autowired
+    private LoanRescheduleService loanRescheduleService;
+
+    @Autowired
+    private OfferLetterPdfService offerLetterPdfService;
+
+    @Autowired
+    private BlobStoreService blobStoreService;
+
+    @Autowired
+    private BlobMigrationService blobMigrationService;
     
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private ApprovalHistoryRepository approvalHistoryRepository;
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private ApplicationListingService applicationListingService;
+
+    @Autowired
+    private IdentityFingerprintService identityFingerprintService;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    private static final List<LoanApplication.ApplicationStatus> APPROVED_STATUSES = List.of(
+        LoanApplication.ApplicationStatus.L1_APPROVED,
+        LoanApplication.ApplicationStatus.L2_APPROVED,
+        LoanApplication.ApplicationStatus.L3_APPROVED
+    );
+
+    private static final List<LoanApplication.ApplicationStatus> PENDING_STATUSES = List.of(
+        LoanApplication.ApplicationStatus.SUBMITTED,
+        LoanApplication.ApplicationStatus.PENDING_RCPU,
+        LoanApplication.ApplicationStatus.PENDING_L1,
+        LoanApplication.ApplicationStatus.PENDING_L2,
+        LoanApplication.ApplicationStatus.PENDING_L3
+    );
 
     public Map<String, Object> getDashboardData() {
         Map<String, Object> dashboardData = new HashMap<>();
@@ -67,18 +118,68 @@ public class AdminDashboardService {
         return dashboardData;
     }
 
+    public Map<String, Object> rebuildDashboardAggregates(String userEmail) {
+        requireAdmin(userEmail);
+        long start = System.currentTimeMillis();
+        dashboardAggregateService.rebuild();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("message", "Dashboard aggregates rebuilt successfully");
+        result.put("totalApplications", dashboardAggregateService.countApplications());
+        result.put("totalEmis", dashboardAggregateService.countEmis());
+        result.put("durationMs", System.currentTimeMillis() - start);
+        result.put("rebuiltAt", dashboardAggregateService.getLastRebuiltAt());
+        return result;
+    }
+
+    // Metrics of the overdue EMI job on this node (each node only sees the runs it executed)
+    public Map<String, Object> getOverdueEmiJobStatus(String userEmail) {
+        requireAdmin(userEmail);
+        Map<String, Object> status = new HashMap<>();
+        status.put("lastRun", emiScheduleService.getLastOverdueRun());
+        status.put("runs", emiScheduleService.getOverdueRunCount());
+        status.put("rowsAffected", emiScheduleService.getOverdueRowsAffected());
+        return status;
+    }
+
+    public DelinquencyRefresh backfillDelinquency(String userEmail) {
+        requireAdmin(userEmail);
+        return delinquencyService.refreshAll();
+    }
+
+    public LedgerReconciliation reconcileLedgers(String userEmail) {
+        requireAdmin(userEmail);
+        return emiScheduleService.reconcileLedgers();
+    }
+
+    public CashFlowProjection getCashFlowProjection(Integer months) {
+        return cashFlowProjectionService.getProjection(months == null ? 12 : months);
+    }
+
+    public RateResetRun resetRates(List<Long> loanApplicationIds, BigDecimal annualInterestRate,
+                                   LoanRescheduleService.Mode mode, String userEmail) {
+        return loanRescheduleService.resetRates(loanApplicationIds, annualInterestRate, mode, userEmail);
+    }
+
+    public OfferLetterBatchRun renderOfferLetters(Integer limit, String userEmail) {
+        requireAdmin(userEmail);
+        return offerLetterPdfService.renderPending(limit == null ? 10_000 : limit);
+    }
+
+    public BlobSweep sweepBlobStore(String userEmail) {
+        requireAdmin(userEmail);
+        return blobStoreService.sweep();
+    }
+
+    public BlobMigrationRun migrateFilesToBlobStore(String userEmail) {
+        requireAdmin(userEmail);
+        return blobMigrationService.migrateLegacyFiles();
+    }
+
     // Get all loan applications for admin
-    public List<LoanApplicationResponse> getAllApplications() {
-        return loanApplicationRepository.findAll()
-            .stream()
-            .map(application -> {
-                // Load approval history for each application
-                List<ApprovalHistory> history = approvalHistoryRepository.findByLoanApplicationIdOrderByCreatedAtAsc(application.getId());
-                application.setApprovalHistory(history);
-                return new LoanApplicationResponse(application);
-            })
-            .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-            .collect(Collectors.toList());
+    public CursorPage<LoanApplicationResponse> getAllApplications(String cursor, Integer size) {
+        // Approval history is batch-loaded for the whole page
+        return applicationListingService.findLatestResponses(cursor, size);
     }
 
     // Get all users for admin
@@ -89,6 +190,15 @@ public class AdminDashboardService {
             .collect(Collectors.toList());
     }
 
+    // The maintenance endpoints rewrite or delete shared data, so only an admin may run them
+    private void requireAdmin(String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!user.getRole().equals(User.Role.ADMIN)) {
+            throw new RuntimeException("User not authorized to run maintenance tasks");
+        }
+    }
+
     private Map<String, Object> convertUserToMap(User user) {
         Map<String, Object> userMap = new HashMap<>();
         userMap.put("id", user.getId());
@@ -115,37 +225,24 @@ public class AdminDashboardService {
     private Map<String, Object> getSummaryStatistics() {
         Map<String, Object> summary = new HashMap<>();
         
-        List<LoanApplication> allApplications = loanApplicationRepository.findAll();
+        long approvedCount = countApproved();
+        BigDecimal totalLoanAmount = sumApprovedAmount();
         
-        summary.put("totalApplications", allApplications.size());
+        summary.put("totalApplications", dashboardAggregateService.countApplications());
         summary.put("totalApplicationsChange", 12.5); // Mock change percentage
-        summary.put("approvedApplications", allApplications.stream()
-            .filter(app -> isApproved(app.getStatus()))
-            .count());
+        summary.put("approvedApplications", approvedCount);
         summary.put("approvedApplicationsChange", 8.3); // Mock change percentage
-        summary.put("rejectedApplications", allApplications.stream()
-            .filter(app -> app.getStatus() == LoanApplication.ApplicationStatus.REJECTED)
-            .count());
+        summary.put("rejectedApplications", dashboardAggregateService.countApplications(LoanApplication.ApplicationStatus.REJECTED));
         summary.put("rejectedApplicationsChange", 2.8); // Mock change percentage
-        summary.put("pendingApplications", allApplications.stream()
-            .filter(app -> isPending(app.getStatus()))
-            .count());
+        summary.put("pendingApplications", countPending());
         summary.put("pendingApplicationsChange", -5.1); // Mock change percentage
         
-        BigDecimal totalLoanAmount = allApplications.stream()
-            .filter(app -> isApproved(app.getStatus()))
-            .map(LoanApplication::getLoanAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
         summary.put("totalLoanAmount", totalLoanAmount);
         summary.put("totalLoanAmountChange", 15.2); // Mock change percentage
+        summary.put("requestedLoanAmount", sumRequestedAmount());
 
-        BigDecimal averageLoanAmount = allApplications.stream()
-            .filter(app -> isApproved(app.getStatus()))
-            .map(LoanApplication::getLoanAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(Math.max(1, allApplications.stream()
-                .filter(app -> isApproved(app.getStatus()))
-                .count())), 2, BigDecimal.ROUND_HALF_UP);
+        BigDecimal averageLoanAmount = totalLoanAmount
+            .divide(BigDecimal.valueOf(Math.max(1, approvedCount)), 2, RoundingMode.HALF_UP);
         summary.put("averageLoanAmount", averageLoanAmount);
         summary.put("averageLoanAmountChange", 7.5); // Mock change percentage
         
@@ -155,21 +252,18 @@ public class AdminDashboardService {
     private List<Map<String, Object>> getApplicationStatusDistribution() {
         List<Map<String, Object>> distribution = new ArrayList<>();
 
-        Map<LoanApplication.ApplicationStatus, Long> statusCounts = loanApplicationRepository.findAll()
-            .stream()
-            .collect(Collectors.groupingBy(
-                LoanApplication::getStatus,
-                Collectors.counting()
-            ));
-
         // Map status to stage names and colors to match frontend expectations
         String[] colors = {"#3B82F6", "#8B5CF6", "#F59E0B", "#EF4444", "#10B981", "#059669"};
         int colorIndex = 0;
 
-        for (Map.Entry<LoanApplication.ApplicationStatus, Long> entry : statusCounts.entrySet()) {
+        for (LoanApplication.ApplicationStatus status : LoanApplication.ApplicationStatus.values()) {
+            long count = dashboardAggregateService.countApplications(status);
+            if (count == 0) {
+                continue;
+            }
             Map<String, Object> statusData = new HashMap<>();
-            statusData.put("stage", getStageNameFromStatus(entry.getKey()));
-            statusData.put("count", entry.getValue());
+            statusData.put("stage", getStageNameFromStatus(status));
+            statusData.put("count", count);
             statusData.put("color", colors[colorIndex % colors.length]);
             distribution.add(statusData);
             colorIndex++;
@@ -217,54 +311,47 @@ public class AdminDashboardService {
     private List<Map<String, Object>> getMonthlyTrends() {
         List<Map<String, Object>> trends = new ArrayList<>();
         
-        LocalDateTime sixMonthsAgo = LocalDateTime.now().minusMonths(6);
-        List<LoanApplication> recentApplications = loanApplicationRepository.findAll()
-            .stream()
-            .filter(app -> app.getCreatedAt().isAfter(sixMonthsAgo))
-            .collect(Collectors.toList());
-        
-        Map<String, List<LoanApplication>> monthlyGroups = recentApplications.stream()
-            .collect(Collectors.groupingBy(app -> 
-                app.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM"))
-            ));
+        YearMonth sixMonthsAgo = YearMonth.from(LocalDateTime.now().minusMonths(6));
+        NavigableMap<YearMonth, DashboardAggregateService.MonthlyBucket> monthlyBuckets =
+            dashboardAggregateService.getMonthlyBuckets(sixMonthsAgo);
         
-        for (Map.Entry<String, List<LoanApplication>> entry : monthlyGroups.entrySet()) {
+        for (Map.Entry<YearMonth, DashboardAggregateService.MonthlyBucket> entry : monthlyBuckets.entrySet()) {
+            DashboardAggregateService.MonthlyBucket bucket = entry.getValue();
+            long approved = 0;
+            BigDecimal amount = BigDecimal.ZERO;
+            for (LoanApplication.ApplicationStatus status : APPROVED_STATUSES) {
+                approved += bucket.getCount(status);
+                amount = amount.add(bucket.getAmount(status));
+            }
+            
             Map<String, Object> monthData = new HashMap<>();
-            monthData.put("month", getShortMonthName(entry.getKey()));
-            monthData.put("applications", entry.getValue().size());
-            monthData.put("approved", entry.getValue().stream()
-                .filter(app -> isApproved(app.getStatus()))
-                .count());
-            monthData.put("amount", entry.getValue().stream()
-                .filter(app -> isApproved(app.getStatus()))
-                .map(LoanApplication::getLoanAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add));
+            monthData.put("month", getShortMonthName(entry.getKey().format(DateTimeFormatter.ofPattern("yyyy-MM"))));
+            monthData.put("applications", bucket.getTotalCount());
+            monthData.put("approved", approved);
+            monthData.put("amount", amount);
             trends.add(monthData);
         }
         
-        return trends.stream()
-            .sorted((a, b) -> ((String) a.get("month")).compareTo((String) b.get("month")))
-            .collect(Collectors.toList());
+        return trends;
     }
     
     private List<Map<String, Object>> getLoanPurposeDistribution() {
         List<Map<String, Object>> distribution = new ArrayList<>();
         
-        Map<LoanApplication.LoanPurpose, Long> purposeCounts = loanApplicationRepository.findAll()
-            .stream()
-            .filter(app -> isApproved(app.getStatus()))
-            .collect(Collectors.groupingBy(
-                LoanApplication::getLoanPurpose,
-                Collectors.counting()
-            ));
-        
         String[] colors = {"#3B82F6", "#8B5CF6", "#F59E0B", "#EF4444", "#6B7280"};
         int colorIndex = 0;
 
-        for (Map.Entry<LoanApplication.LoanPurpose, Long> entry : purposeCounts.entrySet()) {
+        for (LoanApplication.LoanPurpose purpose : LoanApplication.LoanPurpose.values()) {
+            long count = 0;
+            for (LoanApplication.ApplicationStatus status : APPROVED_STATUSES) {
+                count += dashboardAggregateService.countApplications(status, purpose);
+            }
+            if (count == 0) {
+                continue;
+            }
             Map<String, Object> purposeData = new HashMap<>();
-            purposeData.put("purpose", getPurposeName(entry.getKey()));
-            purposeData.put("value", entry.getValue());
+            purposeData.put("purpose", getPurposeName(purpose));
+            purposeData.put("value", count);
             purposeData.put("color", colors[colorIndex % colors.length]);
             distribution.add(purposeData);
             colorIndex++;
@@ -276,25 +363,21 @@ public class AdminDashboardService {
     private Map<String, Object> getEmiPerformance() {
         Map<String, Object> performance = new HashMap<>();
         
-        List<EmiSchedule> allEmis = emiScheduleRepository.findAll();
-        
-        long totalEmis = allEmis.size();
-        long paidEmis = allEmis.stream()
-            .filter(emi -> emi.getStatus() == EmiSchedule.EmiStatus.PAID)
-            .count();
-        long overdueEmis = allEmis.stream()
-            .filter(emi -> emi.getStatus() == EmiSchedule.EmiStatus.OVERDUE)
-            .count();
+        long totalEmis = dashboardAggregateService.countEmis();
+        long paidEmis = dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.PAID);
+        long overdueEmis = dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.OVERDUE);
         
         performance.put("totalEmis", totalEmis);
         performance.put("paidEmis", paidEmis);
         performance.put("overdueEmis", overdueEmis);
         performance.put("collectionRate", totalEmis > 0 ? (double) paidEmis / totalEmis * 100 : 0);
         
-        BigDecimal totalOutstanding = allEmis.stream()
-            .filter(emi -> emi.getStatus() != EmiSchedule.EmiStatus.PAID)
-            .map(EmiSchedule::getEmiAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalOutstanding = BigDecimal.ZERO;
+        for (EmiSchedule.EmiStatus status : EmiSchedule.EmiStatus.values()) {
+            if (status != EmiSchedule.EmiStatus.PAID) {
+                totalOutstanding = totalOutstanding.add(dashboardAggregateService.sumEmiAmount(status));
+            }
+        }
         performance.put("totalOutstanding", totalOutstanding);
         
         return performance;
@@ -303,11 +386,7 @@ public class AdminDashboardService {
     private List<Map<String, Object>> getRecentActivities() {
         List<Map<String, Object>> activities = new ArrayList<>();
         
-        List<LoanApplication> recentApplications = loanApplicationRepository.findAll()
-            .stream()
-            .sorted((a, b) -> b.getUpdatedAt().compareTo(a.getUpdatedAt()))
-            .limit(10)
-            .collect(Collectors.toList());
+        List<LoanApplication> recentApplications = loanApplicationRepository.findTop10ByOrderByUpdatedAtDesc();
         
         for (LoanApplication app : recentApplications) {
             Map<String, Object> activity = new HashMap<>();
@@ -322,46 +401,81 @@ public class AdminDashboardService {
         return activities;
     }
     
+    // Read from loan_delinquency's grouped bucket totals, a handful of rows whichever node serves the request.
+    // totalOverdue and npaAmount cover every past-due unpaid instalment; npa30Days and npa90Days count loans
+    // more than 30 and 90 days past due.
     private Map<String, Object> getNpaAnalysis() {
         Map<String, Object> npaData = new HashMap<>();
+        Map<LoanDelinquency.Bucket, DelinquencyBucketAggregate> totals = delinquencyService.getBucketTotals();
         
-        LocalDate thirtyDaysAgo = LocalDate.now().minusDays(30);
-        LocalDate ninetyDaysAgo = LocalDate.now().minusDays(90);
-        
-        List<EmiSchedule> overdueEmis = emiScheduleRepository.findOverdueEmis(LocalDate.now());
-        
-        long npa30 = overdueEmis.stream()
-            .filter(emi -> emi.getDueDate().isBefore(thirtyDaysAgo))
-            .count();
+        long totalOverdue = 0;
+        long npa30 = 0;
+        long npa90 = 0;
+        BigDecimal npaAmount = BigDecimal.ZERO;
+        List<Map<String, Object>> buckets = new ArrayList<>();
         
-        long npa90 = overdueEmis.stream()
-            .filter(emi -> emi.getDueDate().isBefore(ninetyDaysAgo))
-            .count();
+        for (LoanDelinquency.Bucket bucket : LoanDelinquency.Bucket.values()) {
+            DelinquencyBucketAggregate row = totals.get(bucket);
+            long loans = row == null ? 0 : row.getLoanCount();
+            long emis = row == null ? 0 : row.getEmiCount();
+            BigDecimal amount = row == null ? BigDecimal.ZERO : row.getTotalAmount();
+            
+            totalOverdue += emis;
+            npaAmount = npaAmount.add(amount);
+            if (bucket != LoanDelinquency.Bucket.SMA_0) {
+                npa30 += loans;
+            }
+            if (bucket == LoanDelinquency.Bucket.NPA) {
+                npa90 += loans;
+            }
+            
+            Map<String, Object> bucketData = new HashMap<>();
+            bucketData.put("bucket", bucket.toString());
+            bucketData.put("loans", loans);
+            bucketData.put("overdueEmis", emis);
+            bucketData.put("overdueAmount", amount);
+            buckets.add(bucketData);
+        }
         
-        npaData.put("totalOverdue", overdueEmis.size());
+        npaData.put("totalOverdue", totalOverdue);
         npaData.put("npa30Days", npa30);
         npaData.put("npa90Days", npa90);
-        
-        BigDecimal npaAmount = overdueEmis.stream()
-            .map(EmiSchedule::getEmiAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
         npaData.put("npaAmount", npaAmount);
+        npaData.put("buckets", buckets);
         
         return npaData;
     }
     
-    private boolean isApproved(LoanApplication.ApplicationStatus status) {
-        return status == LoanApplication.ApplicationStatus.L1_APPROVED ||
-               status == LoanApplication.ApplicationStatus.L2_APPROVED ||
-               status == LoanApplication.ApplicationStatus.L3_APPROVED;
+    private long countApproved() {
+        long count = 0;
+        for (LoanApplication.ApplicationStatus status : APPROVED_STATUSES) {
+            count += dashboardAggregateService.countApplications(status);
+        }
+        return count;
     }
     
-    private boolean isPending(LoanApplication.ApplicationStatus status) {
-        return status == LoanApplication.ApplicationStatus.SUBMITTED ||
-               status == LoanApplication.ApplicationStatus.PENDING_RCPU ||
-               status == LoanApplication.ApplicationStatus.PENDING_L1 ||
-               status == LoanApplication.ApplicationStatus.PENDING_L2 ||
-               status == LoanApplication.ApplicationStatus.PENDING_L3;
+    private BigDecimal sumApprovedAmount() {
+        BigDecimal amount = BigDecimal.ZERO;
+        for (LoanApplication.ApplicationStatus status : APPROVED_STATUSES) {
+            amount = amount.add(dashboardAggregateService.sumLoanAmount(status));
+        }
+        return amount;
+    }
+    
+    private BigDecimal sumRequestedAmount() {
+        BigDecimal amount = BigDecimal.ZERO;
+        for (LoanApplication.ApplicationStatus status : LoanApplication.ApplicationStatus.values()) {
+            amount = amount.add(dashboardAggregateService.sumLoanAmount(status));
+        }
+        return amount;
+    }
+    
+    private long countPending() {
+        long count = 0;
+        for (LoanApplication.ApplicationStatus status : PENDING_STATUSES) {
+            count += dashboardAggregateService.countApplications(status);
+        }
+        return count;
     }
 
     private List<Map<String, Object>> getEmiDelays() {
@@ -385,11 +499,7 @@ public class AdminDashboardService {
     private List<Map<String, Object>> getRecentApplicationsForDashboard() {
         List<Map<String, Object>> recentApps = new ArrayList<>();
 
-        List<LoanApplication> applications = loanApplicationRepository.findAll()
-            .stream()
-            .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-            .limit(4)
-            .collect(Collectors.toList());
+        List<LoanApplication> applications = loanApplicationRepository.findTop4ByOrderByCreatedAtDesc();
 
         for (LoanApplication app : applications) {
             Map<String, Object> appData = new HashMap<>();
@@ -407,7 +517,7 @@ public class AdminDashboardService {
     public Map<String, Object> createTestL3Application() {
         // Create a test application with high loan amount that should go to L3
         LoanApplication testApp = new LoanApplication();
-        testApp.setApplicationId("LA" + System.currentTimeMillis());
+        testApp.setApplicationId(idGenerator.nextId(IdGenerator.APPLICATION_PREFIX));
         testApp.setFirstName("Test");
         testApp.setLastName("Applicant");
         testApp.setEmail("test@example.com");
@@ -443,6 +553,8 @@ public class AdminDashboardService {
         testApp.setSubmittedBy(submittedBy);
 
         LoanApplication savedApp = loanApplicationRepository.save(testApp);
+        identityFingerprintService.recordFingerprint(savedApp);
+        dashboardAggregateService.recordApplicationCreated(savedApp);
 
         Map<String, Object> result = new HashMap<>();
         result.put("message", "Test L3 application created successfully");
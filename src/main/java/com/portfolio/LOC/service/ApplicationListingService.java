@@ -0,0 +1,125 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.ApplicationListingRow;
+import com.portfolio.LOC.dto.CursorPage;
+import com.portfolio.LOC.dto.DocumentTypeRow;
+import com.portfolio.LOC.dto.LoanApplicationResponse;
+import com.portfolio.LOC.dto.PageCursor;
+import com.portfolio.LOC.entity.ApprovalHistory;
+import com.portfolio.LOC.entity.Document;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.repository.ApprovalHistoryRepository;
+import com.portfolio.LOC.repository.DocumentRepository;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Keyset (seek) pagination on (createdAt, id) shared by every application listing endpoint
+@Service
+@Transactional(readOnly = true)
+public class ApplicationListingService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private ApprovalHistoryRepository approvalHistoryRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    // Work queues are served oldest first
+    public CursorPage<ApplicationListingRow> findQueuePage(LoanApplication.ApplicationStatus status, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+
+        List<ApplicationListingRow> rows = after == null
+            ? loanApplicationRepository.findQueuePage(status, fetchWindow(pageSize))
+            : loanApplicationRepository.findQueuePageAfter(status, after.getCreatedAt(), after.getId(), fetchWindow(pageSize));
+
+        return toPage(rows, pageSize);
+    }
+
+    // Overview listings are served newest first
+    public CursorPage<ApplicationListingRow> findLatestPage(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        PageCursor before = PageCursor.decode(cursor);
+
+        List<ApplicationListingRow> rows = before == null
+            ? loanApplicationRepository.findLatestPage(fetchWindow(pageSize))
+            : loanApplicationRepository.findLatestPageBefore(before.getCreatedAt(), before.getId(), fetchWindow(pageSize));
+
+        return toPage(rows, pageSize);
+    }
+
+    public CursorPage<LoanApplicationResponse> findQueueResponses(LoanApplication.ApplicationStatus status, String cursor, Integer size) {
+        return toResponses(findQueuePage(status, cursor, size));
+    }
+
+    public CursorPage<LoanApplicationResponse> findLatestResponses(String cursor, Integer size) {
+        return toResponses(findLatestPage(cursor, size));
+    }
+
+    // Builds the responses for a whole page with one history query and one document-type query,
+    // instead of initializing the lazy collections application by application
+    private CursorPage<LoanApplicationResponse> toResponses(CursorPage<ApplicationListingRow> page) {
+        if (page.getItems().isEmpty()) {
+            return new CursorPage<>(Collections.emptyList(), page.getNextCursor());
+        }
+        List<Long> applicationIds = page.getItems().stream()
+            .map(ApplicationListingRow::getId)
+            .collect(Collectors.toList());
+
+        Map<Long, List<ApprovalHistory>> historyByApplication = new HashMap<>();
+        for (ApprovalHistory history : approvalHistoryRepository.findWithApproverByLoanApplicationIds(applicationIds)) {
+            historyByApplication.computeIfAbsent(history.getLoanApplication().getId(), id -> new ArrayList<>()).add(history);
+        }
+
+        Map<Long, List<Document.DocumentType>> documentTypesByApplication = new HashMap<>();
+        for (DocumentTypeRow row : documentRepository.findDocumentTypesByLoanApplicationIds(applicationIds)) {
+            documentTypesByApplication.computeIfAbsent(row.getLoanApplicationId(), id -> new ArrayList<>()).add(row.getDocumentType());
+        }
+
+        return page.map(row -> new LoanApplicationResponse(
+            row,
+            historyByApplication.getOrDefault(row.getId(), Collections.emptyList()),
+            documentTypesByApplication.getOrDefault(row.getId(), Collections.emptyList())));
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new RuntimeException("Page size must be positive");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    // One extra row tells us whether another page exists without a COUNT query
+    private Pageable fetchWindow(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    private CursorPage<ApplicationListingRow> toPage(List<ApplicationListingRow> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ApplicationListingRow> items = rows.subList(0, pageSize);
+        ApplicationListingRow last = items.get(pageSize - 1);
+        return new CursorPage<>(items, new PageCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+}
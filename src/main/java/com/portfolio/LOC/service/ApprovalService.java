@@ -3,6 +3,7 @@ package com.portfolio.LOC.service;
 import com.portfolio.LOC.entity.*;
 import com.portfolio.LOC.repository.*;
 import com.portfolio.LOC.dto.LoanApplicationResponse;
+import com.portfolio.LOC.dto.CursorPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -10,7 +11,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -27,13 +27,16 @@ public class ApprovalService {
     
     @Autowired
     private RcpuReportRepository rcpuReportRepository;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private ApplicationListingService applicationListingService;
     
     // L1 Manager Methods
-    public List<LoanApplicationResponse> getApplicationsForL1() {
-        return loanApplicationRepository.findByStatusOrderByCreatedAtAsc(LoanApplication.ApplicationStatus.PENDING_L1)
-            .stream()
-            .map(LoanApplicationResponse::new)
-            .collect(Collectors.toList());
+    public CursorPage<LoanApplicationResponse> getApplicationsForL1(String cursor, Integer size) {
+        return applicationListingService.findQueueResponses(LoanApplication.ApplicationStatus.PENDING_L1, cursor, size);
     }
     
     public LoanApplicationResponse processL1Decision(Long applicationId, String decision, String remarks, String userEmail) {
@@ -51,6 +54,7 @@ public class ApprovalService {
             throw new RuntimeException("Application is not in PENDING_L1 status");
         }
         
+        LoanApplication.ApplicationStatus previousStatus = application.getStatus();
         ApprovalHistory.Decision historyDecision;
         
         if ("approve".equals(decision)) {
@@ -73,6 +77,7 @@ public class ApprovalService {
         
         application.setUpdatedAt(LocalDateTime.now());
         LoanApplication savedApplication = loanApplicationRepository.save(application);
+        dashboardAggregateService.recordStatusChange(savedApplication, previousStatus);
         
         // Create approval history entry
         ApprovalHistory history = new ApprovalHistory(
@@ -84,11 +89,8 @@ public class ApprovalService {
     }
     
     // L2 Manager Methods
-    public List<LoanApplicationResponse> getApplicationsForL2() {
-        return loanApplicationRepository.findByStatusOrderByCreatedAtAsc(LoanApplication.ApplicationStatus.PENDING_L2)
-            .stream()
-            .map(LoanApplicationResponse::new)
-            .collect(Collectors.toList());
+    public CursorPage<LoanApplicationResponse> getApplicationsForL2(String cursor, Integer size) {
+        return applicationListingService.findQueueResponses(LoanApplication.ApplicationStatus.PENDING_L2, cursor, size);
     }
     
     public LoanApplicationResponse processL2Decision(Long applicationId, String decision, String remarks, String userEmail) {
@@ -106,6 +108,7 @@ public class ApprovalService {
             throw new RuntimeException("Application is not in PENDING_L2 status");
         }
         
+        LoanApplication.ApplicationStatus previousStatus = application.getStatus();
         ApprovalHistory.Decision historyDecision;
         
         if ("approve".equals(decision)) {
@@ -128,6 +131,7 @@ public class ApprovalService {
         
         application.setUpdatedAt(LocalDateTime.now());
         LoanApplication savedApplication = loanApplicationRepository.save(application);
+        dashboardAggregateService.recordStatusChange(savedApplication, previousStatus);
         
         // Create approval history entry
         ApprovalHistory history = new ApprovalHistory(
@@ -139,11 +143,8 @@ public class ApprovalService {
     }
     
     // L3 Admin Methods
-    public List<LoanApplicationResponse> getApplicationsForL3() {
-        return loanApplicationRepository.findByStatusOrderByCreatedAtAsc(LoanApplication.ApplicationStatus.PENDING_L3)
-            .stream()
-            .map(LoanApplicationResponse::new)
-            .collect(Collectors.toList());
+    public CursorPage<LoanApplicationResponse> getApplicationsForL3(String cursor, Integer size) {
+        return applicationListingService.findQueueResponses(LoanApplication.ApplicationStatus.PENDING_L3, cursor, size);
     }
     
     public LoanApplicationResponse processL3Decision(Long applicationId, String decision, String remarks, String userEmail) {
@@ -161,6 +162,7 @@ public class ApprovalService {
             throw new RuntimeException("Application is not in PENDING_L3 status");
         }
         
+        LoanApplication.ApplicationStatus previousStatus = application.getStatus();
         ApprovalHistory.Decision historyDecision;
         
         if ("approve".equals(decision)) {
@@ -175,6 +177,7 @@ public class ApprovalService {
         
         application.setUpdatedAt(LocalDateTime.now());
         LoanApplication savedApplication = loanApplicationRepository.save(application);
+        dashboardAggregateService.recordStatusChange(savedApplication, previousStatus);
         
         // Create approval history entry
         ApprovalHistory history = new ApprovalHistory(
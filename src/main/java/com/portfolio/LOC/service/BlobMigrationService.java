@@ -0,0 +1,128 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.BlobMigrationRun;
+import com.portfolio.LOC.repository.DocumentRepository;
+import com.portfolio.LOC.repository.LoanOfferLetterRepository;
+import com.portfolio.LOC.repository.RcpuReportRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.BiFunction;
+
+// Moves files written before the blob store (uploads/documents, uploads/rcpu-reports, uploads/loan-offers)
+// into it. Each row is repointed at its blob and takes a reference in one short transaction, and the old
+// file is deleted once that commits, so identical files collapse into one blob. Rows whose file is gone are
+// counted and left alone. Safe to rerun: migrated rows carry a checksum and are not picked up again.
+@Service
+public class BlobMigrationService {
+
+    private static final int PAGE_SIZE = 500;
+
+    @Autowired
+    private BlobStoreService blobStoreService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private RcpuReportRepository rcpuReportRepository;
+
+    @Autowired
+    private LoanOfferLetterRepository loanOfferLetterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BlobMigrationRun migrateLegacyFiles() {
+        long started = System.currentTimeMillis();
+        BlobMigrationRun run = new BlobMigrationRun();
+        List<Source> sources = List.of(
+            new Source("documents", "file_path", documentRepository::findIdsOutsideBlobStore),
+            new Source("rcpu_reports", "report_file_path", rcpuReportRepository::findIdsOutsideBlobStore),
+            new Source("loan_offer_letters", "file_path", loanOfferLetterRepository::findIdsOutsideBlobStore));
+        for (Source source : sources) {
+            long afterId = 0;
+            while (true) {
+                List<Long> ids = source.ids().apply(afterId, PageRequest.of(0, PAGE_SIZE));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                afterId = ids.get(ids.size() - 1);
+                for (Long id : ids) {
+                    migrate(source, id, run);
+                }
+            }
+        }
+        run.setDurationMillis(System.currentTimeMillis() - started);
+        return run;
+    }
+
+    private void migrate(Source source, Long id, BlobMigrationRun run) {
+        String legacyPath = jdbcTemplate.queryForObject(
+            "SELECT " + source.pathColumn() + " FROM " + source.table() + " WHERE id = ?", String.class, id);
+        Path legacy = Paths.get(legacyPath);
+        if (!Files.isRegularFile(legacy)) {
+            run.addMissing();
+            return;
+        }
+
+        BlobStoreService.StagedBlob staged;
+        try (InputStream in = Files.newInputStream(legacy)) {
+            staged = blobStoreService.stage(in, Long.MAX_VALUE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read " + legacyPath + ": " + e.getMessage());
+        }
+        Path blob = blobStoreService.pathOf(staged.sha256());
+        boolean duplicate = Files.exists(blob);
+
+        // The row is only repointed if nothing changed it since it was read
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        boolean moved;
+        try {
+            moved = template.execute(status -> {
+                if (jdbcTemplate.update("UPDATE " + source.table() + " SET " + source.pathColumn() + " = ?, sha256 = ? "
+                        + "WHERE id = ? AND sha256 IS NULL AND " + source.pathColumn() + " = ?",
+                        blob.toString(), staged.sha256(), id, legacyPath) == 0) {
+                    return false;
+                }
+                blobStoreService.acquire(staged);
+                return true;
+            });
+        } catch (RuntimeException e) {
+            blobStoreService.discard(staged);
+            throw e;
+        }
+        if (!moved) {
+            blobStoreService.discard(staged);
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(legacy);
+        } catch (IOException e) {
+            System.out.println("BlobMigrationService - migrated " + legacyPath + " but could not delete it: " + e.getMessage());
+        }
+        run.addMigrated(staged.size(), duplicate);
+    }
+
+    // A table with file-backed rows, the column holding the file's path, and its rows still outside the store
+    private record Source(String table, String pathColumn, BiFunction<Long, Pageable, List<Long>> ids) {
+    }
+}
@@ -0,0 +1,426 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.BlobSweep;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Content-addressed store for uploaded and generated files. Each distinct file is kept once, at
+// <root>/ab/cd/<sha256>, with a blobs row counting the documents, RCPU reports and offer letters that
+// reference it. A file is staged (written and hashed) with no transaction open; acquire then takes a
+// reference and moves it into place inside the caller's transaction, and release drops one. Both acquire
+// and collect lock the blob's row first, so a blob is never deleted under an upload that reuses it.
+@Service
+public class BlobStoreService {
+
+    private static final String STAGING_DIR = "tmp";
+
+    private static final String INCREMENT_SQL = "UPDATE blobs SET ref_count = ref_count + 1, updated_at = ? WHERE sha256 = ?";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO blobs (sha256, file_size, ref_count, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String DECREMENT_SQL =
+        "UPDATE blobs SET ref_count = ref_count - 1, updated_at = ? WHERE sha256 = ? AND ref_count > 0";
+
+    private static final String LOCK_SQL = "SELECT ref_count FROM blobs WHERE sha256 = ? FOR UPDATE";
+
+    private static final String DELETE_SQL = "DELETE FROM blobs WHERE sha256 = ? AND ref_count = 0";
+
+    private static final String REFERENCES_SQL =
+        "SELECT (SELECT COUNT(*) FROM documents WHERE sha256 = ?) + (SELECT COUNT(*) FROM rcpu_reports WHERE sha256 = ?) " +
+        "+ (SELECT COUNT(*) FROM loan_offer_letters WHERE sha256 = ?)";
+
+    private static final String REFERENCED_SQL =
+        "SELECT sha256 FROM documents WHERE sha256 IS NOT NULL UNION ALL " +
+        "SELECT sha256 FROM rcpu_reports WHERE sha256 IS NOT NULL UNION ALL " +
+        "SELECT sha256 FROM loan_offer_letters WHERE sha256 IS NOT NULL";
+
+    // Blobs whose count disagrees with the rows referencing them
+    private static final String DRIFTED_SQL =
+        "SELECT b.sha256 FROM blobs b LEFT JOIN (SELECT r.sha256, COUNT(*) AS refs FROM (" + REFERENCED_SQL + ") r " +
+        "GROUP BY r.sha256) c ON c.sha256 = b.sha256 WHERE b.ref_count <> COALESCE(c.refs, 0)";
+
+    // References with no blob row at all
+    private static final String UNREGISTERED_SQL =
+        "SELECT DISTINCT r.sha256 FROM (" + REFERENCED_SQL + ") r LEFT JOIN blobs b ON b.sha256 = r.sha256 " +
+        "WHERE b.sha256 IS NULL";
+
+    private static final String UNREFERENCED_SQL = "SELECT sha256, file_size FROM blobs WHERE ref_count = 0";
+
+    private static final String REGISTERED_SQL = "SELECT sha256 FROM blobs WHERE sha256 IN (:shas)";
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${smartloan.blobs.root:uploads/blobs}")
+    private String root;
+
+    @Value("${smartloan.blobs.staging-grace-minutes:60}")
+    private int stagingGraceMinutes;
+
+    // Writes the body to the staging directory through FileChannel.transferFrom, hashing it in the same pass.
+    // The transfer pulls the body through one small buffer and stops at the first byte past maxSize
+    // (Long.MAX_VALUE for no limit).
+    public StagedBlob stage(InputStream body, long maxSize) throws IOException {
+        Path partial = newStagingFile();
+        long limit = Math.min(maxSize, Long.MAX_VALUE - 1);
+        DigestingSource source = new DigestingSource(body, limit);
+        try (FileChannel target = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            while (!source.atEnd()) {
+                position += target.transferFrom(source, position, limit + 1 - position);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        return new StagedBlob(source.sha256(), source.size(), partial);
+    }
+
+    public StagedBlob stage(byte[] content) throws IOException {
+        Path partial = newStagingFile();
+        try {
+            Files.write(partial, content, StandardOpenOption.CREATE_NEW);
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        return new StagedBlob(HexFormat.of().formatHex(newDigest().digest(content)), content.length, partial);
+    }
+
+    // Takes a reference to the staged file's content for a row written in the same transaction, moving the
+    // file into place unless the store already holds it. If the transaction rolls back, a newly placed file
+    // is left without a row and the sweep collects it.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acquire(StagedBlob staged) {
+        LocalDateTime now = LocalDateTime.now();
+        if (jdbcTemplate.update(INCREMENT_SQL, now, staged.sha256()) == 0) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, staged.sha256(), staged.size(), 1, now, now);
+            } catch (DuplicateKeyException e) {
+                // The same content was stored concurrently and has committed since
+                jdbcTemplate.update(INCREMENT_SQL, now, staged.sha256());
+            }
+        }
+        Path target = pathOf(staged.sha256());
+        try {
+            if (Files.exists(target)) {
+                Files.deleteIfExists(staged.path());
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(staged.path(), target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file: " + e.getMessage());
+        }
+    }
+
+    // Drops a reference in the caller's transaction; the last one deletes the blob once that commits
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String sha256) {
+        jdbcTemplate.update(DECREMENT_SQL, LocalDateTime.now(), sha256);
+        List<Integer> refs = jdbcTemplate.queryForList("SELECT ref_count FROM blobs WHERE sha256 = ?", Integer.class, sha256);
+        if (!refs.isEmpty() && refs.get(0) == 0) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    collect(sha256);
+                }
+            });
+        }
+    }
+
+    // A staged file that never made it into the store
+    public void discard(StagedBlob staged) {
+        try {
+            Files.deleteIfExists(staged.path());
+        } catch (IOException e) {
+            System.out.println("BlobStoreService - could not remove staged file " + staged.path() + ": " + e.getMessage());
+        }
+    }
+
+    public Path pathOf(String sha256) {
+        return Paths.get(root, sha256.substring(0, 2), sha256.substring(2, 4), sha256);
+    }
+
+    // Deletes the blob if nothing references it, under its row lock so a concurrent acquire waits for the
+    // outcome and then stores the file afresh
+    public boolean collect(String sha256) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        // Called after another transaction commits, so it must not join that one
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template.execute(status -> {
+            List<Integer> refs = jdbcTemplate.queryForList(LOCK_SQL, Integer.class, sha256);
+            if (refs.isEmpty() || refs.get(0) > 0) {
+                return false;
+            }
+            jdbcTemplate.update(DELETE_SQL, sha256);
+            try {
+                Files.deleteIfExists(pathOf(sha256));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete blob " + sha256 + ": " + e.getMessage());
+            }
+            return true;
+        });
+    }
+
+    // Corrects reference counts that drifted from the rows (rows deleted outside the services, a crash between
+    // commit and collection), registers files that have no blob row, then deletes every unreferenced blob
+    // and any staged file older than the grace period.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BlobSweep sweep() {
+        long started = System.currentTimeMillis();
+        Set<String> drifted = new LinkedHashSet<>(jdbcTemplate.queryForList(DRIFTED_SQL, String.class));
+        drifted.addAll(jdbcTemplate.queryForList(UNREGISTERED_SQL, String.class));
+        long recounted = 0;
+        for (String sha256 : drifted) {
+            if (recount(sha256)) {
+                recounted++;
+            }
+        }
+
+        long registered = registerUntrackedFiles();
+
+        long collected = 0;
+        long bytesFreed = 0;
+        for (Map<String, Object> blob : jdbcTemplate.queryForList(UNREFERENCED_SQL)) {
+            if (collect((String) blob.get("sha256"))) {
+                collected++;
+                bytesFreed += ((Number) blob.get("file_size")).longValue();
+            }
+        }
+
+        long stagedRemoved = removeStaleStagingFiles();
+        return new BlobSweep(recounted, registered, collected, bytesFreed, stagedRemoved,
+            System.currentTimeMillis() - started);
+    }
+
+    // Sets the blob's count from its referencing rows, read under the row lock so an acquire in flight is
+    // either counted or waits
+    private boolean recount(String sha256) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        try {
+            return template.execute(status -> {
+                List<Integer> current = jdbcTemplate.queryForList(LOCK_SQL, Integer.class, sha256);
+                int refs = jdbcTemplate.queryForObject(REFERENCES_SQL, Integer.class, sha256, sha256, sha256);
+                LocalDateTime now = LocalDateTime.now();
+                if (current.isEmpty()) {
+                    if (refs == 0) {
+                        return false;
+                    }
+                    jdbcTemplate.update(INSERT_SQL, sha256, sizeOnDisk(sha256), refs, now, now);
+                    return true;
+                }
+                if (current.get(0) == refs) {
+                    return false;
+                }
+                jdbcTemplate.update("UPDATE blobs SET ref_count = ?, updated_at = ? WHERE sha256 = ?", refs, now, sha256);
+                return true;
+            });
+        } catch (DuplicateKeyException e) {
+            // Registered by an upload meanwhile, with its own count
+            return false;
+        }
+    }
+
+    // Files in the store with no blob row (left by a rolled-back upload) get one with no references, which
+    // the collection step then deletes. A row inserted by an upload in flight makes the insert here fail.
+    private long registerUntrackedFiles() {
+        Path storeRoot = Paths.get(root);
+        if (!Files.isDirectory(storeRoot)) {
+            return 0;
+        }
+        long registered = 0;
+        List<String> batch = new ArrayList<>(SWEEP_BATCH_SIZE);
+        try (Stream<Path> files = Files.find(storeRoot, 3, (path, attributes) -> attributes.isRegularFile()
+                && path.getFileName().toString().matches("[0-9a-f]{64}")
+                && path.equals(pathOf(path.getFileName().toString())))) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                batch.add(file.getFileName().toString());
+                if (batch.size() == SWEEP_BATCH_SIZE) {
+                    registered += registerMissing(batch);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to scan the blob store: " + e.getMessage());
+        }
+        return registered + registerMissing(batch);
+    }
+
+    private long registerMissing(List<String> shas) {
+        if (shas.isEmpty()) {
+            return 0;
+        }
+        Set<String> known = new HashSet<>(namedParameterJdbcTemplate.queryForList(REGISTERED_SQL, Map.of("shas", shas), String.class));
+        long registered = 0;
+        for (String sha256 : shas) {
+            if (known.contains(sha256)) {
+                continue;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                jdbcTemplate.update(INSERT_SQL, sha256, sizeOnDisk(sha256), 0, now, now);
+                registered++;
+            } catch (DuplicateKeyException e) {
+                // An upload took it in the meantime
+            }
+        }
+        return registered;
+    }
+
+    private long removeStaleStagingFiles() {
+        Path staging = Paths.get(root, STAGING_DIR);
+        if (!Files.isDirectory(staging)) {
+            return 0;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(stagingGraceMinutes, ChronoUnit.MINUTES));
+        long removed = 0;
+        try (Stream<Path> files = Files.list(staging)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0 && Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to clean the staging directory: " + e.getMessage());
+        }
+        return removed;
+    }
+
+    private long sizeOnDisk(String sha256) {
+        try {
+            Path path = pathOf(sha256);
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path newStagingFile() throws IOException {
+        Path staging = Paths.get(root, STAGING_DIR);
+        Files.createDirectories(staging);
+        return staging.resolve(UUID.randomUUID() + ".part");
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // A file written and hashed but not yet in the store
+    public record StagedBlob(String sha256, long size, Path path) {
+    }
+
+    // Reads the body straight into the buffer transferFrom hands it, updating the digest and the byte count
+    // from that buffer's array, so the transfer buffer is the only one. Crossing the limit fails the read,
+    // and with it the transfer.
+    private static final class DigestingSource implements ReadableByteChannel {
+        private final InputStream in;
+        private final long limit;
+        private final MessageDigest digest = newDigest();
+        private long size;
+        private boolean atEnd;
+
+        DigestingSource(InputStream in, long limit) {
+            this.in = in;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (atEnd) {
+                return -1;
+            }
+            // A direct buffer has no array to read into; copy through a small one
+            byte[] array = dst.hasArray() ? dst.array() : new byte[Math.min(dst.remaining(), 8192)];
+            int offset = dst.hasArray() ? dst.arrayOffset() + dst.position() : 0;
+            int read = in.read(array, offset, Math.min(dst.remaining(), array.length - offset));
+            if (read < 0) {
+                atEnd = true;
+                return -1;
+            }
+            size += read;
+            if (size > limit) {
+                throw new RuntimeException("File size exceeds maximum limit of " + limit / (1024 * 1024) + "MB");
+            }
+            digest.update(array, offset, read);
+            if (dst.hasArray()) {
+                dst.position(dst.position() + read);
+            } else {
+                dst.put(array, 0, read);
+            }
+            return read;
+        }
+
+        boolean atEnd() {
+            return atEnd;
+        }
+
+        long size() {
+            return size;
+        }
+
+        String sha256() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !atEnd;
+        }
+
+        @Override
+        public void close() {
+            atEnd = true;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.portfolio.LOC.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.LOC.dto.BulkIngestionReport;
+import com.portfolio.LOC.dto.LoanApplicationRequest;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.entity.User;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import com.portfolio.LOC.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Bulk intake for channel-partner lead files. The input is streamed in chunks: each chunk is
+// parsed, validated, scored and fingerprinted in parallel, then de-duplicated and written in one
+// transaction so the application and fingerprint inserts go out as JDBC batches.
+@Service
+public class BulkIngestionService {
+
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+
+    @Autowired
+    private LoanApplicationFactory loanApplicationFactory;
+
+    @Autowired
+    private IdentityFingerprintService identityFingerprintService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${smartloan.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format fromContentType(String contentType) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType)) {
+                return NDJSON;
+            }
+            if (MediaType.parseMediaType(CSV_MEDIA_TYPE).isCompatibleWith(mediaType)) {
+                return CSV;
+            }
+            throw new RuntimeException("Unsupported content type for bulk upload: " + contentType);
+        }
+    }
+
+    public BulkIngestionReport ingest(InputStream input, Format format, String submittedByEmail) {
+        User submittedBy = userRepository.findByEmail(submittedByEmail)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+
+        long started = System.nanoTime();
+        BulkIngestionReport report = new BulkIngestionReport();
+        // Hashes accepted earlier in this upload, so two rows for the same applicant are caught before the insert
+        Set<String> seenIdentities = new HashSet<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String> csvColumns = format == Format.CSV ? readCsvHeader(reader) : null;
+
+            List<RawRow> chunk = new ArrayList<>(chunkSize);
+            int rowNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(new RawRow(++rowNumber, line));
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, csvColumns, submittedBy, seenIdentities, report);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, csvColumns, submittedBy, seenIdentities, report);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read bulk upload: " + e.getMessage(), e);
+        }
+
+        report.sortRows();
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        System.out.println("BulkIngestionService - Ingested " + report.getCreated() + " of " + report.getTotalRows()
+            + " rows in " + report.getElapsedMillis() + " ms");
+        return report;
+    }
+
+    private void processChunk(List<RawRow> chunk, List<String> csvColumns, User submittedBy,
+                              Set<String> seenIdentities, BulkIngestionReport report) {
+        // CPU-bound stage: parsing, validation, scoring and HMAC hashing touch no shared state
+        List<PreparedRow> prepared = chunk.parallelStream()
+            .map(raw -> prepare(raw, csvColumns, submittedBy))
+            .toList();
+
+        // Sequential stage: duplicate checks depend on the rows accepted before them
+        Map<LoanApplication, IdentityFingerprintService.Fingerprint> accepted = new LinkedHashMap<>();
+        Map<LoanApplication, Integer> rowNumbers = new LinkedHashMap<>();
+        for (PreparedRow row : prepared) {
+            if (row.error != null) {
+                report.addRejected(row.rowNumber, row.error);
+                continue;
+            }
+            String panHash = row.fingerprint.getPanHash();
+            String aadhaarHash = row.fingerprint.getAadhaarHash();
+            String duplicate = seenIdentities.contains(panHash) ? "Duplicate PAN number earlier in this upload"
+                : seenIdentities.contains(aadhaarHash) ? "Duplicate Aadhaar number earlier in this upload"
+                : identityFingerprintService.findDuplicate(row.fingerprint);
+            if (duplicate != null) {
+                report.addRejected(row.rowNumber, duplicate);
+                continue;
+            }
+            seenIdentities.add(panHash);
+            seenIdentities.add(aadhaarHash);
+            accepted.put(row.application, row.fingerprint);
+            rowNumbers.put(row.application, row.rowNumber);
+        }
+
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            save(accepted);
+            rowNumbers.forEach((application, rowNumber) -> report.addCreated(rowNumber, application.getApplicationId()));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent submission took one of the identities; retry row by row to isolate it
+            accepted.forEach((application, fingerprint) -> {
+                application.setId(null);
+                try {
+                    save(Map.of(application, fingerprint));
+                    report.addCreated(rowNumbers.get(application), application.getApplicationId());
+                } catch (DataIntegrityViolationException rowFailure) {
+                    report.addRejected(rowNumbers.get(application), identityFingerprintService.describeDuplicate(rowFailure));
+                }
+            });
+        }
+    }
+
+    private void save(Map<LoanApplication, IdentityFingerprintService.Fingerprint> applications) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            loanApplicationRepository.saveAll(applications.keySet());
+            identityFingerprintService.recordFingerprints(applications);
+            loanApplicationRepository.flush();
+            applications.keySet().forEach(dashboardAggregateService::recordApplicationCreated);
+        });
+    }
+
+    // Runs on the common pool, so a row that fails unexpectedly is rejected under its own row number
+    // instead of aborting the chunk and the rest of the upload with it
+    private PreparedRow prepare(RawRow raw, List<String> csvColumns, User submittedBy) {
+        try {
+            return prepareRow(raw, csvColumns, submittedBy);
+        } catch (RuntimeException e) {
+            System.out.println("BulkIngestionService - Row " + raw.rowNumber + " could not be processed: " + e);
+            return PreparedRow.rejected(raw.rowNumber, "Row could not be processed");
+        }
+    }
+
+    private PreparedRow prepareRow(RawRow raw, List<String> csvColumns, User submittedBy) {
+        LoanApplicationRequest request;
+        try {
+            request = csvColumns == null
+                ? objectMapper.readValue(raw.line, LoanApplicationRequest.class)
+                : objectMapper.convertValue(toNestedMap(csvColumns, parseCsvLine(raw.line)), LoanApplicationRequest.class);
+        } catch (JsonProcessingException e) {
+            return PreparedRow.rejected(raw.rowNumber, "Row could not be parsed: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            String detail = e.getCause() instanceof JsonProcessingException jsonError ? jsonError.getOriginalMessage() : e.getMessage();
+            return PreparedRow.rejected(raw.rowNumber, "Row could not be parsed: " + detail);
+        }
+
+        // A line reading just null parses to no request at all
+        if (request == null || request.getPersonalInfo() == null || request.getAddressInfo() == null
+                || request.getFinancialInfo() == null) {
+            return PreparedRow.rejected(raw.rowNumber, "Personal, address and financial information are required");
+        }
+        // Partner feeds usually omit the co-applicant block entirely
+        if (request.getCoApplicant() == null) {
+            request.setCoApplicant(new LoanApplicationRequest.CoApplicant());
+        }
+        Set<ConstraintViolation<LoanApplicationRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return PreparedRow.rejected(raw.rowNumber, violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; ")));
+        }
+
+        LoanApplication application = loanApplicationFactory.create(request, submittedBy);
+        IdentityFingerprintService.Fingerprint fingerprint = identityFingerprintService.fingerprintOf(
+            application.getPanNumber(), application.getAadhaarNumber());
+        return new PreparedRow(raw.rowNumber, application, fingerprint, null);
+    }
+
+    // CSV columns are dotted request paths, e.g. personalInfo.panNumber or coApplicant.firstName
+    private List<String> readCsvHeader(BufferedReader reader) throws IOException {
+        String header;
+        do {
+            header = reader.readLine();
+            if (header == null) {
+                return List.of();
+            }
+        } while (header.isBlank());
+        return parseCsvLine(header).stream().map(String::trim).toList();
+    }
+
+    private Map<String, Object> toNestedMap(List<String> columns, List<String> values) {
+        if (values.size() > columns.size()) {
+            throw new IllegalArgumentException("Row has " + values.size() + " fields but the header has " + columns.size());
+        }
+        Map<String, Object> root = new LinkedHashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            Map<String, Object> target = root;
+            String[] path = columns.get(i).split("\\.");
+            for (int depth = 0; depth < path.length - 1; depth++) {
+                target = nested(target, path[depth]);
+            }
+            target.put(path[path.length - 1], value);
+        }
+        return root;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> nested(Map<String, Object> parent, String key) {
+        return (Map<String, Object>) parent.computeIfAbsent(key, k -> new LinkedHashMap<String, Object>());
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may contain commas and doubled quotes
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class RawRow {
+        final int rowNumber;
+        final String line;
+
+        RawRow(int rowNumber, String line) {
+            this.rowNumber = rowNumber;
+            this.line = line;
+        }
+    }
+
+    private static final class PreparedRow {
+        final int rowNumber;
+        final LoanApplication application;
+        final IdentityFingerprintService.Fingerprint fingerprint;
+        final String error;
+
+        PreparedRow(int rowNumber, LoanApplication application, IdentityFingerprintService.Fingerprint fingerprint, String error) {
+            this.rowNumber = rowNumber;
+            this.application = application;
+            this.fingerprint = fingerprint;
+            this.error = error;
+        }
+
+        static PreparedRow rejected(int rowNumber, String error) {
+            return new PreparedRow(rowNumber, null, null, error);
+        }
+    }
+}
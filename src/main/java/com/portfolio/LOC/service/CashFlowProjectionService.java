@@ -0,0 +1,215 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.CashFlowProjection;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Expected collections across the whole book. Loans are split into blocks of consecutive IDs that are
+// projected in parallel into plain long paise accumulators: lazily materialized loans are walked from
+// their loan_terms, stored instalments of eager loans are added as they are, and stored instalments of
+// lazy loans take off what has already been paid on them. Results are cached per horizon until an
+// offer adds a schedule or they reach the configured age.
+@Service
+public class CashFlowProjectionService {
+
+    public static final int MAX_MONTHS = 360;
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private static final String TERMS_SQL =
+        "SELECT principal_amount, annual_interest_rate, tenure_months, start_emi_number, emi_amount, first_due_date FROM loan_terms " +
+        "WHERE loan_application_id > ? AND loan_application_id <= ?";
+
+    private static final String INSTALMENTS_SQL =
+        "SELECT e.loan_application_id, e.due_date, e.principal_amount, e.interest_amount, e.paid_amount, " +
+        "CASE WHEN t.id IS NULL THEN 0 ELSE 1 END AS lazy, " +
+        "CASE WHEN t.id IS NULL OR e.emi_number < t.start_emi_number THEN 0 ELSE 1 END AS computed FROM emi_schedule e " +
+        "LEFT JOIN loan_terms t ON t.loan_application_id = e.loan_application_id " +
+        "WHERE e.loan_application_id > ? AND e.loan_application_id <= ? AND e.due_date >= ? AND e.due_date < ? " +
+        "ORDER BY e.loan_application_id";
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Each thread holds a connection while it projects a block, so keep this below the pool size
+    @Value("${smartloan.projection.threads:4}")
+    private int threads;
+
+    @Value("${smartloan.projection.partition-size:10000}")
+    private int partitionSize;
+
+    @Value("${smartloan.projection.cache-minutes:60}")
+    private long cacheMinutes;
+
+    private final Map<Integer, CachedProjection> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public CashFlowProjection getProjection(int months) {
+        if (months < 1 || months > MAX_MONTHS) {
+            throw new RuntimeException("Months must be between 1 and " + MAX_MONTHS);
+        }
+        YearMonth start = YearMonth.now();
+        long currentGeneration = generation.get();
+        CachedProjection cached = cache.get(months);
+        if (cached != null && cached.generation() == currentGeneration && cached.start().equals(start)
+                && cached.projection().getGeneratedAt().isAfter(LocalDateTime.now().minusMinutes(cacheMinutes))) {
+            return cached.projection();
+        }
+
+        CashFlowProjection projection = project(start, months);
+        // Stored under the generation it started from, so a schedule added meanwhile still misses next time
+        cache.put(months, new CachedProjection(currentGeneration, start, projection));
+        return projection;
+    }
+
+    // Called when an offer adds a schedule; cached projections stop being served once it commits
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    private CashFlowProjection project(YearMonth start, int months) {
+        LocalDateTime generatedAt = LocalDateTime.now();
+        long started = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            // Block boundaries are found one index probe at a time while earlier blocks are already running
+            List<Future<long[]>> partitions = new ArrayList<>();
+            long afterId = 0;
+            while (true) {
+                List<Long> lastId = loanApplicationRepository.findIdsAfter(afterId, PageRequest.of(partitionSize - 1, 1));
+                long fromId = afterId;
+                long toId = lastId.isEmpty() ? Long.MAX_VALUE : lastId.get(0);
+                partitions.add(pool.submit(() -> projectPartition(fromId, toId, start, months)));
+                if (lastId.isEmpty()) {
+                    break;
+                }
+                afterId = toId;
+            }
+
+            long[] totals = new long[2 * months + 1];
+            for (Future<long[]> partition : partitions) {
+                long[] sums = partition.get();
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += sums[i];
+                }
+            }
+
+            List<CashFlowProjection.MonthlyInflow> inflows = new ArrayList<>(months);
+            long totalPrincipal = 0;
+            long totalInterest = 0;
+            for (int month = 0; month < months; month++) {
+                inflows.add(new CashFlowProjection.MonthlyInflow(start.plusMonths(month).format(MONTH_FORMAT),
+                    AmortizationCalculator.fromPaise(totals[month]), AmortizationCalculator.fromPaise(totals[months + month])));
+                totalPrincipal += totals[month];
+                totalInterest += totals[months + month];
+            }
+            return new CashFlowProjection(generatedAt, System.currentTimeMillis() - started, totals[2 * months],
+                AmortizationCalculator.fromPaise(totalPrincipal), AmortizationCalculator.fromPaise(totalInterest), inflows);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Cash-flow projection was interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Cash-flow projection failed: " + e.getCause().getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Principal per month, then interest per month, then the number of loans contributing, all for loan IDs in (fromId, toId]
+    private long[] projectPartition(long fromId, long toId, YearMonth start, int months) {
+        long[] sums = new long[2 * months + 1];
+
+        jdbcTemplate.query(TERMS_SQL, (RowCallbackHandler) rs -> {
+            int offset = monthIndex(start, rs.getDate("first_due_date").toLocalDate());
+            // A rescheduled loan's terms describe only the instalments from its start onwards
+            int tenure = rs.getInt("tenure_months") - rs.getInt("start_emi_number") + 1;
+            if (offset >= months || offset + tenure <= 0) {
+                return;
+            }
+            sums[2 * months]++;
+            AmortizationCalculator.walk(AmortizationCalculator.toPaise(rs.getBigDecimal("principal_amount")),
+                AmortizationCalculator.monthlyRateE10(rs.getBigDecimal("annual_interest_rate")), tenure,
+                AmortizationCalculator.toPaise(rs.getBigDecimal("emi_amount")), months - offset,
+                (index, principal, interest, balance) -> {
+                    int month = offset + index;
+                    if (month >= 0) {
+                        sums[month] += principal;
+                        sums[months + month] += interest;
+                    }
+                });
+        }, fromId, toId);
+
+        long[] lastStoredLoan = {Long.MIN_VALUE};
+        jdbcTemplate.query(INSTALMENTS_SQL, (RowCallbackHandler) rs -> {
+            int month = monthIndex(start, rs.getDate("due_date").toLocalDate());
+            long principal = AmortizationCalculator.toPaise(rs.getBigDecimal("principal_amount"));
+            long interest = AmortizationCalculator.toPaise(rs.getBigDecimal("interest_amount"));
+            BigDecimal paidAmount = rs.getBigDecimal("paid_amount");
+            long paid = paidAmount == null ? 0 : AmortizationCalculator.toPaise(paidAmount);
+            // Interest first, then principal, as in the loan ledger
+            long interestPaid = Math.min(paid, interest);
+            long principalPaid = Math.min(paid - interestPaid, principal);
+
+            if (rs.getInt("computed") == 1) {
+                sums[month] -= principalPaid;
+                sums[months + month] -= interestPaid;
+                return;
+            }
+            sums[month] += principal - principalPaid;
+            sums[months + month] += interest - interestPaid;
+            // Instalments stored before a lazy loan's reschedule are not walked, but the loan is counted already
+            long loanApplicationId = rs.getLong("loan_application_id");
+            if (rs.getInt("lazy") == 0 && loanApplicationId != lastStoredLoan[0]) {
+                lastStoredLoan[0] = loanApplicationId;
+                sums[2 * months]++;
+            }
+        }, fromId, toId, Date.valueOf(start.atDay(1)), Date.valueOf(start.plusMonths(months).atDay(1)));
+
+        return sums;
+    }
+
+    private static int monthIndex(YearMonth start, LocalDate date) {
+        return (int) start.until(YearMonth.from(date), ChronoUnit.MONTHS);
+    }
+
+    private record CachedProjection(long generation, YearMonth start, CashFlowProjection projection) {
+    }
+}
@@ -0,0 +1,341 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.EmiStatusAggregate;
+import com.portfolio.LOC.dto.EmiTotals;
+import com.portfolio.LOC.dto.MonthlyStatusAggregate;
+import com.portfolio.LOC.dto.StatusPurposeAggregate;
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.repository.EmiScheduleRepository;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import com.portfolio.LOC.repository.LoanTermsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-memory dashboard counters kept up to date by the workflow services, so the admin
+// dashboard never has to scan the application or EMI tables. Deltas are applied after
+// the surrounding transaction commits; any drift is corrected by rebuild(), which runs
+// at startup and from the scheduled reconcile job.
+@Service
+public class DashboardAggregateService {
+
+    private static final LoanApplication.ApplicationStatus[] STATUSES = LoanApplication.ApplicationStatus.values();
+    private static final LoanApplication.LoanPurpose[] PURPOSES = LoanApplication.LoanPurpose.values();
+    private static final EmiSchedule.EmiStatus[] EMI_STATUSES = EmiSchedule.EmiStatus.values();
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private EmiScheduleRepository emiScheduleRepository;
+
+    @Autowired
+    private LoanTermsRepository loanTermsRepository;
+
+    private volatile Aggregates aggregates = new Aggregates();
+
+    private volatile LocalDateTime lastRebuiltAt;
+
+    // Write side - called by the services that create applications, move them through the workflow or touch EMIs
+
+    public void recordApplicationCreated(LoanApplication application) {
+        LoanApplication.ApplicationStatus status = application.getStatus();
+        LoanApplication.LoanPurpose purpose = application.getLoanPurpose();
+        YearMonth month = YearMonth.from(application.getCreatedAt());
+        long amount = toPaise(application.getLoanAmount());
+
+        afterCommit(() -> aggregates.addApplication(status, purpose, month, amount, 1));
+    }
+
+    public void recordStatusChange(LoanApplication application, LoanApplication.ApplicationStatus previousStatus) {
+        LoanApplication.ApplicationStatus status = application.getStatus();
+        if (status == previousStatus) {
+            return;
+        }
+        LoanApplication.LoanPurpose purpose = application.getLoanPurpose();
+        YearMonth month = YearMonth.from(application.getCreatedAt());
+        long amount = toPaise(application.getLoanAmount());
+
+        afterCommit(() -> {
+            Aggregates current = aggregates;
+            current.addApplication(previousStatus, purpose, month, amount, -1);
+            current.addApplication(status, purpose, month, amount, 1);
+        });
+    }
+
+    public void recordEmisCreated(List<EmiSchedule> emis) {
+        long[] counts = new long[EMI_STATUSES.length];
+        long[] amounts = new long[EMI_STATUSES.length];
+        for (EmiSchedule emi : emis) {
+            counts[emi.getStatus().ordinal()]++;
+            amounts[emi.getStatus().ordinal()] += toPaise(emi.getEmiAmount());
+        }
+
+        afterCommit(() -> {
+            Aggregates current = aggregates;
+            for (int i = 0; i < EMI_STATUSES.length; i++) {
+                current.emiCounts[i].add(counts[i]);
+                current.emiAmounts[i].add(amounts[i]);
+            }
+        });
+    }
+
+    public void recordEmiStatusChange(EmiSchedule emi, EmiSchedule.EmiStatus previousStatus) {
+        EmiSchedule.EmiStatus status = emi.getStatus();
+        if (status == previousStatus) {
+            return;
+        }
+        long amount = toPaise(emi.getEmiAmount());
+
+        afterCommit(() -> {
+            Aggregates current = aggregates;
+            current.emiCounts[previousStatus.ordinal()].decrement();
+            current.emiAmounts[previousStatus.ordinal()].add(-amount);
+            current.emiCounts[status.ordinal()].increment();
+            current.emiAmounts[status.ordinal()].add(amount);
+        });
+    }
+
+    // Pending instalments recomputed by a prepayment or rate reset: the count and total moved by the given deltas
+    public void recordEmisRescheduled(long countDelta, BigDecimal amountDelta) {
+        long paise = toPaise(amountDelta);
+        int pending = EmiSchedule.EmiStatus.PENDING.ordinal();
+
+        afterCommit(() -> {
+            Aggregates current = aggregates;
+            current.emiCounts[pending].add(countDelta);
+            current.emiAmounts[pending].add(paise);
+        });
+    }
+
+    // Set-based PENDING -> OVERDUE update of count rows totalling amount
+    public void recordEmisMarkedOverdue(long count, BigDecimal amount) {
+        recordEmiStatusChanges(EmiSchedule.EmiStatus.PENDING, EmiSchedule.EmiStatus.OVERDUE, count, amount);
+    }
+
+    // count rows with EMI amounts totalling amount moved from previousStatus to status in one batch
+    public void recordEmiStatusChanges(EmiSchedule.EmiStatus previousStatus, EmiSchedule.EmiStatus status,
+                                       long count, BigDecimal amount) {
+        if (count == 0 || previousStatus == status) {
+            return;
+        }
+        long paise = toPaise(amount);
+
+        afterCommit(() -> {
+            Aggregates current = aggregates;
+            current.emiCounts[previousStatus.ordinal()].add(-count);
+            current.emiAmounts[previousStatus.ordinal()].add(-paise);
+            current.emiCounts[status.ordinal()].add(count);
+            current.emiAmounts[status.ordinal()].add(paise);
+        });
+    }
+
+    // Read side - every method below is O(statuses x purposes) at most, independent of the portfolio size
+
+    public long countApplications() {
+        long total = 0;
+        for (LoanApplication.ApplicationStatus status : STATUSES) {
+            total += countApplications(status);
+        }
+        return total;
+    }
+
+    public long countApplications(LoanApplication.ApplicationStatus status) {
+        long count = 0;
+        for (LoanApplication.LoanPurpose purpose : PURPOSES) {
+            count += aggregates.applicationCounts[cell(status, purpose)].sum();
+        }
+        return count;
+    }
+
+    public BigDecimal sumLoanAmount(LoanApplication.ApplicationStatus status) {
+        long amount = 0;
+        for (LoanApplication.LoanPurpose purpose : PURPOSES) {
+            amount += aggregates.applicationAmounts[cell(status, purpose)].sum();
+        }
+        return fromPaise(amount);
+    }
+
+    public long countApplications(LoanApplication.ApplicationStatus status, LoanApplication.LoanPurpose purpose) {
+        return aggregates.applicationCounts[cell(status, purpose)].sum();
+    }
+
+    public NavigableMap<YearMonth, MonthlyBucket> getMonthlyBuckets(YearMonth from) {
+        NavigableMap<YearMonth, MonthlyBucket> buckets = new TreeMap<>();
+        for (YearMonth month = from; !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+            MonthCounters counters = aggregates.months.get(month);
+            if (counters != null) {
+                buckets.put(month, counters.snapshot());
+            }
+        }
+        return buckets;
+    }
+
+    public long countEmis() {
+        long total = 0;
+        for (EmiSchedule.EmiStatus status : EMI_STATUSES) {
+            total += countEmis(status);
+        }
+        return total;
+    }
+
+    public long countEmis(EmiSchedule.EmiStatus status) {
+        return aggregates.emiCounts[status.ordinal()].sum();
+    }
+
+    public BigDecimal sumEmiAmount(EmiSchedule.EmiStatus status) {
+        return fromPaise(aggregates.emiAmounts[status.ordinal()].sum());
+    }
+
+    public LocalDateTime getLastRebuiltAt() {
+        return lastRebuiltAt;
+    }
+
+    // Reconciliation
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Aggregates fresh = new Aggregates();
+
+        // A handful of grouped rows per dimension instead of one row per application or EMI
+        for (StatusPurposeAggregate row : loanApplicationRepository.aggregateByStatusAndPurpose()) {
+            int cell = cell(row.getStatus(), row.getLoanPurpose());
+            fresh.applicationCounts[cell].add(row.getApplicationCount());
+            fresh.applicationAmounts[cell].add(toPaise(row.getTotalAmount()));
+        }
+
+        for (MonthlyStatusAggregate row : loanApplicationRepository.aggregateByMonthAndStatus()) {
+            MonthCounters counters = fresh.months.computeIfAbsent(
+                YearMonth.of(row.getCreatedYear(), row.getCreatedMonth()), m -> new MonthCounters());
+            counters.counts[row.getStatus().ordinal()].add(row.getApplicationCount());
+            counters.amounts[row.getStatus().ordinal()].add(toPaise(row.getTotalAmount()));
+        }
+
+        for (EmiStatusAggregate row : emiScheduleRepository.aggregateByStatus()) {
+            fresh.emiCounts[row.getStatus().ordinal()].add(row.getEmiCount());
+            fresh.emiAmounts[row.getStatus().ordinal()].add(toPaise(row.getTotalAmount()));
+        }
+
+        // Instalments of lazily materialized loans that are not stored yet are all still pending
+        EmiTotals scheduled = loanTermsRepository.sumScheduledEmis();
+        EmiTotals materialized = emiScheduleRepository.sumMaterializedEmis();
+        int pending = EmiSchedule.EmiStatus.PENDING.ordinal();
+        fresh.emiCounts[pending].add(scheduled.getEmiCount() - materialized.getEmiCount());
+        fresh.emiAmounts[pending].add(toPaise(scheduled.getTotalAmount()) - toPaise(materialized.getTotalAmount()));
+
+        // Deltas committed while the rebuild was reading may be lost here; the next rebuild picks them up
+        this.aggregates = fresh;
+        this.lastRebuiltAt = LocalDateTime.now();
+    }
+
+    private void afterCommit(Runnable delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delta.run();
+                }
+            });
+        } else {
+            delta.run();
+        }
+    }
+
+    private static int cell(LoanApplication.ApplicationStatus status, LoanApplication.LoanPurpose purpose) {
+        return status.ordinal() * PURPOSES.length + purpose.ordinal();
+    }
+
+    private static long toPaise(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromPaise(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static final class Aggregates {
+        final LongAdder[] applicationCounts = adders(STATUSES.length * PURPOSES.length);
+        final LongAdder[] applicationAmounts = adders(STATUSES.length * PURPOSES.length);
+        final Map<YearMonth, MonthCounters> months = new ConcurrentHashMap<>();
+        final LongAdder[] emiCounts = adders(EMI_STATUSES.length);
+        final LongAdder[] emiAmounts = adders(EMI_STATUSES.length);
+
+        void addApplication(LoanApplication.ApplicationStatus status, LoanApplication.LoanPurpose purpose,
+                            YearMonth month, long amount, int sign) {
+            applicationCounts[cell(status, purpose)].add(sign);
+            applicationAmounts[cell(status, purpose)].add(sign * amount);
+
+            MonthCounters counters = months.computeIfAbsent(month, m -> new MonthCounters());
+            counters.counts[status.ordinal()].add(sign);
+            counters.amounts[status.ordinal()].add(sign * amount);
+        }
+    }
+
+    private static final class MonthCounters {
+        final LongAdder[] counts = adders(STATUSES.length);
+        final LongAdder[] amounts = adders(STATUSES.length);
+
+        MonthlyBucket snapshot() {
+            Map<LoanApplication.ApplicationStatus, Long> countByStatus = new EnumMap<>(LoanApplication.ApplicationStatus.class);
+            Map<LoanApplication.ApplicationStatus, BigDecimal> amountByStatus = new EnumMap<>(LoanApplication.ApplicationStatus.class);
+            for (LoanApplication.ApplicationStatus status : STATUSES) {
+                countByStatus.put(status, counts[status.ordinal()].sum());
+                amountByStatus.put(status, fromPaise(amounts[status.ordinal()].sum()));
+            }
+            return new MonthlyBucket(countByStatus, amountByStatus);
+        }
+    }
+
+    public static final class MonthlyBucket {
+        private final Map<LoanApplication.ApplicationStatus, Long> countByStatus;
+        private final Map<LoanApplication.ApplicationStatus, BigDecimal> amountByStatus;
+
+        MonthlyBucket(Map<LoanApplication.ApplicationStatus, Long> countByStatus,
+                      Map<LoanApplication.ApplicationStatus, BigDecimal> amountByStatus) {
+            this.countByStatus = countByStatus;
+            this.amountByStatus = amountByStatus;
+        }
+
+        public long getCount(LoanApplication.ApplicationStatus status) {
+            return countByStatus.get(status);
+        }
+
+        public BigDecimal getAmount(LoanApplication.ApplicationStatus status) {
+            return amountByStatus.get(status);
+        }
+
+        public long getTotalCount() {
+            return countByStatus.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+}
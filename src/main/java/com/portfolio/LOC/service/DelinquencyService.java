@@ -0,0 +1,181 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.DelinquencyBucketAggregate;
+import com.portfolio.LOC.dto.DelinquencyRefresh;
+import com.portfolio.LOC.entity.LoanDelinquency;
+import com.portfolio.LOC.repository.LoanDelinquencyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps loan_delinquency in step with emi_schedule. A loan is in arrears while any instalment that is
+// not PAID is past its due date; days past due count from the oldest of them. Payments refresh their
+// own loan; the daily overdue job refreshes every loan in arrears, since days past due move each day.
+@Service
+@Transactional
+public class DelinquencyService {
+
+    // Index-friendly form of status <> 'PAID' for the (status, due_date) index
+    private static final String ARREARS_SQL =
+        "SELECT loan_application_id, COUNT(*) AS overdue_emis, " +
+        "SUM(emi_amount - COALESCE(paid_amount, 0)) AS overdue_amount, MIN(due_date) AS oldest_due_date " +
+        "FROM emi_schedule WHERE status IN ('PENDING', 'OVERDUE', 'PARTIAL_PAID') AND due_date < :today";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO loan_delinquency (days_past_due, bucket, overdue_emis, overdue_amount, oldest_due_date, " +
+        "updated_at, loan_application_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+        "UPDATE loan_delinquency SET days_past_due = ?, bucket = ?, overdue_emis = ?, overdue_amount = ?, " +
+        "oldest_due_date = ?, updated_at = ? WHERE loan_application_id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM loan_delinquency WHERE loan_application_id = ?";
+
+    @Autowired
+    private LoanDelinquencyRepository loanDelinquencyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${smartloan.delinquency.write-batch-size:1000}")
+    private int writeBatchSize;
+
+    // Runs inside the payment transaction; the caller must have flushed the EMI change
+    public void refreshLoan(Long loanApplicationId) {
+        refreshLoans(List.of(loanApplicationId));
+    }
+
+    // Same, for the loans touched by one batch of payments, with one grouped query for all of them
+    public void refreshLoans(Collection<Long> loanApplicationIds) {
+        if (loanApplicationIds.isEmpty()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        Map<Long, LoanDelinquency> arrears = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+            ARREARS_SQL + " AND loan_application_id IN (:ids) GROUP BY loan_application_id",
+            Map.of("today", Date.valueOf(today), "ids", loanApplicationIds),
+            (RowCallbackHandler) rs -> {
+                LoanDelinquency row = toDelinquency(rs.getLong(1), rs.getInt(2), rs.getBigDecimal(3), rs.getDate(4), today);
+                arrears.put(row.getLoanApplicationId(), row);
+            });
+        Map<Long, LoanDelinquency> stored = new HashMap<>();
+        loanDelinquencyRepository.findAllById(loanApplicationIds)
+            .forEach(existing -> stored.put(existing.getLoanApplicationId(), existing));
+
+        for (Long loanApplicationId : loanApplicationIds) {
+            LoanDelinquency current = arrears.get(loanApplicationId);
+            LoanDelinquency existing = stored.get(loanApplicationId);
+            if (existing == null && current == null) {
+                continue;
+            }
+            if (current == null) {
+                loanDelinquencyRepository.delete(existing);
+            } else if (existing == null) {
+                loanDelinquencyRepository.save(current);
+            } else {
+                existing.setDaysPastDue(current.getDaysPastDue());
+                existing.setBucket(current.getBucket());
+                existing.setOverdueEmis(current.getOverdueEmis());
+                existing.setOverdueAmount(current.getOverdueAmount());
+                existing.setOldestDueDate(current.getOldestDueDate());
+                existing.setUpdatedAt(current.getUpdatedAt());
+            }
+        }
+    }
+
+    // One grouped row per bucket, read from the table rather than a node's memory, so every node shows the
+    // arrears as of the last refresh or payment whichever node made it
+    public Map<LoanDelinquency.Bucket, DelinquencyBucketAggregate> getBucketTotals() {
+        Map<LoanDelinquency.Bucket, DelinquencyBucketAggregate> totals = new EnumMap<>(LoanDelinquency.Bucket.class);
+        for (DelinquencyBucketAggregate row : loanDelinquencyRepository.aggregateByBucket()) {
+            totals.put(row.getBucket(), row);
+        }
+        return totals;
+    }
+
+    // Recomputes every loan in arrears with one grouped scan over the overdue index, then inserts,
+    // updates and deletes in short batches. Used by the daily overdue job and as the backfill.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DelinquencyRefresh refreshAll() {
+        long started = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+
+        Map<Long, LoanDelinquency> arrears = new HashMap<>();
+        namedParameterJdbcTemplate.query(ARREARS_SQL + " GROUP BY loan_application_id", Map.of("today", Date.valueOf(today)),
+            (RowCallbackHandler) rs -> {
+                LoanDelinquency row = toDelinquency(rs.getLong(1), rs.getInt(2), rs.getBigDecimal(3), rs.getDate(4), today);
+                arrears.put(row.getLoanApplicationId(), row);
+            });
+
+        Set<Long> stored = new HashSet<>(
+            jdbcTemplate.queryForList("SELECT loan_application_id FROM loan_delinquency", Long.class));
+
+        List<LoanDelinquency> inserts = new ArrayList<>();
+        List<LoanDelinquency> updates = new ArrayList<>();
+        List<Long> removals = new ArrayList<>();
+        for (LoanDelinquency row : arrears.values()) {
+            (stored.contains(row.getLoanApplicationId()) ? updates : inserts).add(row);
+        }
+        for (Long loanApplicationId : stored) {
+            if (!arrears.containsKey(loanApplicationId)) {
+                removals.add(loanApplicationId);
+            }
+        }
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        writeInBatches(template, INSERT_SQL, inserts);
+        writeInBatches(template, UPDATE_SQL, updates);
+        for (int from = 0; from < removals.size(); from += writeBatchSize) {
+            List<Object[]> batch = removals.subList(from, Math.min(from + writeBatchSize, removals.size())).stream()
+                .map(id -> new Object[] {id})
+                .toList();
+            template.executeWithoutResult(status -> jdbcTemplate.batchUpdate(DELETE_SQL, batch));
+        }
+        return new DelinquencyRefresh(arrears.size(), inserts.size(), updates.size(), removals.size(),
+            System.currentTimeMillis() - started);
+    }
+
+    private void writeInBatches(TransactionTemplate template, String sql, List<LoanDelinquency> rows) {
+        for (int from = 0; from < rows.size(); from += writeBatchSize) {
+            List<Object[]> batch = rows.subList(from, Math.min(from + writeBatchSize, rows.size())).stream()
+                .map(row -> new Object[] {
+                    row.getDaysPastDue(), row.getBucket().name(), row.getOverdueEmis(), row.getOverdueAmount(),
+                    Date.valueOf(row.getOldestDueDate()), Timestamp.valueOf(row.getUpdatedAt()), row.getLoanApplicationId()
+                })
+                .toList();
+            template.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batch));
+        }
+    }
+
+    private static LoanDelinquency toDelinquency(long loanApplicationId, int overdueEmis, BigDecimal overdueAmount,
+                                                 Date oldestDueDate, LocalDate today) {
+        return new LoanDelinquency(loanApplicationId, overdueEmis, overdueAmount, oldestDueDate.toLocalDate(), today);
+    }
+}
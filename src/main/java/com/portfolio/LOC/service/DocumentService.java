@@ -7,26 +7,27 @@ import com.portfolio.LOC.repository.DocumentRepository;
 import com.portfolio.LOC.repository.LoanApplicationRepository;
 import com.portfolio.LOC.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.UUID;
 
 @Service
 public class DocumentService {
     
-    private static final String UPLOAD_DIR = "uploads/documents/";
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
+    private static final String FILE_TOO_LARGE = "File size exceeds maximum limit of 5MB";
+    
+    // Serializes document changes per application, so two replacements never release the same blob twice
+    private static final String LOCK_APPLICATION_SQL = "SELECT id FROM loan_applications WHERE id = ? FOR UPDATE";
     
     @Autowired
     private DocumentRepository documentRepository;
@@ -37,6 +38,15 @@ public class DocumentService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private BlobStoreService blobStoreService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
     public Document uploadDocument(Long applicationId, Document.DocumentType documentType, 
                                  MultipartFile file, String description, String userEmail) {
         
@@ -46,7 +56,7 @@ public class DocumentService {
         }
         
         if (file.getSize() > MAX_FILE_SIZE) {
-            throw new RuntimeException("File size exceeds maximum limit of 5MB");
+            throw new RuntimeException(FILE_TOO_LARGE);
         }
         
         // Validate application
@@ -57,51 +67,90 @@ public class DocumentService {
         User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        // Check if document already exists for this type
-        Optional<Document> existingDoc = documentRepository.findByLoanApplicationIdAndDocumentType(applicationId, documentType);
-        if (existingDoc.isPresent()) {
-            // Delete existing file and update
-            deletePhysicalFile(existingDoc.get().getFilePath());
-            documentRepository.delete(existingDoc.get());
+        try (InputStream body = file.getInputStream()) {
+            BlobStoreService.StagedBlob staged = blobStoreService.stage(body, MAX_FILE_SIZE);
+            return saveDocument(application, documentType, file.getOriginalFilename(), file.getContentType(),
+                description, user, staged);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload file: " + e.getMessage());
         }
+    }
+    
+    // The raw request body as the file, with no multipart parsing or temp-file spooling in front of it.
+    // A declared length over the limit is refused before anything is read; otherwise the body is staged
+    // in the blob store directly and the upload stops at the first byte past the limit.
+    public Document uploadDocument(Long applicationId, Document.DocumentType documentType, InputStream body,
+                                 long contentLength, String originalFilename, String contentType,
+                                 String description, String userEmail) {
+        
+        if (contentLength > MAX_FILE_SIZE) {
+            throw new RuntimeException(FILE_TOO_LARGE);
+        }
+        if (originalFilename == null || originalFilename.isBlank()) {
+            throw new RuntimeException("File name is required");
+        }
+        
+        LoanApplication application = loanApplicationRepository.findById(applicationId)
+            .orElseThrow(() -> new RuntimeException("Application not found"));
+        
+        User user = userRepository.findByEmail(userEmail)
+            .orElseThrow(() -> new RuntimeException("User not found"));
         
         try {
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+            BlobStoreService.StagedBlob staged = blobStoreService.stage(body, MAX_FILE_SIZE);
+            if (staged.size() == 0) {
+                blobStoreService.discard(staged);
+                throw new RuntimeException("File is empty");
             }
-            
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String storedFileName = documentType.name() + "_" + application.getApplicationId() + "_" + 
-                                  UUID.randomUUID().toString() + fileExtension;
-            Path filePath = uploadPath.resolve(storedFileName);
-            
-            // Save file
-            Files.copy(file.getInputStream(), filePath);
-            
-            // Create document entity
-            Document document = new Document(
-                application,
-                documentType,
-                originalFilename,
-                storedFileName,
-                filePath.toString(),
-                file.getContentType(),
-                file.getSize(),
-                user
-            );
-            document.setDescription(description);
-            
-            return documentRepository.save(document);
-            
+            return saveDocument(application, documentType, originalFilename,
+                contentType == null ? "application/octet-stream" : contentType, description, user, staged);
         } catch (IOException e) {
             throw new RuntimeException("Failed to upload file: " + e.getMessage());
         }
     }
     
+    // Replaces any document of the same type and takes the new file's blob reference in one transaction.
+    // The file is already staged by then, so a failed upload keeps the old document.
+    private Document saveDocument(LoanApplication application, Document.DocumentType documentType, String originalFilename,
+                                  String contentType, String description, User user, BlobStoreService.StagedBlob staged) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        try {
+            return template.execute(status -> {
+                jdbcTemplate.queryForList(LOCK_APPLICATION_SQL, Long.class, application.getId());
+                
+                // Check if document already exists for this type
+                Optional<Document> existingDoc = documentRepository.findByLoanApplicationIdAndDocumentType(
+                    application.getId(), documentType);
+                if (existingDoc.isPresent()) {
+                    // Delete existing file and update
+                    releaseFile(existingDoc.get());
+                    documentRepository.delete(existingDoc.get());
+                }
+                
+                // Create document entity; the stored file is the blob, named by its checksum
+                Document document = new Document(
+                    application,
+                    documentType,
+                    originalFilename,
+                    staged.sha256(),
+                    blobStoreService.pathOf(staged.sha256()).toString(),
+                    contentType,
+                    staged.size(),
+                    user
+                );
+                document.setDescription(description);
+                document.setSha256(staged.sha256());
+                
+                Document saved = documentRepository.save(document);
+                blobStoreService.acquire(staged);
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            blobStoreService.discard(staged);
+            throw e;
+        }
+    }
+    
     public List<Document> getDocumentsByApplication(Long applicationId) {
         return documentRepository.findByLoanApplicationIdOrderByCreatedAtAsc(applicationId);
     }
@@ -110,18 +159,6 @@ public class DocumentService {
         return documentRepository.findById(documentId);
     }
     
-    public Resource downloadDocument(Long documentId) {
-        Document document = documentRepository.findById(documentId)
-            .orElseThrow(() -> new RuntimeException("Document not found"));
-        
-        File file = new File(document.getFilePath());
-        if (!file.exists()) {
-            throw new RuntimeException("File not found: " + document.getOriginalFileName());
-        }
-        
-        return new FileSystemResource(file);
-    }
-    
     public void deleteDocument(Long documentId, String userEmail) {
         Document document = documentRepository.findById(documentId)
             .orElseThrow(() -> new RuntimeException("Document not found"));
@@ -135,11 +172,25 @@ public class DocumentService {
             throw new RuntimeException("Not authorized to delete this document");
         }
         
-        // Delete physical file
-        deletePhysicalFile(document.getFilePath());
-        
-        // Delete from database
-        documentRepository.delete(document);
+        // The blob goes once no other row references it
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForList(LOCK_APPLICATION_SQL, Long.class, document.getLoanApplication().getId());
+            // A concurrent delete or replacement may have got there first
+            if (!documentRepository.existsById(documentId)) {
+                throw new RuntimeException("Document not found");
+            }
+            releaseFile(document);
+            documentRepository.delete(document);
+        });
+    }
+    
+    // Documents uploaded before the blob store still own their file outright
+    private void releaseFile(Document document) {
+        if (document.getSha256() != null) {
+            blobStoreService.release(document.getSha256());
+        } else {
+            deletePhysicalFile(document.getFilePath());
+        }
     }
     
     private void deletePhysicalFile(String filePath) {
@@ -158,13 +209,12 @@ public class DocumentService {
         List<Document> documents = getDocumentsByApplication(applicationId);
         
         // Check for required document types
-        boolean hasITR = documents.stream().anyMatch(d -> d.getDocumentType() == Document.DocumentType.ITR);
-        boolean hasBankStatement = documents.stream().anyMatch(d -> d.getDocumentType() == Document.DocumentType.BANK_STATEMENT);
-        boolean hasAadhaar = documents.stream().anyMatch(d -> d.getDocumentType() == Document.DocumentType.AADHAAR);
-        boolean hasPAN = documents.stream().anyMatch(d -> d.getDocumentType() == Document.DocumentType.PAN);
-        boolean hasPhoto = documents.stream().anyMatch(d -> d.getDocumentType() == Document.DocumentType.PHOTO);
+        Set<Document.DocumentType> uploaded = EnumSet.noneOf(Document.DocumentType.class);
+        for (Document document : documents) {
+            uploaded.add(document.getDocumentType());
+        }
         
-        return hasITR && hasBankStatement && hasAadhaar && hasPAN && hasPhoto;
+        return uploaded.containsAll(Document.REQUIRED_DOCUMENT_TYPES);
     }
 
     public long getDocumentCount(Long applicationId) {
@@ -0,0 +1,117 @@
+package com.portfolio.LOC.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.LOC.dto.ScoringInputRow;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import com.portfolio.LOC.util.EligibilityRules;
+import com.portfolio.LOC.util.EligibilityScorer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+// Scores applications against the versioned rule table. New applications are scored on submit;
+// when the rule version changes, the rest of the book is re-scored at startup in primary-key pages.
+@Service
+public class EligibilityScoringService {
+
+    private static final String UPDATE_SCORE_SQL =
+        "UPDATE loan_applications SET eligibility_score = ?, eligibility_rule_version = ? WHERE id = ?";
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${smartloan.scoring.rescore-page-size:10000}")
+    private int rescorePageSize;
+
+    private final EligibilityScorer scorer;
+
+    public EligibilityScoringService(ObjectMapper objectMapper,
+                                     @Value("${smartloan.scoring.rules:classpath:scoring/eligibility-rules.json}") Resource rules) {
+        try (InputStream input = rules.getInputStream()) {
+            this.scorer = EligibilityScorer.compile(objectMapper.readValue(input, EligibilityRules.class));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not load eligibility rules from " + rules.getDescription(), e);
+        }
+    }
+
+    public int getRuleVersion() {
+        return scorer.getVersion();
+    }
+
+    // Sets the score and the rule version it was computed under
+    public void applyScore(LoanApplication application) {
+        application.setEligibilityScore(scorer.score(
+            EligibilityScorer.toPaise(application.getMonthlyIncome()),
+            application.getEmploymentType(),
+            application.getWorkExperience() == null ? 0 : application.getWorkExperience(),
+            Boolean.TRUE.equals(application.getHasCoApplicant()),
+            EligibilityScorer.toPaise(application.getLoanAmount())
+        ));
+        application.setEligibilityRuleVersion(scorer.getVersion());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rescoreOnStartup() {
+        int rescored = rescoreStaleApplications();
+        if (rescored > 0) {
+            System.out.println("EligibilityScoringService - Re-scored " + rescored
+                + " applications under rule version " + scorer.getVersion());
+        }
+    }
+
+    // Re-scores every application not yet scored under the current rule version
+    public int rescoreStaleApplications() {
+        int version = scorer.getVersion();
+        EligibilityScorer.Batch batch = new EligibilityScorer.Batch(rescorePageSize);
+        long afterId = 0;
+        int rescored = 0;
+
+        while (true) {
+            List<ScoringInputRow> page = loanApplicationRepository.findStaleScoringInputs(
+                version, afterId, PageRequest.of(0, rescorePageSize));
+            if (page.isEmpty()) {
+                return rescored;
+            }
+
+            batch.clear();
+            for (ScoringInputRow row : page) {
+                batch.add(row.getMonthlyIncome(), row.getEmploymentType(), row.getWorkExperience(),
+                    row.getHasCoApplicant(), row.getLoanAmount());
+            }
+            scorer.scoreAll(batch);
+
+            jdbcTemplate.batchUpdate(UPDATE_SCORE_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    statement.setInt(1, batch.scoreAt(i));
+                    statement.setInt(2, version);
+                    statement.setLong(3, page.get(i).getId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return page.size();
+                }
+            });
+
+            rescored += page.size();
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+}
@@ -1,83 +1,258 @@
 package com.portfolio.LOC.service;
 
+import com.portfolio.LOC.dto.LedgerReconciliation;
+import com.portfolio.LOC.dto.OverdueEmiRun;
 import com.portfolio.LOC.entity.EmiSchedule;
 import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.entity.LoanTerms;
+import com.portfolio.LOC.entity.LoanLedger;
 import com.portfolio.LOC.repository.EmiScheduleRepository;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import com.portfolio.LOC.repository.LoanTermsRepository;
+import com.portfolio.LOC.util.AmortizationCalculator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
+// EMI schedules are either written out in full when the offer is generated (eager) or kept as
+// loan_terms plus the instalments that have seen activity (lazy). In lazy mode every read merges
+// the stored rows over a freshly computed schedule, so callers see the same rows in both modes.
 @Service
 @Transactional
 public class EmiScheduleService {
     
+    // Matches the pooled increment of the EmiSchedule ID generator
+    private static final int ID_BLOCK_SIZE = 50;
+    
+    private static final int LAZY_SWEEP_PAGE_SIZE = 500;
+    
+    private static final int LEDGER_RECONCILE_PAGE_SIZE = 200;
+    
+    private static final String OVERDUE_ID_RANGE_SQL =
+        "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM emi_schedule WHERE status = 'PENDING' AND due_date < ?";
+    
+    private static final String OVERDUE_CHUNK_TOTALS_SQL =
+        "SELECT COALESCE(SUM(emi_amount), 0) AS total_amount FROM emi_schedule " +
+        "WHERE id BETWEEN ? AND ? AND status = 'PENDING' AND due_date < ?";
+    
+    private static final String MARK_OVERDUE_SQL =
+        "UPDATE emi_schedule SET status = 'OVERDUE', updated_at = ? " +
+        "WHERE id BETWEEN ? AND ? AND status = 'PENDING' AND due_date < ?";
+    
+    private static final String INSERT_EMI_SQL =
+        "INSERT INTO emi_schedule (id, loan_application_id, emi_number, due_date, emi_amount, principal_amount, " +
+        "interest_amount, outstanding_balance, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String STORED_EMI_NUMBERS_SQL =
+        "SELECT loan_application_id, emi_number FROM emi_schedule WHERE loan_application_id IN (:ids)";
+    
+    private static final String INSERT_TERMS_SQL =
+        "INSERT INTO loan_terms (loan_application_id, principal_amount, annual_interest_rate, tenure_months, emi_amount, " +
+        "total_amount, first_due_date, first_emi_id, start_emi_number, swept_through, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
     @Autowired
     private EmiScheduleRepository emiScheduleRepository;
+
+    @Autowired
+    private LoanTermsRepository loanTermsRepository;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private DelinquencyService delinquencyService;
+
+    @Autowired
+    private LoanLedgerService loanLedgerService;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private CashFlowProjectionService cashFlowProjectionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${smartloan.emi.materialization:lazy}")
+    private String materialization;
+
+    @Value("${smartloan.jobs.overdue-emis.chunk-size:5000}")
+    private int overdueChunkSize;
+
+    private volatile OverdueEmiRun lastOverdueRun;
+
+    private final LongAdder overdueRuns = new LongAdder();
+
+    private final LongAdder overdueRowsAffected = new LongAdder();
     
     public List<EmiSchedule> generateEmiSchedule(LoanApplication application, BigDecimal loanAmount, 
                                                BigDecimal annualInterestRate, Integer tenureYears, BigDecimal emiAmount) {
         
-        List<EmiSchedule> emiSchedules = new ArrayList<>();
+        int totalMonths = tenureYears * 12;
+        AmortizationCalculator.Schedule schedule = AmortizationCalculator.schedule(
+            loanAmount, annualInterestRate, totalMonths, emiAmount);
+        LocalDate firstDueDate = LocalDate.now().plusMonths(1); // First EMI after 1 month
+        cashFlowProjectionService.invalidate();
         
-        BigDecimal monthlyRate = annualInterestRate.divide(BigDecimal.valueOf(1200), 10, RoundingMode.HALF_UP);
-        Integer totalMonths = tenureYears * 12;
-        BigDecimal outstandingBalance = loanAmount;
+        if (isLazy()) {
+            LoanTerms terms = loanTermsRepository.save(new LoanTerms(
+                application, loanAmount, annualInterestRate, totalMonths, emiAmount,
+                totalOf(schedule), firstDueDate, reserveEmiIds(totalMonths)));
+            
+            List<EmiSchedule> emiSchedules = computeRows(terms, schedule);
+            dashboardAggregateService.recordEmisCreated(emiSchedules);
+            loanLedgerService.open(application.getId(), emiSchedules);
+            return emiSchedules;
+        }
         
-        LocalDate currentDate = LocalDate.now().plusMonths(1); // First EMI after 1 month
+        List<EmiSchedule> emiSchedules = buildRows(application, schedule, firstDueDate, 1);
         
-        for (int i = 1; i <= totalMonths; i++) {
-            // Calculate interest for this month
-            BigDecimal interestAmount = outstandingBalance.multiply(monthlyRate).setScale(2, RoundingMode.HALF_UP);
-            
-            // Calculate principal for this month
-            BigDecimal principalAmount = emiAmount.subtract(interestAmount);
-            
-            // Adjust for last EMI to handle rounding differences
-            if (i == totalMonths) {
-                principalAmount = outstandingBalance;
-                emiAmount = principalAmount.add(interestAmount);
+        // Save all EMI schedules
+        List<EmiSchedule> savedSchedules = emiScheduleRepository.saveAll(emiSchedules);
+        dashboardAggregateService.recordEmisCreated(savedSchedules);
+        loanLedgerService.open(application.getId(), savedSchedules);
+        return savedSchedules;
+    }
+    
+    // generateEmiSchedule for many loans at once: one ID reservation covers them all, and their terms or
+    // instalments, ledgers and dashboard deltas go out as batches. Returns the instalments scheduled.
+    public long generateEmiSchedules(List<NewSchedule> loans) {
+        if (loans.isEmpty()) {
+            return 0;
+        }
+        LocalDate firstDueDate = LocalDate.now().plusMonths(1);
+        cashFlowProjectionService.invalidate();
+        
+        int totalMonths = loans.stream().mapToInt(loan -> loan.tenureYears() * 12).sum();
+        long nextEmiId = reserveEmiIds(totalMonths);
+        List<Object[]> termsRows = new ArrayList<>(loans.size());
+        List<EmiSchedule> emiSchedules = new ArrayList<>(totalMonths);
+        Map<Long, List<EmiSchedule>> byLoan = new LinkedHashMap<>();
+        for (NewSchedule loan : loans) {
+            int months = loan.tenureYears() * 12;
+            AmortizationCalculator.Schedule schedule = AmortizationCalculator.schedule(
+                loan.loanAmount(), loan.annualInterestRate(), months, loan.emiAmount());
+            LoanTerms terms = new LoanTerms(loan.application(), loan.loanAmount(), loan.annualInterestRate(), months,
+                loan.emiAmount(), totalOf(schedule), firstDueDate, nextEmiId);
+            // Eagerly stored rows take the reserved IDs too, so neither mode needs a generated key back
+            List<EmiSchedule> rows = computeRows(terms, schedule);
+            if (isLazy()) {
+                termsRows.add(new Object[] {
+                    loan.application().getId(), terms.getPrincipalAmount(), terms.getAnnualInterestRate(), months,
+                    terms.getEmiAmount(), terms.getTotalAmount(), Date.valueOf(firstDueDate), nextEmiId,
+                    terms.getStartEmiNumber(), terms.getSweptThrough(), Timestamp.valueOf(terms.getCreatedAt())
+                });
             }
-            
-            // Update outstanding balance
-            outstandingBalance = outstandingBalance.subtract(principalAmount);
-            
-            // Create EMI schedule entry
-            EmiSchedule emiSchedule = new EmiSchedule(
-                application, i, currentDate, emiAmount, principalAmount, interestAmount, outstandingBalance
-            );
-            
-            emiSchedules.add(emiSchedule);
-            
-            // Move to next month
-            currentDate = currentDate.plusMonths(1);
+            emiSchedules.addAll(rows);
+            byLoan.put(loan.application().getId(), rows);
+            nextEmiId += months;
         }
         
-        // Save all EMI schedules
-        return emiScheduleRepository.saveAll(emiSchedules);
+        if (isLazy()) {
+            jdbcTemplate.batchUpdate(INSERT_TERMS_SQL, termsRows);
+        } else {
+            insertAll(emiSchedules);
+        }
+        dashboardAggregateService.recordEmisCreated(emiSchedules);
+        loanLedgerService.openAll(byLoan);
+        return emiSchedules.size();
+    }
+    
+    // One loan's schedule to create in generateEmiSchedules
+    public record NewSchedule(LoanApplication application, BigDecimal loanAmount, BigDecimal annualInterestRate,
+                              Integer tenureYears, BigDecimal emiAmount) {
     }
     
     public List<EmiSchedule> getEmiSchedule(Long applicationId) {
-        return emiScheduleRepository.findByLoanApplicationIdOrderByEmiNumberAsc(applicationId);
+        return mergeSchedule(loanTermsRepository.findByLoanApplicationId(applicationId),
+            emiScheduleRepository.findByLoanApplicationIdOrderByEmiNumberAsc(applicationId));
+    }
+    
+    // A loan's full schedule from its terms, if it has any, and its stored rows in EMI number order.
+    // Instalments before the terms' start are all stored; later ones are computed unless stored.
+    public List<EmiSchedule> mergeSchedule(Optional<LoanTerms> terms, List<EmiSchedule> stored) {
+        if (terms.isEmpty()) {
+            return stored;
+        }
+        
+        int start = terms.get().getStartEmiNumber();
+        List<EmiSchedule> emiSchedules = new ArrayList<>(terms.get().getTenureMonths());
+        for (EmiSchedule emi : stored) {
+            if (emi.getEmiNumber() < start) {
+                emiSchedules.add(emi);
+            }
+        }
+        emiSchedules.addAll(computeRows(terms.get()));
+        for (EmiSchedule emi : stored) {
+            if (emi.getEmiNumber() >= start) {
+                emiSchedules.set(emi.getEmiNumber() - 1, emi);
+            }
+        }
+        return emiSchedules;
     }
     
     public List<EmiSchedule> getOverdueEmis() {
-        return emiScheduleRepository.findOverdueEmis(LocalDate.now());
+        LocalDate today = LocalDate.now();
+        List<EmiSchedule> overdueEmis = new ArrayList<>(emiScheduleRepository.findOverdueEmis(today));
+        
+        // Computed instalments past their due date that the overdue sweep has not stored yet; one query
+        // returns the stored EMI numbers of every such loan
+        List<LoanTerms> unswept = loanTermsRepository.findWithUnsweptInstalmentsDueBy(today);
+        Map<Long, Set<Integer>> storedNumbers = storedEmiNumbers(unswept);
+        for (LoanTerms terms : unswept) {
+            Set<Integer> stored = storedNumbers.getOrDefault(terms.getLoanApplication().getId(), Set.of());
+            for (EmiSchedule emi : computeRowsDueBy(terms, terms.getSweptThrough() + 1, today)) {
+                if (!stored.contains(emi.getEmiNumber())) {
+                    overdueEmis.add(emi);
+                }
+            }
+        }
+        return overdueEmis;
     }
     
     public EmiSchedule payEmi(Long emiId, BigDecimal paidAmount, String remarks) {
         EmiSchedule emi = emiScheduleRepository.findById(emiId)
-            .orElseThrow(() -> new RuntimeException("EMI not found"));
+            .orElseGet(() -> materialize(emiId));
         
         if (emi.getStatus() == EmiSchedule.EmiStatus.PAID) {
             throw new RuntimeException("EMI already paid");
         }
         
+        EmiSchedule.EmiStatus previousStatus = emi.getStatus();
+        BigDecimal previousPaid = emi.getPaidAmount();
+        BigDecimal previousLateFee = emi.getLateFee();
         emi.setPaidAmount(paidAmount);
         emi.setPaidDate(LocalDate.now());
         emi.setRemarks(remarks);
@@ -95,23 +270,92 @@ public class EmiScheduleService {
             emi.setLateFee(lateFee);
         }
         
-        return emiScheduleRepository.save(emi);
+        EmiSchedule savedEmi = emiScheduleRepository.saveAndFlush(emi);
+        dashboardAggregateService.recordEmiStatusChange(savedEmi, previousStatus);
+        
+        LoanLedgerService.Postings postings = new LoanLedgerService.Postings();
+        postings.add(savedEmi.getLoanApplication().getId(), savedEmi.getPrincipalAmount(), savedEmi.getInterestAmount(),
+            previousPaid, savedEmi.getPaidAmount(), previousLateFee, savedEmi.getLateFee());
+        loanLedgerService.post(postings);
+        
+        // Only a past-due instalment counts towards arrears
+        if (savedEmi.getDueDate().isBefore(LocalDate.now())) {
+            delinquencyService.refreshLoan(savedEmi.getLoanApplication().getId());
+        }
+        return savedEmi;
+    }
+    
+    // The computed instalment of a lazily materialized loan falling due on dueDate, unsaved and under its
+    // reserved ID, for callers that match payments by date. Empty when no instalment falls on that date.
+    public Optional<EmiSchedule> computeInstalment(LoanTerms terms, LocalDate dueDate) {
+        List<LocalDate> dueDates = dueDatesThrough(terms, dueDate);
+        if (dueDates.isEmpty() || !dueDates.get(dueDates.size() - 1).equals(dueDate)) {
+            return Optional.empty();
+        }
+        return Optional.of(walkRows(terms, terms.getStartEmiNumber() + dueDates.size() - 1, dueDates).get(0));
     }
     
-    public void markOverdueEmis() {
-        List<EmiSchedule> overdueEmis = emiScheduleRepository.findByDueDateBeforeAndStatus(
-            LocalDate.now(), EmiSchedule.EmiStatus.PENDING
-        );
+    // Runs outside the class-level transaction: each ID-range chunk and each page of loan terms commits
+    // on its own, so no sweep holds row locks on emi_schedule for longer than one chunk
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OverdueEmiRun markOverdueEmis() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.currentTimeMillis();
+        LocalDate today = startedAt.toLocalDate();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
         
-        for (EmiSchedule emi : overdueEmis) {
-            emi.setStatus(EmiSchedule.EmiStatus.OVERDUE);
+        long marked = 0;
+        int chunks = 0;
+        Map<String, Object> range = jdbcTemplate.queryForMap(OVERDUE_ID_RANGE_SQL, Date.valueOf(today));
+        if (range.get("min_id") != null) {
+            long maxId = ((Number) range.get("max_id")).longValue();
+            for (long chunkStart = ((Number) range.get("min_id")).longValue(); chunkStart <= maxId; chunkStart += overdueChunkSize) {
+                long fromId = chunkStart;
+                long toId = Math.min(fromId + overdueChunkSize - 1, maxId);
+                marked += template.execute(status -> markOverdueChunk(fromId, toId, today, startedAt));
+                chunks++;
+            }
         }
         
-        emiScheduleRepository.saveAll(overdueEmis);
+        long materialized = 0;
+        long afterId = 0;
+        while (true) {
+            long pageAfterId = afterId;
+            SweepPage page = template.execute(status -> sweepLazyPage(pageAfterId, today));
+            if (page.loans() == 0) {
+                break;
+            }
+            materialized += page.materialized();
+            afterId = page.lastTermsId();
+        }
+        
+        OverdueEmiRun run = new OverdueEmiRun(startedAt, System.currentTimeMillis() - started, marked, materialized, chunks);
+        lastOverdueRun = run;
+        overdueRuns.increment();
+        overdueRowsAffected.add(run.getRowsAffected());
+        return run;
     }
     
+    public OverdueEmiRun getLastOverdueRun() {
+        return lastOverdueRun;
+    }
+    
+    public long getOverdueRunCount() {
+        return overdueRuns.sum();
+    }
+    
+    public long getOverdueRowsAffected() {
+        return overdueRowsAffected.sum();
+    }
+    
+    // A single-row ledger read; loans scheduled before ledgers existed fall back to summing their instalments
     public BigDecimal getTotalOutstanding(Long applicationId) {
-        List<EmiSchedule> pendingEmis = emiScheduleRepository.findByLoanApplicationIdOrderByEmiNumberAsc(applicationId)
+        Optional<LoanLedger> ledger = loanLedgerService.getLedger(applicationId);
+        if (ledger.isPresent()) {
+            return ledger.get().getTotalOutstanding();
+        }
+        
+        List<EmiSchedule> pendingEmis = getEmiSchedule(applicationId)
             .stream()
             .filter(emi -> emi.getStatus() != EmiSchedule.EmiStatus.PAID)
             .toList();
@@ -121,11 +365,220 @@ public class EmiScheduleService {
             .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
     
+    // Each page of loans is checked in its own transaction; a loan without a ledger gets one opened
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public LedgerReconciliation reconcileLedgers() {
+        long started = System.currentTimeMillis();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        
+        long checked = 0;
+        long opened = 0;
+        long repaired = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> page = loanApplicationRepository.findScheduledIdsAfter(afterId, PageRequest.of(0, LEDGER_RECONCILE_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<LoanLedgerService.Reconciled> outcomes = template.execute(status -> page.stream()
+                .map(loanApplicationId -> loanLedgerService.reconcile(loanApplicationId, this::getEmiSchedule))
+                .toList());
+            checked += outcomes.size();
+            opened += outcomes.stream().filter(outcome -> outcome == LoanLedgerService.Reconciled.OPENED).count();
+            repaired += outcomes.stream().filter(outcome -> outcome == LoanLedgerService.Reconciled.REPAIRED).count();
+            afterId = page.get(page.size() - 1);
+        }
+        return new LedgerReconciliation(checked, opened, repaired, System.currentTimeMillis() - started);
+    }
+    
     public Long getPaidEmiCount(Long applicationId) {
         return emiScheduleRepository.countPaidEmisByLoanApplicationId(applicationId);
     }
     
     public Long getTotalEmiCount(Long applicationId) {
-        return emiScheduleRepository.countTotalEmisByLoanApplicationId(applicationId);
+        return loanTermsRepository.findByLoanApplicationId(applicationId)
+            .map(terms -> terms.getTenureMonths().longValue())
+            .orElseGet(() -> emiScheduleRepository.countTotalEmisByLoanApplicationId(applicationId));
+    }
+    
+    private boolean isLazy() {
+        return "lazy".equalsIgnoreCase(materialization);
+    }
+    
+    public List<EmiSchedule> buildRows(LoanApplication application, AmortizationCalculator.Schedule schedule,
+                                       LocalDate firstDueDate, int firstEmiNumber) {
+        List<EmiSchedule> emiSchedules = new ArrayList<>(schedule.getMonths());
+        LocalDate currentDate = firstDueDate;
+        
+        for (int i = 0; i < schedule.getMonths(); i++) {
+            emiSchedules.add(new EmiSchedule(
+                application, firstEmiNumber + i, currentDate,
+                AmortizationCalculator.fromPaise(schedule.getEmiPaise(i)),
+                AmortizationCalculator.fromPaise(schedule.getPrincipalPaise(i)),
+                AmortizationCalculator.fromPaise(schedule.getInterestPaise(i)),
+                AmortizationCalculator.fromPaise(schedule.getBalancePaise(i))
+            ));
+            currentDate = currentDate.plusMonths(1);
+        }
+        return emiSchedules;
+    }
+    
+    private List<EmiSchedule> computeRows(LoanTerms terms) {
+        return computeRows(terms, AmortizationCalculator.schedule(
+            terms.getPrincipalAmount(), terms.getAnnualInterestRate(), terms.getSegmentMonths(), terms.getEmiAmount()));
+    }
+    
+    // Unsaved PENDING rows from the terms' start onwards, carrying the IDs reserved for them
+    private List<EmiSchedule> computeRows(LoanTerms terms, AmortizationCalculator.Schedule schedule) {
+        List<EmiSchedule> emiSchedules = buildRows(terms.getLoanApplication(), schedule, terms.getFirstDueDate(),
+            terms.getStartEmiNumber());
+        for (EmiSchedule emi : emiSchedules) {
+            emi.setId(terms.getFirstEmiId() + emi.getEmiNumber() - terms.getStartEmiNumber());
+            emi.setCreatedAt(terms.getCreatedAt());
+        }
+        return emiSchedules;
+    }
+    
+    private static BigDecimal totalOf(AmortizationCalculator.Schedule schedule) {
+        long totalPaise = 0;
+        for (int i = 0; i < schedule.getMonths(); i++) {
+            totalPaise += schedule.getEmiPaise(i);
+        }
+        return AmortizationCalculator.fromPaise(totalPaise);
+    }
+    
+    // Computed rows from fromEmiNumber through the last one due by date. The walk stops at that date
+    // rather than building the whole schedule.
+    private List<EmiSchedule> computeRowsDueBy(LoanTerms terms, int fromEmiNumber, LocalDate date) {
+        return walkRows(terms, fromEmiNumber, dueDatesThrough(terms, date));
+    }
+    
+    // Due dates step a month at a time as in buildRows, so month-end dates clamp the same way
+    private static List<LocalDate> dueDatesThrough(LoanTerms terms, LocalDate date) {
+        List<LocalDate> dueDates = new ArrayList<>();
+        for (LocalDate dueDate = terms.getFirstDueDate();
+             dueDates.size() < terms.getSegmentMonths() && !dueDate.isAfter(date); dueDate = dueDate.plusMonths(1)) {
+            dueDates.add(dueDate);
+        }
+        return dueDates;
+    }
+    
+    // Rows from fromEmiNumber through the last of dueDates, the amortization walked only that far
+    private List<EmiSchedule> walkRows(LoanTerms terms, int fromEmiNumber, List<LocalDate> dueDates) {
+        int offset = terms.getStartEmiNumber() - 1;
+        List<EmiSchedule> rows = new ArrayList<>();
+        AmortizationCalculator.walk(AmortizationCalculator.toPaise(terms.getPrincipalAmount()),
+            AmortizationCalculator.monthlyRateE10(terms.getAnnualInterestRate()), terms.getSegmentMonths(),
+            AmortizationCalculator.toPaise(terms.getEmiAmount()), dueDates.size(), (index, principal, interest, balance) -> {
+                if (index + offset + 1 >= fromEmiNumber) {
+                    EmiSchedule emi = new EmiSchedule(terms.getLoanApplication(), index + offset + 1, dueDates.get(index),
+                        AmortizationCalculator.fromPaise(principal + interest), AmortizationCalculator.fromPaise(principal),
+                        AmortizationCalculator.fromPaise(interest), AmortizationCalculator.fromPaise(balance));
+                    emi.setId(terms.getFirstEmiId() + index);
+                    emi.setCreatedAt(terms.getCreatedAt());
+                    rows.add(emi);
+                }
+            });
+        return rows;
+    }
+    
+    private Map<Long, Set<Integer>> storedEmiNumbers(List<LoanTerms> terms) {
+        Map<Long, Set<Integer>> storedNumbers = new HashMap<>();
+        if (terms.isEmpty()) {
+            return storedNumbers;
+        }
+        List<Long> loanApplicationIds = terms.stream().map(t -> t.getLoanApplication().getId()).toList();
+        namedParameterJdbcTemplate.query(STORED_EMI_NUMBERS_SQL, Map.of("ids", loanApplicationIds), (RowCallbackHandler) rs ->
+            storedNumbers.computeIfAbsent(rs.getLong(1), id -> new HashSet<>()).add(rs.getInt(2)));
+        return storedNumbers;
+    }
+    
+    private List<Integer> storedEmiNumbers(LoanTerms terms) {
+        return emiScheduleRepository.findByLoanApplicationIdOrderByEmiNumberAsc(terms.getLoanApplication().getId())
+            .stream()
+            .map(EmiSchedule::getEmiNumber)
+            .toList();
+    }
+    
+    // Stores a computed instalment under its reserved ID the first time it sees activity
+    private EmiSchedule materialize(Long emiId) {
+        LoanTerms terms = loanTermsRepository.findFirstByFirstEmiIdLessThanEqualOrderByFirstEmiIdDesc(emiId)
+            .filter(candidate -> emiId < candidate.getFirstEmiId() + candidate.getSegmentMonths())
+            .orElseThrow(() -> new RuntimeException("EMI not found"));
+        
+        insert(computeRows(terms).get((int) (emiId - terms.getFirstEmiId())));
+        return emiScheduleRepository.findById(emiId)
+            .orElseThrow(() -> new RuntimeException("EMI not found"));
+    }
+    
+    // Plain JDBC because the entity's ID is generated and JPA will not persist one that is already set
+    private void insert(EmiSchedule emi) {
+        jdbcTemplate.update(INSERT_EMI_SQL, insertArgs(emi));
+    }
+    
+    // Stores computed rows under the IDs already on them, in one batch
+    public void insertAll(List<EmiSchedule> emis) {
+        if (!emis.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EMI_SQL, emis.stream().map(EmiScheduleService::insertArgs).toList());
+        }
+    }
+    
+    private static Object[] insertArgs(EmiSchedule emi) {
+        return new Object[] {
+            emi.getId(), emi.getLoanApplication().getId(), emi.getEmiNumber(), Date.valueOf(emi.getDueDate()),
+            emi.getEmiAmount(), emi.getPrincipalAmount(), emi.getInterestAmount(), emi.getOutstandingBalance(),
+            emi.getStatus().name(), Timestamp.valueOf(emi.getCreatedAt())
+        };
+    }
+    
+    // One ID range: the totals feed the dashboard delta, then a single UPDATE flips the rows
+    private long markOverdueChunk(long fromId, long toId, LocalDate today, LocalDateTime now) {
+        Map<String, Object> totals = jdbcTemplate.queryForMap(OVERDUE_CHUNK_TOTALS_SQL, fromId, toId, Date.valueOf(today));
+        int updated = jdbcTemplate.update(MARK_OVERDUE_SQL, Timestamp.valueOf(now), fromId, toId, Date.valueOf(today));
+        // A row paid between the two statements skews the delta slightly; the reconcile job corrects it
+        dashboardAggregateService.recordEmisMarkedOverdue(updated, (BigDecimal) totals.get("total_amount"));
+        return updated;
+    }
+    
+    // Lazily materialized loans: store each newly overdue instalment, then move the sweep mark past it
+    private SweepPage sweepLazyPage(long afterId, LocalDate today) {
+        List<LoanTerms> page = loanTermsRepository.findWithUnsweptInstalmentsDueBefore(
+            today, afterId, PageRequest.of(0, LAZY_SWEEP_PAGE_SIZE));
+        long materialized = 0;
+        for (LoanTerms terms : page) {
+            List<EmiSchedule> rows = computeRows(terms);
+            List<Integer> storedNumbers = storedEmiNumbers(terms);
+            int offset = terms.getStartEmiNumber() - 1;
+            int sweptThrough = terms.getSweptThrough();
+            while (sweptThrough - offset < rows.size() && rows.get(sweptThrough - offset).getDueDate().isBefore(today)) {
+                EmiSchedule emi = rows.get(sweptThrough++ - offset);
+                if (!storedNumbers.contains(emi.getEmiNumber())) {
+                    emi.setStatus(EmiSchedule.EmiStatus.OVERDUE);
+                    insert(emi);
+                    dashboardAggregateService.recordEmiStatusChange(emi, EmiSchedule.EmiStatus.PENDING);
+                    materialized++;
+                }
+            }
+            terms.setSweptThrough(sweptThrough);
+        }
+        return new SweepPage(page.size(), page.isEmpty() ? afterId : page.get(page.size() - 1).getId(), materialized);
+    }
+    
+    private record SweepPage(int loans, long lastTermsId, long materialized) {
+    }
+    
+    // Claims a block of IDs from emi_schedule_seq the same way the pooled generator does: after the
+    // table moves from v to v + n, IDs v - 49 .. v + n - 50 belong to the caller. Runs in its own
+    // short transaction so the row lock does not hold up other ID allocations.
+    public long reserveEmiIds(int count) {
+        int blocks = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        long reserved = (long) blocks * ID_BLOCK_SIZE;
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Long nextValue = template.execute(status -> {
+            jdbcTemplate.update("UPDATE emi_schedule_seq SET next_val = next_val + ?", reserved);
+            return jdbcTemplate.queryForObject("SELECT next_val FROM emi_schedule_seq", Long.class);
+        });
+        return nextValue - reserved - (ID_BLOCK_SIZE - 1);
     }
 }
@@ -5,11 +5,8 @@ import com.portfolio.LOC.entity.LoanOfferLetter;
 import com.portfolio.LOC.repository.RcpuReportRepository;
 import com.portfolio.LOC.repository.LoanOfferLetterRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.util.Optional;
 
 @Service
@@ -21,38 +18,13 @@ public class FileDownloadService {
     @Autowired
     private LoanOfferLetterRepository loanOfferLetterRepository;
     
-    public Resource downloadRcpuReport(Long applicationId) {
-        Optional<RcpuReport> reportOpt = rcpuReportRepository.findByLoanApplicationId(applicationId);
-        
-        if (reportOpt.isEmpty()) {
-            throw new RuntimeException("RCPU report not found for application ID: " + applicationId);
-        }
-        
-        RcpuReport report = reportOpt.get();
-        File file = new File(report.getReportFilePath());
-        
-        if (!file.exists()) {
-            throw new RuntimeException("RCPU report file not found: " + report.getReportFileName());
-        }
-        
-        return new FileSystemResource(file);
+    // Downloads read the row once and let the response check the file itself
+    public Optional<RcpuReport> getRcpuReport(Long applicationId) {
+        return rcpuReportRepository.findByLoanApplicationId(applicationId);
     }
     
-    public Resource downloadLoanOffer(Long applicationId) {
-        Optional<LoanOfferLetter> offerOpt = loanOfferLetterRepository.findByLoanApplicationId(applicationId);
-        
-        if (offerOpt.isEmpty()) {
-            throw new RuntimeException("Loan offer not found for application ID: " + applicationId);
-        }
-        
-        LoanOfferLetter offer = offerOpt.get();
-        File file = new File(offer.getFilePath());
-        
-        if (!file.exists()) {
-            throw new RuntimeException("Loan offer file not found: " + offer.getFileName());
-        }
-        
-        return new FileSystemResource(file);
+    public Optional<LoanOfferLetter> getLoanOffer(Long applicationId) {
+        return loanOfferLetterRepository.findByLoanApplicationId(applicationId);
     }
     
     public String getRcpuReportFileName(Long applicationId) {
@@ -69,6 +41,11 @@ public class FileDownloadService {
         return rcpuReportRepository.findByLoanApplicationId(applicationId).isPresent();
     }
     
+    // Empty when there is no offer; the letter can be downloaded once this is READY
+    public Optional<LoanOfferLetter.PdfStatus> getLoanOfferPdfStatus(Long applicationId) {
+        return loanOfferLetterRepository.findByLoanApplicationId(applicationId).map(LoanOfferLetter::getPdfStatus);
+    }
+    
     public boolean hasLoanOffer(Long applicationId) {
         return loanOfferLetterRepository.findByLoanApplicationId(applicationId).isPresent();
     }
@@ -0,0 +1,223 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.entity.ApplicantFingerprint;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.repository.ApplicantFingerprintRepository;
+import com.portfolio.LOC.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Duplicate-applicant detection on keyed PAN/Aadhaar hashes. The unique constraints on
+// applicant_fingerprints are the source of truth; the Bloom filter only lets a brand-new
+// applicant skip the database probe. Until the filter is loaded every check goes to the database.
+@Service
+public class IdentityFingerprintService {
+
+    private static final String DUPLICATE_PAN_MESSAGE = "Application with this PAN number already exists";
+    private static final String DUPLICATE_AADHAAR_MESSAGE = "Application with this Aadhaar number already exists";
+
+    @Autowired
+    private ApplicantFingerprintRepository applicantFingerprintRepository;
+
+    @Value("${smartloan.identity.fingerprint-key}")
+    private String fingerprintKey;
+
+    @Value("${smartloan.identity.bloom-expected-entries:1000000}")
+    private long bloomExpectedEntries;
+
+    @Value("${smartloan.identity.bloom-false-positive-rate:0.01}")
+    private double bloomFalsePositiveRate;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    private volatile BloomFilter knownIdentities;
+
+    // Fast pre-check so the common duplicate gets a clean message; the insert below is what makes it race-free
+    public void checkNotDuplicate(String panNumber, String aadhaarNumber) {
+        String duplicate = findDuplicate(fingerprintOf(panNumber, aadhaarNumber));
+        if (duplicate != null) {
+            throw new RuntimeException(duplicate);
+        }
+    }
+
+    // Thread-safe and free of database access, so bulk ingestion can hash rows in parallel
+    public Fingerprint fingerprintOf(String panNumber, String aadhaarNumber) {
+        return new Fingerprint(fingerprint("PAN", panNumber), fingerprint("AADHAAR", aadhaarNumber));
+    }
+
+    // Returns the duplicate message, or null when neither identity is on file
+    public String findDuplicate(Fingerprint fingerprint) {
+        if (mightBeKnown(fingerprint.panHash) && applicantFingerprintRepository.existsByPanHash(fingerprint.getPanHash())) {
+            return DUPLICATE_PAN_MESSAGE;
+        }
+        if (mightBeKnown(fingerprint.aadhaarHash) && applicantFingerprintRepository.existsByAadhaarHash(fingerprint.getAadhaarHash())) {
+            return DUPLICATE_AADHAAR_MESSAGE;
+        }
+        return null;
+    }
+
+    // Must run in the same transaction as the application insert
+    public void recordFingerprint(LoanApplication application) {
+        Fingerprint fingerprint = fingerprintOf(application.getPanNumber(), application.getAadhaarNumber());
+        applicantFingerprintRepository.saveAndFlush(
+            new ApplicantFingerprint(application, fingerprint.getPanHash(), fingerprint.getAadhaarHash()));
+        rememberAfterCommit(List.of(fingerprint));
+    }
+
+    // Bulk variant: queues the inserts without flushing, so they batch with the application inserts
+    public void recordFingerprints(Map<LoanApplication, Fingerprint> fingerprints) {
+        List<ApplicantFingerprint> rows = new ArrayList<>(fingerprints.size());
+        fingerprints.forEach((application, fingerprint) ->
+            rows.add(new ApplicantFingerprint(application, fingerprint.getPanHash(), fingerprint.getAadhaarHash())));
+        applicantFingerprintRepository.saveAll(rows);
+        rememberAfterCommit(new ArrayList<>(fingerprints.values()));
+    }
+
+    // Maps a unique-constraint violation raised while saving an application to the user-facing message
+    public String describeDuplicate(DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toUpperCase();
+        if (message.contains("FINGERPRINTS_AADHAAR")) {
+            return DUPLICATE_AADHAAR_MESSAGE;
+        }
+        if (message.contains("FINGERPRINTS_PAN") || message.contains("PAN_NUMBER")) {
+            return DUPLICATE_PAN_MESSAGE;
+        }
+        return "Application could not be saved: " + e.getMostSpecificCause().getMessage();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        backfillMissingFingerprints();
+        rebuildFilter();
+    }
+
+    private void backfillMissingFingerprints() {
+        List<LoanApplication> applications = applicantFingerprintRepository.findApplicationsWithoutFingerprint();
+        if (applications.isEmpty()) {
+            return;
+        }
+
+        Set<String> seen = new HashSet<>();
+        try (Stream<String> panHashes = applicantFingerprintRepository.streamAllPanHashes()) {
+            panHashes.forEach(seen::add);
+        }
+        try (Stream<String> aadhaarHashes = applicantFingerprintRepository.streamAllAadhaarHashes()) {
+            aadhaarHashes.forEach(seen::add);
+        }
+
+        int created = 0;
+        for (LoanApplication application : applications) {
+            String panHash = toHex(fingerprint("PAN", application.getPanNumber()));
+            String aadhaarHash = toHex(fingerprint("AADHAAR", application.getAadhaarNumber()));
+            // Applications that predate the constraint may already share an identity; keep the oldest
+            if (seen.contains(panHash) || seen.contains(aadhaarHash)) {
+                System.err.println("IdentityFingerprintService - Skipping duplicate identity on application " + application.getApplicationId());
+                continue;
+            }
+            seen.add(panHash);
+            seen.add(aadhaarHash);
+            applicantFingerprintRepository.save(new ApplicantFingerprint(application, panHash, aadhaarHash));
+            created++;
+        }
+        System.out.println("IdentityFingerprintService - Backfilled " + created + " applicant fingerprints");
+    }
+
+    private void rebuildFilter() {
+        BloomFilter filter = new BloomFilter(bloomExpectedEntries, bloomFalsePositiveRate);
+        try (Stream<String> panHashes = applicantFingerprintRepository.streamAllPanHashes()) {
+            panHashes.forEach(hash -> filter.put(HexFormat.of().parseHex(hash)));
+        }
+        try (Stream<String> aadhaarHashes = applicantFingerprintRepository.streamAllAadhaarHashes()) {
+            aadhaarHashes.forEach(hash -> filter.put(HexFormat.of().parseHex(hash)));
+        }
+        this.knownIdentities = filter;
+    }
+
+    private void rememberAfterCommit(List<Fingerprint> fingerprints) {
+        afterCommit(() -> {
+            BloomFilter filter = knownIdentities;
+            if (filter != null) {
+                for (Fingerprint fingerprint : fingerprints) {
+                    filter.put(fingerprint.panHash);
+                    filter.put(fingerprint.aadhaarHash);
+                }
+            }
+        });
+    }
+
+    private boolean mightBeKnown(byte[] hash) {
+        BloomFilter filter = knownIdentities;
+        return filter == null || filter.mightContain(hash);
+    }
+
+    // HMAC rather than a plain hash: the PAN and Aadhaar spaces are small enough to brute-force
+    private byte[] fingerprint(String type, String value) {
+        String normalized = type + ":" + value.trim().toUpperCase();
+        return macs.get().doFinal(normalized.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(fingerprintKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Could not initialize identity fingerprinting", e);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        return HexFormat.of().formatHex(hash);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public static final class Fingerprint {
+        private final byte[] panHash;
+        private final byte[] aadhaarHash;
+
+        Fingerprint(byte[] panHash, byte[] aadhaarHash) {
+            this.panHash = panHash;
+            this.aadhaarHash = aadhaarHash;
+        }
+
+        public String getPanHash() {
+            return toHex(panHash);
+        }
+
+        public String getAadhaarHash() {
+            return toHex(aadhaarHash);
+        }
+    }
+}
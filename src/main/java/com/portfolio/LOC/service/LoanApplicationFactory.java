@@ -0,0 +1,109 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.LoanApplicationRequest;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.entity.User;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import com.portfolio.LOC.util.IdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Maps a submitted request onto a new LoanApplication and scores it. Holds no transaction or
+// database access, so the bulk ingestion path can call it from parallel workers.
+@Service
+public class LoanApplicationFactory {
+
+    private static final BigDecimal ESTIMATE_INTEREST_RATE = new BigDecimal("8.50");
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private EligibilityScoringService eligibilityScoringService;
+
+    public LoanApplication create(LoanApplicationRequest request, User submittedBy) {
+        LoanApplication loanApplication = new LoanApplication();
+        loanApplication.setApplicationId(idGenerator.nextId(IdGenerator.APPLICATION_PREFIX));
+        
+        // Map personal information
+        loanApplication.setFirstName(request.getPersonalInfo().getFirstName());
+        loanApplication.setLastName(request.getPersonalInfo().getLastName());
+        loanApplication.setDateOfBirth(request.getPersonalInfo().getDateOfBirth());
+        loanApplication.setGender(request.getPersonalInfo().getGender());
+        loanApplication.setMaritalStatus(request.getPersonalInfo().getMaritalStatus());
+        loanApplication.setPanNumber(request.getPersonalInfo().getPanNumber());
+        loanApplication.setAadhaarNumber(request.getPersonalInfo().getAadhaarNumber());
+        loanApplication.setPhoneNumber(request.getPersonalInfo().getPhoneNumber());
+        loanApplication.setEmail(request.getPersonalInfo().getEmail());
+        
+        // Map address information
+        loanApplication.setCurrentStreet(request.getAddressInfo().getCurrentAddress());
+        loanApplication.setCurrentCity(request.getAddressInfo().getCurrentCity());
+        loanApplication.setCurrentState(request.getAddressInfo().getCurrentState());
+        loanApplication.setCurrentPincode(request.getAddressInfo().getCurrentPincode());
+        loanApplication.setResidenceType(request.getAddressInfo().getResidenceType());
+
+        // An explicit null in a partner feed reads as false, like an omitted flag
+        boolean sameAsCurrent = Boolean.TRUE.equals(request.getAddressInfo().getSameAsCurrent());
+        if (sameAsCurrent) {
+            loanApplication.setPermanentStreet(request.getAddressInfo().getCurrentAddress());
+            loanApplication.setPermanentCity(request.getAddressInfo().getCurrentCity());
+            loanApplication.setPermanentState(request.getAddressInfo().getCurrentState());
+            loanApplication.setPermanentPincode(request.getAddressInfo().getCurrentPincode());
+        } else {
+            loanApplication.setPermanentStreet(request.getAddressInfo().getPermanentAddress());
+            loanApplication.setPermanentCity(request.getAddressInfo().getPermanentCity());
+            loanApplication.setPermanentState(request.getAddressInfo().getPermanentState());
+            loanApplication.setPermanentPincode(request.getAddressInfo().getPermanentPincode());
+        }
+        loanApplication.setSameAsCurrent(sameAsCurrent);
+        
+        // Map financial information
+        loanApplication.setEmploymentType(request.getFinancialInfo().getEmploymentType());
+        loanApplication.setMonthlyIncome(request.getFinancialInfo().getMonthlyIncome());
+        loanApplication.setEmployer(request.getFinancialInfo().getEmployer());
+        loanApplication.setWorkExperience(request.getFinancialInfo().getWorkExperience());
+        loanApplication.setLoanAmount(request.getFinancialInfo().getLoanAmount());
+        loanApplication.setLoanPurpose(request.getFinancialInfo().getLoanPurpose());
+        loanApplication.setLoanTenure(request.getFinancialInfo().getLoanTenure());
+        
+        // Map co-applicant information
+        boolean hasCoApplicant = Boolean.TRUE.equals(request.getCoApplicant().getHasCoApplicant());
+        loanApplication.setHasCoApplicant(hasCoApplicant);
+        if (hasCoApplicant) {
+            loanApplication.setCoApplicantFirstName(request.getCoApplicant().getFirstName());
+            loanApplication.setCoApplicantLastName(request.getCoApplicant().getLastName());
+            loanApplication.setCoApplicantDateOfBirth(request.getCoApplicant().getDateOfBirth());
+            loanApplication.setCoApplicantPanNumber(request.getCoApplicant().getPanNumber());
+            loanApplication.setCoApplicantPhoneNumber(request.getCoApplicant().getPhoneNumber());
+            loanApplication.setCoApplicantEmail(request.getCoApplicant().getEmail());
+            loanApplication.setCoApplicantMonthlyIncome(request.getCoApplicant().getMonthlyIncome());
+            loanApplication.setCoApplicantEmployer(request.getCoApplicant().getEmployer());
+        }
+
+        // Calculate estimated EMI
+        BigDecimal estimatedEmi = calculateEMI(
+            request.getFinancialInfo().getLoanAmount(),
+            request.getFinancialInfo().getLoanTenure()
+        );
+        loanApplication.setEstimatedEmi(estimatedEmi);
+
+        // Score against the current eligibility rule table
+        eligibilityScoringService.applyScore(loanApplication);
+
+        // Set application metadata
+        loanApplication.setSubmittedBy(submittedBy);
+        loanApplication.setStatus(LoanApplication.ApplicationStatus.SUBMITTED);
+        loanApplication.setCreatedAt(LocalDateTime.now());
+        
+        return loanApplication;
+    }
+    
+    private BigDecimal calculateEMI(BigDecimal loanAmount, Integer tenureYears) {
+        // Estimate at the standard 8.5% annual rate, with the same formula the offer letter uses
+        return AmortizationCalculator.emi(loanAmount, ESTIMATE_INTEREST_RATE, tenureYears * 12);
+    }
+}
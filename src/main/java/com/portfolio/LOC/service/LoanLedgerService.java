@@ -0,0 +1,190 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanLedger;
+import com.portfolio.LOC.repository.LoanLedgerRepository;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Keeps loan_ledgers in step with payments. Each movement is a relative UPDATE in the caller's
+// transaction, so two payments on one loan never overwrite each other. Within an instalment a
+// payment clears interest first, then principal; anything above the EMI is only counted as collected.
+@Service
+@Transactional
+public class LoanLedgerService {
+
+    private static final String OPEN_SQL =
+        "INSERT INTO loan_ledgers (principal_outstanding, interest_outstanding, collected_amount, late_fees, " +
+        "updated_at, loan_application_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String POST_SQL =
+        "UPDATE loan_ledgers SET principal_outstanding = principal_outstanding - ?, " +
+        "interest_outstanding = interest_outstanding - ?, collected_amount = collected_amount + ?, " +
+        "late_fees = late_fees + ?, updated_at = ? WHERE loan_application_id = ?";
+
+    private static final String REPLACE_SQL =
+        "UPDATE loan_ledgers SET principal_outstanding = ?, interest_outstanding = ?, collected_amount = ?, " +
+        "late_fees = ?, updated_at = ? WHERE loan_application_id = ?";
+
+    // Holds off payments on the loan while its ledger is compared with a schedule read after the lock
+    private static final String LOCK_SQL =
+        "SELECT principal_outstanding, interest_outstanding, collected_amount, late_fees FROM loan_ledgers " +
+        "WHERE loan_application_id = ? FOR UPDATE";
+
+    // Prepayments are collected outside any instalment
+    private static final String PREPAID_SQL =
+        "SELECT COALESCE(SUM(prepayment_amount), 0) FROM loan_reschedules WHERE loan_application_id = ?";
+
+    public enum Reconciled {
+        MATCHED, OPENED, REPAIRED
+    }
+
+    @Autowired
+    private LoanLedgerRepository loanLedgerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // A new schedule owes its whole principal and interest
+    public void open(Long loanApplicationId, List<EmiSchedule> schedule) {
+        long[] balances = balancesOf(schedule);
+        jdbcTemplate.update(OPEN_SQL, fromPaise(balances[0]), fromPaise(balances[1]), fromPaise(balances[2]),
+            fromPaise(balances[3]), Timestamp.valueOf(LocalDateTime.now()), loanApplicationId);
+    }
+
+    // open for many new schedules, keyed by loan, in one batch
+    public void openAll(Map<Long, List<EmiSchedule>> schedules) {
+        if (schedules.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(schedules.size());
+        schedules.forEach((loanApplicationId, schedule) -> {
+            long[] balances = balancesOf(schedule);
+            rows.add(new Object[] {
+                fromPaise(balances[0]), fromPaise(balances[1]), fromPaise(balances[2]), fromPaise(balances[3]),
+                now, loanApplicationId
+            });
+        });
+        jdbcTemplate.batchUpdate(OPEN_SQL, rows);
+    }
+
+    public Optional<LoanLedger> getLedger(Long loanApplicationId) {
+        return loanLedgerRepository.findById(loanApplicationId);
+    }
+
+    // Loans scheduled before ledgers existed have no row yet; their movements are skipped until
+    // the reconcile job opens the ledger from the schedule
+    public void post(Postings postings) {
+        if (postings.byLoan.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(postings.byLoan.size());
+        postings.byLoan.forEach((loanApplicationId, movement) -> rows.add(new Object[] {
+            fromPaise(movement[0]), fromPaise(movement[1]), fromPaise(movement[2]), fromPaise(movement[3]),
+            now, loanApplicationId
+        }));
+        jdbcTemplate.batchUpdate(POST_SQL, rows);
+    }
+
+    // Takes the ledger's row lock before reading the schedule, then makes the ledger match it
+    public Reconciled reconcile(Long loanApplicationId, ScheduleReader schedule) {
+        List<long[]> stored = jdbcTemplate.query(LOCK_SQL, (rs, rowNum) -> new long[] {
+            toPaise(rs.getBigDecimal(1)), toPaise(rs.getBigDecimal(2)), toPaise(rs.getBigDecimal(3)), toPaise(rs.getBigDecimal(4))
+        }, loanApplicationId);
+        List<EmiSchedule> rows = schedule.read(loanApplicationId);
+        if (stored.isEmpty()) {
+            open(loanApplicationId, rows);
+            return Reconciled.OPENED;
+        }
+
+        long[] expected = balancesOf(rows);
+        expected[2] += toPaise(jdbcTemplate.queryForObject(PREPAID_SQL, BigDecimal.class, loanApplicationId));
+        long[] actual = stored.get(0);
+        if (Arrays.equals(expected, actual)) {
+            return Reconciled.MATCHED;
+        }
+        System.out.println("LoanLedgerService - Ledger of loan " + loanApplicationId + " was off by principal "
+            + fromPaise(actual[0] - expected[0]) + ", interest " + fromPaise(actual[1] - expected[1])
+            + ", collected " + fromPaise(actual[2] - expected[2]) + ", late fees " + fromPaise(actual[3] - expected[3]));
+        jdbcTemplate.update(REPLACE_SQL, fromPaise(expected[0]), fromPaise(expected[1]), fromPaise(expected[2]),
+            fromPaise(expected[3]), Timestamp.valueOf(LocalDateTime.now()), loanApplicationId);
+        return Reconciled.REPAIRED;
+    }
+
+    // Outstanding principal, outstanding interest, collected amount and late fees implied by a full schedule, in paise
+    static long[] balancesOf(List<EmiSchedule> schedule) {
+        long[] balances = new long[4];
+        for (EmiSchedule emi : schedule) {
+            long principal = toPaise(emi.getPrincipalAmount());
+            long interest = toPaise(emi.getInterestAmount());
+            long paid = toPaise(emi.getPaidAmount());
+            long interestPaid = Math.min(paid, interest);
+            balances[0] += principal - Math.min(paid - interestPaid, principal);
+            balances[1] += interest - interestPaid;
+            balances[2] += paid;
+            balances[3] += toPaise(emi.getLateFee());
+        }
+        return balances;
+    }
+
+    // Unpaid instalments carry no paid amount or late fee
+    private static long toPaise(BigDecimal amount) {
+        return amount == null ? 0 : AmortizationCalculator.toPaise(amount);
+    }
+
+    private static BigDecimal fromPaise(long paise) {
+        return AmortizationCalculator.fromPaise(paise);
+    }
+
+    // Supplies a loan's full schedule, stored and computed instalments alike
+    @FunctionalInterface
+    public interface ScheduleReader {
+        List<EmiSchedule> read(Long loanApplicationId);
+    }
+
+    // Ledger movements gathered over one transaction, summed per loan, in paise
+    public static final class Postings {
+        private final Map<Long, long[]> byLoan = new LinkedHashMap<>();
+
+        // One instalment's paid amount and late fee moved from their previous values to the new ones
+        public void add(Long loanApplicationId, BigDecimal principalAmount, BigDecimal interestAmount,
+                        BigDecimal previousPaid, BigDecimal paid, BigDecimal previousLateFee, BigDecimal lateFee) {
+            long principal = toPaise(principalAmount);
+            long interest = toPaise(interestAmount);
+            long before = toPaise(previousPaid);
+            long after = toPaise(paid);
+            long interestBefore = Math.min(before, interest);
+            long interestAfter = Math.min(after, interest);
+
+            long[] movement = byLoan.computeIfAbsent(loanApplicationId, id -> new long[4]);
+            movement[0] += Math.min(after - interestAfter, principal) - Math.min(before - interestBefore, principal);
+            movement[1] += interestAfter - interestBefore;
+            movement[2] += after - before;
+            movement[3] += toPaise(lateFee) - toPaise(previousLateFee);
+        }
+
+        // A recomputed schedule: principal repaid by a prepayment, which is also collected, and the change
+        // in interest still to come (negative when the rate went up)
+        public void addReschedule(Long loanApplicationId, long prepaidPaise, long interestReductionPaise) {
+            long[] movement = byLoan.computeIfAbsent(loanApplicationId, id -> new long[4]);
+            movement[0] += prepaidPaise;
+            movement[1] += interestReductionPaise;
+            movement[2] += prepaidPaise;
+        }
+    }
+}
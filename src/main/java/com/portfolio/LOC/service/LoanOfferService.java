@@ -1,29 +1,33 @@
 package com.portfolio.LOC.service;
 
+import com.portfolio.LOC.dto.OfferSanctionRun;
 import com.portfolio.LOC.entity.*;
 import com.portfolio.LOC.repository.*;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.element.Cell;
-import com.itextpdf.layout.properties.TextAlignment;
-import com.itextpdf.layout.properties.UnitValue;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import com.portfolio.LOC.util.IdGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -35,17 +39,43 @@ public class LoanOfferService {
     @Autowired
     private LoanOfferLetterRepository loanOfferLetterRepository;
     
-    @Autowired
-    private ApprovalHistoryRepository approvalHistoryRepository;
-    
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
     private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private OfferLetterPdfService offerLetterPdfService;
+
+    @Autowired
+    private IdGenerator idGenerator;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${smartloan.offers.sanction-chunk-size:200}")
+    private int sanctionChunkSize;
     
     private final String UPLOAD_DIR = "uploads/loan-offers/";
     
+    private static final String INSERT_OFFER_SQL =
+        "INSERT INTO loan_offer_letters (loan_application_id, offer_letter_number, approved_loan_amount, interest_rate, " +
+        "loan_tenure, emi_amount, processing_fee, terms_and_conditions, file_name, file_path, generated_by, pdf_status, " +
+        "pdf_attempts, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+    
+    private static final String OFFER_IDS_SQL =
+        "SELECT id, loan_application_id FROM loan_offer_letters WHERE loan_application_id IN (:ids)";
+    
     public LoanOfferLetter generateLoanOffer(Long applicationId, BigDecimal approvedAmount, 
                                            BigDecimal interestRate, Integer tenure, String userEmail) {
         
@@ -70,55 +100,195 @@ public class LoanOfferService {
             throw new RuntimeException("Loan offer already exists for this application");
         }
         
-        try {
-            // Calculate EMI
-            BigDecimal emiAmount = calculateEMI(approvedAmount, interestRate, tenure);
-            
-            // Generate PDF
-            byte[] pdfBytes = generateLoanOfferPDF(application, approvedAmount, interestRate, tenure, emiAmount);
-            
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+        // Calculate EMI
+        BigDecimal emiAmount = calculateEMI(approvedAmount, interestRate, tenure);
+        
+        // The PDF is rendered by OfferLetterPdfService once this transaction commits
+        LoanOfferLetter offerLetter = newOfferLetter(application, approvedAmount, interestRate, tenure, emiAmount, user);
+        
+        // Save offer letter
+        offerLetter = loanOfferLetterRepository.save(offerLetter);
+        
+        // Update application status to final approved
+        LoanApplication.ApplicationStatus previousStatus = application.getStatus();
+        application.setStatus(LoanApplication.ApplicationStatus.L3_APPROVED);
+        application.setUpdatedAt(LocalDateTime.now());
+        loanApplicationRepository.save(application);
+        dashboardAggregateService.recordStatusChange(application, previousStatus);
+        
+        // Generate EMI schedule
+        emiScheduleService.generateEmiSchedule(application, approvedAmount, interestRate, tenure, emiAmount);
+        
+        offerLetterPdfService.enqueueAfterCommit(offerLetter.getId());
+        return offerLetter;
+    }
+    
+    // Sanctions many offers in one call, as the end-of-day run does. Each chunk of applications is read and
+    // checked in two queries, and its offers, status changes and EMI schedules are written as batches and
+    // committed together; once every chunk is in, the letters are rendered across the batch pool. An
+    // application that cannot be sanctioned is reported without holding up the rest.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OfferSanctionRun generateLoanOffers(List<OfferRequest> requests, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!user.getRole().equals(User.Role.ADMIN)) {
+            throw new RuntimeException("User not authorized to generate loan offers");
+        }
+        
+        long started = System.currentTimeMillis();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        OfferSanctionRun run = new OfferSanctionRun();
+        Set<Long> seen = new HashSet<>();
+        List<OfferSanctionRun.Item> sanctioned = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += sanctionChunkSize) {
+            List<OfferRequest> chunk = requests.subList(from, Math.min(from + sanctionChunkSize, requests.size()));
+            List<OfferRequest> fresh = chunk.stream().filter(request -> seen.add(request.applicationId())).toList();
+            Sanctioned outcome;
+            try {
+                outcome = template.execute(status -> sanction(fresh, user));
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                // Another offer for one of the chunk's applications committed after it was read; the retry sees it
+                outcome = template.execute(status -> sanction(fresh, user));
             }
             
-            // Generate unique filename
-            String fileName = "LoanOffer_" + application.getApplicationId() + "_" + System.currentTimeMillis() + ".pdf";
-            Path filePath = uploadPath.resolve(fileName);
-            
-            // Save PDF file
-            Files.write(filePath, pdfBytes);
-            
-            // Create loan offer letter entity
-            LoanOfferLetter offerLetter = new LoanOfferLetter();
-            offerLetter.setLoanApplication(application);
-            offerLetter.setFileName(fileName);
-            offerLetter.setFilePath(filePath.toString());
-            offerLetter.setApprovedLoanAmount(approvedAmount);
-            offerLetter.setInterestRate(interestRate);
-            offerLetter.setLoanTenure(tenure);
-            offerLetter.setEmiAmount(emiAmount);
-            offerLetter.setProcessingFee(calculateProcessingFee(approvedAmount));
-            offerLetter.setTermsAndConditions(getStandardTermsAndConditions());
-            offerLetter.setGeneratedBy(user);
+            for (OfferRequest request : chunk) {
+                OfferSanctionRun.Item item = outcome.items().remove(request.applicationId());
+                if (item == null) {
+                    run.addFailed(request.applicationId(), "Application appears more than once in this run");
+                } else if (item.isSanctioned()) {
+                    run.addSanctioned(item);
+                    sanctioned.add(item);
+                } else {
+                    run.addFailed(item.getApplicationId(), item.getMessage());
+                }
+            }
+            run.addInstalmentsScheduled(outcome.instalments());
+        }
+        
+        List<Long> offerIds = sanctioned.stream().map(OfferSanctionRun.Item::getOfferLetterId).toList();
+        run.setPdfsRendered(offerLetterPdfService.render(offerIds).getRendered());
+        // Letters that failed go back to the recovery sweep; a render in flight elsewhere shows as RENDERING
+        Map<Long, LoanOfferLetter.PdfStatus> pdfStatuses = offerLetterPdfService.getPdfStatuses(offerIds);
+        for (OfferSanctionRun.Item item : sanctioned) {
+            item.setPdfStatus(pdfStatuses.get(item.getOfferLetterId()));
+        }
+        
+        run.setDurationMillis(System.currentTimeMillis() - started);
+        System.out.println("LoanOfferService - Sanctioned " + run.getSanctioned() + " of " + run.getRequested()
+            + " offers in " + run.getDurationMillis() + " ms, " + run.getInstalmentsScheduled() + " instalments scheduled, "
+            + run.getPdfsRendered() + " letters rendered");
+        return run;
+    }
+    
+    // One chunk in one transaction: two reads, then batched writes for whatever passed the checks
+    private Sanctioned sanction(List<OfferRequest> requests, User user) {
+        List<Long> applicationIds = requests.stream().map(OfferRequest::applicationId).toList();
+        Map<Long, LoanApplication> applications = new HashMap<>();
+        for (LoanApplication application : loanApplicationRepository.findAllById(applicationIds)) {
+            applications.put(application.getId(), application);
+        }
+        Set<Long> offered = offerIdsByApplication(applicationIds).keySet();
+        
+        Map<Long, OfferSanctionRun.Item> items = new HashMap<>();
+        List<LoanOfferLetter> offers = new ArrayList<>();
+        List<EmiScheduleService.NewSchedule> schedules = new ArrayList<>();
+        for (OfferRequest request : requests) {
+            LoanApplication application = applications.get(request.applicationId());
+            // An offered application has already moved on to L3_APPROVED, so the offer is the clearer reason
+            String error = application == null ? "Application not found"
+                : offered.contains(application.getId()) ? "Loan offer already exists for this application"
+                : !isApplicationApproved(application) ? "Application is not in approved status"
+                : invalidTerms(request);
+            if (error != null) {
+                items.put(request.applicationId(), OfferSanctionRun.Item.failed(request.applicationId(), error));
+                continue;
+            }
             
-            // Save offer letter
-            offerLetter = loanOfferLetterRepository.save(offerLetter);
+            BigDecimal emiAmount = calculateEMI(request.approvedAmount(), request.interestRate(), request.tenure());
+            LoanOfferLetter offerLetter = newOfferLetter(application, request.approvedAmount(), request.interestRate(),
+                request.tenure(), emiAmount, user);
+            offers.add(offerLetter);
+            items.put(application.getId(), OfferSanctionRun.Item.sanctioned(application.getId(),
+                offerLetter.getOfferLetterNumber(), emiAmount));
             
-            // Update application status to final approved
+            // Flushed with the chunk's commit, in JDBC batches
+            LoanApplication.ApplicationStatus previousStatus = application.getStatus();
             application.setStatus(LoanApplication.ApplicationStatus.L3_APPROVED);
             application.setUpdatedAt(LocalDateTime.now());
-            loanApplicationRepository.save(application);
-            
-            // Generate EMI schedule
-            emiScheduleService.generateEmiSchedule(application, approvedAmount, interestRate, tenure, emiAmount);
-            
-            return offerLetter;
-            
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to generate loan offer: " + e.getMessage());
+            dashboardAggregateService.recordStatusChange(application, previousStatus);
+            schedules.add(new EmiScheduleService.NewSchedule(application, request.approvedAmount(), request.interestRate(),
+                request.tenure(), emiAmount));
+        }
+        if (offers.isEmpty()) {
+            return new Sanctioned(items, 0);
+        }
+        
+        jdbcTemplate.batchUpdate(INSERT_OFFER_SQL, offers.stream().map(LoanOfferService::insertArgs).toList());
+        offerIdsByApplication(offers.stream().map(offer -> offer.getLoanApplication().getId()).toList())
+            .forEach((applicationId, offerId) -> items.get(applicationId).setOfferLetterId(offerId));
+        long instalments = emiScheduleService.generateEmiSchedules(schedules);
+        return new Sanctioned(items, instalments);
+    }
+    
+    private Map<Long, Long> offerIdsByApplication(List<Long> applicationIds) {
+        Map<Long, Long> offerIds = new HashMap<>();
+        namedParameterJdbcTemplate.query(OFFER_IDS_SQL, Map.of("ids", applicationIds), rs -> {
+            offerIds.put(rs.getLong("loan_application_id"), rs.getLong("id"));
+        });
+        return offerIds;
+    }
+    
+    private static String invalidTerms(OfferRequest request) {
+        if (request.approvedAmount() == null || request.approvedAmount().signum() <= 0 || request.approvedAmount().scale() > 2) {
+            return "Approved amount must be positive with at most two decimals";
         }
+        if (request.interestRate() == null || request.interestRate().signum() < 0
+                || request.interestRate().compareTo(BigDecimal.valueOf(100)) >= 0 || request.interestRate().scale() > 2) {
+            return "Interest rate must be between 0 and 100 with at most two decimals";
+        }
+        if (request.tenure() == null || request.tenure() <= 0) {
+            return "Tenure must be at least one year";
+        }
+        return null;
+    }
+    
+    private static Object[] insertArgs(LoanOfferLetter offer) {
+        Timestamp createdAt = Timestamp.valueOf(offer.getCreatedAt());
+        return new Object[] {
+            offer.getLoanApplication().getId(), offer.getOfferLetterNumber(), offer.getApprovedLoanAmount(),
+            offer.getInterestRate(), offer.getLoanTenure(), offer.getEmiAmount(), offer.getProcessingFee(),
+            offer.getTermsAndConditions(), offer.getFileName(), offer.getFilePath(), offer.getGeneratedBy().getId(),
+            offer.getPdfStatus().name(), createdAt, createdAt
+        };
+    }
+    
+    // One application's terms in a batch sanction
+    public record OfferRequest(Long applicationId, BigDecimal approvedAmount, BigDecimal interestRate, Integer tenure) {
+    }
+    
+    private record Sanctioned(Map<Long, OfferSanctionRun.Item> items, long instalments) {
+    }
+    
+    private LoanOfferLetter newOfferLetter(LoanApplication application, BigDecimal approvedAmount, BigDecimal interestRate,
+                                           Integer tenure, BigDecimal emiAmount, User user) {
+        String fileName = "LoanOffer_" + application.getApplicationId() + "_" + System.currentTimeMillis() + ".pdf";
+        Path filePath = Paths.get(UPLOAD_DIR).resolve(fileName);
+        
+        LoanOfferLetter offerLetter = new LoanOfferLetter();
+        offerLetter.setOfferLetterNumber(idGenerator.nextId(IdGenerator.OFFER_LETTER_PREFIX));
+        offerLetter.setLoanApplication(application);
+        offerLetter.setFileName(fileName);
+        // Replaced by the letter's blob path once the PDF is rendered
+        offerLetter.setFilePath(filePath.toString());
+        offerLetter.setApprovedLoanAmount(approvedAmount);
+        offerLetter.setInterestRate(interestRate);
+        offerLetter.setLoanTenure(tenure);
+        offerLetter.setEmiAmount(emiAmount);
+        offerLetter.setProcessingFee(calculateProcessingFee(approvedAmount));
+        offerLetter.setTermsAndConditions(getStandardTermsAndConditions());
+        offerLetter.setGeneratedBy(user);
+        offerLetter.setPdfStatus(LoanOfferLetter.PdfStatus.PENDING);
+        return offerLetter;
     }
     
     private boolean isApplicationApproved(LoanApplication application) {
@@ -128,20 +298,7 @@ public class LoanOfferService {
     }
     
     private BigDecimal calculateEMI(BigDecimal principal, BigDecimal annualRate, Integer tenure) {
-        BigDecimal monthlyRate = annualRate.divide(BigDecimal.valueOf(1200), 10, RoundingMode.HALF_UP);
-        Integer months = tenure * 12;
-        
-        if (monthlyRate.compareTo(BigDecimal.ZERO) == 0) {
-            return principal.divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP);
-        }
-        
-        BigDecimal onePlusR = BigDecimal.ONE.add(monthlyRate);
-        BigDecimal onePlusRPowN = onePlusR.pow(months);
-        
-        BigDecimal numerator = principal.multiply(monthlyRate).multiply(onePlusRPowN);
-        BigDecimal denominator = onePlusRPowN.subtract(BigDecimal.ONE);
-        
-        return numerator.divide(denominator, 2, RoundingMode.HALF_UP);
+        return AmortizationCalculator.emi(principal, annualRate, tenure * 12);
     }
     
     private BigDecimal calculateProcessingFee(BigDecimal loanAmount) {
@@ -152,82 +309,6 @@ public class LoanOfferService {
         return fee;
     }
     
-    private byte[] generateLoanOfferPDF(LoanApplication application, BigDecimal approvedAmount, 
-                                       BigDecimal interestRate, Integer tenure, BigDecimal emiAmount) throws IOException {
-        
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(baos);
-        PdfDocument pdf = new PdfDocument(writer);
-        Document document = new Document(pdf);
-        
-        // Header
-        document.add(new Paragraph("SMARTLOAN FINANCIAL SERVICES")
-            .setTextAlignment(TextAlignment.CENTER)
-            .setFontSize(18)
-            .setBold());
-        
-        document.add(new Paragraph("LOAN OFFER LETTER")
-            .setTextAlignment(TextAlignment.CENTER)
-            .setFontSize(16)
-            .setBold());
-        
-        document.add(new Paragraph("\n"));
-        
-        // Date and Application ID
-        document.add(new Paragraph("Date: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy"))));
-        document.add(new Paragraph("Application ID: " + application.getApplicationId()));
-        document.add(new Paragraph("\n"));
-        
-        // Applicant Details
-        document.add(new Paragraph("Dear " + application.getFirstName() + " " + application.getLastName() + ",")
-            .setBold());
-        
-        document.add(new Paragraph("\n"));
-        document.add(new Paragraph("We are pleased to inform you that your loan application has been approved. " +
-            "Please find the loan offer details below:"));
-        document.add(new Paragraph("\n"));
-        
-        // Loan Details Table
-        Table table = new Table(UnitValue.createPercentArray(new float[]{3, 4}));
-        table.setWidth(UnitValue.createPercentValue(100));
-        
-        addTableRow(table, "Loan Amount", "₹ " + approvedAmount.toString());
-        addTableRow(table, "Interest Rate", interestRate.toString() + "% per annum");
-        addTableRow(table, "Loan Tenure", tenure.toString() + " years");
-        addTableRow(table, "Monthly EMI", "₹ " + emiAmount.toString());
-        addTableRow(table, "Processing Fee", "₹ " + calculateProcessingFee(approvedAmount).toString());
-        
-        document.add(table);
-        document.add(new Paragraph("\n"));
-        
-        // Approval History
-        document.add(new Paragraph("Approval History:").setBold());
-        List<ApprovalHistory> history = approvalHistoryRepository.findByLoanApplicationIdOrderByCreatedAtAsc(application.getId());
-        
-        for (ApprovalHistory h : history) {
-            document.add(new Paragraph(h.getStage() + " - " + h.getDecision() + " by " + h.getApprovedBy().getName() + 
-                " on " + h.getCreatedAt().format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm"))));
-        }
-        
-        document.add(new Paragraph("\n"));
-        document.add(new Paragraph("Terms and Conditions:").setBold());
-        document.add(new Paragraph(getStandardTermsAndConditions()));
-        
-        document.add(new Paragraph("\n"));
-        document.add(new Paragraph("Congratulations on your loan approval!"));
-        document.add(new Paragraph("\n"));
-        document.add(new Paragraph("Sincerely,"));
-        document.add(new Paragraph("SmartLoan Financial Services"));
-        
-        document.close();
-        return baos.toByteArray();
-    }
-    
-    private void addTableRow(Table table, String key, String value) {
-        table.addCell(new Cell().add(new Paragraph(key).setBold()));
-        table.addCell(new Cell().add(new Paragraph(value)));
-    }
-    
     private String getStandardTermsAndConditions() {
         return "1. The loan is subject to the terms and conditions mentioned in the loan agreement.\n" +
                "2. EMI payments must be made on or before the due date.\n" +
@@ -0,0 +1,423 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.RateResetRun;
+import com.portfolio.LOC.dto.ScheduleRevision;
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanTerms;
+import com.portfolio.LOC.entity.User;
+import com.portfolio.LOC.repository.EmiScheduleRepository;
+import com.portfolio.LOC.repository.LoanTermsRepository;
+import com.portfolio.LOC.repository.UserRepository;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Part-prepayments and rate resets. Only the run of unpaid instalments falling due after today is
+// recomputed, from the principal it still owes, either over the same number of instalments (lower EMI)
+// or at the same EMI (shorter tenure). An eagerly stored schedule has just those rows updated, deleted
+// or added; a lazily materialized one moves its loan_terms to the new segment and stores any earlier
+// instalment the overdue sweep has not reached yet. Each batch of loans is read with a few IN queries
+// and written with JDBC batches in one transaction.
+@Service
+@Transactional
+public class LoanRescheduleService {
+
+    // Longest schedule a reduced-tenure recomputation may stretch a loan to
+    public static final int MAX_TENURE_MONTHS = 480;
+
+    // The guards make a payment that lands after the schedule was read fail the batch instead of being overwritten
+    private static final String UPDATE_EMI_SQL =
+        "UPDATE emi_schedule SET emi_amount = ?, principal_amount = ?, interest_amount = ?, outstanding_balance = ?, " +
+        "updated_at = ? WHERE id = ? AND status = 'PENDING' AND paid_amount IS NULL";
+
+    private static final String DELETE_EMI_SQL =
+        "DELETE FROM emi_schedule WHERE id = ? AND status = 'PENDING' AND paid_amount IS NULL";
+
+    private static final String UPDATE_TERMS_SQL =
+        "UPDATE loan_terms SET principal_amount = ?, annual_interest_rate = ?, tenure_months = ?, emi_amount = ?, " +
+        "total_amount = ?, first_due_date = ?, first_emi_id = ?, start_emi_number = ?, swept_through = ? " +
+        "WHERE loan_application_id = ?";
+
+    private static final String INSERT_RESCHEDULE_SQL =
+        "INSERT INTO loan_reschedules (loan_application_id, reason, mode, from_emi_number, prepayment_amount, " +
+        "annual_interest_rate, previous_emi_amount, emi_amount, previous_tenure_months, tenure_months, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Eagerly stored schedules keep no rate of their own: the latest reschedule's, else the offer letter's
+    private static final String RESCHEDULE_RATES_SQL =
+        "SELECT loan_application_id, annual_interest_rate FROM loan_reschedules " +
+        "WHERE loan_application_id IN (:loanIds) ORDER BY id";
+
+    private static final String OFFER_RATES_SQL =
+        "SELECT loan_application_id, interest_rate FROM loan_offer_letters WHERE loan_application_id IN (:loanIds)";
+
+    public enum Mode {
+        REDUCE_EMI, REDUCE_TENURE
+    }
+
+    public enum Reason {
+        PREPAYMENT, RATE_RESET
+    }
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private EmiScheduleRepository emiScheduleRepository;
+
+    @Autowired
+    private LoanTermsRepository loanTermsRepository;
+
+    @Autowired
+    private LoanLedgerService loanLedgerService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private CashFlowProjectionService cashFlowProjectionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${smartloan.reschedule.chunk-size:500}")
+    private int chunkSize;
+
+    public ScheduleRevision prepay(Long loanApplicationId, BigDecimal amount, Mode mode, String userEmail) {
+        requireAdmin(userEmail);
+        if (amount == null || amount.signum() <= 0 || amount.scale() > 2) {
+            throw new RuntimeException("Prepayment must be positive with at most two decimals");
+        }
+        return reschedule(new Change(loanApplicationId, Reason.PREPAYMENT, mode, amount, null));
+    }
+
+    public ScheduleRevision resetRate(Long loanApplicationId, BigDecimal annualInterestRate, Mode mode, String userEmail) {
+        requireAdmin(userEmail);
+        validateRate(annualInterestRate);
+        return reschedule(new Change(loanApplicationId, Reason.RATE_RESET, mode, null, annualInterestRate));
+    }
+
+    // Runs outside the class-level transaction: each chunk of loans commits on its own, and a loan that
+    // cannot be rescheduled is reported without holding up the rest of its chunk
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RateResetRun resetRates(List<Long> loanApplicationIds, BigDecimal annualInterestRate, Mode mode,
+                                   String userEmail) {
+        requireAdmin(userEmail);
+        validateRate(annualInterestRate);
+        long started = System.currentTimeMillis();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        RateResetRun run = new RateResetRun();
+
+        List<Long> loanIds = loanApplicationIds.stream().distinct().toList();
+        for (int from = 0; from < loanIds.size(); from += chunkSize) {
+            List<Change> chunk = loanIds.subList(from, Math.min(from + chunkSize, loanIds.size())).stream()
+                .map(loanId -> new Change(loanId, Reason.RATE_RESET, mode, null, annualInterestRate))
+                .toList();
+            List<Outcome> outcomes;
+            try {
+                outcomes = template.execute(status -> apply(chunk));
+            } catch (ConcurrencyFailureException e) {
+                // A payment reached one of the chunk's instalments after they were read; the retry sees it
+                outcomes = template.execute(status -> apply(chunk));
+            }
+            for (Outcome outcome : outcomes) {
+                if (outcome.error() != null) {
+                    run.addFailed(outcome.loanApplicationId(), outcome.error());
+                } else {
+                    run.addRescheduled(outcome.revision());
+                }
+            }
+        }
+
+        run.setDurationMillis(System.currentTimeMillis() - started);
+        System.out.println("LoanRescheduleService - Reset " + run.getRescheduled() + " of " + run.getRequested()
+            + " loans to " + annualInterestRate + "% (" + mode + ") in " + run.getDurationMillis() + " ms, "
+            + run.getRowsWritten() + " instalment rows written");
+        return run;
+    }
+
+    private ScheduleRevision reschedule(Change change) {
+        if (change.mode() == null) {
+            throw new RuntimeException("Mode must be one of REDUCE_EMI or REDUCE_TENURE");
+        }
+        Outcome outcome = apply(List.of(change)).get(0);
+        if (outcome.error() != null) {
+            throw new RuntimeException(outcome.error());
+        }
+        return outcome.revision();
+    }
+
+    // Reads every loan's terms, stored instalments and, where needed, current rate up front, plans each
+    // loan on its own, then sends all the writes as batches
+    private List<Outcome> apply(List<Change> changes) {
+        List<Long> loanIds = changes.stream().map(Change::loanApplicationId).toList();
+        Map<Long, LoanTerms> terms = new HashMap<>();
+        for (LoanTerms loanTerms : loanTermsRepository.findByLoanApplicationIdIn(loanIds)) {
+            terms.put(loanTerms.getLoanApplication().getId(), loanTerms);
+        }
+        Map<Long, List<EmiSchedule>> stored = new HashMap<>();
+        for (EmiSchedule emi : emiScheduleRepository.findByLoanApplicationIdInOrderByLoanApplicationIdAscEmiNumberAsc(loanIds)) {
+            stored.computeIfAbsent(emi.getLoanApplication().getId(), id -> new ArrayList<>()).add(emi);
+        }
+        Set<Long> unrated = new HashSet<>();
+        for (Change change : changes) {
+            if (change.rate() == null && !terms.containsKey(change.loanApplicationId())) {
+                unrated.add(change.loanApplicationId());
+            }
+        }
+        Map<Long, BigDecimal> rates = currentRates(unrated);
+
+        LocalDate today = LocalDate.now();
+        Writes writes = new Writes();
+        List<Outcome> outcomes = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            Long loanId = change.loanApplicationId();
+            try {
+                ScheduleRevision revision = plan(change, terms.get(loanId), stored.getOrDefault(loanId, List.of()),
+                    rates.get(loanId), today, writes);
+                outcomes.add(new Outcome(loanId, revision, null));
+            } catch (RuntimeException e) {
+                outcomes.add(new Outcome(loanId, null, e.getMessage()));
+            }
+        }
+        write(writes);
+        return outcomes;
+    }
+
+    private Map<Long, BigDecimal> currentRates(Set<Long> loanIds) {
+        Map<Long, BigDecimal> rates = new HashMap<>();
+        if (loanIds.isEmpty()) {
+            return rates;
+        }
+        namedParameterJdbcTemplate.query(OFFER_RATES_SQL, Map.of("loanIds", loanIds),
+            (RowCallbackHandler) rs -> rates.put(rs.getLong(1), rs.getBigDecimal(2)));
+        // In ID order, so the latest reschedule is put last
+        namedParameterJdbcTemplate.query(RESCHEDULE_RATES_SQL, Map.of("loanIds", loanIds),
+            (RowCallbackHandler) rs -> rates.put(rs.getLong(1), rs.getBigDecimal(2)));
+        return rates;
+    }
+
+    // Works out one loan's new instalments and queues the writes; throws before queueing anything if the
+    // loan cannot be rescheduled
+    private ScheduleRevision plan(Change change, LoanTerms terms, List<EmiSchedule> stored, BigDecimal currentRate,
+                                  LocalDate today, Writes writes) {
+        Long loanId = change.loanApplicationId();
+        List<EmiSchedule> rows = emiScheduleService.mergeSchedule(Optional.ofNullable(terms), stored);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("No EMI schedule found for loan " + loanId);
+        }
+        int from = rows.size();
+        while (from > 0 && isOpen(rows.get(from - 1), today)) {
+            from--;
+        }
+        if (from == rows.size()) {
+            throw new RuntimeException("Loan " + loanId + " has no unpaid future instalments to reschedule");
+        }
+
+        List<EmiSchedule> previous = rows.subList(from, rows.size());
+        long outstanding = 0;
+        long previousInterest = 0;
+        long previousTotal = 0;
+        for (EmiSchedule emi : previous) {
+            outstanding += AmortizationCalculator.toPaise(emi.getPrincipalAmount());
+            previousInterest += AmortizationCalculator.toPaise(emi.getInterestAmount());
+            previousTotal += AmortizationCalculator.toPaise(emi.getEmiAmount());
+        }
+        long prepaid = change.prepayment() == null ? 0 : AmortizationCalculator.toPaise(change.prepayment());
+        if (prepaid >= outstanding) {
+            throw new RuntimeException("Prepayment must be less than the outstanding principal of "
+                + AmortizationCalculator.fromPaise(outstanding));
+        }
+        long opening = outstanding - prepaid;
+
+        BigDecimal rate = change.rate() != null ? change.rate() : terms != null ? terms.getAnnualInterestRate() : currentRate;
+        if (rate == null) {
+            throw new RuntimeException("No interest rate on record for loan " + loanId);
+        }
+        long rateE10 = AmortizationCalculator.monthlyRateE10(rate);
+        EmiSchedule first = previous.get(0);
+        int months;
+        long emiPaise;
+        if (change.mode() == Mode.REDUCE_EMI) {
+            months = previous.size();
+            emiPaise = AmortizationCalculator.toPaise(AmortizationCalculator.emi(AmortizationCalculator.fromPaise(opening), rate, months));
+        } else {
+            emiPaise = AmortizationCalculator.toPaise(first.getEmiAmount());
+            months = AmortizationCalculator.tenure(opening, rateE10, emiPaise, MAX_TENURE_MONTHS - from);
+            if (months < 0) {
+                throw new RuntimeException("An EMI of " + first.getEmiAmount() + " does not repay loan " + loanId + " within "
+                    + MAX_TENURE_MONTHS + " months at " + rate + "%; use " + Mode.REDUCE_EMI);
+            }
+        }
+
+        List<EmiSchedule> revised = emiScheduleService.buildRows(first.getLoanApplication(),
+            AmortizationCalculator.schedule(opening, rateE10, months, emiPaise), first.getDueDate(), from + 1);
+        long revisedInterest = 0;
+        long revisedTotal = 0;
+        for (EmiSchedule emi : revised) {
+            revisedInterest += AmortizationCalculator.toPaise(emi.getInterestAmount());
+            revisedTotal += AmortizationCalculator.toPaise(emi.getEmiAmount());
+        }
+
+        int updated = 0;
+        int inserted = 0;
+        int deleted = 0;
+        if (terms == null) {
+            int overlap = Math.min(previous.size(), revised.size());
+            for (int i = 0; i < overlap; i++) {
+                EmiSchedule emi = revised.get(i);
+                writes.updates.add(new Object[] {
+                    emi.getEmiAmount(), emi.getPrincipalAmount(), emi.getInterestAmount(), emi.getOutstandingBalance(),
+                    writes.now, previous.get(i).getId()
+                });
+            }
+            for (int i = overlap; i < previous.size(); i++) {
+                writes.deletes.add(new Object[] {previous.get(i).getId()});
+            }
+            writes.saves.addAll(revised.subList(overlap, revised.size()));
+            updated = overlap;
+            deleted = previous.size() - overlap;
+            inserted = revised.size() - overlap;
+        } else {
+            // The terms will only describe the new segment, so every earlier instalment has to be stored. The
+            // sweep has stored the overdue ones already, bar any that fell due since it last ran.
+            Set<Integer> storedNumbers = new HashSet<>();
+            for (EmiSchedule emi : stored) {
+                storedNumbers.add(emi.getEmiNumber());
+                if (emi.getEmiNumber() > from) {
+                    writes.deletes.add(new Object[] {emi.getId()});
+                    deleted++;
+                }
+            }
+            for (EmiSchedule emi : rows.subList(0, from)) {
+                if (!storedNumbers.contains(emi.getEmiNumber())) {
+                    writes.inserts.add(emi);
+                    inserted++;
+                }
+            }
+            // The new segment keeps the IDs its instalments already had unless it now runs past the old last one
+            long firstEmiId = from + months <= terms.getTenureMonths()
+                ? terms.getFirstEmiId() + from + 1 - terms.getStartEmiNumber()
+                : emiScheduleService.reserveEmiIds(months);
+            writes.terms.add(new Object[] {
+                AmortizationCalculator.fromPaise(opening), rate, from + months, AmortizationCalculator.fromPaise(emiPaise),
+                terms.getTotalAmount().subtract(AmortizationCalculator.fromPaise(previousTotal - revisedTotal)),
+                Date.valueOf(first.getDueDate()), firstEmiId, from + 1, Math.max(terms.getSweptThrough(), from), loanId
+            });
+        }
+
+        BigDecimal previousEmi = first.getEmiAmount();
+        BigDecimal emiAmount = AmortizationCalculator.fromPaise(emiPaise);
+        BigDecimal prepayment = AmortizationCalculator.fromPaise(prepaid);
+        writes.reschedules.add(new Object[] {
+            loanId, change.reason().name(), change.mode().name(), from + 1, prepayment, rate, previousEmi, emiAmount,
+            rows.size(), from + months, writes.now
+        });
+        writes.postings.addReschedule(loanId, prepaid, previousInterest - revisedInterest);
+        writes.pendingCount += revised.size() - previous.size();
+        writes.pendingPaise += revisedTotal - previousTotal;
+
+        return new ScheduleRevision(loanId, change.reason().name(), change.mode().name(), from + 1, prepayment, rate,
+            previousEmi, emiAmount, rows.size(), from + months, updated, inserted, deleted);
+    }
+
+    private void write(Writes writes) {
+        requireAll(jdbcTemplate.batchUpdate(UPDATE_EMI_SQL, writes.updates));
+        requireAll(jdbcTemplate.batchUpdate(DELETE_EMI_SQL, writes.deletes));
+        emiScheduleService.insertAll(writes.inserts);
+        if (!writes.saves.isEmpty()) {
+            emiScheduleRepository.saveAll(writes.saves);
+        }
+        if (!writes.terms.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_TERMS_SQL, writes.terms);
+        }
+        if (!writes.reschedules.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_RESCHEDULE_SQL, writes.reschedules);
+            loanLedgerService.post(writes.postings);
+            dashboardAggregateService.recordEmisRescheduled(writes.pendingCount, AmortizationCalculator.fromPaise(writes.pendingPaise));
+            cashFlowProjectionService.invalidate();
+        }
+    }
+
+    private static void requireAll(int[] counts) {
+        for (int count : counts) {
+            if (count == 0) {
+                throw new ConcurrencyFailureException("An instalment was paid while its loan was being rescheduled");
+            }
+        }
+    }
+
+    // Unpaid and not yet due, so its amounts may still change
+    private static boolean isOpen(EmiSchedule emi, LocalDate today) {
+        return emi.getStatus() == EmiSchedule.EmiStatus.PENDING && emi.getPaidAmount() == null
+            && emi.getDueDate().isAfter(today);
+    }
+
+    private void requireAdmin(String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!user.getRole().equals(User.Role.ADMIN)) {
+            throw new RuntimeException("User not authorized to reschedule loans");
+        }
+    }
+
+    private static void validateRate(BigDecimal annualInterestRate) {
+        if (annualInterestRate == null || annualInterestRate.signum() < 0
+                || annualInterestRate.compareTo(BigDecimal.valueOf(100)) >= 0 || annualInterestRate.scale() > 2) {
+            throw new RuntimeException("Annual interest rate must be from 0 to below 100 with at most two decimals");
+        }
+    }
+
+    private record Change(Long loanApplicationId, Reason reason, Mode mode, BigDecimal prepayment, BigDecimal rate) {
+    }
+
+    private record Outcome(Long loanApplicationId, ScheduleRevision revision, String error) {
+    }
+
+    // Everything one transaction writes, gathered across its loans
+    private static final class Writes {
+        final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        final List<Object[]> updates = new ArrayList<>();
+        final List<Object[]> deletes = new ArrayList<>();
+        final List<Object[]> terms = new ArrayList<>();
+        final List<Object[]> reschedules = new ArrayList<>();
+        // Computed instalments of lazy loans, stored under their reserved IDs
+        final List<EmiSchedule> inserts = new ArrayList<>();
+        // New instalments of eager loans, which take generated IDs
+        final List<EmiSchedule> saves = new ArrayList<>();
+        final LoanLedgerService.Postings postings = new LoanLedgerService.Postings();
+        long pendingCount;
+        long pendingPaise;
+    }
+}
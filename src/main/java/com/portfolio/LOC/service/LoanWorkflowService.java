@@ -5,13 +5,12 @@ import com.portfolio.LOC.entity.LoanApplication;
 import com.portfolio.LOC.entity.User;
 import com.portfolio.LOC.repository.LoanApplicationRepository;
 import com.portfolio.LOC.repository.UserRepository;
+import com.portfolio.LOC.dto.CursorPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -22,6 +21,12 @@ public class LoanWorkflowService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private ApplicationListingService applicationListingService;
     
     // RCPU Actions
     public LoanApplicationResponse processRcpuDecision(Long applicationId, String decision, String userEmail) {
@@ -39,6 +44,7 @@ public class LoanWorkflowService {
             throw new RuntimeException("Application is not in SUBMITTED status");
         }
         
+        LoanApplication.ApplicationStatus previousStatus = application.getStatus();
         if ("approve".equals(decision)) {
             application.setStatus(LoanApplication.ApplicationStatus.PENDING_L1);
         } else if ("reject".equals(decision)) {
@@ -49,6 +55,7 @@ public class LoanWorkflowService {
         
         application.setUpdatedAt(LocalDateTime.now());
         LoanApplication savedApplication = loanApplicationRepository.save(application);
+        dashboardAggregateService.recordStatusChange(savedApplication, previousStatus);
         
         return new LoanApplicationResponse(savedApplication);
     }
@@ -69,6 +76,7 @@ public class LoanWorkflowService {
             throw new RuntimeException("Application is not in PENDING_L1 status");
         }
         
+        LoanApplication.ApplicationStatus previousStatus = application.getStatus();
         if ("approve".equals(decision)) {
             // Check loan amount to determine next step
             if (application.getLoanAmount().compareTo(java.math.BigDecimal.valueOf(1000000)) <= 0) {
@@ -86,6 +94,7 @@ public class LoanWorkflowService {
         
         application.setUpdatedAt(LocalDateTime.now());
         LoanApplication savedApplication = loanApplicationRepository.save(application);
+        dashboardAggregateService.recordStatusChange(savedApplication, previousStatus);
         
         return new LoanApplicationResponse(savedApplication);
     }
@@ -106,6 +115,7 @@ public class LoanWorkflowService {
             throw new RuntimeException("Application is not in PENDING_L2 status");
         }
         
+        LoanApplication.ApplicationStatus previousStatus = application.getStatus();
         if ("approve".equals(decision)) {
             // Check loan amount to determine next step
             if (application.getLoanAmount().compareTo(java.math.BigDecimal.valueOf(5000000)) <= 0) {
@@ -123,6 +133,7 @@ public class LoanWorkflowService {
         
         application.setUpdatedAt(LocalDateTime.now());
         LoanApplication savedApplication = loanApplicationRepository.save(application);
+        dashboardAggregateService.recordStatusChange(savedApplication, previousStatus);
         
         return new LoanApplicationResponse(savedApplication);
     }
@@ -143,6 +154,7 @@ public class LoanWorkflowService {
             throw new RuntimeException("Application is not in PENDING_L3 status");
         }
         
+        LoanApplication.ApplicationStatus previousStatus = application.getStatus();
         if ("approve".equals(decision)) {
             application.setStatus(LoanApplication.ApplicationStatus.L3_APPROVED);
         } else if ("reject".equals(decision)) {
@@ -153,37 +165,26 @@ public class LoanWorkflowService {
         
         application.setUpdatedAt(LocalDateTime.now());
         LoanApplication savedApplication = loanApplicationRepository.save(application);
+        dashboardAggregateService.recordStatusChange(savedApplication, previousStatus);
         
         return new LoanApplicationResponse(savedApplication);
     }
     
     // Get applications by status for different roles
-    public List<LoanApplicationResponse> getApplicationsForRcpu() {
-        return loanApplicationRepository.findByStatusOrderByCreatedAtAsc(LoanApplication.ApplicationStatus.SUBMITTED)
-            .stream()
-            .map(LoanApplicationResponse::new)
-            .collect(Collectors.toList());
+    public CursorPage<LoanApplicationResponse> getApplicationsForRcpu(String cursor, Integer size) {
+        return applicationListingService.findQueueResponses(LoanApplication.ApplicationStatus.SUBMITTED, cursor, size);
     }
     
-    public List<LoanApplicationResponse> getApplicationsForL1() {
-        return loanApplicationRepository.findByStatusOrderByCreatedAtAsc(LoanApplication.ApplicationStatus.PENDING_L1)
-            .stream()
-            .map(LoanApplicationResponse::new)
-            .collect(Collectors.toList());
+    public CursorPage<LoanApplicationResponse> getApplicationsForL1(String cursor, Integer size) {
+        return applicationListingService.findQueueResponses(LoanApplication.ApplicationStatus.PENDING_L1, cursor, size);
     }
     
-    public List<LoanApplicationResponse> getApplicationsForL2() {
-        return loanApplicationRepository.findByStatusOrderByCreatedAtAsc(LoanApplication.ApplicationStatus.PENDING_L2)
-            .stream()
-            .map(LoanApplicationResponse::new)
-            .collect(Collectors.toList());
+    public CursorPage<LoanApplicationResponse> getApplicationsForL2(String cursor, Integer size) {
+        return applicationListingService.findQueueResponses(LoanApplication.ApplicationStatus.PENDING_L2, cursor, size);
     }
     
-    public List<LoanApplicationResponse> getApplicationsForL3() {
-        return loanApplicationRepository.findByStatusOrderByCreatedAtAsc(LoanApplication.ApplicationStatus.PENDING_L3)
-            .stream()
-            .map(LoanApplicationResponse::new)
-            .collect(Collectors.toList());
+    public CursorPage<LoanApplicationResponse> getApplicationsForL3(String cursor, Integer size) {
+        return applicationListingService.findQueueResponses(LoanApplication.ApplicationStatus.PENDING_L3, cursor, size);
     }
 
     // Test method to force application to L3 status
@@ -191,9 +192,11 @@ public class LoanWorkflowService {
         LoanApplication application = loanApplicationRepository.findById(applicationId)
             .orElseThrow(() -> new RuntimeException("Application not found"));
 
+        LoanApplication.ApplicationStatus previousStatus = application.getStatus();
         application.setStatus(LoanApplication.ApplicationStatus.PENDING_L3);
         application.setUpdatedAt(LocalDateTime.now());
         loanApplicationRepository.save(application);
+        dashboardAggregateService.recordStatusChange(application, previousStatus);
     }
     
     // Get application details
@@ -203,11 +206,7 @@ public class LoanWorkflowService {
         return new LoanApplicationResponse(application);
     }
 
-    public List<LoanApplicationResponse> getAllApplications() {
-        return loanApplicationRepository.findAll()
-            .stream()
-            .map(LoanApplicationResponse::new)
-            .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-            .collect(Collectors.toList());
+    public CursorPage<LoanApplicationResponse> getAllApplications(String cursor, Integer size) {
+        return applicationListingService.findLatestResponses(cursor, size);
     }
 }
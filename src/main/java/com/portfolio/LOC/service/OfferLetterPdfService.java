@@ -0,0 +1,437 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.OfferLetterBatchRun;
+import com.portfolio.LOC.entity.LoanOfferLetter;
+import com.portfolio.LOC.repository.LoanOfferLetterRepository;
+import com.portfolio.LOC.util.OfferLetterTemplate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Renders offer letter PDFs off the request thread from a compiled OfferLetterTemplate. Each render claims
+// its rows and reads their fields in one short transaction, builds and stages the PDFs in the blob store with
+// no connection held, then records the outcomes and takes the blob references in a second short transaction.
+// renderPending does the same for many letters at a time, rendering each chunk across a pool of threads.
+@Service
+public class OfferLetterPdfService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final DateTimeFormatter APPROVED_AT = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+    // pdf_claimed_at doubles as the claim's token: the letters a claim won are the ones that carry it
+    private static final String CLAIM_SQL =
+        "UPDATE loan_offer_letters SET pdf_status = 'RENDERING', pdf_attempts = pdf_attempts + 1, pdf_claimed_at = :claimedAt " +
+        "WHERE id IN (:ids) AND (pdf_status = 'PENDING' OR (pdf_status = 'RENDERING' AND pdf_claimed_at < :staleBefore))";
+
+    private static final String CONTENT_SQL =
+        "SELECT o.id, o.created_at, o.approved_loan_amount, o.interest_rate, o.loan_tenure, o.emi_amount, " +
+        "o.processing_fee, o.terms_and_conditions, o.loan_application_id, a.application_id, a.first_name, a.last_name " +
+        "FROM loan_offer_letters o JOIN loan_applications a ON a.id = o.loan_application_id " +
+        "WHERE o.id IN (:ids) AND o.pdf_status = 'RENDERING' AND o.pdf_claimed_at = :claimedAt";
+
+    private static final String APPROVALS_SQL =
+        "SELECT h.loan_application_id, h.stage, h.decision, h.created_at, u.name " +
+        "FROM approval_history h JOIN users u ON u.id = h.approved_by " +
+        "WHERE h.loan_application_id IN (:loanIds) ORDER BY h.loan_application_id, h.created_at, h.id";
+
+    // Only the claim that rendered the file may complete it; a stale worker finds its pdf_claimed_at replaced
+    private static final String READY_SQL =
+        "UPDATE loan_offer_letters SET pdf_status = 'READY', file_path = ?, sha256 = ?, pdf_claimed_at = NULL, pdf_error = NULL, " +
+        "updated_at = ? WHERE id = ? AND pdf_status = 'RENDERING' AND pdf_claimed_at = ?";
+
+    // Blobs of earlier renders, which a re-rendered letter lets go of
+    private static final String PREVIOUS_BLOBS_SQL =
+        "SELECT id, sha256 FROM loan_offer_letters WHERE id IN (:ids) AND pdf_status = 'RENDERING' " +
+        "AND pdf_claimed_at = :claimedAt AND sha256 IS NOT NULL";
+
+    private static final String FAILED_SQL =
+        "UPDATE loan_offer_letters SET pdf_status = CASE WHEN pdf_attempts >= ? THEN 'FAILED' ELSE 'PENDING' END, " +
+        "pdf_claimed_at = NULL, pdf_error = ?, updated_at = ? " +
+        "WHERE id = ? AND pdf_status = 'RENDERING' AND pdf_claimed_at = ?";
+
+    private static final String RETRY_SQL =
+        "UPDATE loan_offer_letters SET pdf_status = 'PENDING', pdf_attempts = 0, pdf_error = NULL, updated_at = ? " +
+        "WHERE id = ? AND pdf_status = 'FAILED'";
+
+    private static final String STATUS_SQL = "SELECT id, pdf_status FROM loan_offer_letters WHERE id IN (:ids)";
+
+    @Autowired
+    private LoanOfferLetterRepository loanOfferLetterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BlobStoreService blobStoreService;
+
+    @Value("${smartloan.offers.pdf-workers:4}")
+    private int workers;
+
+    @Value("${smartloan.offers.pdf-queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${smartloan.offers.pdf-max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${smartloan.offers.pdf-stale-minutes:5}")
+    private int staleMinutes;
+
+    @Value("${smartloan.offers.batch-threads:0}")
+    private int batchThreads;
+
+    @Value("${smartloan.offers.batch-chunk-size:200}")
+    private int batchChunkSize;
+
+    // One compiled template per terms text; every letter so far uses the standard terms
+    private final Map<String, OfferLetterTemplate> templates = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    // Offers queued or rendering on this node, so the recovery sweep does not queue them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), Thread.ofVirtual().name("offer-pdf-", 0).factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        // Queued renders stay PENDING in the database and are picked up after a restart
+        executor.shutdownNow();
+    }
+
+    // Queues the render once the offer's transaction commits, so a worker never looks for an uncommitted row
+    public void enqueueAfterCommit(Long offerId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(offerId);
+                }
+            });
+        } else {
+            enqueue(offerId);
+        }
+    }
+
+    public boolean enqueue(Long offerId) {
+        if (!inFlight.add(offerId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    render(offerId);
+                } finally {
+                    inFlight.remove(offerId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(offerId);
+            System.out.println("OfferLetterPdfService - queue full, offer " + offerId + " left for the recovery sweep");
+            return false;
+        }
+    }
+
+    // Queues pending letters and those whose claim went stale (a worker died mid-render), up to the free queue space
+    public int requeue() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return 0;
+        }
+        LocalDateTime staleBefore = LocalDateTime.now().minusMinutes(staleMinutes);
+        List<Long> offerIds = loanOfferLetterRepository.findIdsToRender(0L, staleBefore, PageRequest.of(0, capacity));
+        int queued = 0;
+        for (Long offerId : offerIds) {
+            if (enqueue(offerId)) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    // Puts a letter that used up its attempts back in the queue with a fresh attempt budget
+    public LoanOfferLetter retry(Long applicationId) {
+        LoanOfferLetter offerLetter = loanOfferLetterRepository.findByLoanApplicationId(applicationId)
+            .orElseThrow(() -> new RuntimeException("Loan offer not found for application ID: " + applicationId));
+        if (offerLetter.getPdfStatus() != LoanOfferLetter.PdfStatus.FAILED) {
+            throw new RuntimeException("Loan offer letter is " + offerLetter.getPdfStatus() + ", only FAILED letters can be retried");
+        }
+        if (jdbcTemplate.update(RETRY_SQL, LocalDateTime.now(), offerLetter.getId()) == 1) {
+            offerLetter.setPdfStatus(LoanOfferLetter.PdfStatus.PENDING);
+            offerLetter.setPdfAttempts(0);
+            offerLetter.setPdfError(null);
+            enqueue(offerLetter.getId());
+        }
+        return offerLetter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void requeueOnStartup() {
+        int queued = requeue();
+        if (queued > 0) {
+            System.out.println("OfferLetterPdfService - " + queued + " unfinished offer letters queued on startup");
+        }
+    }
+
+    // Renders up to limit waiting letters in chunks, each chunk across batch-threads threads. Letters the
+    // worker pool claims first are skipped.
+    public OfferLetterBatchRun renderPending(int limit) {
+        long started = System.currentTimeMillis();
+        OfferLetterBatchRun run = new OfferLetterBatchRun();
+        ExecutorService pool = newBatchPool();
+        try {
+            long afterId = 0;
+            while (run.getRequested() < limit) {
+                LocalDateTime staleBefore = LocalDateTime.now().minusMinutes(staleMinutes);
+                List<Long> offerIds = loanOfferLetterRepository.findIdsToRender(afterId, staleBefore,
+                    PageRequest.of(0, Math.min(batchChunkSize, limit - run.getRequested())));
+                if (offerIds.isEmpty()) {
+                    break;
+                }
+                afterId = offerIds.get(offerIds.size() - 1);
+                addOutcomes(run, renderChunk(offerIds, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        run.setDurationMillis(System.currentTimeMillis() - started);
+        return run;
+    }
+
+    // Renders the given letters now, on the caller's behalf, the same way renderPending does
+    public OfferLetterBatchRun render(List<Long> offerIds) {
+        long started = System.currentTimeMillis();
+        OfferLetterBatchRun run = new OfferLetterBatchRun();
+        ExecutorService pool = newBatchPool();
+        try {
+            for (int from = 0; from < offerIds.size(); from += batchChunkSize) {
+                addOutcomes(run, renderChunk(offerIds.subList(from, Math.min(from + batchChunkSize, offerIds.size())), pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        run.setDurationMillis(System.currentTimeMillis() - started);
+        return run;
+    }
+
+    public Map<Long, LoanOfferLetter.PdfStatus> getPdfStatuses(List<Long> offerIds) {
+        Map<Long, LoanOfferLetter.PdfStatus> statuses = new HashMap<>();
+        if (!offerIds.isEmpty()) {
+            namedParameterJdbcTemplate.query(STATUS_SQL, Map.of("ids", offerIds), rs -> {
+                statuses.put(rs.getLong("id"), LoanOfferLetter.PdfStatus.valueOf(rs.getString("pdf_status")));
+            });
+        }
+        return statuses;
+    }
+
+    // One rendering thread per core unless batch-threads says otherwise
+    private ExecutorService newBatchPool() {
+        return Executors.newFixedThreadPool(batchThreads > 0 ? batchThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    private static void addOutcomes(OfferLetterBatchRun run, List<Outcome> outcomes) {
+        for (Outcome outcome : outcomes) {
+            if (outcome.error() == null) {
+                run.addRendered(outcome.bytes());
+            } else {
+                run.addFailed(outcome.offerId(), outcome.error());
+            }
+        }
+    }
+
+    void render(Long offerId) {
+        for (Outcome outcome : renderChunk(List.of(offerId), null)) {
+            if (outcome.error() != null) {
+                System.out.println("OfferLetterPdfService - offer " + offerId + ": " + outcome.error());
+            }
+        }
+    }
+
+    // Claims what it can of offerIds, renders those letters on the pool (or on this thread without one) and
+    // records the outcomes. Letters already rendered or claimed elsewhere are left out.
+    private List<Outcome> renderChunk(List<Long> offerIds, ExecutorService pool) {
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        List<RenderJob> jobs = template.execute(status -> claim(offerIds, claimedAt));
+
+        List<Outcome> outcomes = new ArrayList<>(jobs.size());
+        if (pool == null) {
+            for (RenderJob job : jobs) {
+                outcomes.add(renderAndWrite(job));
+            }
+        } else {
+            List<Future<Outcome>> futures = new ArrayList<>(jobs.size());
+            for (RenderJob job : jobs) {
+                futures.add(pool.submit(() -> renderAndWrite(job)));
+            }
+            try {
+                for (Future<Outcome> future : futures) {
+                    outcomes.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Offer letter rendering interrupted");
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Offer letter rendering failed: " + e.getCause().getMessage());
+            }
+        }
+
+        try {
+            template.executeWithoutResult(status -> complete(outcomes, claimedAt));
+        } catch (RuntimeException e) {
+            for (Outcome outcome : outcomes) {
+                if (outcome.blob() != null) {
+                    blobStoreService.discard(outcome.blob());
+                }
+            }
+            throw e;
+        }
+        return outcomes;
+    }
+
+    // Three statements however many letters: the claim, their fields and their approval histories
+    private List<RenderJob> claim(List<Long> offerIds, LocalDateTime claimedAt) {
+        Map<String, Object> claim = new HashMap<>();
+        claim.put("ids", offerIds);
+        claim.put("claimedAt", claimedAt);
+        claim.put("staleBefore", claimedAt.minusMinutes(staleMinutes));
+        if (namedParameterJdbcTemplate.update(CLAIM_SQL, claim) == 0) {
+            return List.of();
+        }
+
+        Map<Long, ClaimedOffer> offers = new LinkedHashMap<>();
+        namedParameterJdbcTemplate.query(CONTENT_SQL, Map.of("ids", offerIds, "claimedAt", claimedAt), rs -> {
+            offers.put(rs.getLong("loan_application_id"), new ClaimedOffer(rs.getLong("id"),
+                rs.getString("terms_and_conditions"), new OfferLetterTemplate.Letter(
+                    rs.getTimestamp("created_at").toLocalDateTime(), rs.getString("application_id"),
+                    rs.getString("first_name") + " " + rs.getString("last_name"), rs.getBigDecimal("approved_loan_amount"),
+                    rs.getBigDecimal("interest_rate"), rs.getInt("loan_tenure"), rs.getBigDecimal("emi_amount"),
+                    rs.getBigDecimal("processing_fee"), new ArrayList<>())));
+        });
+        if (offers.isEmpty()) {
+            return List.of();
+        }
+
+        namedParameterJdbcTemplate.query(APPROVALS_SQL, Map.of("loanIds", offers.keySet()), rs -> {
+            offers.get(rs.getLong("loan_application_id")).letter().approvals().add(rs.getString("stage") + " - " +
+                rs.getString("decision") + " by " + rs.getString("name") + " on " +
+                rs.getTimestamp("created_at").toLocalDateTime().format(APPROVED_AT));
+        });
+
+        List<RenderJob> jobs = new ArrayList<>(offers.size());
+        for (ClaimedOffer offer : offers.values()) {
+            jobs.add(new RenderJob(offer.offerId(), templates.computeIfAbsent(
+                offer.termsAndConditions() == null ? "" : offer.termsAndConditions(), OfferLetterTemplate::compile),
+                offer.letter()));
+        }
+        return jobs;
+    }
+
+    private Outcome renderAndWrite(RenderJob job) {
+        try {
+            byte[] pdfBytes = job.template().render(job.letter());
+            // Downloads only ever see a complete file: it reaches the store when the letter is marked READY
+            return new Outcome(job.offerId(), pdfBytes.length, null, blobStoreService.stage(pdfBytes));
+        } catch (IOException | RuntimeException e) {
+            String error = "Failed to generate loan offer letter: " + e.getMessage();
+            return new Outcome(job.offerId(), 0, error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error,
+                null);
+        }
+    }
+
+    private void complete(List<Outcome> outcomes, LocalDateTime claimedAt) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Outcome> ready = new ArrayList<>();
+        List<Object[]> failed = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.error() == null) {
+                ready.add(outcome);
+            } else {
+                failed.add(new Object[] {maxAttempts, outcome.error(), now, outcome.offerId(), claimedAt});
+            }
+        }
+        if (!ready.isEmpty()) {
+            Map<Long, String> previousBlobs = new HashMap<>();
+            namedParameterJdbcTemplate.query(PREVIOUS_BLOBS_SQL, Map.of("ids", ready.stream().map(Outcome::offerId).toList(),
+                "claimedAt", claimedAt), rs -> {
+                previousBlobs.put(rs.getLong("id"), rs.getString("sha256"));
+            });
+            // Blob rows are locked in checksum order, so chunks completing together cannot deadlock on them
+            ready.sort(Comparator.comparing(outcome -> outcome.blob().sha256()));
+            List<Object[]> readyArgs = new ArrayList<>(ready.size());
+            for (Outcome outcome : ready) {
+                readyArgs.add(new Object[] {blobStoreService.pathOf(outcome.blob().sha256()).toString(), outcome.blob().sha256(),
+                    now, outcome.offerId(), claimedAt});
+            }
+            int[] updated = jdbcTemplate.batchUpdate(READY_SQL, readyArgs);
+            for (int i = 0; i < ready.size(); i++) {
+                Outcome outcome = ready.get(i);
+                // A driver that reports no per-row count (-2) is taken at its word; the blob sweep recounts
+                if (updated[i] == 0) {
+                    blobStoreService.discard(outcome.blob());
+                    continue;
+                }
+                blobStoreService.acquire(outcome.blob());
+                String previous = previousBlobs.get(outcome.offerId());
+                if (previous != null) {
+                    blobStoreService.release(previous);
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            jdbcTemplate.batchUpdate(FAILED_SQL, failed);
+        }
+    }
+
+    private record ClaimedOffer(Long offerId, String termsAndConditions, OfferLetterTemplate.Letter letter) {
+    }
+
+    private record RenderJob(Long offerId, OfferLetterTemplate template, OfferLetterTemplate.Letter letter) {
+    }
+
+    private record Outcome(Long offerId, long bytes, String error, BlobStoreService.StagedBlob blob) {
+    }
+}
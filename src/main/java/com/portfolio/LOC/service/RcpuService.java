@@ -3,18 +3,16 @@ package com.portfolio.LOC.service;
 import com.portfolio.LOC.entity.*;
 import com.portfolio.LOC.repository.*;
 import com.portfolio.LOC.dto.LoanApplicationResponse;
+import com.portfolio.LOC.dto.CursorPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -31,14 +29,18 @@ public class RcpuService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private ApplicationListingService applicationListingService;
+
+    @Autowired
+    private BlobStoreService blobStoreService;
     
-    private final String UPLOAD_DIR = "uploads/rcpu-reports/";
-    
-    public List<LoanApplicationResponse> getApplicationsForRcpu() {
-        return loanApplicationRepository.findByStatusOrderByCreatedAtAsc(LoanApplication.ApplicationStatus.SUBMITTED)
-            .stream()
-            .map(LoanApplicationResponse::new)
-            .collect(Collectors.toList());
+    public CursorPage<LoanApplicationResponse> getApplicationsForRcpu(String cursor, Integer size) {
+        return applicationListingService.findQueueResponses(LoanApplication.ApplicationStatus.SUBMITTED, cursor, size);
     }
     
     public LoanApplicationResponse getApplicationDetails(Long applicationId) {
@@ -78,39 +80,40 @@ public class RcpuService {
             throw new RuntimeException("RCPU report already exists for this application");
         }
         
+        BlobStoreService.StagedBlob staged;
+        try (InputStream body = reportFile.getInputStream()) {
+            staged = blobStoreService.stage(body, Long.MAX_VALUE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload file: " + e.getMessage());
+        }
+        
         try {
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            // Generate unique filename
+            // Generate the download name; the file itself is stored under its checksum
             String originalFilename = reportFile.getOriginalFilename();
             String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
             String fileName = "RCPU_" + application.getApplicationId() + "_" + System.currentTimeMillis() + fileExtension;
-            Path filePath = uploadPath.resolve(fileName);
-            
-            // Save file
-            Files.copy(reportFile.getInputStream(), filePath);
             
             // Create RCPU report entity
             RcpuReport rcpuReport = new RcpuReport();
             rcpuReport.setLoanApplication(application);
             rcpuReport.setReviewedBy(user);
             rcpuReport.setReportFileName(fileName);
-            rcpuReport.setReportFilePath(filePath.toString());
+            rcpuReport.setReportFilePath(blobStoreService.pathOf(staged.sha256()).toString());
+            rcpuReport.setSha256(staged.sha256());
             rcpuReport.setRemarks(remarks);
             rcpuReport.setCreditScore(creditScore);
             rcpuReport.setRecommendation(recommendation);
             
             // Save RCPU report
             rcpuReport = rcpuReportRepository.save(rcpuReport);
+            blobStoreService.acquire(staged);
             
             // Update application status
+            LoanApplication.ApplicationStatus previousStatus = application.getStatus();
             application.setStatus(LoanApplication.ApplicationStatus.PENDING_RCPU);
             application.setUpdatedAt(LocalDateTime.now());
             loanApplicationRepository.save(application);
+            dashboardAggregateService.recordStatusChange(application, previousStatus);
             
             // Create approval history entry
             ApprovalHistory history = new ApprovalHistory(
@@ -121,8 +124,9 @@ public class RcpuService {
             
             return rcpuReport;
             
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            blobStoreService.discard(staged);
+            throw e;
         }
     }
     
@@ -145,6 +149,7 @@ public class RcpuService {
         RcpuReport rcpuReport = rcpuReportRepository.findByLoanApplication(application)
             .orElseThrow(() -> new RuntimeException("RCPU report not found. Please upload report first."));
         
+        LoanApplication.ApplicationStatus previousStatus = application.getStatus();
         ApprovalHistory.Decision historyDecision;
         
         if ("approve".equals(decision)) {
@@ -159,6 +164,7 @@ public class RcpuService {
         
         application.setUpdatedAt(LocalDateTime.now());
         LoanApplication savedApplication = loanApplicationRepository.save(application);
+        dashboardAggregateService.recordStatusChange(savedApplication, previousStatus);
         
         // Update approval history
         ApprovalHistory history = new ApprovalHistory(
@@ -0,0 +1,500 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.SettlementPostingReport;
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanTerms;
+import com.portfolio.LOC.entity.User;
+import com.portfolio.LOC.repository.LoanTermsRepository;
+import com.portfolio.LOC.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Posts bank settlement files (daily NACH collections) against the EMI schedule. The file is streamed in
+// chunks; each chunk matches its lines to instalments by loan and due date and applies them in one
+// transaction, with the EMI updates and settlement inserts sent as JDBC batches. Bank references are
+// unique in emi_settlements, so re-uploading a file posts nothing twice.
+@Service
+public class SettlementPostingService {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("bankReference", "applicationId", "dueDate", "amount");
+
+    private static final int MAX_REFERENCE_LENGTH = 64;
+
+    // Same rate as a single payment through EmiScheduleService.payEmi
+    private static final BigDecimal LATE_FEE_PER_DAY = BigDecimal.valueOf(100);
+
+    private static final String POSTED_REFERENCES_SQL =
+        "SELECT bank_reference FROM emi_settlements WHERE bank_reference IN (:references)";
+
+    private static final String LOANS_SQL =
+        "SELECT id, application_id FROM loan_applications WHERE application_id IN (:applicationIds)";
+
+    private static final String EMIS_SQL =
+        "SELECT id, loan_application_id, due_date, emi_amount, principal_amount, interest_amount, paid_amount, late_fee, status " +
+        "FROM emi_schedule " +
+        "WHERE loan_application_id IN (:loanIds) AND due_date IN (:dueDates)";
+
+    // Only while the instalment is as the chunk read it. COALESCE stands in for IS NOT DISTINCT FROM, which
+    // MySQL does not accept; paid amounts are never negative.
+    private static final String UPDATE_EMI_SQL =
+        "UPDATE emi_schedule SET status = ?, paid_amount = ?, paid_date = ?, late_fee = ?, remarks = ?, updated_at = ? " +
+        "WHERE id = ? AND status = ? AND COALESCE(paid_amount, -1) = ?";
+
+    private static final BigDecimal NOT_PAID = BigDecimal.valueOf(-1);
+
+    private static final String INSERT_SETTLEMENT_SQL =
+        "INSERT INTO emi_settlements (bank_reference, emi_schedule_id, amount, value_date, late_fee, posted_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private LoanTermsRepository loanTermsRepository;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private DelinquencyService delinquencyService;
+
+    @Autowired
+    private LoanLedgerService loanLedgerService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${smartloan.settlements.chunk-size:1000}")
+    private int chunkSize;
+
+    // CSV with a header row: bankReference, applicationId, dueDate and amount, plus an optional valueDate
+    // (the collection date, default today). Dates are yyyy-MM-dd.
+    public SettlementPostingReport post(InputStream input, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!user.getRole().equals(User.Role.ADMIN)) {
+            throw new RuntimeException("User not authorized to post settlements");
+        }
+
+        long started = System.nanoTime();
+        SettlementPostingReport report = new SettlementPostingReport();
+        // References earlier in this file; the database check covers earlier files
+        Set<String> seenReferences = new HashSet<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = readHeader(reader);
+
+            List<RawLine> chunk = new ArrayList<>(chunkSize);
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(new RawLine(++lineNumber, line));
+                if (chunk.size() == chunkSize) {
+                    postChunk(chunk, columns, seenReferences, report);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                postChunk(chunk, columns, seenReferences, report);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read settlement file: " + e.getMessage(), e);
+        }
+
+        report.sortExceptions();
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        System.out.println("SettlementPostingService - Posted " + report.getPosted() + " of " + report.getTotalLines()
+            + " lines (" + report.getDuplicates() + " already posted, " + report.getRejected() + " exceptions) in "
+            + report.getElapsedMillis() + " ms");
+        return report;
+    }
+
+    private void postChunk(List<RawLine> chunk, Map<String, Integer> columns, Set<String> seenReferences,
+                           SettlementPostingReport report) {
+        List<SettlementLine> lines = new ArrayList<>(chunk.size());
+        for (RawLine raw : chunk) {
+            SettlementLine line = parse(raw, columns);
+            if (line.error != null) {
+                report.addRejected(line.lineNumber, line.bankReference, line.error);
+            } else if (!seenReferences.add(line.bankReference)) {
+                report.addDuplicate();
+            } else {
+                lines.add(line);
+            }
+        }
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        List<LineResult> results;
+        try {
+            results = template.execute(status -> apply(lines));
+        } catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+            // A concurrent upload posted one of these references first, or a payment reached one of the chunk's
+            // instalments after they were read; the retry sees either
+            results = template.execute(status -> apply(lines));
+        }
+
+        for (LineResult result : results) {
+            if (result.error != null) {
+                report.addRejected(result.line.lineNumber, result.line.bankReference, result.error);
+            } else if (result.duplicate) {
+                report.addDuplicate();
+            } else {
+                report.addPosted(result.line.amount);
+            }
+        }
+    }
+
+    // One transaction: read the chunk's loans, instalments and known references with three queries (four when
+    // a lazy loan's instalment is not stored yet), apply the lines in file order, then write every touched
+    // instalment once
+    private List<LineResult> apply(List<SettlementLine> lines) {
+        Set<String> references = new HashSet<>();
+        Set<String> applicationIds = new HashSet<>();
+        Set<Date> dueDates = new HashSet<>();
+        for (SettlementLine line : lines) {
+            references.add(line.bankReference);
+            applicationIds.add(line.applicationId);
+            dueDates.add(Date.valueOf(line.dueDate));
+        }
+
+        Set<String> posted = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+            POSTED_REFERENCES_SQL, Map.of("references", references), String.class));
+        Map<String, Long> loanIds = new HashMap<>();
+        namedParameterJdbcTemplate.query(LOANS_SQL, Map.of("applicationIds", applicationIds),
+            (RowCallbackHandler) rs -> loanIds.put(rs.getString("application_id"), rs.getLong("id")));
+        Map<EmiKey, EmiState> emis = new HashMap<>();
+        if (!loanIds.isEmpty()) {
+            namedParameterJdbcTemplate.query(EMIS_SQL, Map.of("loanIds", loanIds.values(), "dueDates", dueDates),
+                (RowCallbackHandler) rs -> {
+                    EmiState emi = new EmiState(rs.getLong("id"), rs.getLong("loan_application_id"),
+                        rs.getDate("due_date").toLocalDate(), rs.getBigDecimal("emi_amount"), rs.getBigDecimal("principal_amount"),
+                        rs.getBigDecimal("interest_amount"), rs.getBigDecimal("paid_amount"), rs.getBigDecimal("late_fee"),
+                        EmiSchedule.EmiStatus.valueOf(rs.getString("status")));
+                    emis.put(new EmiKey(emi.loanApplicationId, emi.dueDate), emi);
+                });
+        }
+
+        // Lazily materialized loans only store instalments that have seen activity; the terms of every loan
+        // with an instalment missing come back from one query, and each missing instalment is computed alone
+        Set<Long> lazyLoanIds = new HashSet<>();
+        for (SettlementLine line : lines) {
+            Long loanId = loanIds.get(line.applicationId);
+            if (loanId != null && !emis.containsKey(new EmiKey(loanId, line.dueDate))) {
+                lazyLoanIds.add(loanId);
+            }
+        }
+        Map<Long, LoanTerms> terms = new HashMap<>();
+        if (!lazyLoanIds.isEmpty()) {
+            loanTermsRepository.findByLoanApplicationIdIn(lazyLoanIds)
+                .forEach(loanTerms -> terms.put(loanTerms.getLoanApplication().getId(), loanTerms));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<LineResult> results = new ArrayList<>(lines.size());
+        List<EmiSchedule> materialized = new ArrayList<>();
+        Map<Long, EmiState> touched = new LinkedHashMap<>();
+        List<Object[]> settlements = new ArrayList<>();
+        for (SettlementLine line : lines) {
+            if (posted.contains(line.bankReference)) {
+                results.add(new LineResult(line, true, null));
+                continue;
+            }
+            Long loanId = loanIds.get(line.applicationId);
+            if (loanId == null) {
+                results.add(new LineResult(line, false, "Loan application not found"));
+                continue;
+            }
+            EmiKey key = new EmiKey(loanId, line.dueDate);
+            EmiState emi = emis.get(key);
+            if (emi == null) {
+                EmiSchedule computed = terms.containsKey(loanId)
+                    ? emiScheduleService.computeInstalment(terms.get(loanId), line.dueDate).orElse(null)
+                    : null;
+                if (computed == null) {
+                    results.add(new LineResult(line, false, "No EMI due on " + line.dueDate));
+                    continue;
+                }
+                materialized.add(computed);
+                emi = EmiState.of(computed);
+                emis.put(key, emi);
+            }
+            if (emi.status == EmiSchedule.EmiStatus.PAID) {
+                results.add(new LineResult(line, false, "EMI already paid"));
+                continue;
+            }
+
+            BigDecimal lateFee = emi.apply(line);
+            touched.put(emi.id, emi);
+            settlements.add(new Object[] {
+                line.bankReference, emi.id, line.amount, Date.valueOf(line.valueDate), lateFee, Timestamp.valueOf(now)
+            });
+            results.add(new LineResult(line, false, null));
+        }
+        if (touched.isEmpty()) {
+            return results;
+        }
+
+        // Stored first so the update below finds them
+        emiScheduleService.insertAll(materialized);
+        requireAll(jdbcTemplate.batchUpdate(UPDATE_EMI_SQL, touched.values().stream()
+            .map(emi -> new Object[] {
+                emi.status.name(), emi.paidAmount, Date.valueOf(emi.paidDate), emi.lateFee, emi.remarks,
+                Timestamp.valueOf(now), emi.id, emi.originalStatus.name(),
+                emi.originalPaidAmount == null ? NOT_PAID : emi.originalPaidAmount
+            })
+            .toList()));
+        jdbcTemplate.batchUpdate(INSERT_SETTLEMENT_SQL, settlements);
+
+        recordStatusChanges(touched.values());
+        LoanLedgerService.Postings postings = new LoanLedgerService.Postings();
+        for (EmiState emi : touched.values()) {
+            postings.add(emi.loanApplicationId, emi.principalAmount, emi.interestAmount,
+                emi.originalPaidAmount, emi.paidAmount, emi.originalLateFee, emi.lateFee);
+        }
+        loanLedgerService.post(postings);
+        Set<Long> pastDueLoans = new HashSet<>();
+        LocalDate today = now.toLocalDate();
+        for (EmiState emi : touched.values()) {
+            if (emi.dueDate.isBefore(today)) {
+                pastDueLoans.add(emi.loanApplicationId);
+            }
+        }
+        delinquencyService.refreshLoans(pastDueLoans);
+        return results;
+    }
+
+    private static void requireAll(int[] counts) {
+        for (int count : counts) {
+            if (count == 0) {
+                throw new ConcurrencyFailureException("An instalment was paid while its settlement chunk was being posted");
+            }
+        }
+    }
+
+    // One dashboard delta per status transition rather than one per instalment
+    private void recordStatusChanges(Iterable<EmiState> emis) {
+        int statuses = EmiSchedule.EmiStatus.values().length;
+        long[] counts = new long[statuses * statuses];
+        BigDecimal[] amounts = new BigDecimal[statuses * statuses];
+        for (EmiState emi : emis) {
+            int cell = emi.originalStatus.ordinal() * statuses + emi.status.ordinal();
+            counts[cell]++;
+            amounts[cell] = amounts[cell] == null ? emi.emiAmount : amounts[cell].add(emi.emiAmount);
+        }
+        for (int cell = 0; cell < counts.length; cell++) {
+            if (counts[cell] > 0) {
+                dashboardAggregateService.recordEmiStatusChanges(EmiSchedule.EmiStatus.values()[cell / statuses],
+                    EmiSchedule.EmiStatus.values()[cell % statuses], counts[cell], amounts[cell]);
+            }
+        }
+    }
+
+    private Map<String, Integer> readHeader(BufferedReader reader) throws IOException {
+        String header;
+        do {
+            header = reader.readLine();
+            if (header == null) {
+                return Map.of();
+            }
+        } while (header.isBlank());
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = BulkIngestionService.parseCsvLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new RuntimeException("Settlement file has no " + required + " column");
+            }
+        }
+        return columns;
+    }
+
+    private SettlementLine parse(RawLine raw, Map<String, Integer> columns) {
+        List<String> fields = BulkIngestionService.parseCsvLine(raw.line);
+        String bankReference = field(fields, columns, "bankReference");
+        if (bankReference == null) {
+            return SettlementLine.rejected(raw.lineNumber, null, "Bank reference is required");
+        }
+        if (bankReference.length() > MAX_REFERENCE_LENGTH) {
+            return SettlementLine.rejected(raw.lineNumber, bankReference,
+                "Bank reference is longer than " + MAX_REFERENCE_LENGTH + " characters");
+        }
+        String applicationId = field(fields, columns, "applicationId");
+        if (applicationId == null) {
+            return SettlementLine.rejected(raw.lineNumber, bankReference, "Application ID is required");
+        }
+
+        String due = field(fields, columns, "dueDate");
+        String paid = field(fields, columns, "amount");
+        if (due == null || paid == null) {
+            return SettlementLine.rejected(raw.lineNumber, bankReference, "Due date and amount are required");
+        }
+
+        LocalDate dueDate;
+        LocalDate valueDate;
+        try {
+            dueDate = LocalDate.parse(due);
+            String value = field(fields, columns, "valueDate");
+            valueDate = value == null ? LocalDate.now() : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return SettlementLine.rejected(raw.lineNumber, bankReference, "Due date and value date must be yyyy-MM-dd");
+        }
+
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(paid);
+        } catch (NumberFormatException e) {
+            return SettlementLine.rejected(raw.lineNumber, bankReference, "Amount must be a number");
+        }
+        if (amount.signum() <= 0 || amount.scale() > 2) {
+            return SettlementLine.rejected(raw.lineNumber, bankReference, "Amount must be positive with at most two decimals");
+        }
+
+        return new SettlementLine(raw.lineNumber, bankReference, applicationId, dueDate, amount, valueDate, null);
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private record RawLine(int lineNumber, String line) {
+    }
+
+    private record EmiKey(long loanApplicationId, LocalDate dueDate) {
+    }
+
+    private record LineResult(SettlementLine line, boolean duplicate, String error) {
+    }
+
+    private static final class SettlementLine {
+        final int lineNumber;
+        final String bankReference;
+        final String applicationId;
+        final LocalDate dueDate;
+        final BigDecimal amount;
+        final LocalDate valueDate;
+        final String error;
+
+        SettlementLine(int lineNumber, String bankReference, String applicationId, LocalDate dueDate,
+                       BigDecimal amount, LocalDate valueDate, String error) {
+            this.lineNumber = lineNumber;
+            this.bankReference = bankReference;
+            this.applicationId = applicationId;
+            this.dueDate = dueDate;
+            this.amount = amount;
+            this.valueDate = valueDate;
+            this.error = error;
+        }
+
+        static SettlementLine rejected(int lineNumber, String bankReference, String error) {
+            return new SettlementLine(lineNumber, bankReference, null, null, null, null, error);
+        }
+    }
+
+    // An instalment as read at the start of the chunk, updated in memory by each line that pays it
+    private static final class EmiState {
+        final long id;
+        final long loanApplicationId;
+        final LocalDate dueDate;
+        final BigDecimal emiAmount;
+        final BigDecimal principalAmount;
+        final BigDecimal interestAmount;
+        final EmiSchedule.EmiStatus originalStatus;
+        final BigDecimal originalPaidAmount;
+        final BigDecimal originalLateFee;
+        EmiSchedule.EmiStatus status;
+        BigDecimal paidAmount;
+        BigDecimal lateFee;
+        LocalDate paidDate;
+        String remarks;
+
+        EmiState(long id, long loanApplicationId, LocalDate dueDate, BigDecimal emiAmount, BigDecimal principalAmount,
+                 BigDecimal interestAmount, BigDecimal paidAmount, BigDecimal lateFee, EmiSchedule.EmiStatus status) {
+            this.id = id;
+            this.loanApplicationId = loanApplicationId;
+            this.dueDate = dueDate;
+            this.emiAmount = emiAmount;
+            this.principalAmount = principalAmount;
+            this.interestAmount = interestAmount;
+            this.paidAmount = paidAmount;
+            this.lateFee = lateFee;
+            this.originalPaidAmount = paidAmount;
+            this.originalLateFee = lateFee;
+            this.originalStatus = status;
+            this.status = status;
+        }
+
+        static EmiState of(EmiSchedule emi) {
+            return new EmiState(emi.getId(), emi.getLoanApplication().getId(), emi.getDueDate(), emi.getEmiAmount(),
+                emi.getPrincipalAmount(), emi.getInterestAmount(), emi.getPaidAmount(), emi.getLateFee(), emi.getStatus());
+        }
+
+        // Collections add up, unlike a manual payment, which records the amount paid so far.
+        // Returns the late fee for this collection, charged on the value date.
+        BigDecimal apply(SettlementLine line) {
+            paidAmount = paidAmount == null ? line.amount : paidAmount.add(line.amount);
+            status = paidAmount.compareTo(emiAmount) >= 0 ? EmiSchedule.EmiStatus.PAID : EmiSchedule.EmiStatus.PARTIAL_PAID;
+            paidDate = line.valueDate;
+            remarks = "Bank settlement " + line.bankReference;
+
+            long daysLate = line.valueDate.toEpochDay() - dueDate.toEpochDay();
+            if (daysLate <= 0) {
+                return null;
+            }
+            BigDecimal fee = LATE_FEE_PER_DAY.multiply(BigDecimal.valueOf(daysLate));
+            if (lateFee == null || fee.compareTo(lateFee) > 0) {
+                lateFee = fee;
+            }
+            return fee;
+        }
+    }
+}
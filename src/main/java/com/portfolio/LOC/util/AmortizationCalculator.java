@@ -0,0 +1,169 @@
+package com.portfolio.LOC.util;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Reducing-balance amortization in long paise. Reproduces the original BigDecimal schedule exactly:
+// the monthly rate is carried to 10 decimals, each month's interest is rounded half-up to the paisa,
+// and the final instalment absorbs whatever principal is left. The EMI itself comes from emi(), the
+// single formula behind the submit-time estimate, the offer letter and the schedule.
+public final class AmortizationCalculator {
+
+    // 40 significant digits keeps principal x factor exact to far below a paisa for any NUMERIC(12,2) amount
+    private static final MathContext FACTOR_PRECISION = new MathContext(40, RoundingMode.HALF_EVEN);
+    private static final MathContext POWER_PRECISION = new MathContext(50, RoundingMode.HALF_EVEN);
+
+    // Offers use a handful of rate and tenure pairs; the bound only guards against unusual input
+    private static final int MAX_CACHED_FACTORS = 10_000;
+    private static final Map<RateTenure, BigDecimal> EMI_FACTORS = new ConcurrentHashMap<>();
+
+    // The monthly rate is an integer count of 1e-10 units; split in two halves so balance x rate never overflows
+    private static final long RATE_SPLIT = 100_000L;
+    private static final long RATE_UNIT = RATE_SPLIT * RATE_SPLIT;
+
+    private AmortizationCalculator() {
+    }
+
+    public static long monthlyRateE10(BigDecimal annualInterestRate) {
+        return annualInterestRate.divide(BigDecimal.valueOf(1200), 10, RoundingMode.HALF_UP)
+            .unscaledValue().longValueExact();
+    }
+
+    public static long toPaise(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromPaise(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    // principal x r x (1+r)^n / ((1+r)^n - 1), rounded half-up to the paisa, with r the 10-decimal monthly rate.
+    // Matches the exact BigDecimal.pow() evaluation; only the annuity factor is approximated, to 40 digits.
+    public static BigDecimal emi(BigDecimal principal, BigDecimal annualInterestRate, int months) {
+        long rateE10 = monthlyRateE10(annualInterestRate);
+        if (rateE10 == 0) {
+            return principal.divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP);
+        }
+        return principal.multiply(emiFactor(rateE10, months)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // r x (1+r)^n / ((1+r)^n - 1) for a monthly rate in 1e-10 units, cached per rate and tenure
+    static BigDecimal emiFactor(long monthlyRateE10, int months) {
+        RateTenure key = new RateTenure(monthlyRateE10, months);
+        BigDecimal factor = EMI_FACTORS.get(key);
+        if (factor == null) {
+            BigDecimal rate = BigDecimal.valueOf(monthlyRateE10, 10);
+            BigDecimal growth = BigDecimal.ONE.add(rate).pow(months, POWER_PRECISION);
+            factor = rate.multiply(growth).divide(growth.subtract(BigDecimal.ONE), FACTOR_PRECISION);
+            if (EMI_FACTORS.size() < MAX_CACHED_FACTORS) {
+                EMI_FACTORS.putIfAbsent(key, factor);
+            }
+        }
+        return factor;
+    }
+
+    public static Schedule schedule(BigDecimal loanAmount, BigDecimal annualInterestRate, int months, BigDecimal emiAmount) {
+        return schedule(toPaise(loanAmount), monthlyRateE10(annualInterestRate), months, toPaise(emiAmount));
+    }
+
+    public static Schedule schedule(long principalPaise, long monthlyRateE10, int months, long emiPaise) {
+        Schedule schedule = new Schedule(months);
+        walk(principalPaise, monthlyRateE10, months, emiPaise, months, (index, principal, interest, balance) -> {
+            schedule.emi[index] = principal + interest;
+            schedule.principal[index] = principal;
+            schedule.interest[index] = interest;
+            schedule.balance[index] = balance;
+        });
+        return schedule;
+    }
+
+    // Visits instalments 0 .. through - 1 of the schedule without storing them, for callers that
+    // aggregate across many loans and only need the early part of each schedule
+    public static void walk(long principalPaise, long monthlyRateE10, int months, long emiPaise, int through,
+                            InstalmentVisitor visitor) {
+        long balance = principalPaise;
+        int last = Math.min(months, through);
+        for (int i = 0; i < last; i++) {
+            long interest = interestPaise(balance, monthlyRateE10);
+            long principal = i == months - 1 ? balance : emiPaise - interest;
+            balance -= principal;
+            visitor.visit(i, principal, interest, balance);
+        }
+    }
+
+    // Instalments of emiPaise needed to repay principalPaise, the last one taking whatever is left. -1 when
+    // the EMI does not cover a month's interest or repaying would take more than maxMonths.
+    public static int tenure(long principalPaise, long monthlyRateE10, long emiPaise, int maxMonths) {
+        long balance = principalPaise;
+        for (int months = 1; months <= maxMonths; months++) {
+            long interest = interestPaise(balance, monthlyRateE10);
+            if (balance + interest <= emiPaise) {
+                return months;
+            }
+            if (emiPaise <= interest) {
+                return -1;
+            }
+            balance -= emiPaise - interest;
+        }
+        return -1;
+    }
+
+    // balance x rate / 1e10, rounded half-up (away from zero) to the paisa
+    static long interestPaise(long balancePaise, long monthlyRateE10) {
+        if (balancePaise < 0) {
+            return -interestPaise(-balancePaise, monthlyRateE10);
+        }
+        long high = balancePaise * (monthlyRateE10 / RATE_SPLIT);
+        long low = balancePaise * (monthlyRateE10 % RATE_SPLIT);
+        // balance x rate = high x 1e5 + low; fold high's whole units out before adding the remainders
+        long whole = high / RATE_SPLIT;
+        long remainder = (high % RATE_SPLIT) * RATE_SPLIT + low;
+        return whole + remainder / RATE_UNIT + (remainder % RATE_UNIT >= RATE_UNIT / 2 ? 1 : 0);
+    }
+
+    private record RateTenure(long monthlyRateE10, int months) {
+    }
+
+    @FunctionalInterface
+    public interface InstalmentVisitor {
+        void visit(int index, long principalPaise, long interestPaise, long balancePaise);
+    }
+
+    public static final class Schedule {
+        private final long[] emi;
+        private final long[] principal;
+        private final long[] interest;
+        private final long[] balance;
+
+        Schedule(int months) {
+            this.emi = new long[months];
+            this.principal = new long[months];
+            this.interest = new long[months];
+            this.balance = new long[months];
+        }
+
+        public int getMonths() {
+            return emi.length;
+        }
+
+        // Instalment index is zero-based; EMI numbers in the schedule table start at 1
+        public long getEmiPaise(int index) {
+            return emi[index];
+        }
+
+        public long getPrincipalPaise(int index) {
+            return principal[index];
+        }
+
+        public long getInterestPaise(int index) {
+            return interest[index];
+        }
+
+        public long getBalancePaise(int index) {
+            return balance[index];
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.portfolio.LOC.util;
+
+import com.portfolio.LOC.entity.LoanApplication;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Data-driven eligibility rule table, bound from the JSON file named by smartloan.scoring.rules.
+// Bump the version whenever the table changes so the existing book gets re-scored.
+public class EligibilityRules {
+
+    private int version;
+    private int maxScore = 100;
+    private Bands monthlyIncome;
+    private EmploymentPoints employmentType;
+    private Bands workExperienceYears;
+    private CoApplicantPoints coApplicant;
+    private Bands loanToAnnualIncome;
+
+    // Points for the first matching threshold; "otherwise" when none match
+    public static class Bands {
+        private BigDecimal[] thresholds = new BigDecimal[0];
+        private int[] points = new int[0];
+        private int otherwise;
+
+        public BigDecimal[] getThresholds() {
+            return thresholds;
+        }
+
+        public void setThresholds(BigDecimal[] thresholds) {
+            this.thresholds = thresholds;
+        }
+
+        public int[] getPoints() {
+            return points;
+        }
+
+        public void setPoints(int[] points) {
+            this.points = points;
+        }
+
+        public int getOtherwise() {
+            return otherwise;
+        }
+
+        public void setOtherwise(int otherwise) {
+            this.otherwise = otherwise;
+        }
+    }
+
+    public static class EmploymentPoints {
+        private Map<LoanApplication.EmploymentType, Integer> points = new EnumMap<>(LoanApplication.EmploymentType.class);
+        private int otherwise;
+
+        public Map<LoanApplication.EmploymentType, Integer> getPoints() {
+            return points;
+        }
+
+        public void setPoints(Map<LoanApplication.EmploymentType, Integer> points) {
+            this.points = points;
+        }
+
+        public int getOtherwise() {
+            return otherwise;
+        }
+
+        public void setOtherwise(int otherwise) {
+            this.otherwise = otherwise;
+        }
+    }
+
+    public static class CoApplicantPoints {
+        private int present;
+        private int absent;
+
+        public int getPresent() {
+            return present;
+        }
+
+        public void setPresent(int present) {
+            this.present = present;
+        }
+
+        public int getAbsent() {
+            return absent;
+        }
+
+        public void setAbsent(int absent) {
+            this.absent = absent;
+        }
+    }
+
+    // Getters and Setters
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    public void setMaxScore(int maxScore) {
+        this.maxScore = maxScore;
+    }
+
+    public Bands getMonthlyIncome() {
+        return monthlyIncome;
+    }
+
+    public void setMonthlyIncome(Bands monthlyIncome) {
+        this.monthlyIncome = monthlyIncome;
+    }
+
+    public EmploymentPoints getEmploymentType() {
+        return employmentType;
+    }
+
+    public void setEmploymentType(EmploymentPoints employmentType) {
+        this.employmentType = employmentType;
+    }
+
+    public Bands getWorkExperienceYears() {
+        return workExperienceYears;
+    }
+
+    public void setWorkExperienceYears(Bands workExperienceYears) {
+        this.workExperienceYears = workExperienceYears;
+    }
+
+    public CoApplicantPoints getCoApplicant() {
+        return coApplicant;
+    }
+
+    public void setCoApplicant(CoApplicantPoints coApplicant) {
+        this.coApplicant = coApplicant;
+    }
+
+    public Bands getLoanToAnnualIncome() {
+        return loanToAnnualIncome;
+    }
+
+    public void setLoanToAnnualIncome(Bands loanToAnnualIncome) {
+        this.loanToAnnualIncome = loanToAnnualIncome;
+    }
+}
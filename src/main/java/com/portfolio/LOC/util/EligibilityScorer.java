@@ -0,0 +1,246 @@
+package com.portfolio.LOC.util;
+
+import com.portfolio.LOC.entity.LoanApplication;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// EligibilityRules compiled into primitive lookup tables. Scoring works on paise and whole years,
+// allocates nothing and takes no locks, so one instance is shared by every thread.
+public final class EligibilityScorer {
+
+    // Below this many rows a re-score slice is scored on the current thread
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private static final LoanApplication.EmploymentType[] EMPLOYMENT_TYPES = LoanApplication.EmploymentType.values();
+
+    private final int version;
+    private final int maxScore;
+
+    // Descending minimums: first threshold the income reaches wins
+    private final long[] incomeMinimumsPaise;
+    private final int[] incomePoints;
+    private final int incomeOtherwise;
+
+    private final int[] employmentPoints;
+
+    private final int[] experienceMinimumYears;
+    private final int[] experiencePoints;
+    private final int experienceOtherwise;
+
+    private final int coApplicantPresent;
+    private final int coApplicantAbsent;
+
+    // Ascending maximums on loan / annual income, in hundredths
+    private final long[] loanToIncomeMaximums;
+    private final int[] loanToIncomePoints;
+    private final int loanToIncomeOtherwise;
+
+    private EligibilityScorer(EligibilityRules rules) {
+        this.version = rules.getVersion();
+        this.maxScore = rules.getMaxScore();
+
+        EligibilityRules.Bands income = required(rules.getMonthlyIncome(), "monthlyIncome");
+        this.incomeMinimumsPaise = toScaledLongs(income, 2, "monthlyIncome");
+        this.incomePoints = income.getPoints();
+        this.incomeOtherwise = income.getOtherwise();
+        checkDescending(incomeMinimumsPaise, "monthlyIncome");
+
+        EligibilityRules.EmploymentPoints employment = required(rules.getEmploymentType(), "employmentType");
+        this.employmentPoints = new int[EMPLOYMENT_TYPES.length];
+        for (LoanApplication.EmploymentType type : EMPLOYMENT_TYPES) {
+            employmentPoints[type.ordinal()] = employment.getPoints().getOrDefault(type, employment.getOtherwise());
+        }
+
+        EligibilityRules.Bands experience = required(rules.getWorkExperienceYears(), "workExperienceYears");
+        long[] experienceYears = toScaledLongs(experience, 0, "workExperienceYears");
+        checkDescending(experienceYears, "workExperienceYears");
+        this.experienceMinimumYears = new int[experienceYears.length];
+        for (int i = 0; i < experienceYears.length; i++) {
+            experienceMinimumYears[i] = Math.toIntExact(experienceYears[i]);
+        }
+        this.experiencePoints = experience.getPoints();
+        this.experienceOtherwise = experience.getOtherwise();
+
+        EligibilityRules.CoApplicantPoints coApplicant = required(rules.getCoApplicant(), "coApplicant");
+        this.coApplicantPresent = coApplicant.getPresent();
+        this.coApplicantAbsent = coApplicant.getAbsent();
+
+        EligibilityRules.Bands loanToIncome = required(rules.getLoanToAnnualIncome(), "loanToAnnualIncome");
+        this.loanToIncomeMaximums = toScaledLongs(loanToIncome, 2, "loanToAnnualIncome");
+        this.loanToIncomePoints = loanToIncome.getPoints();
+        this.loanToIncomeOtherwise = loanToIncome.getOtherwise();
+        for (int i = 1; i < loanToIncomeMaximums.length; i++) {
+            if (loanToIncomeMaximums[i] <= loanToIncomeMaximums[i - 1]) {
+                throw new RuntimeException("Invalid eligibility rules: loanToAnnualIncome thresholds must be ascending");
+            }
+        }
+    }
+
+    public static EligibilityScorer compile(EligibilityRules rules) {
+        return new EligibilityScorer(rules);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int score(long monthlyIncomePaise, LoanApplication.EmploymentType employmentType, int workExperienceYears,
+                     boolean hasCoApplicant, long loanAmountPaise) {
+        return score(monthlyIncomePaise, employmentType.ordinal(), workExperienceYears, hasCoApplicant, loanAmountPaise);
+    }
+
+    public int score(long monthlyIncomePaise, int employmentTypeOrdinal, int workExperienceYears,
+                     boolean hasCoApplicant, long loanAmountPaise) {
+        int score = incomeOtherwise;
+        for (int i = 0; i < incomeMinimumsPaise.length; i++) {
+            if (monthlyIncomePaise >= incomeMinimumsPaise[i]) {
+                score = incomePoints[i];
+                break;
+            }
+        }
+
+        score += employmentPoints[employmentTypeOrdinal];
+
+        int experience = experienceOtherwise;
+        for (int i = 0; i < experienceMinimumYears.length; i++) {
+            if (workExperienceYears >= experienceMinimumYears[i]) {
+                experience = experiencePoints[i];
+                break;
+            }
+        }
+        score += experience;
+
+        score += hasCoApplicant ? coApplicantPresent : coApplicantAbsent;
+
+        int loanToIncome = loanToIncomeOtherwise;
+        if (monthlyIncomePaise > 0) {
+            // loan / (12 x income) to two decimals, rounded half-up as the original BigDecimal rule did
+            long annualIncomePaise = monthlyIncomePaise * 12;
+            long ratioHundredths = (loanAmountPaise * 200 + annualIncomePaise) / (annualIncomePaise * 2);
+            for (int i = 0; i < loanToIncomeMaximums.length; i++) {
+                if (ratioHundredths <= loanToIncomeMaximums[i]) {
+                    loanToIncome = loanToIncomePoints[i];
+                    break;
+                }
+            }
+        }
+        score += loanToIncome;
+
+        return Math.min(score, maxScore);
+    }
+
+    // Scores every row of the batch into batch.scores, splitting large batches across the common pool
+    public void scoreAll(Batch batch) {
+        if (batch.size <= PARALLEL_THRESHOLD) {
+            scoreRange(batch, 0, batch.size);
+        } else {
+            ForkJoinPool.commonPool().invoke(new ScoreTask(batch, 0, batch.size));
+        }
+    }
+
+    private void scoreRange(Batch batch, int from, int to) {
+        for (int i = from; i < to; i++) {
+            batch.scores[i] = score(batch.monthlyIncomePaise[i], batch.employmentTypes[i], batch.workExperienceYears[i],
+                batch.hasCoApplicant[i], batch.loanAmountPaise[i]);
+        }
+    }
+
+    public static long toPaise(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Column-oriented input for batch re-scoring, so a page of the book is a handful of arrays
+    public static final class Batch {
+        final long[] monthlyIncomePaise;
+        final int[] employmentTypes;
+        final int[] workExperienceYears;
+        final boolean[] hasCoApplicant;
+        final long[] loanAmountPaise;
+        final int[] scores;
+        private int size;
+
+        public Batch(int capacity) {
+            this.monthlyIncomePaise = new long[capacity];
+            this.employmentTypes = new int[capacity];
+            this.workExperienceYears = new int[capacity];
+            this.hasCoApplicant = new boolean[capacity];
+            this.loanAmountPaise = new long[capacity];
+            this.scores = new int[capacity];
+        }
+
+        public void add(BigDecimal monthlyIncome, LoanApplication.EmploymentType employmentType, Integer workExperience,
+                        Boolean coApplicant, BigDecimal loanAmount) {
+            monthlyIncomePaise[size] = toPaise(monthlyIncome);
+            employmentTypes[size] = employmentType.ordinal();
+            workExperienceYears[size] = workExperience == null ? 0 : workExperience;
+            hasCoApplicant[size] = Boolean.TRUE.equals(coApplicant);
+            loanAmountPaise[size] = toPaise(loanAmount);
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int scoreAt(int index) {
+            return scores[index];
+        }
+
+        public void clear() {
+            size = 0;
+        }
+    }
+
+    private final class ScoreTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Batch batch;
+        private final int from;
+        private final int to;
+
+        ScoreTask(Batch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                scoreRange(batch, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreTask(batch, from, middle), new ScoreTask(batch, middle, to));
+        }
+    }
+
+    private static <T> T required(T section, String name) {
+        if (section == null) {
+            throw new RuntimeException("Invalid eligibility rules: missing " + name);
+        }
+        return section;
+    }
+
+    private static long[] toScaledLongs(EligibilityRules.Bands bands, int scale, String name) {
+        if (bands.getThresholds().length != bands.getPoints().length) {
+            throw new RuntimeException("Invalid eligibility rules: " + name + " needs one points entry per threshold");
+        }
+        long[] scaled = new long[bands.getThresholds().length];
+        for (int i = 0; i < scaled.length; i++) {
+            scaled[i] = bands.getThresholds()[i].setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+        return scaled;
+    }
+
+    private static void checkDescending(long[] thresholds, String name) {
+        for (int i = 1; i < thresholds.length; i++) {
+            if (thresholds[i] >= thresholds[i - 1]) {
+                throw new RuntimeException("Invalid eligibility rules: " + name + " thresholds must be descending");
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.portfolio.LOC.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+// Serves a stored file with validators: a strong ETag from its SHA-256 (files stored before the blob store have
+// none and fall back to Last-Modified), 304 for conditional requests, and single byte ranges. On Tomcat the
+// bytes go out through sendfile, so they move from the page cache to the socket without passing through the heap.
+public final class FileResponses {
+
+    // Tomcat's request attributes for handing a file to the connector instead of writing the body
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Browsers keep a private copy but revalidate it on every use, which a 304 answers without the body
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private FileResponses() {
+    }
+
+    // Throws NoSuchFileException when the file is gone; lastModified is the owning row's timestamp, which unlike a
+    // shared blob's mtime moves forward whenever the row points at new content
+    public static ResponseEntity<?> serve(HttpServletRequest request, HttpServletResponse response, Path file,
+            String sha256, LocalDateTime lastModified, MediaType contentType, String contentDisposition) throws IOException {
+        long length = Files.readAttributes(file, BasicFileAttributes.class).size();
+        String etag = sha256 != null ? "\"" + sha256 + "\"" : null;
+        long lastModifiedMillis = lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+
+        // Sets ETag and Last-Modified on the response itself, so they are left out of the headers below
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModifiedMillis)) {
+            return ResponseEntity.status(response.getStatus()).cacheControl(CACHE_CONTROL).build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setCacheControl(CACHE_CONTROL);
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        boolean rangeApplies = rangeHeader != null && ifRangeMatches(request, etag, lastModifiedMillis);
+        List<HttpRange> ranges = List.of();
+        if (rangeApplies) {
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                return unsatisfiable(length);
+            }
+        }
+        if (ranges.size() > 1) {
+            // Rare enough to leave to Spring, which writes them as multipart/byteranges
+            return ResponseEntity.ok().headers(headers).body(new FileSystemResource(file));
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        if (ranges.size() == 1) {
+            if (length == 0 || ranges.get(0).getRangeStart(length) >= length) {
+                return unsatisfiable(length);
+            }
+            start = ranges.get(0).getRangeStart(length);
+            end = ranges.get(0).getRangeEnd(length);
+            status = HttpStatus.PARTIAL_CONTENT;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && "GET".equals(request.getMethod()) && length > 0) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            headers.setContentLength(end - start + 1);
+            if (status == HttpStatus.PARTIAL_CONTENT) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            return ResponseEntity.status(status).headers(headers).build();
+        }
+
+        // Without sendfile the bytes are copied through the heap. A whole file is only handed over as a
+        // Resource when there is no Range header, since Spring would otherwise slice it even if If-Range failed.
+        FileSystemResource resource = new FileSystemResource(file);
+        if (rangeHeader == null) {
+            return ResponseEntity.ok().headers(headers).body(resource);
+        }
+        return ResponseEntity.status(status).headers(headers).body(new ResourceRegion(resource, start, end - start + 1));
+    }
+
+    // A Range is only honoured while the client's copy is still current: If-Range carries either a strong ETag
+    // or the Last-Modified date it was sent
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModifiedMillis) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return lastModifiedMillis >= 0 && request.getDateHeader(HttpHeaders.IF_RANGE) == lastModifiedMillis / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static ResponseEntity<?> unsatisfiable(long length) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+            .cacheControl(CACHE_CONTROL)
+            .build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.portfolio.LOC.util;
+
+// Source of business identifiers such as application IDs and offer letter numbers
+public interface IdGenerator {
+
+    String APPLICATION_PREFIX = "LA";
+    String OFFER_LETTER_PREFIX = "OL";
+
+    long nextId();
+
+    // Short, upper-case, human-readable form of nextId()
+    String nextId(String prefix);
+}
@@ -0,0 +1,303 @@
+package com.portfolio.LOC.util;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// The offer letter compiled once per terms text. Everything that is the same on every letter - headings,
+// labels, the table grid, the terms and the sign-off - is laid out and encoded to PDF content-stream bytes
+// up front, in three blocks. Rendering a letter copies those bytes onto the page at the current position
+// and writes only the variable fields, so no per-letter layout pass runs. Instances are immutable and
+// render concurrently.
+public final class OfferLetterTemplate {
+
+    private static final PageSize PAGE = PageSize.A4;
+    private static final float MARGIN = 36;
+    private static final float LEFT = MARGIN;
+    private static final float WIDTH = PAGE.getWidth() - 2 * MARGIN;
+    private static final float TOP = PAGE.getHeight() - MARGIN;
+
+    private static final float BODY_SIZE = 12;
+    private static final float LINE = 16;
+    private static final float ROW = 20;
+    private static final float LABEL_WIDTH = WIDTH * 3 / 7;
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    // Parsed once; a PdfFont belongs to one document, so each letter wraps these in its own
+    private static final FontProgram REGULAR = standardFont(StandardFonts.HELVETICA);
+    private static final FontProgram BOLD = standardFont(StandardFonts.HELVETICA_BOLD);
+
+    private static final String[] TABLE_LABELS = {"Loan Amount", "Interest Rate", "Loan Tenure", "Monthly EMI", "Processing Fee"};
+
+    // Header down to the application ID; then the greeting, which wraps with the name
+    private final Block heading;
+    // Opening paragraph, details table and the approval history heading; then one line per approval
+    private final Block details;
+    // Terms and sign-off
+    private final Block closing;
+
+    private OfferLetterTemplate(Block heading, Block details, Block closing) {
+        this.heading = heading;
+        this.details = details;
+        this.closing = closing;
+    }
+
+    public static OfferLetterTemplate compile(String termsAndConditions) {
+        PdfDocument scratch = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        try {
+            Fonts fonts = new Fonts(scratch);
+
+            Block heading = fonts.block((canvas, layout) -> {
+                layout.centered(canvas, fonts.bold, 18, "SMARTLOAN FINANCIAL SERVICES", 24);
+                layout.centered(canvas, fonts.bold, 16, "LOAN OFFER LETTER", 22);
+                layout.skip(LINE);
+                layout.labelledSlot(canvas, fonts.regular, "Date: ");
+                layout.labelledSlot(canvas, fonts.regular, "Application ID: ");
+                layout.skip(LINE);
+            });
+
+            Block details = fonts.block((canvas, layout) -> {
+                layout.skip(LINE);
+                layout.paragraph(canvas, fonts.regular, "We are pleased to inform you that your loan application has been approved. " +
+                    "Please find the loan offer details below:");
+                layout.skip(LINE);
+                for (String label : TABLE_LABELS) {
+                    layout.tableRow(canvas, fonts.bold, label);
+                }
+                layout.skip(LINE);
+                layout.paragraph(canvas, fonts.bold, "Approval History:");
+            });
+
+            Block closing = fonts.block((canvas, layout) -> {
+                layout.skip(LINE);
+                layout.paragraph(canvas, fonts.bold, "Terms and Conditions:");
+                layout.paragraph(canvas, fonts.regular, termsAndConditions == null ? "" : termsAndConditions);
+                layout.skip(LINE);
+                layout.paragraph(canvas, fonts.regular, "Congratulations on your loan approval!");
+                layout.skip(LINE);
+                layout.paragraph(canvas, fonts.regular, "Sincerely,");
+                layout.paragraph(canvas, fonts.regular, "SmartLoan Financial Services");
+            });
+
+            return new OfferLetterTemplate(heading, details, closing);
+        } finally {
+            scratch.close();
+        }
+    }
+
+    public byte[] render(Letter letter) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+        PdfDocument pdf = new PdfDocument(new PdfWriter(out));
+        Fonts fonts = new Fonts(pdf);
+        Cursor cursor = new Cursor(fonts);
+
+        cursor.block(heading,
+            letter.offeredAt().format(DATE),
+            letter.applicationId());
+        cursor.lines(fonts.bold, "Dear " + letter.applicantName() + ",");
+        cursor.block(details,
+            "₹ " + letter.approvedAmount(),
+            letter.interestRate() + "% per annum",
+            letter.tenureYears() + " years",
+            "₹ " + letter.emiAmount(),
+            "₹ " + letter.processingFee());
+        for (String approval : letter.approvals()) {
+            cursor.lines(fonts.regular, approval);
+        }
+        cursor.block(closing);
+
+        pdf.close();
+        return out.toByteArray();
+    }
+
+    // Everything a letter prints besides the template's own text
+    public record Letter(LocalDateTime offeredAt, String applicationId, String applicantName, BigDecimal approvedAmount,
+                         BigDecimal interestRate, Integer tenureYears, BigDecimal emiAmount, BigDecimal processingFee,
+                         List<String> approvals) {
+    }
+
+    private static FontProgram standardFont(String name) {
+        try {
+            return FontProgramFactory.createFont(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The letter's two fonts, registered on every page in the same order so the compiled blocks'
+    // font resource names hold on each page of each letter
+    private static final class Fonts {
+        private final PdfDocument pdf;
+        private final PdfFont regular;
+        private final PdfFont bold;
+
+        Fonts(PdfDocument pdf) {
+            this.pdf = pdf;
+            this.regular = PdfFontFactory.createFont(REGULAR, PdfEncodings.WINANSI);
+            this.bold = PdfFontFactory.createFont(BOLD, PdfEncodings.WINANSI);
+        }
+
+        PdfCanvas newPage() {
+            PdfPage page = pdf.addNewPage(PAGE);
+            PdfName regularName = page.getResources().addFont(pdf, regular);
+            PdfName boldName = page.getResources().addFont(pdf, bold);
+            if (!regularName.equals(Block.REGULAR_NAME) || !boldName.equals(Block.BOLD_NAME)) {
+                throw new IllegalStateException("Unexpected font resource names " + regularName + ", " + boldName);
+            }
+            return new PdfCanvas(page);
+        }
+
+        // Lays a block out on a scratch page, from its top edge at y = 0 downwards
+        Block block(BlockLayout content) {
+            PdfCanvas canvas = newPage();
+            Layout layout = new Layout();
+            content.layOut(canvas, layout);
+            return new Block(canvas.getContentStream().getBytes(), layout.height(), layout.slots.toArray(new Slot[0]));
+        }
+    }
+
+    @FunctionalInterface
+    private interface BlockLayout {
+        void layOut(PdfCanvas canvas, Layout layout);
+    }
+
+    // Compile-time layout cursor; y runs from 0 at the block's top edge to -height at its bottom
+    private static final class Layout {
+        private float y;
+        private final List<Slot> slots = new ArrayList<>();
+
+        float height() {
+            return -y;
+        }
+
+        void skip(float height) {
+            y -= height;
+        }
+
+        void centered(PdfCanvas canvas, PdfFont font, float size, String text, float advance) {
+            y -= advance;
+            float x = LEFT + (WIDTH - font.getWidth(text, size)) / 2;
+            text(canvas, font, size, x, y + 6, text);
+        }
+
+        void labelledSlot(PdfCanvas canvas, PdfFont font, String label) {
+            y -= LINE;
+            text(canvas, font, BODY_SIZE, LEFT, y + 4, label);
+            slots.add(new Slot(LEFT + font.getWidth(label, BODY_SIZE), y + 4));
+        }
+
+        void paragraph(PdfCanvas canvas, PdfFont font, String text) {
+            for (String line : wrap(font, BODY_SIZE, text)) {
+                y -= LINE;
+                text(canvas, font, BODY_SIZE, LEFT, y + 4, line);
+            }
+        }
+
+        void tableRow(PdfCanvas canvas, PdfFont labelFont, String label) {
+            y -= ROW;
+            canvas.setLineWidth(0.5f)
+                .rectangle(LEFT, y, LABEL_WIDTH, ROW)
+                .rectangle(LEFT + LABEL_WIDTH, y, WIDTH - LABEL_WIDTH, ROW)
+                .stroke();
+            text(canvas, labelFont, BODY_SIZE, LEFT + 4, y + 6, label);
+            slots.add(new Slot(LEFT + LABEL_WIDTH + 4, y + 6));
+        }
+
+        private static void text(PdfCanvas canvas, PdfFont font, float size, float x, float y, String text) {
+            canvas.beginText().setFontAndSize(font, size).moveText(x, y).showText(text).endText();
+        }
+    }
+
+    // Static content as content-stream bytes, plus where each variable field goes relative to the block's top
+    private record Block(byte[] content, float height, Slot[] slots) {
+        static final PdfName REGULAR_NAME = new PdfName("F1");
+        static final PdfName BOLD_NAME = new PdfName("F2");
+    }
+
+    private record Slot(float x, float dy) {
+    }
+
+    // Per-letter position: pages are added as blocks and lines run out of room
+    private static final class Cursor {
+        private final Fonts fonts;
+        private PdfCanvas canvas;
+        private float y = TOP;
+
+        Cursor(Fonts fonts) {
+            this.fonts = fonts;
+            this.canvas = fonts.newPage();
+        }
+
+        void block(Block block, String... values) {
+            ensureRoom(block.height());
+            canvas.saveState().concatMatrix(1, 0, 0, 1, 0, y);
+            canvas.getContentStream().getOutputStream().writeBytes(block.content());
+            canvas.restoreState();
+            for (int i = 0; i < values.length; i++) {
+                Slot slot = block.slots()[i];
+                canvas.beginText()
+                    .setFontAndSize(fonts.regular, BODY_SIZE)
+                    .moveText(slot.x(), y + slot.dy())
+                    .showText(values[i])
+                    .endText();
+            }
+            y -= block.height();
+        }
+
+        void lines(PdfFont font, String text) {
+            for (String line : wrap(font, BODY_SIZE, text)) {
+                ensureRoom(LINE);
+                y -= LINE;
+                canvas.beginText().setFontAndSize(font, BODY_SIZE).moveText(LEFT, y + 4).showText(line).endText();
+            }
+        }
+
+        private void ensureRoom(float height) {
+            if (y - height < MARGIN && y < TOP) {
+                canvas.release();
+                canvas = fonts.newPage();
+                y = TOP;
+            }
+        }
+    }
+
+    // Greedy word wrap to the text width; explicit line breaks are kept
+    private static List<String> wrap(PdfFont font, float size, String text) {
+        List<String> lines = new ArrayList<>();
+        for (String paragraph : text.split("\n", -1)) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.split(" ")) {
+                String candidate = line.isEmpty() ? word : line + " " + word;
+                if (!line.isEmpty() && font.getWidth(candidate, size) > WIDTH) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                    line.append(word);
+                } else {
+                    line.setLength(0);
+                    line.append(candidate);
+                }
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,15 @@
+-- One row per bank collection posted against an instalment. The bank reference (NACH UMRN/UTR or the
+-- bank's own transaction reference) is unique, which makes re-uploading a settlement file a no-op.
+CREATE TABLE emi_settlements (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    bank_reference VARCHAR(64) NOT NULL,
+    emi_schedule_id BIGINT NOT NULL,
+    amount NUMERIC(12,2) NOT NULL,
+    value_date DATE NOT NULL,
+    late_fee NUMERIC(12,2),
+    posted_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_emi_settlements_bank_reference UNIQUE (bank_reference),
+    CONSTRAINT fk_emi_settlements_emi FOREIGN KEY (emi_schedule_id) REFERENCES emi_schedule (id)
+);
+
+CREATE INDEX idx_emi_settlements_emi ON emi_settlements (emi_schedule_id);
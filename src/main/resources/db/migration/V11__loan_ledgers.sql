@@ -0,0 +1,12 @@
+-- Running balance per loan with an EMI schedule. Opened with the schedule and moved by every payment in
+-- the same transaction, so balance reads are a primary-key lookup. Payments clear interest before
+-- principal within each instalment. The ledger reconcile job checks every row against the schedule.
+CREATE TABLE loan_ledgers (
+    loan_application_id BIGINT PRIMARY KEY,
+    principal_outstanding NUMERIC(14,2) NOT NULL,
+    interest_outstanding NUMERIC(14,2) NOT NULL,
+    collected_amount NUMERIC(14,2) NOT NULL,
+    late_fees NUMERIC(14,2) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_loan_ledgers_application FOREIGN KEY (loan_application_id) REFERENCES loan_applications (id)
+);
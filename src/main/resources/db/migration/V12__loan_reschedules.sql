@@ -0,0 +1,25 @@
+-- Part-prepayments and rate resets recompute a loan's unpaid future instalments from the point they take
+-- effect. A lazily materialized loan's terms then describe its schedule from start_emi_number onwards:
+-- principal_amount is the balance owed at that instalment, first_due_date is its due date and first_emi_id
+-- its ID. Every instalment before start_emi_number is stored in emi_schedule.
+ALTER TABLE loan_terms ADD COLUMN start_emi_number INTEGER DEFAULT 1 NOT NULL;
+
+-- One row per recomputation. The rate in force for an eagerly stored schedule is the latest row here,
+-- or the offer letter's rate before the first one; prepayments also count towards the ledger's collections.
+CREATE TABLE loan_reschedules (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    loan_application_id BIGINT NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    mode VARCHAR(20) NOT NULL,
+    from_emi_number INTEGER NOT NULL,
+    prepayment_amount NUMERIC(12,2) NOT NULL,
+    annual_interest_rate NUMERIC(5,2) NOT NULL,
+    previous_emi_amount NUMERIC(12,2) NOT NULL,
+    emi_amount NUMERIC(12,2) NOT NULL,
+    previous_tenure_months INTEGER NOT NULL,
+    tenure_months INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_loan_reschedules_application FOREIGN KEY (loan_application_id) REFERENCES loan_applications (id)
+);
+
+CREATE INDEX idx_loan_reschedules_application ON loan_reschedules (loan_application_id);
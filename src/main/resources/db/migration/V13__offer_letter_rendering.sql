@@ -0,0 +1,10 @@
+-- Offer letter PDFs are rendered by a worker pool after the offer commits. pdf_status moves
+-- PENDING -> RENDERING -> READY, or back to PENDING after a failed attempt until pdf_attempts reaches the
+-- limit and it stays FAILED. Letters rendered before this migration were written synchronously, so READY.
+ALTER TABLE loan_offer_letters ADD COLUMN pdf_status VARCHAR(20) DEFAULT 'READY' NOT NULL;
+ALTER TABLE loan_offer_letters ADD COLUMN pdf_attempts INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE loan_offer_letters ADD COLUMN pdf_claimed_at TIMESTAMP(6);
+ALTER TABLE loan_offer_letters ADD COLUMN pdf_error VARCHAR(500);
+
+-- The recovery sweep looks up unfinished letters only
+CREATE INDEX idx_loan_offer_letters_pdf_status ON loan_offer_letters (pdf_status);
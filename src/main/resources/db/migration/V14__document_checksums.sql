@@ -0,0 +1,3 @@
+-- Hex SHA-256 of the stored file, computed while the upload is written. Documents uploaded before this
+-- migration have none.
+ALTER TABLE documents ADD COLUMN sha256 VARCHAR(64);
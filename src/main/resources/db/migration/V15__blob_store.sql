@@ -0,0 +1,23 @@
+-- Content-addressed file store. Each distinct file is kept once, at <root>/<sha256[0,2]>/<sha256[2,4]>/<sha256>,
+-- and ref_count is the number of documents, RCPU reports and offer letters whose sha256 points at it. Taking
+-- and dropping a reference happen in the same transaction as the referencing row; a blob is deleted once its
+-- count reaches zero. The blob sweep recounts from the referencing rows and removes anything left behind.
+CREATE TABLE blobs (
+    sha256 VARCHAR(64) PRIMARY KEY,
+    file_size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+-- The sweep collects unreferenced blobs
+CREATE INDEX idx_blobs_ref_count ON blobs (ref_count);
+
+-- Files stored before the blob store have no checksum until the migration tool moves them in
+ALTER TABLE rcpu_reports ADD COLUMN sha256 VARCHAR(64);
+ALTER TABLE loan_offer_letters ADD COLUMN sha256 VARCHAR(64);
+
+-- Recounting a blob looks up its references in each table
+CREATE INDEX idx_documents_sha256 ON documents (sha256);
+CREATE INDEX idx_rcpu_reports_sha256 ON rcpu_reports (sha256);
+CREATE INDEX idx_loan_offer_letters_sha256 ON loan_offer_letters (sha256);
@@ -0,0 +1,4 @@
+-- The dashboard rebuild moved from the clustered job store to a timer on every node
+DELETE FROM QRTZ_CRON_TRIGGERS WHERE TRIGGER_NAME = 'dashboardReconcileTrigger';
+DELETE FROM QRTZ_TRIGGERS WHERE TRIGGER_NAME = 'dashboardReconcileTrigger';
+DELETE FROM QRTZ_JOB_DETAILS WHERE JOB_NAME = 'dashboardReconcileJob';
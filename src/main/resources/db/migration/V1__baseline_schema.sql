@@ -0,0 +1,147 @@
+-- Baseline schema matching the JPA entities as they were generated by ddl-auto
+
+CREATE TABLE users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255) NOT NULL,
+    is_active BOOLEAN,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE loan_applications (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    application_id VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    date_of_birth DATE NOT NULL,
+    gender VARCHAR(255) NOT NULL,
+    marital_status VARCHAR(255),
+    pan_number VARCHAR(255) NOT NULL,
+    aadhaar_number VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    current_street VARCHAR(255) NOT NULL,
+    current_city VARCHAR(255) NOT NULL,
+    current_state VARCHAR(255) NOT NULL,
+    current_pincode VARCHAR(255) NOT NULL,
+    residence_type VARCHAR(255) NOT NULL,
+    same_as_current BOOLEAN,
+    permanent_street VARCHAR(255),
+    permanent_city VARCHAR(255),
+    permanent_state VARCHAR(255),
+    permanent_pincode VARCHAR(255),
+    employment_type VARCHAR(255) NOT NULL,
+    monthly_income NUMERIC(12,2) NOT NULL,
+    employer VARCHAR(255) NOT NULL,
+    work_experience INTEGER NOT NULL,
+    loan_amount NUMERIC(12,2) NOT NULL,
+    loan_purpose VARCHAR(255) NOT NULL,
+    loan_tenure INTEGER NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    has_co_applicant BOOLEAN,
+    co_applicant_first_name VARCHAR(255),
+    co_applicant_last_name VARCHAR(255),
+    co_applicant_dob DATE,
+    co_applicant_pan VARCHAR(255),
+    co_applicant_phone VARCHAR(255),
+    co_applicant_email VARCHAR(255),
+    co_applicant_income NUMERIC(12,2),
+    co_applicant_employer VARCHAR(255),
+    eligibility_score INTEGER,
+    estimated_emi NUMERIC(12,2),
+    submitted_by BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_loan_applications_application_id UNIQUE (application_id),
+    CONSTRAINT uk_loan_applications_pan_number UNIQUE (pan_number),
+    CONSTRAINT fk_loan_applications_submitted_by FOREIGN KEY (submitted_by) REFERENCES users (id)
+);
+
+CREATE TABLE approval_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    loan_application_id BIGINT NOT NULL,
+    approved_by BIGINT NOT NULL,
+    stage VARCHAR(255) NOT NULL,
+    decision VARCHAR(255) NOT NULL,
+    remarks TEXT,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_approval_history_application FOREIGN KEY (loan_application_id) REFERENCES loan_applications (id),
+    CONSTRAINT fk_approval_history_approved_by FOREIGN KEY (approved_by) REFERENCES users (id)
+);
+
+CREATE TABLE documents (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    loan_application_id BIGINT NOT NULL,
+    document_type VARCHAR(255) NOT NULL,
+    original_file_name VARCHAR(255) NOT NULL,
+    stored_file_name VARCHAR(255) NOT NULL,
+    file_path VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    file_size BIGINT NOT NULL,
+    description VARCHAR(255),
+    uploaded_by BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT fk_documents_application FOREIGN KEY (loan_application_id) REFERENCES loan_applications (id),
+    CONSTRAINT fk_documents_uploaded_by FOREIGN KEY (uploaded_by) REFERENCES users (id)
+);
+
+CREATE TABLE emi_schedule (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    loan_application_id BIGINT NOT NULL,
+    emi_number INTEGER NOT NULL,
+    due_date DATE NOT NULL,
+    emi_amount NUMERIC(12,2) NOT NULL,
+    principal_amount NUMERIC(12,2) NOT NULL,
+    interest_amount NUMERIC(12,2) NOT NULL,
+    outstanding_balance NUMERIC(12,2) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    paid_date DATE,
+    paid_amount NUMERIC(12,2),
+    late_fee NUMERIC(12,2),
+    remarks VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT fk_emi_schedule_application FOREIGN KEY (loan_application_id) REFERENCES loan_applications (id)
+);
+
+CREATE TABLE rcpu_reports (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    loan_application_id BIGINT NOT NULL,
+    reviewed_by BIGINT NOT NULL,
+    report_file_name VARCHAR(255) NOT NULL,
+    report_file_path VARCHAR(255) NOT NULL,
+    remarks TEXT,
+    credit_score INTEGER NOT NULL,
+    recommendation VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_rcpu_reports_application UNIQUE (loan_application_id),
+    CONSTRAINT fk_rcpu_reports_application FOREIGN KEY (loan_application_id) REFERENCES loan_applications (id),
+    CONSTRAINT fk_rcpu_reports_reviewed_by FOREIGN KEY (reviewed_by) REFERENCES users (id)
+);
+
+CREATE TABLE loan_offer_letters (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    loan_application_id BIGINT NOT NULL,
+    offer_letter_number VARCHAR(255) NOT NULL,
+    approved_loan_amount NUMERIC(12,2) NOT NULL,
+    interest_rate NUMERIC(5,2) NOT NULL,
+    loan_tenure INTEGER NOT NULL,
+    emi_amount NUMERIC(12,2) NOT NULL,
+    processing_fee NUMERIC(12,2),
+    terms_and_conditions TEXT,
+    file_name VARCHAR(255) NOT NULL,
+    file_path VARCHAR(255) NOT NULL,
+    generated_by BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_loan_offer_letters_application UNIQUE (loan_application_id),
+    CONSTRAINT uk_loan_offer_letters_number UNIQUE (offer_letter_number),
+    CONSTRAINT fk_loan_offer_letters_application FOREIGN KEY (loan_application_id) REFERENCES loan_applications (id),
+    CONSTRAINT fk_loan_offer_letters_generated_by FOREIGN KEY (generated_by) REFERENCES users (id)
+);
@@ -0,0 +1,21 @@
+-- Work queues: status filter, keyset order on (created_at, id)
+CREATE INDEX idx_loan_applications_status_created ON loan_applications (status, created_at, id);
+
+-- Overview listings: newest first on (created_at, id)
+CREATE INDEX idx_loan_applications_created ON loan_applications (created_at, id);
+
+-- Duplicate checks at submission (PAN is already covered by its unique constraint)
+CREATE INDEX idx_loan_applications_aadhaar ON loan_applications (aadhaar_number);
+
+-- Overdue scans: equality on status first so the due date range stays inside one index range
+CREATE INDEX idx_emi_schedule_status_due_date ON emi_schedule (status, due_date);
+
+-- Per-loan schedule reads in EMI order
+CREATE INDEX idx_emi_schedule_application_number ON emi_schedule (loan_application_id, emi_number);
+
+-- Document lookups by type and in upload order
+CREATE INDEX idx_documents_application_type ON documents (loan_application_id, document_type);
+CREATE INDEX idx_documents_application_created ON documents (loan_application_id, created_at);
+
+-- Approval history in decision order
+CREATE INDEX idx_approval_history_application_created ON approval_history (loan_application_id, created_at);
@@ -0,0 +1,13 @@
+-- One row per application holding keyed hashes of the applicant's PAN and Aadhaar.
+-- Existing applications are fingerprinted at startup, since the hash key lives in application config.
+CREATE TABLE applicant_fingerprints (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    loan_application_id BIGINT NOT NULL,
+    pan_hash VARCHAR(64) NOT NULL,
+    aadhaar_hash VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_applicant_fingerprints_application UNIQUE (loan_application_id),
+    CONSTRAINT uk_applicant_fingerprints_pan UNIQUE (pan_hash),
+    CONSTRAINT uk_applicant_fingerprints_aadhaar UNIQUE (aadhaar_hash),
+    CONSTRAINT fk_applicant_fingerprints_application FOREIGN KEY (loan_application_id) REFERENCES loan_applications (id)
+);
@@ -0,0 +1,13 @@
+-- Hi/lo tables for the pooled ID generators on loan_applications and applicant_fingerprints,
+-- which replace IDENTITY so application inserts can be JDBC-batched.
+-- On first use the pooled optimizer hands out (next_val - 49) .. next_val, so each table is
+-- seeded 50 past the current maximum to stay clear of existing rows.
+CREATE TABLE loan_applications_seq (
+    next_val BIGINT
+);
+INSERT INTO loan_applications_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM loan_applications;
+
+CREATE TABLE applicant_fingerprints_seq (
+    next_val BIGINT
+);
+INSERT INTO applicant_fingerprints_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM applicant_fingerprints;
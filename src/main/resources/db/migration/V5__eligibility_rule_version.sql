@@ -0,0 +1,3 @@
+-- Records which eligibility rule table produced each score. Existing rows stay NULL and are
+-- re-scored under the current rules at startup.
+ALTER TABLE loan_applications ADD COLUMN eligibility_rule_version INT;
@@ -0,0 +1,6 @@
+-- Hi/lo table for the pooled EMI schedule ID generator (replaces IDENTITY so schedules insert in batches).
+-- Seeded 50 past the current maximum, as in V4.
+CREATE TABLE emi_schedule_seq (
+    next_val BIGINT
+);
+INSERT INTO emi_schedule_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM emi_schedule;
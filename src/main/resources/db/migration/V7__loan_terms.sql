@@ -0,0 +1,22 @@
+-- Repayment terms per sanctioned loan. With lazy EMI materialization only these terms are stored;
+-- emi_schedule keeps just the instalments with activity (paid, part-paid, overdue) and the rest are
+-- recomputed on read. first_emi_id starts a block of IDs reserved from emi_schedule_seq, one per
+-- instalment, so computed rows carry the same ID they will have once stored.
+CREATE TABLE loan_terms (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    loan_application_id BIGINT NOT NULL,
+    principal_amount NUMERIC(12,2) NOT NULL,
+    annual_interest_rate NUMERIC(5,2) NOT NULL,
+    tenure_months INTEGER NOT NULL,
+    emi_amount NUMERIC(12,2) NOT NULL,
+    total_amount NUMERIC(14,2) NOT NULL,
+    first_due_date DATE NOT NULL,
+    first_emi_id BIGINT NOT NULL,
+    swept_through INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_loan_terms_application UNIQUE (loan_application_id),
+    CONSTRAINT uk_loan_terms_first_emi_id UNIQUE (first_emi_id),
+    CONSTRAINT fk_loan_terms_application FOREIGN KEY (loan_application_id) REFERENCES loan_applications (id)
+);
+
+CREATE INDEX idx_loan_terms_first_due_date ON loan_terms (first_due_date);
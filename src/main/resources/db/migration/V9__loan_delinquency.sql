@@ -0,0 +1,14 @@
+-- Per-loan arrears state: one row per loan with at least one unpaid instalment past its due date.
+-- Kept current by the daily overdue job and by EMI payments; rebuilt in full by the admin backfill.
+CREATE TABLE loan_delinquency (
+    loan_application_id BIGINT PRIMARY KEY,
+    days_past_due INTEGER NOT NULL,
+    bucket VARCHAR(16) NOT NULL,
+    overdue_emis INTEGER NOT NULL,
+    overdue_amount NUMERIC(14,2) NOT NULL,
+    oldest_due_date DATE NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_loan_delinquency_application FOREIGN KEY (loan_application_id) REFERENCES loan_applications (id)
+);
+
+CREATE INDEX idx_loan_delinquency_bucket ON loan_delinquency (bucket);
@@ -0,0 +1,137 @@
+package com.portfolio.LOC.controller;
+
+import com.portfolio.LOC.entity.Document;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opt-in: mvn test -Dtest=FileDownloadBenchmarkTest -Dsmartloan.benchmark=true
+// Re-opens one 5MB statement over HTTP, sixteen requests at a time: whole downloads with Tomcat's sendfile turned
+// off and then on, revalidations that end in a 304, and 64KB ranges. Logs body bytes received, latency percentiles
+// and the heap allocated per request by the server's request threads.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "smartloan.benchmark", matches = "true")
+class FileDownloadBenchmarkTest {
+
+    private static final int REQUESTS = 256;
+    private static final int CONCURRENCY = 16;
+    private static final int SIZE = 5 * 1024 * 1024;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private ServletWebServerApplicationContext webServerContext;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        useSendfile(true);
+        fixtures.deleteApplications("DOCDB");
+    }
+
+    @Test
+    void reopensAFiveMegabyteStatement() throws Exception {
+        byte[] content = new byte[SIZE];
+        new Random(25).nextBytes(content);
+        Document document = upload(content);
+        String token = fixtures.login(port);
+        HttpRequest.Builder download = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/documents/download/"
+            + document.getId())).header("Authorization", "Bearer " + token);
+        String etag = "\"" + document.getSha256() + "\"";
+
+        run("warm-up", download.copy().build(), 200, 32);
+        useSendfile(false);
+        run("whole downloads, copied", download.copy().build(), 200, REQUESTS);
+        useSendfile(true);
+        run("whole downloads, sendfile", download.copy().build(), 200, REQUESTS);
+        run("revalidations", download.copy().header("If-None-Match", etag).build(), 304, REQUESTS);
+        run("64KB ranges", download.copy().header("Range", "bytes=0-65535").build(), 206, REQUESTS);
+    }
+
+    private void run(String label, HttpRequest request, int status, int requests) throws Exception {
+        System.gc();
+        long allocatedBefore = allocatedBytes();
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            long started = System.nanoTime();
+            List<Future<long[]>> results = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                results.add(pool.submit(() -> {
+                    long sent = System.nanoTime();
+                    // Discarding keeps the client from buffering 5MB bodies into the heap being measured
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    assertEquals(status, response.statusCode());
+                    return new long[] {System.nanoTime() - sent, response.headers().firstValueAsLong("Content-Length").orElse(0)};
+                }));
+            }
+            long[] latencies = new long[requests];
+            long bytes = 0;
+            for (int i = 0; i < requests; i++) {
+                long[] result = results.get(i).get();
+                latencies[i] = result[0];
+                bytes += result[1];
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            long allocated = allocatedBytes() - allocatedBefore;
+            Arrays.sort(latencies);
+            System.out.printf("FileDownloadBenchmark - %s: %d requests, %d at a time, in %.2f s, %.1f MB of body, "
+                    + "latency p50 %.1f ms p99 %.1f ms, %d KB allocated a request%n", label, requests, CONCURRENCY, seconds,
+                bytes / 1048576.0, latencies[requests / 2] / 1e6, latencies[requests * 99 / 100] / 1e6,
+                allocated / requests / 1024);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Read by the connector on every request, so it can be flipped while the server runs
+    private void useSendfile(boolean enabled) {
+        ((TomcatWebServer) webServerContext.getWebServer()).getTomcat().getConnector()
+            .setProperty("useSendfile", String.valueOf(enabled));
+    }
+
+    // Tomcat's request threads only, which the server's copy loop runs on; the pool outlives the runs
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (ThreadInfo thread : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (thread != null && thread.getThreadName().startsWith("http-nio-")) {
+                total += Math.max(threads.getThreadAllocatedBytes(thread.getThreadId()), 0);
+            }
+        }
+        return total;
+    }
+
+    private Document upload(byte[] content) {
+        Long applicationId = fixtures.ingestIds(
+            "Rohan,Deshpande,1988-02-14,MALE,MARRIED,DOCDB0001A,700000000801,9000010801,rohan@example.com,"
+                + "Kothrud,Pune,Maharashtra,411038,OWNED,SALARIED,120000,Acme,9,1500000,HOME_PURCHASE,20").get(0);
+        return fixtures.uploadDocument(applicationId, Document.DocumentType.BANK_STATEMENT, "statement.pdf", content);
+    }
+}
@@ -0,0 +1,122 @@
+package com.portfolio.LOC.controller;
+
+import com.portfolio.LOC.entity.Document;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class FileDownloadControllerTest {
+
+    private static final int SIZE = 300_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        fixtures.deleteApplications("DOCDL");
+    }
+
+    @Test
+    void documentDownloadsAnswerConditionalAndRangeRequests() throws Exception {
+        byte[] content = new byte[SIZE];
+        new Random(25).nextBytes(content);
+        Document document = upload(content);
+        String token = fixtures.login(port);
+        String url = "/api/documents/download/" + document.getId();
+
+        HttpResponse<byte[]> full = get(url, token);
+        assertEquals(200, full.statusCode());
+        assertArrayEquals(content, full.body());
+        String etag = full.headers().firstValue("ETag").orElseThrow();
+        assertEquals("\"" + document.getSha256() + "\"", etag);
+        String lastModified = full.headers().firstValue("Last-Modified").orElseThrow();
+        assertEquals("bytes", full.headers().firstValue("Accept-Ranges").orElseThrow());
+        assertEquals("no-cache, private", full.headers().firstValue("Cache-Control").orElseThrow());
+        assertEquals(String.valueOf(SIZE), full.headers().firstValue("Content-Length").orElseThrow());
+        assertEquals("attachment; filename=\"statement.pdf\"", full.headers().firstValue("Content-Disposition").orElseThrow());
+
+        // A copy that is still current costs a 304 and no body, by either validator
+        HttpResponse<byte[]> byEtag = get(url, token, "If-None-Match", etag);
+        assertEquals(304, byEtag.statusCode());
+        assertEquals(0, byEtag.body().length);
+        assertEquals(etag, byEtag.headers().firstValue("ETag").orElseThrow());
+        assertEquals(304, get(url, token, "If-Modified-Since", lastModified).statusCode());
+        assertEquals(200, get(url, token, "If-None-Match", "\"stale\"").statusCode());
+
+        HttpResponse<byte[]> middle = get(url, token, "Range", "bytes=1000-1999");
+        assertEquals(206, middle.statusCode());
+        assertEquals("bytes 1000-1999/" + SIZE, middle.headers().firstValue("Content-Range").orElseThrow());
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 2000), middle.body());
+
+        HttpResponse<byte[]> suffix = get(url, token, "Range", "bytes=-100");
+        assertEquals(206, suffix.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(content, SIZE - 100, SIZE), suffix.body());
+
+        HttpResponse<byte[]> beyond = get(url, token, "Range", "bytes=" + SIZE + "-");
+        assertEquals(416, beyond.statusCode());
+        assertEquals("bytes */" + SIZE, beyond.headers().firstValue("Content-Range").orElseThrow());
+
+        // If-Range keeps a resumed download from splicing in bytes of different content
+        assertEquals(206, get(url, token, "Range", "bytes=0-9", "If-Range", etag).statusCode());
+        assertEquals(206, get(url, token, "Range", "bytes=0-9", "If-Range", lastModified).statusCode());
+        HttpResponse<byte[]> changed = get(url, token, "Range", "bytes=0-9", "If-Range", "\"stale\"");
+        assertEquals(200, changed.statusCode());
+        assertArrayEquals(content, changed.body());
+
+        HttpResponse<byte[]> several = get(url, token, "Range", "bytes=0-9,100-109");
+        assertEquals(206, several.statusCode());
+        assertTrue(several.headers().firstValue("Content-Type").orElseThrow().startsWith("multipart/byteranges"));
+
+        HttpResponse<byte[]> head = client.send(request("/api/files/view/document/" + document.getId(), token)
+            .method("HEAD", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, head.statusCode());
+        assertEquals(etag, head.headers().firstValue("ETag").orElseThrow());
+        assertEquals("inline", head.headers().firstValue("Content-Disposition").orElseThrow());
+
+        // A file gone from disk is a 404, not a partial response
+        Files.delete(Paths.get(document.getFilePath()));
+        assertEquals(404, get("/api/files/download/document/" + document.getId(), token).statusCode());
+    }
+
+    private HttpResponse<byte[]> get(String path, String token, String... headers) throws Exception {
+        HttpRequest.Builder request = request(path, token).GET();
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).header("Authorization", "Bearer " + token);
+    }
+
+    private Document upload(byte[] content) {
+        Long applicationId = fixtures.ingestIds(
+            "Tanvi,Kulkarni,1992-06-21,FEMALE,SINGLE,DOCDL0001A,700000000701,9000010701,tanvi@example.com,"
+                + "Baner Road,Pune,Maharashtra,411045,RENTED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,15").get(0);
+        return fixtures.uploadDocument(applicationId, Document.DocumentType.BANK_STATEMENT, "statement.pdf", content);
+    }
+}
@@ -0,0 +1,127 @@
+package com.portfolio.LOC.job;
+
+import com.portfolio.LOC.dto.OverdueEmiRun;
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.service.DashboardAggregateService;
+import com.portfolio.LOC.service.EmiScheduleService;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OverdueEmiJobTest {
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Scheduler scheduler;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        ReflectionTestUtils.setField(emiScheduleService, "overdueChunkSize", 5000);
+        fixtures.deleteApplications("OVRDJ");
+    }
+
+    @Test
+    void marksPastDuePendingRowsInIdRangeChunks() {
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "eager");
+        ReflectionTestUtils.setField(emiScheduleService, "overdueChunkSize", 7);
+        List<LoanApplication> loans = ingestApplications();
+        BigDecimal principal = new BigDecimal("1200000");
+        BigDecimal rate = new BigDecimal("9.00");
+        for (LoanApplication loan : loans) {
+            emiScheduleService.generateEmiSchedule(loan, principal, rate, 2, AmortizationCalculator.emi(principal, rate, 24));
+        }
+
+        // Backdate the first ten instalments of each loan, and pay one of them before the sweep
+        for (LoanApplication loan : loans) {
+            jdbcTemplate.update("UPDATE emi_schedule SET due_date = ? WHERE loan_application_id = ? AND emi_number <= 10",
+                Date.valueOf(LocalDate.now().minusDays(5)), loan.getId());
+        }
+        EmiSchedule firstEmi = emiScheduleService.getEmiSchedule(loans.get(0).getId()).get(0);
+        emiScheduleService.payEmi(firstEmi.getId(), firstEmi.getEmiAmount(), "Paid before the sweep");
+
+        OverdueEmiRun run = emiScheduleService.markOverdueEmis();
+
+        assertEquals(19, run.getRowsMarked());
+        assertTrue(run.getChunks() >= 3, "chunks=" + run.getChunks());
+        for (LoanApplication loan : loans) {
+            List<EmiSchedule> schedule = emiScheduleService.getEmiSchedule(loan.getId());
+            for (EmiSchedule emi : schedule) {
+                EmiSchedule.EmiStatus expected = emi.getEmiNumber() > 10 ? EmiSchedule.EmiStatus.PENDING
+                    : emi.getId().equals(firstEmi.getId()) ? EmiSchedule.EmiStatus.PAID
+                    : EmiSchedule.EmiStatus.OVERDUE;
+                assertEquals(expected, emi.getStatus(), "EMI " + emi.getEmiNumber());
+            }
+        }
+
+        assertEquals(0, emiScheduleService.markOverdueEmis().getRowsMarked());
+
+        long[] incremental = emiCounters();
+        dashboardAggregateService.rebuild();
+        assertArrayEquals(incremental, emiCounters());
+    }
+
+    @Test
+    void jobRunsThroughTheClusteredJdbcStore() throws Exception {
+        assertTrue(scheduler.getMetaData().isJobStoreSupportsPersistence());
+        assertTrue(scheduler.getMetaData().isJobStoreClustered());
+        assertTrue(scheduler.checkExists(JobKey.jobKey("overdueEmiJob")));
+        // Every node rebuilds its own dashboard counters, so that one stays out of the clustered store
+        assertFalse(scheduler.checkExists(JobKey.jobKey("dashboardReconcileJob")));
+
+        OverdueEmiRun before = emiScheduleService.getLastOverdueRun();
+        scheduler.triggerJob(JobKey.jobKey("overdueEmiJob"));
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (emiScheduleService.getLastOverdueRun() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertNotSame(before, emiScheduleService.getLastOverdueRun());
+    }
+
+    private long[] emiCounters() {
+        return new long[] {
+            dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.PENDING),
+            dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.PAID),
+            dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.OVERDUE)
+        };
+    }
+
+    private List<LoanApplication> ingestApplications() {
+        return fixtures.ingest(
+            "Nisha,Pillai,1987-04-02,FEMALE,MARRIED,OVRDJ0001A,680000000001,9000008001,nisha@example.com,"
+                + "Beach Road,Kochi,Kerala,682001,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5",
+            "Vikram,Singh,1984-12-19,MALE,MARRIED,OVRDJ0002A,680000000002,9000008002,vikram@example.com,"
+                + "Mall Road,Jaipur,Rajasthan,302001,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5");
+    }
+}
@@ -0,0 +1,138 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.CursorPage;
+import com.portfolio.LOC.dto.LoanApplicationResponse;
+import com.portfolio.LOC.entity.ApprovalHistory;
+import com.portfolio.LOC.entity.Document;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.entity.User;
+import com.portfolio.LOC.repository.ApprovalHistoryRepository;
+import com.portfolio.LOC.repository.DocumentRepository;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import com.portfolio.LOC.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class ApplicationListingQueryCountTest {
+
+    private static final LoanApplication.ApplicationStatus QUEUE = LoanApplication.ApplicationStatus.PENDING_RCPU;
+
+    @Autowired
+    private ApplicationListingService applicationListingService;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private ApprovalHistoryRepository approvalHistoryRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<LoanApplication> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (LoanApplication application : created) {
+            approvalHistoryRepository.deleteAll(approvalHistoryRepository.findByLoanApplicationIdOrderByCreatedAtAsc(application.getId()));
+            documentRepository.deleteAll(documentRepository.findByLoanApplicationId(application.getId()));
+        }
+        loanApplicationRepository.deleteAll(created);
+    }
+
+    @Test
+    void listingUsesConstantQueriesAndNoApplicationEntities() {
+        User user = userRepository.findByEmail("sales@smartloan.com").orElseThrow();
+        createApplications(user, 2);
+        long smallPageQueries = countQueriesForQueuePage(2);
+
+        createApplications(user, 20);
+        long largePageQueries = countQueriesForQueuePage(22);
+
+        // One page query, one history query and one document-type query, however many rows the page holds
+        assertEquals(3, smallPageQueries);
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    private long countQueriesForQueuePage(int expectedSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        CursorPage<LoanApplicationResponse> page = applicationListingService.findQueueResponses(QUEUE, null, ApplicationListingService.MAX_PAGE_SIZE);
+
+        long queries = statistics.getPrepareStatementCount();
+        long applicationEntitiesLoaded = statistics.getEntityStatistics(LoanApplication.class.getName()).getLoadCount();
+        statistics.setStatisticsEnabled(false);
+
+        // Listing rows are projections, so no managed application entities should be created
+        assertEquals(0, applicationEntitiesLoaded);
+
+        assertEquals(expectedSize, page.getItems().size());
+        for (LoanApplicationResponse response : page.getItems()) {
+            assertEquals(2, response.getApprovalHistory().size());
+            assertEquals(2, response.getDocumentCount());
+        }
+        return queries;
+    }
+
+    private void createApplications(User user, int count) {
+        for (int i = 0; i < count; i++) {
+            int n = created.size();
+            LoanApplication application = new LoanApplication();
+            application.setApplicationId("LAQC" + n);
+            application.setFirstName("Query");
+            application.setLastName("Count" + n);
+            application.setEmail("querycount" + n + "@example.com");
+            application.setPhoneNumber("9000000000");
+            application.setDateOfBirth(LocalDate.of(1990, 1, 1));
+            application.setGender(LoanApplication.Gender.FEMALE);
+            application.setMaritalStatus(LoanApplication.MaritalStatus.SINGLE);
+            application.setPanNumber(String.format("QCNTQ%04dZ", n));
+            application.setAadhaarNumber(String.format("9%011d", n));
+            application.setCurrentStreet("Test Street");
+            application.setCurrentCity("Test City");
+            application.setCurrentState("Test State");
+            application.setCurrentPincode("123456");
+            application.setSameAsCurrent(true);
+            application.setEmploymentType(LoanApplication.EmploymentType.SALARIED);
+            application.setEmployer("Test Company");
+            application.setMonthlyIncome(BigDecimal.valueOf(100000));
+            application.setWorkExperience(5);
+            application.setLoanAmount(BigDecimal.valueOf(500000));
+            application.setLoanTenure(5);
+            application.setLoanPurpose(LoanApplication.LoanPurpose.HOME_PURCHASE);
+            application.setResidenceType(LoanApplication.ResidenceType.OWNED);
+            application.setHasCoApplicant(false);
+            application.setStatus(QUEUE);
+            application.setCreatedAt(LocalDateTime.now());
+            application.setSubmittedBy(user);
+            created.add(loanApplicationRepository.save(application));
+
+            approvalHistoryRepository.save(new ApprovalHistory(application, user, ApprovalHistory.Stage.RCPU, ApprovalHistory.Decision.APPROVED, "ok"));
+            approvalHistoryRepository.save(new ApprovalHistory(application, user, ApprovalHistory.Stage.L1, ApprovalHistory.Decision.APPROVED, "ok"));
+            documentRepository.save(new Document(application, Document.DocumentType.PAN, "pan.pdf", "pan-" + n + ".pdf", "uploads/pan.pdf", "application/pdf", 1L, user));
+            documentRepository.save(new Document(application, Document.DocumentType.PHOTO, "photo.jpg", "photo-" + n + ".jpg", "uploads/photo.jpg", "image/jpeg", 1L, user));
+        }
+    }
+}
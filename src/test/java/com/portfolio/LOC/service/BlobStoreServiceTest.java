@@ -0,0 +1,223 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.BlobMigrationRun;
+import com.portfolio.LOC.dto.BlobSweep;
+import com.portfolio.LOC.entity.Document;
+import com.portfolio.LOC.entity.User;
+import com.portfolio.LOC.repository.DocumentRepository;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import com.portfolio.LOC.repository.UserRepository;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BlobStoreServiceTest {
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private BlobStoreService blobStoreService;
+
+    @Autowired
+    private BlobMigrationService blobMigrationService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        fixtures.deleteApplications("BLOBS");
+    }
+
+    @Test
+    void identicalFilesAreStoredOnceUntilTheLastReferenceGoes() throws Exception {
+        List<Long> applicationIds = ingestApplications();
+        byte[] content = randomBytes(31);
+        String sha256 = sha256(content);
+
+        Document first = upload(applicationIds.get(0), Document.DocumentType.PAN, content);
+        Document coApplicant = upload(applicationIds.get(1), Document.DocumentType.PAN, content);
+        Document reused = upload(applicationIds.get(0), Document.DocumentType.PHOTO, content);
+        Path blob = blobStoreService.pathOf(sha256);
+        for (Document document : List.of(first, coApplicant, reused)) {
+            assertEquals(sha256, document.getSha256());
+            assertEquals(blob.toString(), document.getFilePath());
+        }
+        assertEquals(blob.getParent().getParent().getFileName().toString(), sha256.substring(0, 2));
+        assertEquals(blob.getParent().getFileName().toString(), sha256.substring(2, 4));
+        assertArrayEquals(content, Files.readAllBytes(blob));
+        assertEquals(3, refCount(sha256));
+
+        // Deleting or replacing a document only drops its reference while others remain
+        documentService.deleteDocument(first.getId(), "sales@smartloan.com");
+        upload(applicationIds.get(1), Document.DocumentType.PAN, randomBytes(32));
+        assertEquals(1, refCount(sha256));
+        assertTrue(Files.exists(blob));
+
+        documentService.deleteDocument(reused.getId(), "sales@smartloan.com");
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM blobs WHERE sha256 = ?", Integer.class, sha256));
+        assertFalse(Files.exists(blob));
+
+        // The same content uploaded again is stored afresh
+        Document again = upload(applicationIds.get(0), Document.DocumentType.PAN, content);
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(again.getFilePath())));
+        assertEquals(1, refCount(sha256));
+    }
+
+    @Test
+    void sweepRepairsCountsAndCollectsWhatNothingReferences() throws Exception {
+        List<Long> applicationIds = ingestApplications();
+        byte[] kept = randomBytes(33);
+        byte[] orphaned = randomBytes(34);
+        byte[] untracked = randomBytes(35);
+        upload(applicationIds.get(0), Document.DocumentType.PAN, kept);
+        Document deleted = upload(applicationIds.get(1), Document.DocumentType.PAN, orphaned);
+
+        // A row deleted behind the service's back, a count that drifted, a file with no row and a stale staged file
+        jdbcTemplate.update("DELETE FROM documents WHERE id = ?", deleted.getId());
+        jdbcTemplate.update("UPDATE blobs SET ref_count = 7 WHERE sha256 = ?", sha256(kept));
+        Path untrackedBlob = blobStoreService.pathOf(sha256(untracked));
+        Files.createDirectories(untrackedBlob.getParent());
+        Files.write(untrackedBlob, untracked);
+        Path staleStaged = Paths.get("uploads/blobs/tmp", UUID.randomUUID() + ".part");
+        Files.createDirectories(staleStaged.getParent());
+        Files.write(staleStaged, untracked);
+        Files.setLastModifiedTime(staleStaged, FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS)));
+        Path freshStaged = Paths.get("uploads/blobs/tmp", UUID.randomUUID() + ".part");
+        Files.write(freshStaged, untracked);
+
+        BlobSweep sweep = blobStoreService.sweep();
+
+        assertTrue(sweep.getRecounted() >= 2, "recounted " + sweep.getRecounted());
+        assertTrue(sweep.getRegistered() >= 1, "registered " + sweep.getRegistered());
+        assertTrue(sweep.getCollected() >= 2, "collected " + sweep.getCollected());
+        assertTrue(sweep.getBytesFreed() >= orphaned.length + untracked.length, "freed " + sweep.getBytesFreed());
+        assertEquals(1, refCount(sha256(kept)));
+        assertTrue(Files.exists(blobStoreService.pathOf(sha256(kept))));
+        for (byte[] content : List.of(orphaned, untracked)) {
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM blobs WHERE sha256 = ?", Integer.class, sha256(content)));
+            assertFalse(Files.exists(blobStoreService.pathOf(sha256(content))));
+        }
+        assertFalse(Files.exists(staleStaged));
+        assertTrue(Files.exists(freshStaged));
+        Files.delete(freshStaged);
+
+        // A second sweep finds nothing of these left to do
+        blobStoreService.sweep();
+        assertEquals(1, refCount(sha256(kept)));
+    }
+
+    @Test
+    void migrationMovesLegacyFilesIntoTheStore() throws Exception {
+        List<Long> applicationIds = ingestApplications();
+        User user = userRepository.findByEmail("sales@smartloan.com").orElseThrow();
+        byte[] statement = randomBytes(36);
+        byte[] report = randomBytes(37);
+
+        // Files as they were stored before the blob store, two of them identical and one already gone
+        Path legacyDocuments = Files.createDirectories(Paths.get("uploads/documents"));
+        Path firstStatement = Files.write(legacyDocuments.resolve("BANK_STATEMENT_" + UUID.randomUUID() + ".pdf"), statement);
+        Path secondStatement = Files.write(legacyDocuments.resolve("BANK_STATEMENT_" + UUID.randomUUID() + ".pdf"), statement);
+        Path legacyReport = Files.write(Files.createDirectories(Paths.get("uploads/rcpu-reports"))
+            .resolve("RCPU_" + UUID.randomUUID() + ".pdf"), report);
+        Document first = legacyDocument(applicationIds.get(0), firstStatement, user);
+        Document second = legacyDocument(applicationIds.get(1), secondStatement, user);
+        Document missing = legacyDocument(applicationIds.get(1), legacyDocuments.resolve("PAN_" + UUID.randomUUID() + ".pdf"), user);
+        jdbcTemplate.update("INSERT INTO rcpu_reports (loan_application_id, reviewed_by, report_file_name, report_file_path, "
+                + "credit_score, recommendation, created_at) VALUES (?, ?, 'report.pdf', ?, 750, 'APPROVE', ?)",
+            applicationIds.get(0), user.getId(), legacyReport.toString(), LocalDateTime.now());
+
+        BlobMigrationRun run = blobMigrationService.migrateLegacyFiles();
+
+        assertTrue(run.getMigrated() >= 3, "migrated " + run.getMigrated());
+        assertTrue(run.getDeduplicated() >= 1, "deduplicated " + run.getDeduplicated());
+        assertTrue(run.getMissing() >= 1, "missing " + run.getMissing());
+        for (Document document : List.of(first, second)) {
+            Document migrated = documentRepository.findById(document.getId()).orElseThrow();
+            assertEquals(sha256(statement), migrated.getSha256());
+            assertEquals(blobStoreService.pathOf(sha256(statement)).toString(), migrated.getFilePath());
+        }
+        assertEquals(2, refCount(sha256(statement)));
+        assertArrayEquals(statement, Files.readAllBytes(blobStoreService.pathOf(sha256(statement))));
+        assertEquals(blobStoreService.pathOf(sha256(report)).toString(), jdbcTemplate.queryForObject(
+            "SELECT report_file_path FROM rcpu_reports WHERE loan_application_id = ?", String.class, applicationIds.get(0)));
+        assertEquals(1, refCount(sha256(report)));
+        assertFalse(Files.exists(firstStatement));
+        assertFalse(Files.exists(secondStatement));
+        assertFalse(Files.exists(legacyReport));
+        assertEquals(null, documentRepository.findById(missing.getId()).orElseThrow().getSha256());
+
+        // Rerunning moves nothing more of these
+        BlobMigrationRun rerun = blobMigrationService.migrateLegacyFiles();
+        assertNotEquals(0, rerun.getMissing());
+        assertEquals(2, refCount(sha256(statement)));
+    }
+
+    private Document upload(Long applicationId, Document.DocumentType documentType, byte[] content) {
+        return fixtures.uploadDocument(applicationId, documentType, documentType.name().toLowerCase() + ".pdf", content);
+    }
+
+    private Document legacyDocument(Long applicationId, Path file, User user) {
+        return documentRepository.save(new Document(loanApplicationRepository.findById(applicationId).orElseThrow(),
+            Document.DocumentType.BANK_STATEMENT, "statement.pdf", file.getFileName().toString(), file.toString(),
+            "application/pdf", 1L, user));
+    }
+
+    private int refCount(String sha256) {
+        return jdbcTemplate.queryForObject("SELECT ref_count FROM blobs WHERE sha256 = ?", Integer.class, sha256);
+    }
+
+    private static byte[] randomBytes(long seed) {
+        byte[] content = new byte[64 * 1024];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private List<Long> ingestApplications() {
+        return fixtures.ingestIds(
+            "Meera,Pillai,1988-06-21,FEMALE,MARRIED,BLOBS0001A,700000000701,9000010701,meera@example.com,"
+                + "Kakkanad,Kochi,Kerala,682030,OWNED,SALARIED,90000,Acme,8,1500000,HOME_PURCHASE,20",
+            "Arun,Pillai,1986-01-09,MALE,MARRIED,BLOBS0002A,700000000702,9000010702,arun@example.com,"
+                + "Kakkanad,Kochi,Kerala,682030,OWNED,SALARIED,95000,Acme,10,1500000,HOME_PURCHASE,20");
+    }
+}
@@ -0,0 +1,196 @@
+package com.portfolio.LOC.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.LOC.dto.BulkIngestionReport;
+import com.portfolio.LOC.entity.ApplicantFingerprint;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.repository.ApplicantFingerprintRepository;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BulkIngestionServiceTest {
+
+    private static final int ROWS = 5000;
+
+    @Autowired
+    private BulkIngestionService bulkIngestionService;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private ApplicantFingerprintRepository applicantFingerprintRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void cleanUp() {
+        List<LoanApplication> created = loanApplicationRepository.findAll().stream()
+            .filter(application -> application.getPanNumber().startsWith("BULKT"))
+            .toList();
+        List<Long> ids = created.stream().map(LoanApplication::getId).toList();
+        List<ApplicantFingerprint> fingerprints = applicantFingerprintRepository.findAll().stream()
+            .filter(fingerprint -> ids.contains(fingerprint.getLoanApplication().getId()))
+            .toList();
+        applicantFingerprintRepository.deleteAllByIdInBatch(fingerprints.stream().map(ApplicantFingerprint::getId).toList());
+        loanApplicationRepository.deleteAllByIdInBatch(ids);
+    }
+
+    @Test
+    void ingestsNdjsonWithBatchedInsertsAndReportsEveryRow() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            ndjson.append(objectMapper.writeValueAsString(row(i, String.format("BULKT%04dB", i)))).append('\n');
+        }
+        // Same PAN as row 1, an invalid PAN, and a line that is not JSON
+        ndjson.append(objectMapper.writeValueAsString(row(ROWS, "BULKT0000B"))).append('\n');
+        ndjson.append(objectMapper.writeValueAsString(row(ROWS + 1, "bad-pan"))).append('\n');
+        ndjson.append("{not json\n");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        BulkIngestionReport report;
+        try {
+            report = bulkIngestionService.ingest(stream(ndjson.toString()), BulkIngestionService.Format.NDJSON, "sales@smartloan.com");
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        assertEquals(ROWS + 3, report.getTotalRows());
+        assertEquals(ROWS, report.getCreated());
+        assertEquals(3, report.getRejected());
+        assertEquals(ROWS, statistics.getEntityInsertCount() / 2);
+        // One statement per 50-row batch (plus ID allocation), not one per row
+        assertTrue(statistics.getPrepareStatementCount() < ROWS / 10,
+            "Expected batched inserts but saw " + statistics.getPrepareStatementCount() + " statements");
+
+        List<BulkIngestionReport.RowResult> rows = report.getRows();
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(i + 1, rows.get(i).getRow());
+        }
+        assertNotNull(rows.get(0).getApplicationId());
+        assertEquals("Duplicate PAN number earlier in this upload", rows.get(ROWS).getMessage());
+        assertEquals("Invalid PAN number format", rows.get(ROWS + 1).getMessage());
+        assertTrue(rows.get(ROWS + 2).getMessage().startsWith("Row could not be parsed"));
+
+        System.out.println("BulkIngestionServiceTest - " + ROWS + " applications in " + report.getElapsedMillis()
+            + " ms (" + (ROWS * 1000L / Math.max(1, report.getElapsedMillis())) + " applications/s)");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectsANullLineAndAcceptsNullFlagsMidFile() throws Exception {
+        Map<String, Object> nullAddressFlag = row(6001, "BULKT6001D");
+        ((Map<String, Object>) nullAddressFlag.get("addressInfo")).put("sameAsCurrent", null);
+        Map<String, Object> nullCoApplicantFlag = row(6002, "BULKT6002D");
+        Map<String, Object> coApplicant = new LinkedHashMap<>();
+        coApplicant.put("hasCoApplicant", null);
+        nullCoApplicantFlag.put("coApplicant", coApplicant);
+        String ndjson = String.join("\n",
+            objectMapper.writeValueAsString(row(6000, "BULKT6000D")),
+            "null",
+            objectMapper.writeValueAsString(nullAddressFlag),
+            objectMapper.writeValueAsString(nullCoApplicantFlag),
+            objectMapper.writeValueAsString(row(6003, "BULKT6003D")));
+
+        BulkIngestionReport report = bulkIngestionService.ingest(stream(ndjson), BulkIngestionService.Format.NDJSON, "sales@smartloan.com");
+
+        assertEquals(5, report.getTotalRows());
+        assertEquals(4, report.getCreated());
+        BulkIngestionReport.RowResult rejected = report.getRows().get(1);
+        assertEquals(2, rejected.getRow());
+        assertEquals(BulkIngestionReport.RowStatus.REJECTED, rejected.getStatus());
+        assertEquals("Personal, address and financial information are required", rejected.getMessage());
+
+        LoanApplication created = loanApplicationRepository.findByApplicationId(report.getRows().get(3).getApplicationId()).orElseThrow();
+        assertFalse(created.getHasCoApplicant());
+    }
+
+    @Test
+    void ingestsCsvWithQuotedFields() {
+        String csv = String.join("\n",
+            "personalInfo.firstName,personalInfo.lastName,personalInfo.dateOfBirth,personalInfo.gender,personalInfo.maritalStatus,"
+                + "personalInfo.panNumber,personalInfo.aadhaarNumber,personalInfo.phoneNumber,personalInfo.email,"
+                + "addressInfo.currentAddress,addressInfo.currentCity,addressInfo.currentState,addressInfo.currentPincode,"
+                + "addressInfo.residenceType,financialInfo.employmentType,financialInfo.monthlyIncome,financialInfo.employer,"
+                + "financialInfo.workExperience,financialInfo.loanAmount,financialInfo.loanPurpose,financialInfo.loanTenure",
+            "Asha,Rao,1988-04-12,FEMALE,MARRIED,BULKT5001C,770000005001,9000005001,asha@example.com,"
+                + "\"12, \"\"Lake View\"\" Road\",Pune,Maharashtra,411001,OWNED,SALARIED,120000,Acme,8,3000000,HOME_PURCHASE,20",
+            "Ravi,Kumar,1990-01-01,UNKNOWN,SINGLE,BULKT5002C,770000005002,9000005002,ravi@example.com,"
+                + "Main Road,Pune,Maharashtra,411001,OWNED,SALARIED,90000,Acme,5,2000000,HOME_PURCHASE,15",
+            "");
+
+        BulkIngestionReport report = bulkIngestionService.ingest(stream(csv), BulkIngestionService.Format.CSV, "sales@smartloan.com");
+
+        assertEquals(2, report.getTotalRows());
+        assertEquals(1, report.getCreated());
+        assertEquals(BulkIngestionReport.RowStatus.REJECTED, report.getRows().get(1).getStatus());
+
+        LoanApplication created = loanApplicationRepository.findByApplicationId(report.getRows().get(0).getApplicationId()).orElseThrow();
+        assertEquals("12, \"Lake View\" Road", created.getCurrentStreet());
+    }
+
+    private Map<String, Object> row(int i, String pan) {
+        Map<String, Object> personalInfo = new LinkedHashMap<>();
+        personalInfo.put("firstName", "Bulk");
+        personalInfo.put("lastName", "Applicant" + i);
+        personalInfo.put("dateOfBirth", "1990-01-01");
+        personalInfo.put("gender", "MALE");
+        personalInfo.put("maritalStatus", "SINGLE");
+        personalInfo.put("panNumber", pan);
+        personalInfo.put("aadhaarNumber", String.format("77%010d", i));
+        personalInfo.put("phoneNumber", "9000000002");
+        personalInfo.put("email", "bulk" + i + "@example.com");
+
+        Map<String, Object> addressInfo = new LinkedHashMap<>();
+        addressInfo.put("currentAddress", "Bulk Street");
+        addressInfo.put("currentCity", "Test City");
+        addressInfo.put("currentState", "Test State");
+        addressInfo.put("currentPincode", "123456");
+        addressInfo.put("residenceType", "RENTED");
+        addressInfo.put("sameAsCurrent", true);
+
+        Map<String, Object> financialInfo = new LinkedHashMap<>();
+        financialInfo.put("employmentType", "SALARIED");
+        financialInfo.put("monthlyIncome", 60000 + i);
+        financialInfo.put("employer", "Test Company");
+        financialInfo.put("workExperience", 4);
+        financialInfo.put("loanAmount", 1500000);
+        financialInfo.put("loanPurpose", "HOME_PURCHASE");
+        financialInfo.put("loanTenure", 15);
+
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("personalInfo", personalInfo);
+        request.put("addressInfo", addressInfo);
+        request.put("financialInfo", financialInfo);
+        return request;
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
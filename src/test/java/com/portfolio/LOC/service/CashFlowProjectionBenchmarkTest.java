@@ -0,0 +1,121 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.BulkIngestionReport;
+import com.portfolio.LOC.dto.CashFlowProjection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// Opt-in: mvn test -Dtest=CashFlowProjectionBenchmarkTest -Dsmartloan.benchmark=true -DargLine=-Xmx3g
+// Projects a book of one million lazily materialized loans seeded straight into H2, with one stored
+// part payment per hundred loans, at one and at four threads.
+@SpringBootTest
+@EnabledIfSystemProperty(named = "smartloan.benchmark", matches = "true")
+class CashFlowProjectionBenchmarkTest {
+
+    private static final int LOANS = 1_000_000;
+    // Far above anything the pooled sequences hand out during a test run
+    private static final long ID_BASE = 7_000_000_000L;
+
+    @Autowired
+    private CashFlowProjectionService cashFlowProjectionService;
+
+    @Autowired
+    private BulkIngestionService bulkIngestionService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        ReflectionTestUtils.setField(cashFlowProjectionService, "threads", 4);
+        jdbcTemplate.update("DELETE FROM emi_schedule WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_terms WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM applicant_fingerprints WHERE loan_application_id IN "
+            + "(SELECT id FROM loan_applications WHERE pan_number LIKE 'CFPRB%')");
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE pan_number LIKE 'CFPRB%'");
+        dashboardAggregateService.rebuild();
+        cashFlowProjectionService.invalidate();
+    }
+
+    @Test
+    void projectsOneMillionLoans() {
+        seed();
+
+        for (int threads : new int[] {1, 4}) {
+            ReflectionTestUtils.setField(cashFlowProjectionService, "threads", threads);
+            for (int months : new int[] {12, 60}) {
+                cashFlowProjectionService.invalidate();
+                CashFlowProjection projection = cashFlowProjectionService.getProjection(months);
+
+                long started = System.nanoTime();
+                assertSame(projection, cashFlowProjectionService.getProjection(months));
+                double cachedMicros = (System.nanoTime() - started) / 1_000.0;
+
+                System.out.printf("CashFlowProjectionBenchmark - %d threads, %d months: %d loans projected in %d ms; "
+                        + "cached read %.1f microseconds; first month principal %s interest %s%n",
+                    threads, months, projection.getLoans(), projection.getDurationMillis(), cachedMicros,
+                    projection.getMonths().get(0).getPrincipal(), projection.getMonths().get(0).getInterest());
+                assertEquals(LOANS, projection.getLoans());
+            }
+        }
+    }
+
+    // H2-only bulk seeding: clone one ingested application LOANS times and give each clone loan terms with
+    // a tenure of five to thirty years that started up to five years ago
+    private void seed() {
+        String csv = String.join("\n",
+            "personalInfo.firstName,personalInfo.lastName,personalInfo.dateOfBirth,personalInfo.gender,personalInfo.maritalStatus,"
+                + "personalInfo.panNumber,personalInfo.aadhaarNumber,personalInfo.phoneNumber,personalInfo.email,"
+                + "addressInfo.currentAddress,addressInfo.currentCity,addressInfo.currentState,addressInfo.currentPincode,"
+                + "addressInfo.residenceType,financialInfo.employmentType,financialInfo.monthlyIncome,financialInfo.employer,"
+                + "financialInfo.workExperience,financialInfo.loanAmount,financialInfo.loanPurpose,financialInfo.loanTenure",
+            "Meera,Joshi,1987-02-14,FEMALE,MARRIED,CFPRB0000A,700000009998,9000010998,meera@example.com,"
+                + "FC Road,Pune,Maharashtra,411004,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5");
+        BulkIngestionReport report = bulkIngestionService.ingest(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkIngestionService.Format.CSV, "sales@smartloan.com");
+        assertEquals(1, report.getCreated());
+
+        List<String> columns = jdbcTemplate.queryForList(
+            "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'LOAN_APPLICATIONS' ORDER BY ORDINAL_POSITION",
+            String.class);
+        String copied = columns.stream()
+            .map(column -> switch (column.toLowerCase()) {
+                case "id" -> ID_BASE + " + X";
+                case "application_id" -> "'CFPRB' || X";
+                case "pan_number" -> "'CFPRB' || X";
+                default -> "a." + column;
+            })
+            .collect(Collectors.joining(", "));
+        jdbcTemplate.update("INSERT INTO loan_applications (" + String.join(", ", columns) + ") SELECT " + copied
+            + " FROM (SELECT * FROM loan_applications WHERE pan_number = 'CFPRB0000A') a CROSS JOIN SYSTEM_RANGE(1, " + LOANS + ")");
+
+        // The EMI stays at 1% of principal; only the final instalment of each loan differs from a true annuity
+        jdbcTemplate.update("INSERT INTO loan_terms (loan_application_id, principal_amount, annual_interest_rate, tenure_months, "
+            + "emi_amount, total_amount, first_due_date, first_emi_id, swept_through, created_at) "
+            + "SELECT " + ID_BASE + " + X, 500000 + MOD(X, 50) * 100000, 8 + MOD(X, 5), 60 * (1 + MOD(X, 6)), "
+            + "(500000 + MOD(X, 50) * 100000) / 100, 0, DATEADD('MONTH', -MOD(X, 60), CURRENT_DATE), "
+            + ID_BASE + " + X * 360, 0, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + LOANS + ")");
+
+        jdbcTemplate.update("INSERT INTO emi_schedule (id, loan_application_id, emi_number, due_date, emi_amount, "
+            + "principal_amount, interest_amount, outstanding_balance, status, paid_amount, created_at) "
+            + "SELECT " + ID_BASE + " + X * 360 + 12, " + ID_BASE + " + X, 13, DATEADD('MONTH', 12 - MOD(X, 60), CURRENT_DATE), "
+            + "5000, 1000, 4000, 400000, 'PARTIAL_PAID', 2500, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + LOANS + ") WHERE MOD(X, 100) = 0");
+    }
+}
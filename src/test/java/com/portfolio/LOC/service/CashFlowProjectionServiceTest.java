@@ -0,0 +1,114 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.CashFlowProjection;
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class CashFlowProjectionServiceTest {
+
+    private static final BigDecimal PRINCIPAL = new BigDecimal("1200000");
+    private static final BigDecimal RATE = new BigDecimal("9.00");
+    private static final BigDecimal EMI = AmortizationCalculator.emi(PRINCIPAL, RATE, 24);
+    private static final int MONTHS = 26;
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private CashFlowProjectionService cashFlowProjectionService;
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        ReflectionTestUtils.setField(cashFlowProjectionService, "partitionSize", 10000);
+        ReflectionTestUtils.setField(cashFlowProjectionService, "cacheMinutes", 60L);
+        fixtures.deleteApplications("CFPRJ");
+    }
+
+    @Test
+    void projectsEagerAndLazySchedulesNetOfPayments() {
+        // One loan per block, so the two loans land in different partitions
+        ReflectionTestUtils.setField(cashFlowProjectionService, "partitionSize", 1);
+        CashFlowProjection before = cashFlowProjectionService.getProjection(MONTHS);
+        assertSame(before, cashFlowProjectionService.getProjection(MONTHS));
+
+        List<LoanApplication> loans = ingestApplications();
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "eager");
+        List<EmiSchedule> schedule = emiScheduleService.generateEmiSchedule(loans.get(0), PRINCIPAL, RATE, 2, EMI);
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        emiScheduleService.generateEmiSchedule(loans.get(1), PRINCIPAL, RATE, 2, EMI);
+
+        // New offers invalidate the cached projection
+        CashFlowProjection after = cashFlowProjectionService.getProjection(MONTHS);
+        assertNotSame(before, after);
+        assertEquals(before.getLoans() + 2, after.getLoans());
+        assertEquals(YearMonth.now().toString(), after.getMonths().get(0).getMonth());
+        for (EmiSchedule emi : schedule) {
+            int month = (int) YearMonth.now().until(YearMonth.from(emi.getDueDate()), ChronoUnit.MONTHS);
+            assertEquals(0, emi.getPrincipalAmount().multiply(BigDecimal.valueOf(2))
+                .compareTo(principal(after, month).subtract(principal(before, month))));
+            assertEquals(0, emi.getInterestAmount().multiply(BigDecimal.valueOf(2))
+                .compareTo(interest(after, month).subtract(interest(before, month))));
+        }
+        assertEquals(0, PRINCIPAL.multiply(BigDecimal.valueOf(2))
+            .compareTo(after.getTotalPrincipal().subtract(before.getTotalPrincipal())));
+
+        // Payments are picked up once the cached projection ages out
+        EmiSchedule eagerFirst = schedule.get(0);
+        EmiSchedule lazyFirst = emiScheduleService.getEmiSchedule(loans.get(1).getId()).get(0);
+        emiScheduleService.payEmi(eagerFirst.getId(), eagerFirst.getInterestAmount().subtract(new BigDecimal("100.00")), "Part payment");
+        emiScheduleService.payEmi(lazyFirst.getId(), lazyFirst.getEmiAmount(), "Full payment");
+        assertSame(after, cashFlowProjectionService.getProjection(MONTHS));
+
+        ReflectionTestUtils.setField(cashFlowProjectionService, "cacheMinutes", 0L);
+        CashFlowProjection paid = cashFlowProjectionService.getProjection(MONTHS);
+        int firstMonth = (int) YearMonth.now().until(YearMonth.from(eagerFirst.getDueDate()), ChronoUnit.MONTHS);
+        assertEquals(0, eagerFirst.getPrincipalAmount()
+            .compareTo(principal(paid, firstMonth).subtract(principal(before, firstMonth))));
+        assertEquals(0, new BigDecimal("100.00")
+            .compareTo(interest(paid, firstMonth).subtract(interest(before, firstMonth))));
+    }
+
+    @Test
+    void rejectsHorizonsOutsideTheSupportedRange() {
+        RuntimeException error = assertThrows(RuntimeException.class, () -> cashFlowProjectionService.getProjection(0));
+        assertEquals("Months must be between 1 and 360", error.getMessage());
+    }
+
+    private static BigDecimal principal(CashFlowProjection projection, int month) {
+        return projection.getMonths().get(month).getPrincipal();
+    }
+
+    private static BigDecimal interest(CashFlowProjection projection, int month) {
+        return projection.getMonths().get(month).getInterest();
+    }
+
+    private List<LoanApplication> ingestApplications() {
+        return fixtures.ingest(
+            "Kabir,Malhotra,1984-04-12,MALE,MARRIED,CFPRJ0001A,700000000201,9000010201,kabir@example.com,"
+                + "Civil Lines,Jaipur,Rajasthan,302006,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5",
+            "Leela,Pillai,1991-08-27,FEMALE,SINGLE,CFPRJ0002A,700000000202,9000010202,leela@example.com,"
+                + "Beach Road,Chennai,Tamil Nadu,600001,RENTED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5");
+    }
+}
@@ -0,0 +1,127 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.entity.RcpuReport;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class DashboardAggregateServiceTest {
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private RcpuService rcpuService;
+
+    @Autowired
+    private ApprovalService approvalService;
+
+    @Autowired
+    private LoanWorkflowService loanWorkflowService;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        fixtures.deleteApplications("DASHT");
+    }
+
+    @Test
+    void workflowTransitionsKeepCountersEqualToARebuild() {
+        List<Long> ids = ingestApplications();
+        Long directL1 = ids.get(0);
+        Long viaL2 = ids.get(1);
+        Long viaL3 = ids.get(2);
+        Long rejectedAtRcpu = ids.get(3);
+        Long rejectedAtL1 = ids.get(4);
+        assertCountersMatchRebuild();
+
+        // The report upload moves an application to PENDING_RCPU and the decision on to PENDING_L1
+        for (Long id : List.of(directL1, viaL2, viaL3)) {
+            rcpuService.uploadRcpuReport(id, new MockMultipartFile("report", "report.pdf", "application/pdf",
+                "%PDF-1.4 report".getBytes(StandardCharsets.UTF_8)), "Verified", 760, RcpuReport.Recommendation.APPROVE,
+                "rcpu@smartloan.com");
+            rcpuService.processRcpuDecision(id, "approve", "rcpu@smartloan.com");
+        }
+        loanWorkflowService.processRcpuDecision(rejectedAtRcpu, "reject", "rcpu@smartloan.com");
+        loanWorkflowService.processRcpuDecision(rejectedAtL1, "approve", "rcpu@smartloan.com");
+        assertCountersMatchRebuild();
+
+        approvalService.processL1Decision(directL1, "approve", "Within L1 limit", "l1@smartloan.com");
+        approvalService.processL1Decision(viaL2, "approve", "Forwarded", "l1@smartloan.com");
+        approvalService.processL1Decision(viaL3, "approve", "Forwarded", "l1@smartloan.com");
+        loanWorkflowService.processL1Decision(rejectedAtL1, "reject", "l1@smartloan.com");
+        assertCountersMatchRebuild();
+
+        approvalService.processL2Decision(viaL2, "approve", "Within L2 limit", "l2@smartloan.com");
+        loanWorkflowService.processL2Decision(viaL3, "approve", "l2@smartloan.com");
+        loanWorkflowService.processL3Decision(viaL3, "approve", "admin@smartloan.com");
+        assertCountersMatchRebuild();
+
+        assertEquals(LoanApplication.ApplicationStatus.L1_APPROVED, status(directL1));
+        assertEquals(LoanApplication.ApplicationStatus.L2_APPROVED, status(viaL2));
+        assertEquals(LoanApplication.ApplicationStatus.L3_APPROVED, status(viaL3));
+        assertEquals(LoanApplication.ApplicationStatus.REJECTED, status(rejectedAtRcpu));
+        assertEquals(LoanApplication.ApplicationStatus.REJECTED, status(rejectedAtL1));
+    }
+
+    private LoanApplication.ApplicationStatus status(Long id) {
+        return loanApplicationRepository.findById(id).orElseThrow().getStatus();
+    }
+
+    // Every counter the dashboard reads, as kept incrementally and then as a rebuild from the tables counts it
+    private void assertCountersMatchRebuild() {
+        List<String> incremental = counters();
+        dashboardAggregateService.rebuild();
+        assertEquals(incremental, counters());
+    }
+
+    private List<String> counters() {
+        List<String> counters = new ArrayList<>();
+        for (LoanApplication.ApplicationStatus status : LoanApplication.ApplicationStatus.values()) {
+            counters.add(status + " " + dashboardAggregateService.countApplications(status) + " "
+                + dashboardAggregateService.sumLoanAmount(status).toPlainString());
+            for (LoanApplication.LoanPurpose purpose : LoanApplication.LoanPurpose.values()) {
+                counters.add(status + " " + purpose + " " + dashboardAggregateService.countApplications(status, purpose));
+            }
+        }
+        dashboardAggregateService.getMonthlyBuckets(YearMonth.now().minusMonths(11)).forEach((month, bucket) -> {
+            for (LoanApplication.ApplicationStatus status : LoanApplication.ApplicationStatus.values()) {
+                counters.add(month + " " + status + " " + bucket.getCount(status) + " " + bucket.getAmount(status).toPlainString());
+            }
+        });
+        return counters;
+    }
+
+    // Amounts pick the route: up to 10 lakhs L1 approves, up to 50 lakhs L2, above that L3
+    private List<Long> ingestApplications() {
+        return fixtures.ingestIds(
+            "Meera,Iyer,1987-03-11,FEMALE,MARRIED,DASHT0001A,700000000901,9000010901,meera@example.com,"
+                + "Anna Nagar,Chennai,Tamil Nadu,600040,OWNED,SALARIED,90000,Acme,7,800000,HOME_PURCHASE,10",
+            "Arjun,Menon,1984-08-02,MALE,MARRIED,DASHT0002A,700000000902,9000010902,arjun@example.com,"
+                + "Adyar,Chennai,Tamil Nadu,600020,OWNED,SALARIED,150000,Acme,11,3000000,HOME_PURCHASE,20",
+            "Kavya,Pillai,1982-12-19,FEMALE,SINGLE,DASHT0003A,700000000903,9000010903,kavya@example.com,"
+                + "Besant Nagar,Chennai,Tamil Nadu,600090,OWNED,SELF_EMPLOYED,400000,Own Firm,15,7000000,HOME_CONSTRUCTION,20",
+            "Rahul,Nair,1990-05-27,MALE,SINGLE,DASHT0004A,700000000904,9000010904,rahul@example.com,"
+                + "T Nagar,Chennai,Tamil Nadu,600017,RENTED,SALARIED,80000,Acme,5,1500000,HOME_PURCHASE,15",
+            "Divya,Rao,1991-10-08,FEMALE,MARRIED,DASHT0005A,700000000905,9000010905,divya@example.com,"
+                + "Velachery,Chennai,Tamil Nadu,600042,RENTED,SALARIED,85000,Acme,6,2000000,HOME_RENOVATION,15");
+    }
+}
@@ -0,0 +1,172 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.BulkIngestionReport;
+import com.portfolio.LOC.entity.LoanApplication;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opt-in: mvn test -Dtest=DashboardBenchmarkTest -Dsmartloan.benchmark=true
+// Seeds 200k applications and one million EMI rows straight into H2, then times the ways the dashboard
+// totals can be had: the per-row projections rebuild() read before it grouped in the database, the GROUP BY
+// projections it reads now, the in-memory counters, and a whole getDashboardData call. Logs the mean time
+// and the heap allocated by the calling thread per run.
+@SpringBootTest
+@EnabledIfSystemProperty(named = "smartloan.benchmark", matches = "true")
+class DashboardBenchmarkTest {
+
+    private static final int APPLICATIONS = 200_000;
+    private static final int EMIS = 1_000_000;
+    private static final int RUNS = 5;
+    // Far above anything the pooled sequences hand out during a test run
+    private static final long ID_BASE = 9_000_000_000L;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private AdminDashboardService adminDashboardService;
+
+    @Autowired
+    private BulkIngestionService bulkIngestionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM emi_schedule WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM applicant_fingerprints WHERE loan_application_id IN "
+            + "(SELECT id FROM loan_applications WHERE pan_number LIKE 'DASHB%')");
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE pan_number LIKE 'DASHB%'");
+        dashboardAggregateService.rebuild();
+    }
+
+    @Test
+    void readsDashboardTotalsForTwoHundredThousandApplications() {
+        seed();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // What rebuild() used to read: one projected row per application and per EMI, grouped in Java
+        measure("per-row projections", () -> readOnly.execute(status -> {
+            long rows = 0;
+            for (Object[] row : entityManager.createQuery(
+                    "SELECT la.status, la.loanPurpose, la.createdAt, la.loanAmount FROM LoanApplication la", Object[].class)
+                    .getResultList()) {
+                rows += row.length;
+            }
+            for (Object[] row : entityManager.createQuery("SELECT e.status, e.emiAmount FROM EmiSchedule e", Object[].class)
+                    .getResultList()) {
+                rows += row.length;
+            }
+            return rows;
+        }));
+        measure("GROUP BY rebuild", () -> {
+            dashboardAggregateService.rebuild();
+            return dashboardAggregateService.countApplications();
+        });
+        measure("counter reads", () -> {
+            long sum = 0;
+            for (LoanApplication.ApplicationStatus status : LoanApplication.ApplicationStatus.values()) {
+                sum += dashboardAggregateService.countApplications(status);
+                sum += dashboardAggregateService.sumLoanAmount(status).longValue();
+            }
+            return sum + dashboardAggregateService.countEmis();
+        });
+        measure("getDashboardData", () -> adminDashboardService.getDashboardData().size());
+
+        assertEquals(APPLICATIONS, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM loan_applications WHERE id > ?", Integer.class, ID_BASE));
+    }
+
+    private void measure(String label, LongSupplier run) {
+        long checksum = run.getAsLong();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            checksum += run.getAsLong();
+        }
+        double millis = (System.nanoTime() - started) / 1e6 / RUNS;
+        long allocated = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / RUNS;
+        System.out.printf("DashboardBenchmark - %s: %.3f ms a run, %.1f MB allocated a run (checksum %d)%n",
+            label, millis, allocated / 1048576.0, checksum);
+    }
+
+    // H2-only bulk seeding: clone one ingested application APPLICATIONS times across statuses, purposes and the
+    // last twelve months, then spread EMIS instalment rows over the clones
+    private void seed() {
+        String csv = String.join("\n",
+            "personalInfo.firstName,personalInfo.lastName,personalInfo.dateOfBirth,personalInfo.gender,personalInfo.maritalStatus,"
+                + "personalInfo.panNumber,personalInfo.aadhaarNumber,personalInfo.phoneNumber,personalInfo.email,"
+                + "addressInfo.currentAddress,addressInfo.currentCity,addressInfo.currentState,addressInfo.currentPincode,"
+                + "addressInfo.residenceType,financialInfo.employmentType,financialInfo.monthlyIncome,financialInfo.employer,"
+                + "financialInfo.workExperience,financialInfo.loanAmount,financialInfo.loanPurpose,financialInfo.loanTenure",
+            "Sneha,Patil,1989-07-14,FEMALE,MARRIED,DASHB0000A,700000009995,9000010995,sneha@example.com,"
+                + "MG Road,Nashik,Maharashtra,422001,OWNED,SALARIED,110000,Acme,8,2000000,HOME_PURCHASE,20");
+        BulkIngestionReport report = bulkIngestionService.ingest(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkIngestionService.Format.CSV, "sales@smartloan.com");
+        assertEquals(1, report.getCreated());
+
+        String statuses = caseOf(LoanApplication.ApplicationStatus.values());
+        String purposes = caseOf(LoanApplication.LoanPurpose.values());
+        List<String> columns = jdbcTemplate.queryForList(
+            "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'LOAN_APPLICATIONS' ORDER BY ORDINAL_POSITION",
+            String.class);
+        String copied = columns.stream()
+            .map(column -> switch (column.toLowerCase()) {
+                case "id" -> ID_BASE + " + X";
+                case "application_id" -> "'DASHB' || X";
+                case "pan_number" -> "'DASHB' || X";
+                case "status" -> statuses;
+                case "loan_purpose" -> purposes;
+                case "loan_amount" -> "500000 + MOD(X, 40) * 100000";
+                case "created_at" -> "DATEADD('MONTH', -MOD(X, 12), a.created_at)";
+                default -> "a." + column;
+            })
+            .collect(Collectors.joining(", "));
+        jdbcTemplate.update("INSERT INTO loan_applications (" + String.join(", ", columns) + ") SELECT " + copied
+            + " FROM (SELECT * FROM loan_applications WHERE pan_number = 'DASHB0000A') a CROSS JOIN SYSTEM_RANGE(1, "
+            + APPLICATIONS + ")");
+
+        jdbcTemplate.update("INSERT INTO emi_schedule (id, loan_application_id, emi_number, due_date, emi_amount, "
+            + "principal_amount, interest_amount, outstanding_balance, status, created_at) "
+            + "SELECT " + ID_BASE + " + X, " + ID_BASE + " + 1 + MOD(X, " + APPLICATIONS + "), 1 + X / " + APPLICATIONS + ", "
+            + "CURRENT_DATE, 25000, 20000, 5000, 1000000, "
+            + "CASE MOD(X, 10) WHEN 0 THEN 'OVERDUE' WHEN 1 THEN 'PARTIAL_PAID' WHEN 2 THEN 'PAID' ELSE 'PENDING' END, "
+            + "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + EMIS + ")");
+        dashboardAggregateService.rebuild();
+    }
+
+    // Cycles a clone through every constant of the enum by its position in the range
+    private static String caseOf(Enum<?>[] values) {
+        StringBuilder sql = new StringBuilder("CASE MOD(X, " + values.length + ")");
+        for (Enum<?> value : values) {
+            sql.append(" WHEN ").append(value.ordinal()).append(" THEN '").append(value.name()).append('\'');
+        }
+        return sql.append(" END").toString();
+    }
+}
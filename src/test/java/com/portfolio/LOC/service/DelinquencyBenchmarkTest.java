@@ -0,0 +1,136 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.BulkIngestionReport;
+import com.portfolio.LOC.dto.DelinquencyRefresh;
+import com.portfolio.LOC.entity.LoanDelinquency;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opt-in: mvn test -Dtest=DelinquencyBenchmarkTest -Dsmartloan.benchmark=true
+// Seeds one million EMI rows straight into H2 and times the refresh against the old EMI-table scan.
+@SpringBootTest
+@EnabledIfSystemProperty(named = "smartloan.benchmark", matches = "true")
+class DelinquencyBenchmarkTest {
+
+    private static final int LOANS = 20_000;
+    private static final int EMIS_PER_LOAN = 50;
+    // Far above anything the pooled sequences hand out during a test run
+    private static final long ID_BASE = 9_000_000_000L;
+
+    @Autowired
+    private DelinquencyService delinquencyService;
+
+    @Autowired
+    private BulkIngestionService bulkIngestionService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM loan_delinquency WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_ledgers WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM emi_schedule WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM applicant_fingerprints WHERE loan_application_id IN "
+            + "(SELECT id FROM loan_applications WHERE pan_number LIKE 'DLQNB%')");
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE pan_number LIKE 'DLQNB%'");
+        dashboardAggregateService.rebuild();
+    }
+
+    @Test
+    void refreshAndDashboardReadOverOneMillionEmiRows() {
+        seed();
+
+        long started = System.nanoTime();
+        DelinquencyRefresh backfill = delinquencyService.refreshAll();
+        long backfillMillis = (System.nanoTime() - started) / 1_000_000;
+
+        started = System.nanoTime();
+        DelinquencyRefresh daily = delinquencyService.refreshAll();
+        long dailyMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // What getNpaAnalysis ran before: three scans of emi_schedule per dashboard load
+        String today = "CURRENT_DATE";
+        started = System.nanoTime();
+        int scans = 20;
+        for (int i = 0; i < scans; i++) {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM emi_schedule WHERE status = 'OVERDUE'", Long.class);
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM emi_schedule WHERE status = 'OVERDUE' AND due_date < "
+                + today + " - 30", Long.class);
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM emi_schedule WHERE status = 'OVERDUE' AND due_date < "
+                + today + " - 90", Long.class);
+        }
+        double scanMicros = (System.nanoTime() - started) / 1_000.0 / scans;
+
+        int reads = 200;
+        long sink = 0;
+        started = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            sink += delinquencyService.getBucketTotals().size();
+        }
+        double groupedMicros = (System.nanoTime() - started) / 1_000.0 / reads;
+
+        System.out.printf("DelinquencyBenchmark - %d EMI rows, %d loans in arrears: backfill %d ms (%d inserted), "
+                + "daily refresh %d ms (%d updated); dashboard read %.0f microseconds grouping loan_delinquency vs %.0f "
+                + "microseconds scanning emi_schedule (checksum %d)%n",
+            (long) LOANS * EMIS_PER_LOAN, backfill.getLoansInArrears(), backfillMillis, backfill.getInserted(),
+            dailyMillis, daily.getUpdated(), groupedMicros, scanMicros, sink);
+
+        // Every tenth loan is in arrears
+        assertEquals(LOANS / 10, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM loan_delinquency WHERE loan_application_id > ?", Long.class, ID_BASE));
+    }
+
+    // H2-only bulk seeding: clone one ingested application LOANS times, then give each clone EMIS_PER_LOAN instalments
+    private void seed() {
+        String csv = String.join("\n",
+            "personalInfo.firstName,personalInfo.lastName,personalInfo.dateOfBirth,personalInfo.gender,personalInfo.maritalStatus,"
+                + "personalInfo.panNumber,personalInfo.aadhaarNumber,personalInfo.phoneNumber,personalInfo.email,"
+                + "addressInfo.currentAddress,addressInfo.currentCity,addressInfo.currentState,addressInfo.currentPincode,"
+                + "addressInfo.residenceType,financialInfo.employmentType,financialInfo.monthlyIncome,financialInfo.employer,"
+                + "financialInfo.workExperience,financialInfo.loanAmount,financialInfo.loanPurpose,financialInfo.loanTenure",
+            "Asha,Rao,1986-05-09,FEMALE,MARRIED,DLQNB0000A,690000009999,9000009999,asha@example.com,"
+                + "Park Road,Mysuru,Karnataka,570001,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5");
+        BulkIngestionReport report = bulkIngestionService.ingest(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkIngestionService.Format.CSV, "sales@smartloan.com");
+        assertEquals(1, report.getCreated());
+
+        List<String> columns = jdbcTemplate.queryForList(
+            "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'LOAN_APPLICATIONS' ORDER BY ORDINAL_POSITION",
+            String.class);
+        String copied = columns.stream()
+            .map(column -> switch (column.toLowerCase()) {
+                case "id" -> ID_BASE + " + X";
+                case "application_id" -> "'DLQNB' || X";
+                case "pan_number" -> "'DLQNB' || X";
+                default -> "a." + column;
+            })
+            .collect(Collectors.joining(", "));
+        jdbcTemplate.update("INSERT INTO loan_applications (" + String.join(", ", columns) + ") SELECT " + copied
+            + " FROM (SELECT * FROM loan_applications WHERE pan_number = 'DLQNB0000A') a CROSS JOIN SYSTEM_RANGE(1, " + LOANS + ")");
+
+        // Loans 10, 20, 30... have their first two to eleven instalments past due, a month apart
+        jdbcTemplate.update("INSERT INTO emi_schedule (id, loan_application_id, emi_number, due_date, emi_amount, "
+            + "principal_amount, interest_amount, outstanding_balance, status, created_at) "
+            + "SELECT " + ID_BASE + " + (l.X - 1) * " + EMIS_PER_LOAN + " + e.X, " + ID_BASE + " + l.X, e.X, "
+            + "CASE WHEN MOD(l.X, 10) = 0 AND e.X <= 2 + MOD(l.X / 10, 10) "
+            + "THEN DATEADD('DAY', -5 - MOD(l.X, 136) - 30 * (11 - e.X), CURRENT_DATE) ELSE DATEADD('MONTH', e.X, CURRENT_DATE) END, "
+            + "25000, 20000, 5000, 1000000, 'PENDING', CURRENT_TIMESTAMP "
+            + "FROM SYSTEM_RANGE(1, " + LOANS + ") l CROSS JOIN SYSTEM_RANGE(1, " + EMIS_PER_LOAN + ") e");
+    }
+}
@@ -0,0 +1,147 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.DelinquencyBucketAggregate;
+import com.portfolio.LOC.dto.DelinquencyRefresh;
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.entity.LoanDelinquency;
+import com.portfolio.LOC.repository.LoanDelinquencyRepository;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class DelinquencyServiceTest {
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private DelinquencyService delinquencyService;
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private LoanDelinquencyRepository loanDelinquencyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        fixtures.deleteApplications("DLQNT");
+    }
+
+    @Test
+    void bucketsFollowTheOldestUnpaidInstalmentThroughRefreshesAndPayments() {
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "eager");
+        List<LoanApplication> loans = ingestApplications();
+        BigDecimal principal = new BigDecimal("1200000");
+        BigDecimal rate = new BigDecimal("9.00");
+        BigDecimal emi = AmortizationCalculator.emi(principal, rate, 24);
+        for (LoanApplication loan : loans) {
+            emiScheduleService.generateEmiSchedule(loan, principal, rate, 2, emi);
+        }
+        Long first = loans.get(0).getId();
+        Long second = loans.get(1).getId();
+
+        // First loan: three missed instalments, the oldest 100 days late. Second loan: one, 45 days late.
+        backdate(first, 1, 100);
+        backdate(first, 2, 70);
+        backdate(first, 3, 40);
+        backdate(second, 1, 45);
+
+        DelinquencyRefresh refresh = delinquencyService.refreshAll();
+        assertTrue(refresh.getInserted() >= 2, "inserted=" + refresh.getInserted());
+        assertDelinquency(first, LoanDelinquency.Bucket.NPA, 100, 3, emi.multiply(BigDecimal.valueOf(3)));
+        assertDelinquency(second, LoanDelinquency.Bucket.SMA_1, 45, 1, emi);
+        assertBucketTotalsMatchRows();
+
+        // Paying the oldest instalment moves the first loan back to SMA-2; clearing the second removes its row
+        emiScheduleService.payEmi(emiId(first, 1), emi, "Cleared oldest arrears");
+        assertDelinquency(first, LoanDelinquency.Bucket.SMA_2, 70, 2, emi.multiply(BigDecimal.valueOf(2)));
+        assertBucketTotalsMatchRows();
+
+        emiScheduleService.payEmi(emiId(second, 1), emi, "Cleared arrears");
+        assertFalse(loanDelinquencyRepository.existsById(second));
+        assertBucketTotalsMatchRows();
+
+        // A partial payment keeps the unpaid remainder in arrears
+        BigDecimal half = new BigDecimal("1000.00");
+        emiScheduleService.payEmi(emiId(first, 2), half, "Part payment");
+        assertDelinquency(first, LoanDelinquency.Bucket.SMA_2, 70, 2, emi.multiply(BigDecimal.valueOf(2)).subtract(half));
+        assertBucketTotalsMatchRows();
+
+        // A second full refresh agrees with the incremental state
+        delinquencyService.refreshAll();
+        assertDelinquency(first, LoanDelinquency.Bucket.SMA_2, 70, 2, emi.multiply(BigDecimal.valueOf(2)).subtract(half));
+        assertFalse(loanDelinquencyRepository.existsById(second));
+        assertBucketTotalsMatchRows();
+    }
+
+    private void backdate(Long loanApplicationId, int emiNumber, int daysLate) {
+        jdbcTemplate.update("UPDATE emi_schedule SET due_date = ? WHERE loan_application_id = ? AND emi_number = ?",
+            Date.valueOf(LocalDate.now().minusDays(daysLate)), loanApplicationId, emiNumber);
+    }
+
+    private Long emiId(Long loanApplicationId, int emiNumber) {
+        return emiScheduleService.getEmiSchedule(loanApplicationId).stream()
+            .filter(emi -> emi.getEmiNumber() == emiNumber)
+            .map(EmiSchedule::getId)
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private void assertDelinquency(Long loanApplicationId, LoanDelinquency.Bucket bucket, int daysPastDue,
+                                   int overdueEmis, BigDecimal overdueAmount) {
+        LoanDelinquency delinquency = loanDelinquencyRepository.findById(loanApplicationId).orElseThrow();
+        assertEquals(bucket, delinquency.getBucket());
+        assertEquals(daysPastDue, delinquency.getDaysPastDue());
+        assertEquals(overdueEmis, delinquency.getOverdueEmis());
+        assertEquals(0, overdueAmount.compareTo(delinquency.getOverdueAmount()), "amount=" + delinquency.getOverdueAmount());
+    }
+
+    // The dashboard's bucket totals are the loan_delinquency rows the refresh and payments left behind
+    private void assertBucketTotalsMatchRows() {
+        Map<LoanDelinquency.Bucket, DelinquencyBucketAggregate> totals = delinquencyService.getBucketTotals();
+        List<LoanDelinquency> rows = loanDelinquencyRepository.findAll();
+        for (LoanDelinquency.Bucket bucket : LoanDelinquency.Bucket.values()) {
+            List<LoanDelinquency> inBucket = rows.stream().filter(row -> row.getBucket() == bucket).toList();
+            DelinquencyBucketAggregate total = totals.get(bucket);
+            if (inBucket.isEmpty()) {
+                assertNull(total, "bucket " + bucket);
+                continue;
+            }
+            assertEquals(inBucket.size(), total.getLoanCount(), "bucket " + bucket);
+            assertEquals(inBucket.stream().mapToLong(LoanDelinquency::getOverdueEmis).sum(), total.getEmiCount(), "bucket " + bucket);
+            BigDecimal amount = inBucket.stream().map(LoanDelinquency::getOverdueAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertEquals(0, amount.compareTo(total.getTotalAmount()), "bucket " + bucket);
+        }
+    }
+
+    private List<LoanApplication> ingestApplications() {
+        return fixtures.ingest(
+            "Kavya,Menon,1989-08-11,FEMALE,SINGLE,DLQNT0001A,690000000001,9000009001,kavya@example.com,"
+                + "Temple Road,Thrissur,Kerala,680001,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5",
+            "Rohan,Kulkarni,1983-02-27,MALE,MARRIED,DLQNT0002A,690000000002,9000009002,rohan@example.com,"
+                + "Station Road,Nashik,Maharashtra,422001,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5");
+    }
+}
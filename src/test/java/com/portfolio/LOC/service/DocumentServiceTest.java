@@ -0,0 +1,152 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.entity.Document;
+import com.portfolio.LOC.repository.DocumentRepository;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class DocumentServiceTest {
+
+    private static final int LIMIT = 5 * 1024 * 1024;
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private BlobStoreService blobStoreService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        fixtures.deleteApplications("DOCUP");
+    }
+
+    @Test
+    void streamedUploadIsStoredWithItsChecksum() throws Exception {
+        Long applicationId = ingestApplication();
+        byte[] content = new byte[LIMIT];
+        new Random(23).nextBytes(content);
+
+        Document document = documentService.uploadDocument(applicationId, Document.DocumentType.BANK_STATEMENT,
+            new ByteArrayInputStream(content), content.length, "statement.pdf", "application/pdf", "Last 6 months",
+            "sales@smartloan.com");
+
+        assertEquals(LIMIT, document.getFileSize());
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        assertEquals(sha256, document.getSha256());
+        assertEquals(sha256, document.getStoredFileName());
+        Path stored = Paths.get(document.getFilePath());
+        assertEquals(blobStoreService.pathOf(sha256), stored);
+        assertArrayEquals(content, Files.readAllBytes(stored));
+
+        // A second statement replaces the first, file and all
+        Document replacement = documentService.uploadDocument(applicationId, Document.DocumentType.BANK_STATEMENT,
+            new ByteArrayInputStream("%PDF-1.7".getBytes(StandardCharsets.US_ASCII)), -1, "statement", null, null,
+            "sales@smartloan.com");
+        assertFalse(Files.exists(stored));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM blobs WHERE sha256 = ?", Integer.class, sha256));
+        assertEquals(List.of(replacement.getId()), documentRepository.findByLoanApplicationIdOrderByCreatedAtAsc(applicationId)
+            .stream().map(Document::getId).toList());
+        assertEquals("application/octet-stream", replacement.getContentType());
+    }
+
+    @Test
+    void oversizedUploadsStopAtTheLimit() throws Exception {
+        Long applicationId = ingestApplication();
+        List<Path> staged = stagingFiles();
+        Document kept = documentService.uploadDocument(applicationId, Document.DocumentType.PAN,
+            new ByteArrayInputStream(new byte[] {1, 2, 3}), 3, "pan.jpg", "image/jpeg", null, "sales@smartloan.com");
+
+        // A declared length over the limit is refused before the body is touched
+        CountingStream declared = new CountingStream(LIMIT + 1L);
+        RuntimeException refused = assertThrows(RuntimeException.class, () -> documentService.uploadDocument(applicationId,
+            Document.DocumentType.PAN, declared, LIMIT + 1L, "pan.jpg", "image/jpeg", null, "sales@smartloan.com"));
+        assertEquals("File size exceeds maximum limit of 5MB", refused.getMessage());
+        assertEquals(0, declared.read);
+
+        // Without a length, the upload is cut off a buffer past the limit rather than read to the end
+        CountingStream chunked = new CountingStream(50L * 1024 * 1024);
+        RuntimeException cutOff = assertThrows(RuntimeException.class, () -> documentService.uploadDocument(applicationId,
+            Document.DocumentType.PAN, chunked, -1, "pan.jpg", "image/jpeg", null, "sales@smartloan.com"));
+        assertEquals("File size exceeds maximum limit of 5MB", cutOff.getMessage());
+        assertTrue(chunked.read <= LIMIT + 8192L, "read " + chunked.read);
+
+        // Neither leaves a staged file behind, and the earlier PAN stays
+        assertEquals(staged, stagingFiles());
+        assertEquals(kept.getId(), documentRepository.findByLoanApplicationIdAndDocumentType(applicationId,
+            Document.DocumentType.PAN).orElseThrow().getId());
+        assertTrue(Files.exists(Paths.get(kept.getFilePath())));
+    }
+    
+    private List<Path> stagingFiles() throws Exception {
+        Path staging = Paths.get("uploads/blobs/tmp");
+        if (!Files.isDirectory(staging)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(staging)) {
+            return files.sorted().toList();
+        }
+    }
+
+    // A body of the given length that counts what is read from it
+    private static final class CountingStream extends InputStream {
+        private final long length;
+        private long read;
+
+        CountingStream(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            return read < length ? (int) (read++ & 0x7f) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) {
+            if (read >= length) {
+                return -1;
+            }
+            int n = (int) Math.min(count, length - read);
+            read += n;
+            return n;
+        }
+    }
+
+    private Long ingestApplication() {
+        return fixtures.ingestIds(
+            "Farhan,Siddiqui,1991-12-04,MALE,SINGLE,DOCUP0001A,700000000601,9000010601,farhan@example.com,"
+                + "Hazratganj,Lucknow,Uttar Pradesh,226001,RENTED,SALARIED,80000,Acme,5,900000,HOME_PURCHASE,15").get(0);
+    }
+}
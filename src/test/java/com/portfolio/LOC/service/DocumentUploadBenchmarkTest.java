@@ -0,0 +1,157 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.support.LoanTestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opt-in: mvn test -Dtest=DocumentUploadBenchmarkTest -Dsmartloan.benchmark=true
+// Sends 5MB documents over HTTP, sixteen at a time, first as multipart forms and then as streamed request
+// bodies, and logs throughput, heap allocated per upload across all threads (the client's included) and the
+// peak resident set size of the whole test JVM per run.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "smartloan.benchmark", matches = "true")
+class DocumentUploadBenchmarkTest {
+
+    private static final int UPLOADS = 128;
+    private static final int CONCURRENCY = 16;
+    private static final int SIZE = 5 * 1024 * 1024;
+    private static final String BOUNDARY = "smartloan-benchmark-boundary";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        fixtures.deleteApplications("DOCUB");
+    }
+
+    @Test
+    void concurrentFiveMegabyteUploads() throws Exception {
+        List<Long> applicationIds = ingestApplications();
+        String token = fixtures.login(port);
+        byte[] content = new byte[SIZE];
+        new Random(5).nextBytes(content);
+        byte[] head = ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"statement.pdf\"\r\n"
+            + "Content-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        // Warm both paths up before measuring either
+        run("warm-up multipart", applicationIds, i -> multipart(applicationIds.get(i), token, head, content, tail), 16);
+        run("warm-up streamed", applicationIds, i -> streamed(applicationIds.get(i), token, content), 16);
+
+        run("multipart", applicationIds, i -> multipart(applicationIds.get(i), token, head, content, tail), UPLOADS);
+        run("streamed", applicationIds, i -> streamed(applicationIds.get(i), token, content), UPLOADS);
+
+        // Every upload carried the same bytes, so they all share one blob
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT file_path) FROM documents WHERE loan_application_id IN "
+            + "(SELECT id FROM loan_applications WHERE pan_number LIKE 'DOCUB%')", Integer.class));
+    }
+
+    private void run(String label, List<Long> applicationIds, IntFunction<HttpRequest> request, int uploads) throws Exception {
+        System.gc();
+        resetPeakRss();
+        long allocatedBefore = allocatedBytes();
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            long started = System.nanoTime();
+            List<Future<HttpResponse<String>>> responses = new ArrayList<>(uploads);
+            for (int i = 0; i < uploads; i++) {
+                HttpRequest upload = request.apply(i % applicationIds.size());
+                responses.add(pool.submit(() -> client.send(upload, HttpResponse.BodyHandlers.ofString())));
+            }
+            for (Future<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode(), response.get().body());
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            long allocated = allocatedBytes() - allocatedBefore;
+            System.out.printf("DocumentUploadBenchmark - %s: %d uploads of 5MB, %d at a time, in %.2f s "
+                    + "(%.0f MB/s), %d KB allocated an upload, peak RSS %d MB%n", label, uploads, CONCURRENCY, seconds,
+                uploads * 5 / seconds, allocated / uploads / 1024, peakRssKb() / 1024);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private HttpRequest multipart(Long applicationId, String token, byte[] head, byte[] content, byte[] tail) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/documents/upload/" + applicationId
+                + "?documentType=BANK_STATEMENT"))
+            .header("Authorization", "Bearer " + token)
+            .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+            .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(head, content, tail)))
+            .build();
+    }
+
+    private HttpRequest streamed(Long applicationId, String token, byte[] content) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/documents/upload/" + applicationId
+                + "/stream?documentType=BANK_STATEMENT&fileName=statement.pdf"))
+            .header("Authorization", "Bearer " + token)
+            .header("Content-Type", "application/pdf")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(content))
+            .build();
+    }
+
+    // Linux only: writing 5 to clear_refs resets the process's peak RSS
+    private static void resetPeakRss() throws Exception {
+        Files.writeString(Path.of("/proc/self/clear_refs"), "5");
+    }
+
+    private static long peakRssKb() throws Exception {
+        for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+            if (line.startsWith("VmHWM:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return -1;
+    }
+
+    // Threads that ended during the run take their counts with them; the pools here outlive it
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(allocated, 0);
+        }
+        return total;
+    }
+
+    // One application per concurrent upload, so replacements of the same document type do not overlap
+    private List<Long> ingestApplications() {
+        List<String> rows = new ArrayList<>();
+        for (int i = 10; i < 10 + CONCURRENCY; i++) {
+            rows.add("Ishaan,Verma,1990-03-" + i + ",MALE,SINGLE,DOCUB00" + i + "A,7000000007" + i + ",90000107" + i + ",ishaan" + i
+                + "@example.com,Sector 17,Chandigarh,Chandigarh,160017,OWNED,SALARIED,85000,Acme,6,900000,HOME_PURCHASE,15");
+        }
+        return fixtures.ingestIds(rows);
+    }
+}
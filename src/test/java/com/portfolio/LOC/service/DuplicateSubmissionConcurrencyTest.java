@@ -0,0 +1,140 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.LoanApplicationRequest;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.repository.ApplicantFingerprintRepository;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class DuplicateSubmissionConcurrencyTest {
+
+    private static final int SUBMITTERS = 8;
+    private static final String AADHAAR = "987650000001";
+
+    @Autowired
+    private LoanApplicationService loanApplicationService;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private ApplicantFingerprintRepository applicantFingerprintRepository;
+
+    @AfterEach
+    void cleanUp() {
+        List<LoanApplication> created = loanApplicationRepository.findAll().stream()
+            .filter(application -> application.getPanNumber().startsWith("DUPCK"))
+            .toList();
+        applicantFingerprintRepository.findAll().stream()
+            .filter(fingerprint -> created.stream().anyMatch(a -> a.getId().equals(fingerprint.getLoanApplication().getId())))
+            .forEach(applicantFingerprintRepository::delete);
+        loanApplicationRepository.deleteAll(created);
+    }
+
+    @Test
+    void exactlyOneOfParallelSubmissionsWithSameAadhaarSucceeds() throws Exception {
+        // Different PANs, same Aadhaar: only the fingerprint table can reject these
+        List<String> pans = new ArrayList<>();
+        for (int i = 0; i < SUBMITTERS; i++) {
+            pans.add(String.format("DUPCK%04dA", i));
+        }
+
+        assertEquals(1, submitInParallel(pans));
+        assertEquals(1, loanApplicationRepository.findAll().stream()
+            .filter(application -> AADHAAR.equals(application.getAadhaarNumber()))
+            .count());
+    }
+
+    @Test
+    void exactlyOneOfParallelSubmissionsWithSamePanSucceeds() throws Exception {
+        List<String> pans = new ArrayList<>();
+        for (int i = 0; i < SUBMITTERS; i++) {
+            pans.add("DUPCK9999P");
+        }
+
+        assertEquals(1, submitInParallel(pans));
+    }
+
+    private int submitInParallel(List<String> pans) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(pans.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (String pan : pans) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        loanApplicationService.submitApplication(request(pan), "sales@smartloan.com");
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private LoanApplicationRequest request(String pan) {
+        LoanApplicationRequest.PersonalInfo personalInfo = new LoanApplicationRequest.PersonalInfo();
+        personalInfo.setFirstName("Duplicate");
+        personalInfo.setLastName("Check");
+        personalInfo.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        personalInfo.setGender(LoanApplication.Gender.MALE);
+        personalInfo.setMaritalStatus(LoanApplication.MaritalStatus.SINGLE);
+        personalInfo.setPanNumber(pan);
+        personalInfo.setAadhaarNumber(AADHAAR);
+        personalInfo.setPhoneNumber("9000000001");
+        personalInfo.setEmail("duplicate.check@example.com");
+
+        LoanApplicationRequest.AddressInfo addressInfo = new LoanApplicationRequest.AddressInfo();
+        addressInfo.setCurrentAddress("Test Street");
+        addressInfo.setCurrentCity("Test City");
+        addressInfo.setCurrentState("Test State");
+        addressInfo.setCurrentPincode("123456");
+        addressInfo.setResidenceType(LoanApplication.ResidenceType.OWNED);
+        addressInfo.setSameAsCurrent(true);
+
+        LoanApplicationRequest.FinancialInfo financialInfo = new LoanApplicationRequest.FinancialInfo();
+        financialInfo.setEmploymentType(LoanApplication.EmploymentType.SALARIED);
+        financialInfo.setMonthlyIncome(BigDecimal.valueOf(150000));
+        financialInfo.setEmployer("Test Company");
+        financialInfo.setWorkExperience(6);
+        financialInfo.setLoanAmount(BigDecimal.valueOf(2500000));
+        financialInfo.setLoanPurpose(LoanApplication.LoanPurpose.HOME_PURCHASE);
+        financialInfo.setLoanTenure(20);
+
+        LoanApplicationRequest request = new LoanApplicationRequest();
+        request.setPersonalInfo(personalInfo);
+        request.setAddressInfo(addressInfo);
+        request.setFinancialInfo(financialInfo);
+        request.setCoApplicant(new LoanApplicationRequest.CoApplicant());
+        return request;
+    }
+}
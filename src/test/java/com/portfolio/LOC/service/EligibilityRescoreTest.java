@@ -0,0 +1,88 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.BulkIngestionReport;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.repository.ApplicantFingerprintRepository;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class EligibilityRescoreTest {
+
+    @Autowired
+    private EligibilityScoringService eligibilityScoringService;
+
+    @Autowired
+    private BulkIngestionService bulkIngestionService;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private ApplicantFingerprintRepository applicantFingerprintRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        List<Long> ids = loanApplicationRepository.findAll().stream()
+            .filter(application -> application.getPanNumber().startsWith("RSCRT"))
+            .map(LoanApplication::getId)
+            .toList();
+        applicantFingerprintRepository.findAll().stream()
+            .filter(fingerprint -> ids.contains(fingerprint.getLoanApplication().getId()))
+            .forEach(applicantFingerprintRepository::delete);
+        loanApplicationRepository.deleteAllByIdInBatch(ids);
+    }
+
+    @Test
+    void staleApplicationsAreRescoredUnderTheCurrentRuleVersion() {
+        String csv = String.join("\n",
+            "personalInfo.firstName,personalInfo.lastName,personalInfo.dateOfBirth,personalInfo.gender,personalInfo.maritalStatus,"
+                + "personalInfo.panNumber,personalInfo.aadhaarNumber,personalInfo.phoneNumber,personalInfo.email,"
+                + "addressInfo.currentAddress,addressInfo.currentCity,addressInfo.currentState,addressInfo.currentPincode,"
+                + "addressInfo.residenceType,financialInfo.employmentType,financialInfo.monthlyIncome,financialInfo.employer,"
+                + "financialInfo.workExperience,financialInfo.loanAmount,financialInfo.loanPurpose,financialInfo.loanTenure",
+            "Meera,Iyer,1985-06-01,FEMALE,MARRIED,RSCRT0001A,660000000001,9000006001,meera@example.com,"
+                + "Hill Road,Chennai,Tamil Nadu,600001,OWNED,SALARIED,120000,Acme,8,3000000,HOME_PURCHASE,20",
+            "Arjun,Das,1992-03-15,MALE,SINGLE,RSCRT0002A,660000000002,9000006002,arjun@example.com,"
+                + "Lake Road,Kolkata,West Bengal,700001,RENTED,BUSINESS,35000,Self,1,4000000,HOME_PURCHASE,25");
+        BulkIngestionReport report = bulkIngestionService.ingest(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkIngestionService.Format.CSV, "sales@smartloan.com");
+        assertEquals(2, report.getCreated());
+
+        List<Long> ids = report.getRows().stream()
+            .map(row -> loanApplicationRepository.findByApplicationId(row.getApplicationId()).orElseThrow().getId())
+            .toList();
+        List<Integer> submittedScores = ids.stream()
+            .map(id -> loanApplicationRepository.findById(id).orElseThrow().getEligibilityScore())
+            .toList();
+        // 40 + 20 + 20 + 5 + 10, and 20 + 15 + 10 + 5 + 3
+        assertEquals(List.of(95, 53), submittedScores);
+
+        // Simulate rows scored before the rule table existed
+        for (Long id : ids) {
+            jdbcTemplate.update("UPDATE loan_applications SET eligibility_score = 0, eligibility_rule_version = NULL WHERE id = ?", id);
+        }
+
+        assertTrue(eligibilityScoringService.rescoreStaleApplications() >= 2);
+
+        for (int i = 0; i < ids.size(); i++) {
+            LoanApplication application = loanApplicationRepository.findById(ids.get(i)).orElseThrow();
+            assertEquals(submittedScores.get(i), application.getEligibilityScore());
+            assertEquals(eligibilityScoringService.getRuleVersion(), application.getEligibilityRuleVersion());
+        }
+    }
+}
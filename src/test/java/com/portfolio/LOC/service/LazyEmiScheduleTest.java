@@ -0,0 +1,156 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class LazyEmiScheduleTest {
+
+    private static final BigDecimal LOAN_AMOUNT = new BigDecimal("5000000");
+    private static final BigDecimal INTEREST_RATE = new BigDecimal("8.50");
+    private static final BigDecimal EMI_AMOUNT = new BigDecimal("38445.67");
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        fixtures.deleteApplications("LAZYE");
+    }
+
+    @Test
+    void lazyScheduleMatchesEagerScheduleAndStoresOnlyActivity() {
+        List<LoanApplication> applications = ingestApplications();
+        LoanApplication eagerLoan = applications.get(0);
+        LoanApplication lazyLoan = applications.get(1);
+        // The submit-time estimate (8.5%, 30 years) uses the same formula as the offer
+        assertEquals(EMI_AMOUNT, eagerLoan.getEstimatedEmi());
+
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "eager");
+        emiScheduleService.generateEmiSchedule(eagerLoan, LOAN_AMOUNT, INTEREST_RATE, 30, EMI_AMOUNT);
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        emiScheduleService.generateEmiSchedule(lazyLoan, LOAN_AMOUNT, INTEREST_RATE, 30, EMI_AMOUNT);
+
+        assertEquals(360, storedRows(eagerLoan));
+        assertEquals(0, storedRows(lazyLoan));
+        assertSameSchedule(eagerLoan, lazyLoan);
+        // A 30-year schedule charges the quoted EMI and repays the loan with its last instalment
+        List<EmiSchedule> computed = emiScheduleService.getEmiSchedule(lazyLoan.getId());
+        assertEquals(EMI_AMOUNT, computed.get(0).getEmiAmount());
+        assertEquals(0, computed.get(359).getOutstandingBalance().signum());
+
+        // Paying through the computed row's ID stores that one instalment under the same ID
+        EmiSchedule firstEager = emiScheduleService.getEmiSchedule(eagerLoan.getId()).get(0);
+        EmiSchedule firstLazy = emiScheduleService.getEmiSchedule(lazyLoan.getId()).get(0);
+        emiScheduleService.payEmi(firstEager.getId(), EMI_AMOUNT, "On time");
+        EmiSchedule paid = emiScheduleService.payEmi(firstLazy.getId(), EMI_AMOUNT, "On time");
+
+        assertEquals(firstLazy.getId(), paid.getId());
+        assertEquals(EmiSchedule.EmiStatus.PAID, paid.getStatus());
+        assertEquals(1, storedRows(lazyLoan));
+        assertSameSchedule(eagerLoan, lazyLoan);
+        assertEquals(firstLazy.getId(), emiScheduleService.getEmiSchedule(lazyLoan.getId()).get(0).getId());
+
+        // Move the lazy loan's schedule back so instalments 2 and 3 are past due
+        jdbcTemplate.update("UPDATE loan_terms SET first_due_date = ? WHERE loan_application_id = ?",
+            Date.valueOf(LocalDate.now().minusMonths(2).minusDays(1)), lazyLoan.getId());
+        List<EmiSchedule> overdue = emiScheduleService.getOverdueEmis().stream()
+            .filter(emi -> emi.getLoanApplication().getId().equals(lazyLoan.getId()))
+            .toList();
+        assertEquals(List.of(2, 3), overdue.stream().map(EmiSchedule::getEmiNumber).toList());
+        // Walking the schedule only as far as today yields the same rows as computing all of it
+        List<EmiSchedule> backdated = emiScheduleService.getEmiSchedule(lazyLoan.getId());
+        for (EmiSchedule emi : overdue) {
+            EmiSchedule expected = backdated.get(emi.getEmiNumber() - 1);
+            assertEquals(expected.getId(), emi.getId());
+            assertEquals(expected.getDueDate(), emi.getDueDate());
+            assertEquals(expected.getEmiAmount(), emi.getEmiAmount());
+            assertEquals(expected.getOutstandingBalance(), emi.getOutstandingBalance());
+        }
+
+        emiScheduleService.markOverdueEmis();
+        List<EmiSchedule> lazySchedule = emiScheduleService.getEmiSchedule(lazyLoan.getId());
+        assertEquals(3, storedRows(lazyLoan));
+        assertEquals(360, lazySchedule.size());
+        assertEquals(EmiSchedule.EmiStatus.OVERDUE, lazySchedule.get(1).getStatus());
+        assertEquals(EmiSchedule.EmiStatus.OVERDUE, lazySchedule.get(2).getStatus());
+        assertEquals(EmiSchedule.EmiStatus.PENDING, lazySchedule.get(3).getStatus());
+
+        // A second sweep has nothing left to store
+        emiScheduleService.markOverdueEmis();
+        assertEquals(3, storedRows(lazyLoan));
+
+        // Incremental dashboard counters agree with a rebuild that counts unstored instalments as pending
+        long[] incremental = emiCounters();
+        dashboardAggregateService.rebuild();
+        assertArrayEquals(incremental, emiCounters());
+    }
+
+    private void assertSameSchedule(LoanApplication eagerLoan, LoanApplication lazyLoan) {
+        List<EmiSchedule> eager = emiScheduleService.getEmiSchedule(eagerLoan.getId());
+        List<EmiSchedule> lazy = emiScheduleService.getEmiSchedule(lazyLoan.getId());
+        assertEquals(eager.size(), lazy.size());
+        for (int i = 0; i < eager.size(); i++) {
+            EmiSchedule expected = eager.get(i);
+            EmiSchedule actual = lazy.get(i);
+            String row = "EMI " + expected.getEmiNumber();
+            assertEquals(expected.getEmiNumber(), actual.getEmiNumber(), row);
+            assertEquals(expected.getDueDate(), actual.getDueDate(), row);
+            assertEquals(expected.getEmiAmount(), actual.getEmiAmount(), row);
+            assertEquals(expected.getPrincipalAmount(), actual.getPrincipalAmount(), row);
+            assertEquals(expected.getInterestAmount(), actual.getInterestAmount(), row);
+            assertEquals(expected.getOutstandingBalance(), actual.getOutstandingBalance(), row);
+            assertEquals(expected.getStatus(), actual.getStatus(), row);
+            assertEquals(expected.getPaidAmount(), actual.getPaidAmount(), row);
+        }
+        assertEquals(emiScheduleService.getTotalEmiCount(eagerLoan.getId()), emiScheduleService.getTotalEmiCount(lazyLoan.getId()));
+        assertEquals(emiScheduleService.getPaidEmiCount(eagerLoan.getId()), emiScheduleService.getPaidEmiCount(lazyLoan.getId()));
+        assertEquals(emiScheduleService.getTotalOutstanding(eagerLoan.getId()), emiScheduleService.getTotalOutstanding(lazyLoan.getId()));
+    }
+
+    private long[] emiCounters() {
+        return new long[] {
+            dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.PENDING),
+            dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.PAID),
+            dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.OVERDUE)
+        };
+    }
+
+    private int storedRows(LoanApplication application) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM emi_schedule WHERE loan_application_id = ?",
+            Integer.class, application.getId());
+    }
+
+    private List<LoanApplication> ingestApplications() {
+        return fixtures.ingest(
+            "Kavya,Rao,1988-02-11,FEMALE,MARRIED,LAZYE0001A,670000000001,9000007001,kavya@example.com,"
+                + "Park Street,Pune,Maharashtra,411001,OWNED,SALARIED,150000,Acme,9,5000000,HOME_PURCHASE,30",
+            "Rohan,Mehta,1990-09-23,MALE,SINGLE,LAZYE0002A,670000000002,9000007002,rohan@example.com,"
+                + "Ring Road,Surat,Gujarat,395001,OWNED,SALARIED,150000,Acme,9,5000000,HOME_PURCHASE,30");
+    }
+}
@@ -0,0 +1,138 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.LedgerReconciliation;
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.entity.LoanLedger;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LoanLedgerTest {
+
+    private static final BigDecimal PRINCIPAL = new BigDecimal("1200000");
+    private static final BigDecimal RATE = new BigDecimal("9.00");
+    private static final BigDecimal EMI = AmortizationCalculator.emi(PRINCIPAL, RATE, 24);
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private LoanLedgerService loanLedgerService;
+
+    @Autowired
+    private SettlementPostingService settlementPostingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        fixtures.deleteApplications("LEDGR");
+    }
+
+    @Test
+    void paymentsMoveTheLedgerAndReconcileRepairsDrift() {
+        List<LoanApplication> loans = ingestApplications();
+        LoanApplication eagerLoan = loans.get(0);
+        LoanApplication lazyLoan = loans.get(1);
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "eager");
+        emiScheduleService.generateEmiSchedule(eagerLoan, PRINCIPAL, RATE, 2, EMI);
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        emiScheduleService.generateEmiSchedule(lazyLoan, PRINCIPAL, RATE, 2, EMI);
+
+        // A new ledger owes the whole loan and all of its interest
+        BigDecimal totalInterest = emiScheduleService.getEmiSchedule(eagerLoan.getId()).stream()
+            .map(EmiSchedule::getInterestAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        for (LoanApplication loan : loans) {
+            LoanLedger ledger = ledger(loan);
+            assertEquals(0, PRINCIPAL.compareTo(ledger.getPrincipalOutstanding()));
+            assertEquals(0, totalInterest.compareTo(ledger.getInterestOutstanding()));
+            assertEquals(0, BigDecimal.ZERO.compareTo(ledger.getCollectedAmount()));
+        }
+
+        // A part payment smaller than the instalment's interest only reduces interest
+        EmiSchedule first = emiScheduleService.getEmiSchedule(eagerLoan.getId()).get(0);
+        BigDecimal part = first.getInterestAmount().subtract(new BigDecimal("100.00"));
+        emiScheduleService.payEmi(first.getId(), part, "Part payment");
+        assertEquals(0, PRINCIPAL.compareTo(ledger(eagerLoan).getPrincipalOutstanding()));
+        assertEquals(0, totalInterest.subtract(part).compareTo(ledger(eagerLoan).getInterestOutstanding()));
+
+        // Paying the rest records the amount paid so far, so only the difference moves
+        emiScheduleService.payEmi(first.getId(), first.getEmiAmount(), "Rest of the instalment");
+        LoanLedger afterFirst = ledger(eagerLoan);
+        assertEquals(0, PRINCIPAL.subtract(first.getPrincipalAmount()).compareTo(afterFirst.getPrincipalOutstanding()));
+        assertEquals(0, totalInterest.subtract(first.getInterestAmount()).compareTo(afterFirst.getInterestOutstanding()));
+        assertEquals(0, first.getEmiAmount().compareTo(afterFirst.getCollectedAmount()));
+        assertEquals(0, PRINCIPAL.add(totalInterest).subtract(first.getEmiAmount())
+            .compareTo(emiScheduleService.getTotalOutstanding(eagerLoan.getId())));
+
+        // A late payment adds its late fee
+        EmiSchedule third = emiScheduleService.getEmiSchedule(eagerLoan.getId()).get(2);
+        jdbcTemplate.update("UPDATE emi_schedule SET due_date = ? WHERE id = ?", Date.valueOf(LocalDate.now().minusDays(10)), third.getId());
+        emiScheduleService.payEmi(third.getId(), third.getEmiAmount(), "Late payment");
+        assertEquals(0, new BigDecimal("1000").compareTo(ledger(eagerLoan).getLateFees()));
+
+        // Settlement files post to the ledger too, including instalments stored on first use
+        EmiSchedule lazySecond = emiScheduleService.getEmiSchedule(lazyLoan.getId()).get(1);
+        String file = "bankReference,applicationId,dueDate,amount\nLEDGR-R1," + lazyLoan.getApplicationId() + ","
+            + lazySecond.getDueDate() + "," + lazySecond.getEmiAmount();
+        assertEquals(1, settlementPostingService.post(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)),
+            "admin@smartloan.com").getPosted());
+        LoanLedger lazyLedger = ledger(lazyLoan);
+        assertEquals(0, PRINCIPAL.subtract(lazySecond.getPrincipalAmount()).compareTo(lazyLedger.getPrincipalOutstanding()));
+        assertEquals(0, lazySecond.getEmiAmount().compareTo(lazyLedger.getCollectedAmount()));
+
+        // The incrementally maintained ledgers agree with the EMI rows
+        LoanLedger eagerLedger = ledger(eagerLoan);
+        LedgerReconciliation clean = emiScheduleService.reconcileLedgers();
+        assertEquals(0, clean.getRepaired());
+        assertTrue(clean.getLoansChecked() >= 2);
+
+        // A drifted ledger is repaired and a missing one is opened from the schedule
+        jdbcTemplate.update("UPDATE loan_ledgers SET principal_outstanding = principal_outstanding + 5 WHERE loan_application_id = ?",
+            eagerLoan.getId());
+        jdbcTemplate.update("DELETE FROM loan_ledgers WHERE loan_application_id = ?", lazyLoan.getId());
+        assertFalse(loanLedgerService.getLedger(lazyLoan.getId()).isPresent());
+        LedgerReconciliation repaired = emiScheduleService.reconcileLedgers();
+        assertEquals(1, repaired.getRepaired());
+        assertEquals(1, repaired.getOpened());
+        assertEquals(0, eagerLedger.getPrincipalOutstanding().compareTo(ledger(eagerLoan).getPrincipalOutstanding()));
+        assertEquals(0, lazyLedger.getTotalOutstanding().compareTo(ledger(lazyLoan).getTotalOutstanding()));
+        assertEquals(0, lazyLedger.getCollectedAmount().compareTo(ledger(lazyLoan).getCollectedAmount()));
+    }
+
+    private LoanLedger ledger(LoanApplication loan) {
+        return loanLedgerService.getLedger(loan.getId()).orElseThrow();
+    }
+
+    private List<LoanApplication> ingestApplications() {
+        return fixtures.ingest(
+            "Irfan,Qureshi,1986-06-02,MALE,MARRIED,LEDGR0001A,700000000101,9000010101,irfan@example.com,"
+                + "Mall Road,Shimla,Himachal Pradesh,171001,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5",
+            "Jaya,Menon,1990-11-19,FEMALE,SINGLE,LEDGR0002A,700000000102,9000010102,jaya@example.com,"
+                + "MG Road,Bengaluru,Karnataka,560001,RENTED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5");
+    }
+}
@@ -0,0 +1,155 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.OfferSanctionRun;
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.entity.LoanOfferLetter;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import com.portfolio.LOC.repository.LoanOfferLetterRepository;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LoanOfferServiceTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1200000");
+    private static final BigDecimal RATE = new BigDecimal("8.75");
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private LoanOfferService loanOfferService;
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private LoanLedgerService loanLedgerService;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private LoanOfferLetterRepository loanOfferLetterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        ReflectionTestUtils.setField(loanOfferService, "sanctionChunkSize", 200);
+        fixtures.deleteApplications("OFFSN");
+    }
+
+    @Test
+    void sanctionRunReportsEveryItemInRequestOrder() throws Exception {
+        List<LoanApplication> applications = ingestApplications();
+        jdbcTemplate.update("UPDATE loan_applications SET status = 'SUBMITTED' WHERE id = ?", applications.get(2).getId());
+        LoanOfferLetter existing = loanOfferService.generateLoanOffer(applications.get(3).getId(), AMOUNT, RATE, 10,
+            "admin@smartloan.com");
+        // Two sanctioned items per chunk, so the run spans chunks
+        ReflectionTestUtils.setField(loanOfferService, "sanctionChunkSize", 2);
+
+        OfferSanctionRun run = loanOfferService.generateLoanOffers(List.of(
+            new LoanOfferService.OfferRequest(applications.get(0).getId(), AMOUNT, RATE, 10),
+            new LoanOfferService.OfferRequest(applications.get(1).getId(), new BigDecimal("800000"), new BigDecimal("10.25"), 5),
+            new LoanOfferService.OfferRequest(applications.get(0).getId(), AMOUNT, RATE, 10),
+            new LoanOfferService.OfferRequest(applications.get(2).getId(), AMOUNT, RATE, 10),
+            new LoanOfferService.OfferRequest(applications.get(3).getId(), AMOUNT, RATE, 10),
+            new LoanOfferService.OfferRequest(applications.get(4).getId(), new BigDecimal("-1"), RATE, 10),
+            new LoanOfferService.OfferRequest(Long.MAX_VALUE, AMOUNT, RATE, 10)), "admin@smartloan.com");
+
+        assertEquals(7, run.getRequested());
+        assertEquals(2, run.getSanctioned());
+        assertEquals(5, run.getFailed());
+        assertEquals(2, run.getPdfsRendered());
+        assertEquals(120 + 60, run.getInstalmentsScheduled());
+        String[] messages = {null, null, "Application appears more than once in this run", "Application is not in approved status",
+            "Loan offer already exists for this application", "Approved amount must be positive with at most two decimals",
+            "Application not found"};
+        for (int i = 0; i < messages.length; i++) {
+            assertEquals(messages[i], run.getItems().get(i).getMessage(), "item " + i);
+        }
+
+        for (OfferSanctionRun.Item item : run.getItems().subList(0, 2)) {
+            assertEquals(LoanOfferLetter.PdfStatus.READY, item.getPdfStatus());
+            LoanOfferLetter offer = loanOfferLetterRepository.findById(item.getOfferLetterId()).orElseThrow();
+            assertEquals(item.getOfferLetterNumber(), offer.getOfferLetterNumber());
+            assertEquals(item.getApplicationId(), offer.getLoanApplication().getId());
+            assertEquals(LoanOfferLetter.PdfStatus.READY, offer.getPdfStatus());
+            assertTrue(Files.exists(Paths.get(offer.getFilePath())), offer.getFilePath());
+            assertEquals(LoanApplication.ApplicationStatus.L3_APPROVED,
+                loanApplicationRepository.findById(item.getApplicationId()).orElseThrow().getStatus());
+        }
+        OfferSanctionRun.Item second = run.getItems().get(1);
+        assertEquals(AmortizationCalculator.emi(new BigDecimal("800000"), new BigDecimal("10.25"), 60), second.getEmiAmount());
+        assertSchedule(second.getApplicationId(), 60, second.getEmiAmount());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_terms WHERE loan_application_id = ?",
+            Integer.class, second.getApplicationId()));
+
+        // The turned-down applications are untouched
+        assertEquals(existing.getId(), loanOfferLetterRepository.findByLoanApplicationId(applications.get(3).getId()).orElseThrow().getId());
+        assertTrue(loanOfferLetterRepository.findByLoanApplicationId(applications.get(4).getId()).isEmpty());
+        assertEquals(LoanApplication.ApplicationStatus.PENDING_L3,
+            loanApplicationRepository.findById(applications.get(4).getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void eagerSchedulesAreStoredUnderReservedIds() {
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "eager");
+        List<LoanApplication> applications = ingestApplications();
+
+        OfferSanctionRun run = loanOfferService.generateLoanOffers(applications.stream()
+            .map(application -> new LoanOfferService.OfferRequest(application.getId(), AMOUNT, RATE, 15))
+            .toList(), "admin@smartloan.com");
+
+        assertEquals(5, run.getSanctioned());
+        for (LoanApplication application : applications) {
+            assertEquals(180, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM emi_schedule WHERE loan_application_id = ?",
+                Integer.class, application.getId()));
+            assertSchedule(application.getId(), 180, AmortizationCalculator.emi(AMOUNT, RATE, 180));
+        }
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_terms WHERE loan_application_id IN "
+            + "(SELECT id FROM loan_applications WHERE pan_number LIKE 'OFFSN%')", Integer.class));
+    }
+
+    // The schedule reads back in full and the ledger opens owing all of it
+    private void assertSchedule(Long applicationId, int months, BigDecimal emiAmount) {
+        List<EmiSchedule> schedule = emiScheduleService.getEmiSchedule(applicationId);
+        assertEquals(months, schedule.size());
+        assertEquals(emiAmount, schedule.get(0).getEmiAmount());
+        assertEquals(0, schedule.get(months - 1).getOutstandingBalance().signum());
+        BigDecimal owed = schedule.stream().map(EmiSchedule::getEmiAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertNotNull(loanLedgerService.getLedger(applicationId).orElse(null));
+        assertEquals(0, owed.compareTo(loanLedgerService.getLedger(applicationId).orElseThrow().getTotalOutstanding()));
+    }
+
+    private List<LoanApplication> ingestApplications() {
+        List<String> rows = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            rows.add("Kavya,Rao " + i + ",1990-02-1" + i + ",FEMALE,SINGLE,OFFSN000" + i + "A,70000000050" + i + ",900001050" + i
+                + ",kavya" + i + "@example.com,Jayanagar,Bengaluru,Karnataka,560041,OWNED,SALARIED,95000,Acme,7,1200000,HOME_PURCHASE,10");
+        }
+        List<Long> ids = fixtures.ingestIds(rows);
+        jdbcTemplate.update("UPDATE loan_applications SET status = 'PENDING_L3' WHERE pan_number LIKE 'OFFSN%'");
+        return ids.stream().map(id -> loanApplicationRepository.findById(id).orElseThrow()).toList();
+    }
+}
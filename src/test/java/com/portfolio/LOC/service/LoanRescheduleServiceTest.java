@@ -0,0 +1,214 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.RateResetRun;
+import com.portfolio.LOC.dto.ScheduleRevision;
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.entity.LoanLedger;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LoanRescheduleServiceTest {
+
+    private static final String ADMIN = "admin@smartloan.com";
+    private static final BigDecimal PRINCIPAL = new BigDecimal("1200000");
+    private static final BigDecimal RATE = new BigDecimal("9.00");
+    private static final BigDecimal EMI = AmortizationCalculator.emi(PRINCIPAL, RATE, 24);
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private LoanRescheduleService loanRescheduleService;
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private LoanLedgerService loanLedgerService;
+
+    @Autowired
+    private CashFlowProjectionService cashFlowProjectionService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        fixtures.deleteApplications("RSCHD");
+    }
+
+    @Test
+    void recomputesOnlyTheUnpaidFutureInstalments() {
+        BigDecimal projectedBefore = cashFlowProjectionService.getProjection(CashFlowProjectionService.MAX_MONTHS).getTotalPrincipal();
+        List<LoanApplication> loans = ingestApplications();
+        LoanApplication eagerLoan = loans.get(0);
+        LoanApplication lazyLoan = loans.get(1);
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "eager");
+        emiScheduleService.generateEmiSchedule(eagerLoan, PRINCIPAL, RATE, 2, EMI);
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        emiScheduleService.generateEmiSchedule(lazyLoan, PRINCIPAL, RATE, 2, EMI);
+        for (LoanApplication loan : loans) {
+            EmiSchedule first = emiScheduleService.getEmiSchedule(loan.getId()).get(0);
+            emiScheduleService.payEmi(first.getId(), first.getEmiAmount(), "First instalment");
+        }
+
+        // A prepayment on the lazy loan keeps the tenure and lowers the EMI from the second instalment on
+        List<EmiSchedule> lazyBefore = emiScheduleService.getEmiSchedule(lazyLoan.getId());
+        BigDecimal owed = principalFrom(lazyBefore, 1);
+        BigDecimal prepayment = new BigDecimal("200000.00");
+        ScheduleRevision prepaid = loanRescheduleService.prepay(lazyLoan.getId(), prepayment,
+            LoanRescheduleService.Mode.REDUCE_EMI, ADMIN);
+        assertEquals(2, prepaid.getFromEmiNumber());
+        assertEquals(24, prepaid.getTenureMonths());
+        assertEquals(AmortizationCalculator.emi(owed.subtract(prepayment), RATE, 23), prepaid.getEmiAmount());
+        assertEquals(0, prepaid.getRowsUpdated() + prepaid.getRowsDeleted());
+
+        List<EmiSchedule> lazyAfter = emiScheduleService.getEmiSchedule(lazyLoan.getId());
+        assertRepaid(lazyAfter, 24, owed.subtract(prepayment), 1);
+        assertEquals(lazyBefore.get(0).getPaidAmount(), lazyAfter.get(0).getPaidAmount());
+        for (int i = 0; i < 24; i++) {
+            // Instalments keep their IDs and due dates
+            assertEquals(lazyBefore.get(i).getId(), lazyAfter.get(i).getId());
+            assertEquals(lazyBefore.get(i).getDueDate(), lazyAfter.get(i).getDueDate());
+        }
+
+        // A rate rise at the same EMI stretches the tenure onto fresh IDs, and the new instalments can be paid
+        ScheduleRevision raised = loanRescheduleService.resetRate(lazyLoan.getId(), new BigDecimal("30.00"),
+            LoanRescheduleService.Mode.REDUCE_TENURE, ADMIN);
+        assertEquals(prepaid.getEmiAmount(), raised.getEmiAmount());
+        assertTrue(raised.getTenureMonths() > 24);
+        List<EmiSchedule> lazyRaised = emiScheduleService.getEmiSchedule(lazyLoan.getId());
+        assertRepaid(lazyRaised, raised.getTenureMonths(), owed.subtract(prepayment), 1);
+        assertEquals(raised.getTenureMonths(), emiScheduleService.getTotalEmiCount(lazyLoan.getId()));
+        EmiSchedule second = lazyRaised.get(1);
+        assertEquals(second.getEmiAmount(), emiScheduleService.payEmi(second.getId(), second.getEmiAmount(), "Second").getPaidAmount());
+        BigDecimal lazyOwed = owed.subtract(prepayment).subtract(second.getPrincipalAmount());
+
+        // A rate cut on the eager loan at the same EMI shortens it: rows are updated and the surplus deleted
+        List<EmiSchedule> eagerBefore = emiScheduleService.getEmiSchedule(eagerLoan.getId());
+        ScheduleRevision cut = loanRescheduleService.resetRate(eagerLoan.getId(), new BigDecimal("4.50"),
+            LoanRescheduleService.Mode.REDUCE_TENURE, ADMIN);
+        assertTrue(cut.getTenureMonths() < 24);
+        assertEquals(cut.getTenureMonths() - 1, cut.getRowsUpdated());
+        assertEquals(24 - cut.getTenureMonths(), cut.getRowsDeleted());
+        List<EmiSchedule> eagerCut = emiScheduleService.getEmiSchedule(eagerLoan.getId());
+        assertRepaid(eagerCut, cut.getTenureMonths(), principalFrom(eagerBefore, 1), 1);
+        for (int i = 0; i < eagerCut.size(); i++) {
+            assertEquals(eagerBefore.get(i).getId(), eagerCut.get(i).getId());
+        }
+
+        // An eager prepayment recomputes at the rate of the latest reset
+        ScheduleRevision eagerPrepaid = loanRescheduleService.prepay(eagerLoan.getId(), new BigDecimal("100000"),
+            LoanRescheduleService.Mode.REDUCE_EMI, ADMIN);
+        assertEquals(0, new BigDecimal("4.50").compareTo(eagerPrepaid.getAnnualInterestRate()));
+        assertEquals(cut.getTenureMonths(), eagerPrepaid.getTenureMonths());
+
+        RuntimeException tooMuch = assertThrows(RuntimeException.class, () ->
+            loanRescheduleService.prepay(eagerLoan.getId(), PRINCIPAL, LoanRescheduleService.Mode.REDUCE_EMI, ADMIN));
+        assertTrue(tooMuch.getMessage().startsWith("Prepayment must be less than the outstanding principal of "));
+
+        // A batch reports the loans it could not reschedule alongside the rest
+        RateResetRun run = loanRescheduleService.resetRates(List.of(eagerLoan.getId(), lazyLoan.getId(), -1L),
+            new BigDecimal("8.25"), LoanRescheduleService.Mode.REDUCE_EMI, ADMIN);
+        assertEquals(3, run.getRequested());
+        assertEquals(2, run.getRescheduled());
+        assertEquals("No EMI schedule found for loan -1", run.getFailures().get(0).getMessage());
+        assertRepaid(emiScheduleService.getEmiSchedule(lazyLoan.getId()), raised.getTenureMonths(), lazyOwed, 2);
+
+        // Ledgers, dashboard counters and the projection all agree with the rewritten schedules
+        assertEquals(0, emiScheduleService.reconcileLedgers().getRepaired());
+        BigDecimal outstanding = BigDecimal.ZERO;
+        for (LoanApplication loan : loans) {
+            LoanLedger ledger = loanLedgerService.getLedger(loan.getId()).orElseThrow();
+            outstanding = outstanding.add(ledger.getPrincipalOutstanding());
+        }
+        assertEquals(0, outstanding.compareTo(cashFlowProjectionService.getProjection(CashFlowProjectionService.MAX_MONTHS)
+            .getTotalPrincipal().subtract(projectedBefore)));
+        assertEquals(0, PRINCIPAL.multiply(BigDecimal.valueOf(2)).subtract(prepayment).subtract(new BigDecimal("100000"))
+            .subtract(outstanding).compareTo(paidPrincipal(loans)));
+
+        long pendingCount = dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.PENDING);
+        BigDecimal pendingAmount = dashboardAggregateService.sumEmiAmount(EmiSchedule.EmiStatus.PENDING);
+        dashboardAggregateService.rebuild();
+        assertEquals(dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.PENDING), pendingCount);
+        assertEquals(0, dashboardAggregateService.sumEmiAmount(EmiSchedule.EmiStatus.PENDING).compareTo(pendingAmount));
+    }
+
+    @Test
+    void rejectsLoansWithNothingLeftToReschedule() {
+        LoanApplication loan = ingestApplications().get(0);
+        RuntimeException missing = assertThrows(RuntimeException.class, () ->
+            loanRescheduleService.resetRate(loan.getId(), new BigDecimal("8.00"), LoanRescheduleService.Mode.REDUCE_EMI, ADMIN));
+        assertEquals("No EMI schedule found for loan " + loan.getId(), missing.getMessage());
+
+        emiScheduleService.generateEmiSchedule(loan, PRINCIPAL, RATE, 2, EMI);
+        RuntimeException negative = assertThrows(RuntimeException.class, () ->
+            loanRescheduleService.prepay(loan.getId(), new BigDecimal("-5"), LoanRescheduleService.Mode.REDUCE_EMI, ADMIN));
+        assertEquals("Prepayment must be positive with at most two decimals", negative.getMessage());
+        RuntimeException unaffordable = assertThrows(RuntimeException.class, () ->
+            loanRescheduleService.resetRate(loan.getId(), new BigDecimal("99.00"), LoanRescheduleService.Mode.REDUCE_TENURE, ADMIN));
+        assertTrue(unaffordable.getMessage().endsWith("use REDUCE_EMI"));
+
+        // Only an admin may change a loan's terms
+        RuntimeException unauthorized = assertThrows(RuntimeException.class, () ->
+            loanRescheduleService.prepay(loan.getId(), new BigDecimal("1000"), LoanRescheduleService.Mode.REDUCE_EMI,
+                "sales@smartloan.com"));
+        assertEquals("User not authorized to reschedule loans", unauthorized.getMessage());
+        assertThrows(RuntimeException.class, () -> loanRescheduleService.resetRates(List.of(loan.getId()),
+            new BigDecimal("8.00"), LoanRescheduleService.Mode.REDUCE_EMI, "sales@smartloan.com"));
+    }
+
+    // Instalments from index on repay exactly the given principal, each at the first one's EMI but the last
+    private static void assertRepaid(List<EmiSchedule> schedule, int tenure, BigDecimal principal, int from) {
+        assertEquals(tenure, schedule.size());
+        assertEquals(0, principal.compareTo(principalFrom(schedule, from)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(schedule.get(tenure - 1).getOutstandingBalance()));
+        for (int i = 0; i < tenure; i++) {
+            assertEquals(i + 1, schedule.get(i).getEmiNumber());
+            if (i >= from && i < tenure - 1) {
+                assertEquals(schedule.get(from).getEmiAmount(), schedule.get(i).getEmiAmount());
+            }
+        }
+    }
+
+    private static BigDecimal principalFrom(List<EmiSchedule> schedule, int from) {
+        return schedule.subList(from, schedule.size()).stream()
+            .map(EmiSchedule::getPrincipalAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private BigDecimal paidPrincipal(List<LoanApplication> loans) {
+        BigDecimal paid = BigDecimal.ZERO;
+        for (LoanApplication loan : loans) {
+            for (EmiSchedule emi : emiScheduleService.getEmiSchedule(loan.getId())) {
+                if (emi.getStatus() == EmiSchedule.EmiStatus.PAID) {
+                    paid = paid.add(emi.getPrincipalAmount());
+                }
+            }
+        }
+        return paid;
+    }
+
+    private List<LoanApplication> ingestApplications() {
+        return fixtures.ingest(
+            "Nikhil,Bose,1985-03-09,MALE,MARRIED,RSCHD0001A,700000000301,9000010301,nikhil@example.com,"
+                + "Park Street,Kolkata,West Bengal,700016,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5",
+            "Ojas,Kulkarni,1992-12-01,FEMALE,SINGLE,RSCHD0002A,700000000302,9000010302,ojas@example.com,"
+                + "Law College Road,Pune,Maharashtra,411004,RENTED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5");
+    }
+}
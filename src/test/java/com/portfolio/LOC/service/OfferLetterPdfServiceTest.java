@@ -0,0 +1,196 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.OfferLetterBatchRun;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.entity.LoanOfferLetter;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import com.portfolio.LOC.repository.LoanOfferLetterRepository;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OfferLetterPdfServiceTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1000000");
+    private static final BigDecimal RATE = new BigDecimal("9.50");
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private LoanOfferService loanOfferService;
+
+    @Autowired
+    private OfferLetterPdfService offerLetterPdfService;
+
+    @Autowired
+    private BlobStoreService blobStoreService;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private LoanOfferLetterRepository loanOfferLetterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        ReflectionTestUtils.setField(offerLetterPdfService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(blobStoreService, "root", "uploads/blobs");
+        fixtures.deleteApplications("OFFPD");
+    }
+
+    @Test
+    void offerCommitsBeforeItsLetterIsRendered() throws Exception {
+        LoanApplication application = ingestApprovedApplications().get(0);
+
+        long started = System.nanoTime();
+        LoanOfferLetter offer = loanOfferService.generateLoanOffer(application.getId(), AMOUNT, RATE, 10, "admin@smartloan.com");
+        long requestMillis = (System.nanoTime() - started) / 1_000_000;
+        assertEquals(LoanOfferLetter.PdfStatus.PENDING, offer.getPdfStatus());
+        assertEquals(LoanApplication.ApplicationStatus.L3_APPROVED,
+            loanApplicationRepository.findById(application.getId()).orElseThrow().getStatus());
+
+        LoanOfferLetter rendered = awaitStatus(offer.getId(), LoanOfferLetter.PdfStatus.READY, 1);
+        long readyMillis = (System.nanoTime() - started) / 1_000_000;
+        System.out.println("OfferLetterPdfServiceTest - offer committed in " + requestMillis + " ms, letter ready after "
+            + readyMillis + " ms");
+        assertPdf(rendered.getFilePath());
+
+        // A renderer that died mid-letter leaves a stale claim, which the recovery sweep takes over
+        Files.delete(Paths.get(rendered.getFilePath()));
+        jdbcTemplate.update("UPDATE loan_offer_letters SET pdf_status = 'RENDERING', pdf_claimed_at = ? WHERE id = ?",
+            LocalDateTime.now().minusHours(1), offer.getId());
+        requeueUntilQueued();
+        LoanOfferLetter recovered = awaitStatus(offer.getId(), LoanOfferLetter.PdfStatus.READY, 2);
+        assertPdf(recovered.getFilePath());
+    }
+
+    @Test
+    void failedRendersAreRetriedUntilTheAttemptLimit() throws Exception {
+        List<LoanApplication> applications = ingestApprovedApplications();
+        LoanOfferLetter first = loanOfferService.generateLoanOffer(applications.get(0).getId(), AMOUNT, RATE, 10, "admin@smartloan.com");
+        String firstPath = awaitStatus(first.getId(), LoanOfferLetter.PdfStatus.READY, 1).getFilePath();
+
+        // The blob store's directory is a file, so every attempt fails to write
+        ReflectionTestUtils.setField(offerLetterPdfService, "maxAttempts", 2);
+        LoanOfferLetter second = loanOfferService.generateLoanOffer(applications.get(1).getId(), AMOUNT, RATE, 10, "admin@smartloan.com");
+        awaitStatus(second.getId(), LoanOfferLetter.PdfStatus.READY, 1);
+        ReflectionTestUtils.setField(blobStoreService, "root", firstPath);
+        jdbcTemplate.update("UPDATE loan_offer_letters SET pdf_status = 'PENDING', pdf_attempts = 0 WHERE id = ?", second.getId());
+
+        requeueUntilQueued();
+        LoanOfferLetter retried = awaitStatus(second.getId(), LoanOfferLetter.PdfStatus.PENDING, 1);
+        assertNotNull(retried.getPdfError());
+        requeueUntilQueued();
+        LoanOfferLetter failed = awaitStatus(second.getId(), LoanOfferLetter.PdfStatus.FAILED, 2);
+        assertTrue(failed.getPdfError().startsWith("Failed to generate loan offer letter"), failed.getPdfError());
+        assertTrue(Files.isRegularFile(Paths.get(firstPath)));
+
+        // The sweep leaves a failed letter alone; a manual retry starts a fresh attempt budget
+        assertEquals(0, offerLetterPdfService.requeue());
+        ReflectionTestUtils.setField(blobStoreService, "root", "uploads/blobs");
+        assertEquals(LoanOfferLetter.PdfStatus.PENDING, offerLetterPdfService.retry(applications.get(1).getId()).getPdfStatus());
+        LoanOfferLetter ready = awaitStatus(second.getId(), LoanOfferLetter.PdfStatus.READY, 1);
+        assertEquals(null, ready.getPdfError());
+        assertPdf(ready.getFilePath());
+    }
+
+    @Test
+    void batchRenderPicksUpEveryWaitingLetter() throws Exception {
+        List<LoanApplication> applications = ingestApprovedApplications();
+        Long adminId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'admin@smartloan.com'", Long.class);
+        jdbcTemplate.update("INSERT INTO approval_history (loan_application_id, approved_by, stage, decision, created_at) "
+            + "VALUES (?, ?, 'L2', 'APPROVED', ?)", applications.get(0).getId(), adminId, LocalDateTime.of(2026, 3, 14, 10, 5));
+        List<LoanOfferLetter> offers = new ArrayList<>();
+        for (LoanApplication application : applications) {
+            LoanOfferLetter offer = loanOfferService.generateLoanOffer(application.getId(), AMOUNT, RATE, 10, "admin@smartloan.com");
+            offers.add(awaitStatus(offer.getId(), LoanOfferLetter.PdfStatus.READY, 1));
+        }
+
+        // Waiting letters, as after a restart with a full queue
+        for (LoanOfferLetter offer : offers) {
+            Files.delete(Paths.get(offer.getFilePath()));
+            jdbcTemplate.update("UPDATE loan_offer_letters SET pdf_status = 'PENDING' WHERE id = ?", offer.getId());
+        }
+        OfferLetterBatchRun run = offerLetterPdfService.renderPending(100);
+        assertEquals(2, run.getRendered());
+        assertEquals(0, run.getFailed());
+        assertTrue(run.getBytesWritten() > 0);
+        List<String> filePaths = new ArrayList<>();
+        for (LoanOfferLetter offer : offers) {
+            filePaths.add(awaitStatus(offer.getId(), LoanOfferLetter.PdfStatus.READY, 2).getFilePath());
+            assertPdf(filePaths.get(filePaths.size() - 1));
+        }
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(filePaths.get(0)))) {
+            String text = PdfTextExtractor.getTextFromPage(pdf.getPage(1));
+            assertTrue(text.contains("L2 - APPROVED by Admin User on 14-03-2026 10:05"), text);
+            assertTrue(text.contains("Application ID: " + applications.get(0).getApplicationId()), text);
+        }
+        assertEquals(0, offerLetterPdfService.renderPending(100).getRequested());
+    }
+
+    private LoanOfferLetter awaitStatus(Long offerId, LoanOfferLetter.PdfStatus status, int attempts) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (true) {
+            LoanOfferLetter offer = loanOfferLetterRepository.findById(offerId).orElseThrow();
+            boolean reached = offer.getPdfStatus() == status && offer.getPdfAttempts() == attempts;
+            if (reached || System.currentTimeMillis() > deadline) {
+                assertEquals(status, offer.getPdfStatus(), "offer " + offerId);
+                assertEquals(attempts, offer.getPdfAttempts(), "offer " + offerId);
+                return offer;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    // A worker that just finished may not have released the offer yet
+    private void requeueUntilQueued() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (offerLetterPdfService.requeue() == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "nothing was queued");
+            Thread.sleep(20);
+        }
+    }
+
+    private static void assertPdf(String filePath) throws Exception {
+        Path path = Paths.get(filePath);
+        assertTrue(Files.exists(path), filePath);
+        assertEquals("%PDF", new String(Files.readAllBytes(path), 0, 4, StandardCharsets.US_ASCII));
+        assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".part")));
+    }
+
+    private List<LoanApplication> ingestApprovedApplications() {
+        List<Long> ids = fixtures.ingestIds(
+            "Radhika,Menon,1989-07-11,FEMALE,MARRIED,OFFPD0001A,700000000401,9000010401,radhika@example.com,"
+                + "MG Road,Kochi,Kerala,682016,OWNED,SALARIED,90000,Acme,6,1000000,HOME_PURCHASE,10",
+            "Sameer,Khan,1986-01-23,MALE,SINGLE,OFFPD0002A,700000000402,9000010402,sameer@example.com,"
+                + "Banjara Hills,Hyderabad,Telangana,500034,RENTED,SALARIED,90000,Acme,6,1000000,HOME_PURCHASE,10");
+        jdbcTemplate.update("UPDATE loan_applications SET status = 'PENDING_L3' WHERE pan_number LIKE 'OFFPD%'");
+        return ids.stream().map(id -> loanApplicationRepository.findById(id).orElseThrow()).toList();
+    }
+}
@@ -0,0 +1,149 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.BulkIngestionReport;
+import com.portfolio.LOC.dto.OfferSanctionRun;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Opt-in: mvn test -Dtest=OfferSanctionBenchmarkTest -Dsmartloan.benchmark=true
+// Sanctions five hundred offers one request at a time, waiting for the worker pool to finish their letters,
+// then two thousand more through the batch run: half rendering on one thread, half on one thread per core.
+@SpringBootTest
+@EnabledIfSystemProperty(named = "smartloan.benchmark", matches = "true")
+class OfferSanctionBenchmarkTest {
+
+    private static final int SINGLE_OFFERS = 500;
+    private static final int BATCH_OFFERS = 1_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("2500000");
+    private static final BigDecimal RATE = new BigDecimal("8.90");
+    // Far above anything the pooled sequences hand out during a test run
+    private static final long ID_BASE = 5_000_000_000L;
+
+    @Autowired
+    private LoanOfferService loanOfferService;
+
+    @Autowired
+    private OfferLetterPdfService offerLetterPdfService;
+
+    @Autowired
+    private BulkIngestionService bulkIngestionService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private CashFlowProjectionService cashFlowProjectionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        ReflectionTestUtils.setField(offerLetterPdfService, "batchThreads", 0);
+        for (String filePath : jdbcTemplate.queryForList(
+                "SELECT file_path FROM loan_offer_letters WHERE loan_application_id > ?", String.class, ID_BASE)) {
+            Files.deleteIfExists(Paths.get(filePath));
+        }
+        jdbcTemplate.update("DELETE FROM blobs WHERE sha256 IN (SELECT sha256 FROM loan_offer_letters WHERE loan_application_id > ?)",
+            ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_offer_letters WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_ledgers WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM emi_schedule WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_terms WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM applicant_fingerprints WHERE loan_application_id IN "
+            + "(SELECT id FROM loan_applications WHERE pan_number LIKE 'SANCB%')");
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE pan_number LIKE 'SANCB%'");
+        dashboardAggregateService.rebuild();
+        cashFlowProjectionService.invalidate();
+    }
+
+    @Test
+    void sanctionsTwoThousandFiveHundredOffers() throws Exception {
+        seed(SINGLE_OFFERS + 2 * BATCH_OFFERS);
+        List<Long> loanIds = jdbcTemplate.queryForList("SELECT id FROM loan_applications WHERE id > ? ORDER BY id", Long.class, ID_BASE);
+
+        long started = System.nanoTime();
+        for (Long loanId : loanIds.subList(0, SINGLE_OFFERS)) {
+            loanOfferService.generateLoanOffer(loanId, AMOUNT, RATE, 20, "admin@smartloan.com");
+        }
+        long committedNanos = System.nanoTime() - started;
+        long deadline = System.currentTimeMillis() + 300_000;
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_offer_letters WHERE loan_application_id > ? "
+                + "AND pdf_status <> 'READY'", Integer.class, ID_BASE) > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "letters still rendering");
+            // The queue holds fewer letters than the run offered; the recovery sweep tops it up
+            offerLetterPdfService.requeue();
+            Thread.sleep(20);
+        }
+        long readyNanos = System.nanoTime() - started;
+        System.out.printf("OfferSanctionBenchmark - %d single offers: committed in %d ms, letters ready after %d ms "
+                + "(%.0f offers a second)%n", SINGLE_OFFERS, committedNanos / 1_000_000, readyNanos / 1_000_000,
+            SINGLE_OFFERS / (readyNanos / 1e9));
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int from = SINGLE_OFFERS;
+        for (int threads : new int[] {1, cores}) {
+            ReflectionTestUtils.setField(offerLetterPdfService, "batchThreads", threads);
+            List<LoanOfferService.OfferRequest> requests = loanIds.subList(from, from + BATCH_OFFERS).stream()
+                .map(loanId -> new LoanOfferService.OfferRequest(loanId, AMOUNT, RATE, 20))
+                .toList();
+            from += BATCH_OFFERS;
+
+            OfferSanctionRun run = loanOfferService.generateLoanOffers(requests, "admin@smartloan.com");
+            System.out.printf("OfferSanctionBenchmark - batch of %d on %d rendering threads: %d ms (%.0f offers a second), "
+                    + "%d instalments scheduled, %d letters rendered%n", BATCH_OFFERS, threads, run.getDurationMillis(),
+                BATCH_OFFERS * 1_000.0 / run.getDurationMillis(), run.getInstalmentsScheduled(), run.getPdfsRendered());
+            assertEquals(BATCH_OFFERS, run.getSanctioned());
+        }
+    }
+
+    // H2-only bulk seeding: clone one ingested application for every offer, all waiting on the final approval
+    private void seed(int applications) {
+        String csv = String.join("\n",
+            "personalInfo.firstName,personalInfo.lastName,personalInfo.dateOfBirth,personalInfo.gender,personalInfo.maritalStatus,"
+                + "personalInfo.panNumber,personalInfo.aadhaarNumber,personalInfo.phoneNumber,personalInfo.email,"
+                + "addressInfo.currentAddress,addressInfo.currentCity,addressInfo.currentState,addressInfo.currentPincode,"
+                + "addressInfo.residenceType,financialInfo.employmentType,financialInfo.monthlyIncome,financialInfo.employer,"
+                + "financialInfo.workExperience,financialInfo.loanAmount,financialInfo.loanPurpose,financialInfo.loanTenure",
+            "Nikhil,Joshi,1985-09-03,MALE,MARRIED,SANCB0000A,700000009996,9000010996,nikhil@example.com,"
+                + "FC Road,Pune,Maharashtra,411004,OWNED,SALARIED,150000,Acme,10,2500000,HOME_PURCHASE,20");
+        BulkIngestionReport report = bulkIngestionService.ingest(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkIngestionService.Format.CSV, "sales@smartloan.com");
+        assertEquals(1, report.getCreated());
+
+        List<String> columns = jdbcTemplate.queryForList(
+            "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'LOAN_APPLICATIONS' ORDER BY ORDINAL_POSITION",
+            String.class);
+        String copied = columns.stream()
+            .map(column -> switch (column.toLowerCase()) {
+                case "id" -> ID_BASE + " + X";
+                case "application_id" -> "'SANCB' || X";
+                // The status change is validated on flush, so the PAN has to keep its format
+                case "pan_number" -> "'SANCB' || LPAD(CAST(X AS VARCHAR), 4, '0') || 'A'";
+                case "status" -> "'PENDING_L3'";
+                default -> "a." + column;
+            })
+            .collect(Collectors.joining(", "));
+        jdbcTemplate.update("INSERT INTO loan_applications (" + String.join(", ", columns) + ") SELECT " + copied
+            + " FROM (SELECT * FROM loan_applications WHERE pan_number = 'SANCB0000A') a CROSS JOIN SYSTEM_RANGE(1, "
+            + applications + ")");
+        dashboardAggregateService.rebuild();
+    }
+}
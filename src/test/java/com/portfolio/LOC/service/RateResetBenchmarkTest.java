@@ -0,0 +1,128 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.BulkIngestionReport;
+import com.portfolio.LOC.dto.RateResetRun;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opt-in: mvn test -Dtest=RateResetBenchmarkTest -Dsmartloan.benchmark=true -DargLine=-Xmx3g
+// Resets the rate of one hundred thousand lazily materialized floating-rate loans plus a thousand eagerly
+// stored ones in one batch run, first lowering their EMIs and then shortening their tenures.
+@SpringBootTest
+@EnabledIfSystemProperty(named = "smartloan.benchmark", matches = "true")
+class RateResetBenchmarkTest {
+
+    private static final int LAZY_LOANS = 100_000;
+    private static final int EAGER_LOANS = 1_000;
+    private static final int EAGER_MONTHS = 60;
+    // Far above anything the pooled sequences hand out during a test run
+    private static final long ID_BASE = 6_000_000_000L;
+
+    @Autowired
+    private LoanRescheduleService loanRescheduleService;
+
+    @Autowired
+    private BulkIngestionService bulkIngestionService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private CashFlowProjectionService cashFlowProjectionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM loan_reschedules WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM emi_schedule WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_terms WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM applicant_fingerprints WHERE loan_application_id IN "
+            + "(SELECT id FROM loan_applications WHERE pan_number LIKE 'RSCHB%')");
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE pan_number LIKE 'RSCHB%'");
+        dashboardAggregateService.rebuild();
+        cashFlowProjectionService.invalidate();
+    }
+
+    @Test
+    void resetsOneHundredThousandFloatingRateLoans() {
+        seed();
+        List<Long> loanIds = jdbcTemplate.queryForList("SELECT id FROM loan_applications WHERE id > ? ORDER BY id", Long.class, ID_BASE);
+
+        for (String[] reset : new String[][] {{"9.50", "REDUCE_EMI"}, {"8.75", "REDUCE_TENURE"}}) {
+            LoanRescheduleService.Mode mode = LoanRescheduleService.Mode.valueOf(reset[1]);
+            RateResetRun run = loanRescheduleService.resetRates(loanIds, new BigDecimal(reset[0]), mode, "admin@smartloan.com");
+            System.out.printf("RateResetBenchmark - %s at %s%%: %d loans in %d ms (%.1f microseconds a loan), "
+                    + "%d instalment rows written, %d failed%n",
+                mode, reset[0], run.getRescheduled(), run.getDurationMillis(),
+                run.getDurationMillis() * 1_000.0 / run.getRequested(), run.getRowsWritten(), run.getFailed());
+            assertEquals(LAZY_LOANS + EAGER_LOANS, run.getRescheduled());
+        }
+    }
+
+    // H2-only bulk seeding: clone one ingested application for every loan. Lazy loans run five to thirty
+    // years from a first instalment due within the next four weeks, and one in a hundred has paid it early;
+    // eager loans store five years of level instalments.
+    private void seed() {
+        String csv = String.join("\n",
+            "personalInfo.firstName,personalInfo.lastName,personalInfo.dateOfBirth,personalInfo.gender,personalInfo.maritalStatus,"
+                + "personalInfo.panNumber,personalInfo.aadhaarNumber,personalInfo.phoneNumber,personalInfo.email,"
+                + "addressInfo.currentAddress,addressInfo.currentCity,addressInfo.currentState,addressInfo.currentPincode,"
+                + "addressInfo.residenceType,financialInfo.employmentType,financialInfo.monthlyIncome,financialInfo.employer,"
+                + "financialInfo.workExperience,financialInfo.loanAmount,financialInfo.loanPurpose,financialInfo.loanTenure",
+            "Pallavi,Iyer,1988-05-21,FEMALE,MARRIED,RSCHB0000A,700000009997,9000010997,pallavi@example.com,"
+                + "Anna Salai,Chennai,Tamil Nadu,600002,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5");
+        BulkIngestionReport report = bulkIngestionService.ingest(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkIngestionService.Format.CSV, "sales@smartloan.com");
+        assertEquals(1, report.getCreated());
+
+        List<String> columns = jdbcTemplate.queryForList(
+            "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'LOAN_APPLICATIONS' ORDER BY ORDINAL_POSITION",
+            String.class);
+        String copied = columns.stream()
+            .map(column -> switch (column.toLowerCase()) {
+                case "id" -> ID_BASE + " + X";
+                case "application_id" -> "'RSCHB' || X";
+                case "pan_number" -> "'RSCHB' || X";
+                default -> "a." + column;
+            })
+            .collect(Collectors.joining(", "));
+        jdbcTemplate.update("INSERT INTO loan_applications (" + String.join(", ", columns) + ") SELECT " + copied
+            + " FROM (SELECT * FROM loan_applications WHERE pan_number = 'RSCHB0000A') a CROSS JOIN SYSTEM_RANGE(1, "
+            + (LAZY_LOANS + EAGER_LOANS) + ")");
+
+        // The EMI stays at 1% of principal; only the final instalment of each loan differs from a true annuity
+        jdbcTemplate.update("INSERT INTO loan_terms (loan_application_id, principal_amount, annual_interest_rate, tenure_months, "
+            + "emi_amount, total_amount, first_due_date, first_emi_id, swept_through, created_at) "
+            + "SELECT " + ID_BASE + " + X, 500000 + MOD(X, 50) * 100000, 8 + MOD(X, 5), 60 * (1 + MOD(X, 6)), "
+            + "(500000 + MOD(X, 50) * 100000) / 100, 0, DATEADD('DAY', 1 + MOD(X, 28), CURRENT_DATE), "
+            + ID_BASE + " + X * 360, 0, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + LAZY_LOANS + ")");
+        jdbcTemplate.update("INSERT INTO emi_schedule (id, loan_application_id, emi_number, due_date, emi_amount, "
+            + "principal_amount, interest_amount, outstanding_balance, status, paid_amount, paid_date, created_at) "
+            + "SELECT " + ID_BASE + " + X * 360, " + ID_BASE + " + X, 1, DATEADD('DAY', 1 + MOD(X, 28), CURRENT_DATE), "
+            + "(500000 + MOD(X, 50) * 100000) / 100, 1000, (500000 + MOD(X, 50) * 100000) / 100 - 1000, "
+            + "500000 + MOD(X, 50) * 100000 - 1000, 'PAID', (500000 + MOD(X, 50) * 100000) / 100, CURRENT_DATE, "
+            + "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + LAZY_LOANS + ") WHERE MOD(X, 100) = 0");
+
+        jdbcTemplate.update("INSERT INTO emi_schedule (id, loan_application_id, emi_number, due_date, emi_amount, "
+            + "principal_amount, interest_amount, outstanding_balance, status, created_at) "
+            + "SELECT " + ID_BASE + " + L.X * 360 + N.X, " + ID_BASE + " + L.X, N.X, DATEADD('MONTH', N.X, CURRENT_DATE), "
+            + "12000, 10000, 2000, 600000 - N.X * 10000, 'PENDING', CURRENT_TIMESTAMP "
+            + "FROM SYSTEM_RANGE(" + (LAZY_LOANS + 1) + ", " + (LAZY_LOANS + EAGER_LOANS) + ") L "
+            + "CROSS JOIN SYSTEM_RANGE(1, " + EAGER_MONTHS + ") N");
+    }
+}
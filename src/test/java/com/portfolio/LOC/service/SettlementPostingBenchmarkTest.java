@@ -0,0 +1,176 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.BulkIngestionReport;
+import com.portfolio.LOC.dto.SettlementPostingReport;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opt-in: mvn test -Dtest=SettlementPostingBenchmarkTest -Dsmartloan.benchmark=true
+// Posts a 100k-line settlement file against instalments seeded straight into H2, then re-uploads it,
+// and times the one-request-per-EMI path on a sample for comparison. A second run posts the same volume
+// against lazily materialized 20-year loans, where every line's instalment is computed and stored.
+@SpringBootTest
+@EnabledIfSystemProperty(named = "smartloan.benchmark", matches = "true")
+class SettlementPostingBenchmarkTest {
+
+    private static final int LOANS = 5_000;
+    private static final int EMIS_PER_LOAN = 21;
+    private static final int SINGLE_PAYMENTS = 2_000;
+    private static final int LAZY_TENURE_MONTHS = 240;
+    // Far above anything the pooled sequences hand out during a test run
+    private static final long ID_BASE = 8_000_000_000L;
+
+    @Autowired
+    private SettlementPostingService settlementPostingService;
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private BulkIngestionService bulkIngestionService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM emi_settlements WHERE emi_schedule_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_delinquency WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_ledgers WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM emi_schedule WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_terms WHERE loan_application_id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM applicant_fingerprints WHERE loan_application_id IN "
+            + "(SELECT id FROM loan_applications WHERE pan_number LIKE 'STLMB%')");
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE pan_number LIKE 'STLMB%'");
+        dashboardAggregateService.rebuild();
+    }
+
+    @Test
+    void postsOneHundredThousandLines() {
+        LocalDate firstDue = LocalDate.now().withDayOfMonth(5).plusMonths(1);
+        seed(firstDue);
+
+        // Instalments 1-20 of every loan arrive in the file; instalment 21 is kept for the single-payment sample
+        StringBuilder file = new StringBuilder("bankReference,applicationId,dueDate,amount\n");
+        for (int loan = 1; loan <= LOANS; loan++) {
+            for (int emi = 1; emi < EMIS_PER_LOAN; emi++) {
+                file.append("STLMB-").append(loan).append('-').append(emi).append(",STLMB").append(loan).append(',')
+                    .append(firstDue.plusMonths(emi - 1)).append(",25000.00\n");
+            }
+        }
+        byte[] bytes = file.toString().getBytes(StandardCharsets.UTF_8);
+
+        SettlementPostingReport first = settlementPostingService.post(new ByteArrayInputStream(bytes), "admin@smartloan.com");
+        SettlementPostingReport reupload = settlementPostingService.post(new ByteArrayInputStream(bytes), "admin@smartloan.com");
+
+        List<Long> singleIds = jdbcTemplate.queryForList("SELECT id FROM emi_schedule WHERE id > ? AND emi_number = ? "
+            + "ORDER BY id FETCH FIRST " + SINGLE_PAYMENTS + " ROWS ONLY", Long.class, ID_BASE, EMIS_PER_LOAN);
+        long started = System.nanoTime();
+        for (Long id : singleIds) {
+            emiScheduleService.payEmi(id, new BigDecimal("25000.00"), "Single payment");
+        }
+        double singleMicros = (System.nanoTime() - started) / 1_000.0 / singleIds.size();
+
+        System.out.printf("SettlementPostingBenchmark - %d lines: posted %d in %d ms (%.1f microseconds a line); "
+                + "re-upload %d already posted in %d ms; one payEmi call per EMI %.1f microseconds%n",
+            first.getTotalLines(), first.getPosted(), first.getElapsedMillis(), first.getElapsedMillis() * 1_000.0 / first.getTotalLines(),
+            reupload.getDuplicates(), reupload.getElapsedMillis(), singleMicros);
+
+        assertEquals(LOANS * (EMIS_PER_LOAN - 1), first.getPosted());
+        assertEquals(LOANS * (EMIS_PER_LOAN - 1), reupload.getDuplicates());
+    }
+
+    @Test
+    void postsOneHundredThousandLinesAgainstLazySchedules() {
+        LocalDate firstDue = LocalDate.now().withDayOfMonth(5).plusMonths(1);
+        seedApplications();
+        BigDecimal principal = new BigDecimal("2500000.00");
+        BigDecimal rate = new BigDecimal("8.50");
+        BigDecimal emiAmount = AmortizationCalculator.emi(principal, rate, LAZY_TENURE_MONTHS);
+        jdbcTemplate.update("INSERT INTO loan_terms (loan_application_id, principal_amount, annual_interest_rate, tenure_months, "
+            + "emi_amount, total_amount, first_due_date, first_emi_id, start_emi_number, swept_through, created_at) "
+            + "SELECT " + ID_BASE + " + X, ?, ?, " + LAZY_TENURE_MONTHS + ", ?, ?, ?, " + ID_BASE + " + (X - 1) * "
+            + LAZY_TENURE_MONTHS + " + 1, 1, 0, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + LOANS + ")",
+            principal, rate, emiAmount, emiAmount.multiply(BigDecimal.valueOf(LAZY_TENURE_MONTHS)), Date.valueOf(firstDue));
+
+        StringBuilder file = new StringBuilder("bankReference,applicationId,dueDate,amount\n");
+        for (int loan = 1; loan <= LOANS; loan++) {
+            for (int emi = 1; emi < EMIS_PER_LOAN; emi++) {
+                file.append("STLMB-").append(loan).append('-').append(emi).append(",STLMB").append(loan).append(',')
+                    .append(firstDue.plusMonths(emi - 1)).append(',').append(emiAmount).append('\n');
+            }
+        }
+        byte[] bytes = file.toString().getBytes(StandardCharsets.UTF_8);
+
+        SettlementPostingReport first = settlementPostingService.post(new ByteArrayInputStream(bytes), "admin@smartloan.com");
+        SettlementPostingReport reupload = settlementPostingService.post(new ByteArrayInputStream(bytes), "admin@smartloan.com");
+
+        System.out.printf("SettlementPostingBenchmark - %d lines against %d-month lazy schedules: posted %d in %d ms "
+                + "(%.1f microseconds a line); re-upload %d already posted in %d ms%n",
+            first.getTotalLines(), LAZY_TENURE_MONTHS, first.getPosted(), first.getElapsedMillis(),
+            first.getElapsedMillis() * 1_000.0 / first.getTotalLines(), reupload.getDuplicates(), reupload.getElapsedMillis());
+
+        assertEquals(LOANS * (EMIS_PER_LOAN - 1), first.getPosted());
+        assertEquals(LOANS * (EMIS_PER_LOAN - 1), reupload.getDuplicates());
+        assertEquals(LOANS * (EMIS_PER_LOAN - 1), jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM emi_schedule WHERE id > ? AND status = 'PAID'", Integer.class, ID_BASE));
+    }
+
+    // H2-only bulk seeding: clone one ingested application LOANS times, then give each clone EMIS_PER_LOAN instalments
+    private void seed(LocalDate firstDue) {
+        seedApplications();
+        jdbcTemplate.update("INSERT INTO emi_schedule (id, loan_application_id, emi_number, due_date, emi_amount, "
+            + "principal_amount, interest_amount, outstanding_balance, status, created_at) "
+            + "SELECT " + ID_BASE + " + (l.X - 1) * " + EMIS_PER_LOAN + " + e.X, " + ID_BASE + " + l.X, e.X, "
+            + "DATEADD('MONTH', e.X - 1, CAST(? AS DATE)), 25000, 20000, 5000, 1000000, 'PENDING', CURRENT_TIMESTAMP "
+            + "FROM SYSTEM_RANGE(1, " + LOANS + ") l CROSS JOIN SYSTEM_RANGE(1, " + EMIS_PER_LOAN + ") e",
+            Date.valueOf(firstDue));
+    }
+
+    private void seedApplications() {
+        String csv = String.join("\n",
+            "personalInfo.firstName,personalInfo.lastName,personalInfo.dateOfBirth,personalInfo.gender,personalInfo.maritalStatus,"
+                + "personalInfo.panNumber,personalInfo.aadhaarNumber,personalInfo.phoneNumber,personalInfo.email,"
+                + "addressInfo.currentAddress,addressInfo.currentCity,addressInfo.currentState,addressInfo.currentPincode,"
+                + "addressInfo.residenceType,financialInfo.employmentType,financialInfo.monthlyIncome,financialInfo.employer,"
+                + "financialInfo.workExperience,financialInfo.loanAmount,financialInfo.loanPurpose,financialInfo.loanTenure",
+            "Ravi,Nair,1985-03-21,MALE,MARRIED,STLMB0000A,700000009999,9000010999,ravi@example.com,"
+                + "Canal Road,Kochi,Kerala,682011,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5");
+        BulkIngestionReport report = bulkIngestionService.ingest(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkIngestionService.Format.CSV, "sales@smartloan.com");
+        assertEquals(1, report.getCreated());
+
+        List<String> columns = jdbcTemplate.queryForList(
+            "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'LOAN_APPLICATIONS' ORDER BY ORDINAL_POSITION",
+            String.class);
+        String copied = columns.stream()
+            .map(column -> switch (column.toLowerCase()) {
+                case "id" -> ID_BASE + " + X";
+                case "application_id" -> "'STLMB' || X";
+                case "pan_number" -> "'STLMB' || X";
+                default -> "a." + column;
+            })
+            .collect(Collectors.joining(", "));
+        jdbcTemplate.update("INSERT INTO loan_applications (" + String.join(", ", columns) + ") SELECT " + copied
+            + " FROM (SELECT * FROM loan_applications WHERE pan_number = 'STLMB0000A') a CROSS JOIN SYSTEM_RANGE(1, " + LOANS + ")");
+    }
+}
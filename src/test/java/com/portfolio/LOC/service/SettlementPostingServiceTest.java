@@ -0,0 +1,185 @@
+package com.portfolio.LOC.service;
+
+import com.portfolio.LOC.dto.SettlementPostingReport;
+import com.portfolio.LOC.entity.EmiSchedule;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.repository.LoanDelinquencyRepository;
+import com.portfolio.LOC.support.LoanTestFixtures;
+import com.portfolio.LOC.util.AmortizationCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class SettlementPostingServiceTest {
+
+    private static final BigDecimal PRINCIPAL = new BigDecimal("1200000");
+    private static final BigDecimal RATE = new BigDecimal("9.00");
+    private static final BigDecimal EMI = AmortizationCalculator.emi(PRINCIPAL, RATE, 24);
+
+    @Autowired
+    private LoanTestFixtures fixtures;
+
+    @Autowired
+    private SettlementPostingService settlementPostingService;
+
+    @Autowired
+    private EmiScheduleService emiScheduleService;
+
+    @Autowired
+    private DelinquencyService delinquencyService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private LoanDelinquencyRepository loanDelinquencyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        ReflectionTestUtils.setField(settlementPostingService, "chunkSize", 1000);
+        fixtures.deleteApplications("STLMT");
+    }
+
+    @Test
+    void postsMatchedLinesReportsExceptionsAndIgnoresReuploads() {
+        ReflectionTestUtils.setField(settlementPostingService, "chunkSize", 4);
+        List<LoanApplication> loans = ingestApplications();
+        LoanApplication eagerLoan = loans.get(0);
+        LoanApplication lazyLoan = loans.get(1);
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "eager");
+        emiScheduleService.generateEmiSchedule(eagerLoan, PRINCIPAL, RATE, 2, EMI);
+        ReflectionTestUtils.setField(emiScheduleService, "materialization", "lazy");
+        emiScheduleService.generateEmiSchedule(lazyLoan, PRINCIPAL, RATE, 2, EMI);
+
+        // One instalment of the eager loan is 40 days in arrears before the file arrives
+        LocalDate arrearsDate = LocalDate.now().minusDays(40);
+        jdbcTemplate.update("UPDATE emi_schedule SET due_date = ? WHERE loan_application_id = ? AND emi_number = 5",
+            Date.valueOf(arrearsDate), eagerLoan.getId());
+        delinquencyService.refreshAll();
+        assertTrue(loanDelinquencyRepository.existsById(eagerLoan.getId()));
+
+        LocalDate firstDue = dueDate(eagerLoan, 1);
+        LocalDate secondDue = dueDate(eagerLoan, 2);
+        LocalDate lazyThirdDue = dueDate(lazyLoan, 3);
+        BigDecimal half = EMI.divide(BigDecimal.valueOf(2), 2, RoundingMode.DOWN);
+        String eager = eagerLoan.getApplicationId();
+        String file = String.join("\n",
+            "bankReference,applicationId,dueDate,amount,valueDate",
+            "STLMT-R1," + eager + "," + firstDue + "," + EMI + ",",
+            "STLMT-R2," + eager + "," + secondDue + "," + half + ",",
+            "STLMT-R3," + eager + "," + secondDue + "," + EMI.subtract(half) + ",",
+            "STLMT-R1," + eager + "," + firstDue + "," + EMI + ",",
+            "STLMT-R4,NO-SUCH-LOAN," + firstDue + "," + EMI + ",",
+            "STLMT-R5," + eager + "," + firstDue.plusDays(1) + "," + EMI + ",",
+            "STLMT-R6," + eager + "," + firstDue + ",abc,",
+            "STLMT-R7," + lazyLoan.getApplicationId() + "," + lazyThirdDue + "," + EMI + "," + lazyThirdDue.plusDays(4),
+            "STLMT-R8," + eager + "," + firstDue + "," + EMI + ",",
+            "STLMT-R9," + eager + "," + arrearsDate + "," + EMI + ",");
+
+        SettlementPostingReport report = post(file);
+
+        assertEquals(10, report.getTotalLines());
+        assertEquals(5, report.getPosted());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(4, report.getRejected());
+        assertEquals(List.of(5, 6, 7, 9), report.getExceptions().stream().map(SettlementPostingReport.LineException::getLine).toList());
+        assertEquals("Loan application not found", report.getExceptions().get(0).getMessage());
+        assertEquals("No EMI due on " + firstDue.plusDays(1), report.getExceptions().get(1).getMessage());
+        assertEquals("Amount must be a number", report.getExceptions().get(2).getMessage());
+        assertEquals("EMI already paid", report.getExceptions().get(3).getMessage());
+        assertEquals(0, EMI.multiply(BigDecimal.valueOf(4)).compareTo(report.getPostedAmount()));
+
+        List<EmiSchedule> eagerSchedule = emiScheduleService.getEmiSchedule(eagerLoan.getId());
+        assertEquals(EmiSchedule.EmiStatus.PAID, eagerSchedule.get(0).getStatus());
+        // Two collections against one instalment add up
+        assertEquals(EmiSchedule.EmiStatus.PAID, eagerSchedule.get(1).getStatus());
+        assertEquals(0, EMI.compareTo(eagerSchedule.get(1).getPaidAmount()));
+        assertEquals(EmiSchedule.EmiStatus.PAID, eagerSchedule.get(4).getStatus());
+        assertEquals(0, new BigDecimal("4000").compareTo(eagerSchedule.get(4).getLateFee()));
+        assertFalse(loanDelinquencyRepository.existsById(eagerLoan.getId()));
+
+        // The lazy loan's instalment was stored on first use, with the late fee from its value date
+        EmiSchedule lazyThird = emiScheduleService.getEmiSchedule(lazyLoan.getId()).get(2);
+        assertEquals(EmiSchedule.EmiStatus.PAID, lazyThird.getStatus());
+        assertEquals(lazyThirdDue.plusDays(4), lazyThird.getPaidDate());
+        assertEquals(0, new BigDecimal("400").compareTo(lazyThird.getLateFee()));
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM emi_schedule WHERE loan_application_id = ?", Long.class, lazyLoan.getId()));
+
+        // Re-uploading the same file posts nothing
+        SettlementPostingReport reupload = post(file);
+        assertEquals(0, reupload.getPosted());
+        assertEquals(6, reupload.getDuplicates());
+        assertEquals(4, reupload.getRejected());
+        assertEquals(5, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM emi_settlements WHERE bank_reference LIKE 'STLMT-%'", Long.class));
+        assertEquals(0, EMI.compareTo(emiScheduleService.getEmiSchedule(eagerLoan.getId()).get(1).getPaidAmount()));
+
+        long[] incremental = emiCounters();
+        dashboardAggregateService.rebuild();
+        assertArrayEquals(incremental, emiCounters());
+    }
+
+    @Test
+    void rejectsFilesWithoutTheRequiredColumns() {
+        RuntimeException error = assertThrows(RuntimeException.class,
+            () -> post("bankReference,applicationId,amount\nR1,LOC1,100"));
+        assertEquals("Settlement file has no dueDate column", error.getMessage());
+    }
+
+    @Test
+    void rejectsFilesFromNonAdmins() {
+        RuntimeException error = assertThrows(RuntimeException.class, () -> settlementPostingService.post(
+            new ByteArrayInputStream("bankReference,applicationId,dueDate,amount\n".getBytes(StandardCharsets.UTF_8)),
+            "sales@smartloan.com"));
+        assertEquals("User not authorized to post settlements", error.getMessage());
+    }
+
+    private SettlementPostingReport post(String file) {
+        return settlementPostingService.post(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)),
+            "admin@smartloan.com");
+    }
+
+    private LocalDate dueDate(LoanApplication loan, int emiNumber) {
+        return emiScheduleService.getEmiSchedule(loan.getId()).get(emiNumber - 1).getDueDate();
+    }
+
+    private long[] emiCounters() {
+        return new long[] {
+            dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.PENDING),
+            dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.PAID),
+            dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.PARTIAL_PAID),
+            dashboardAggregateService.countEmis(EmiSchedule.EmiStatus.OVERDUE)
+        };
+    }
+
+    private List<LoanApplication> ingestApplications() {
+        return fixtures.ingest(
+            "Farah,Sheikh,1988-09-14,FEMALE,MARRIED,STLMT0001A,700000000001,9000010001,farah@example.com,"
+                + "Fort Road,Mumbai,Maharashtra,400001,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5",
+            "Gaurav,Bose,1982-01-30,MALE,MARRIED,STLMT0002A,700000000002,9000010002,gaurav@example.com,"
+                + "Park Street,Kolkata,West Bengal,700016,OWNED,SALARIED,90000,Acme,6,1200000,HOME_PURCHASE,5");
+    }
+}
@@ -0,0 +1,134 @@
+package com.portfolio.LOC.support;
+
+import com.portfolio.LOC.dto.BulkIngestionReport;
+import com.portfolio.LOC.entity.Document;
+import com.portfolio.LOC.entity.LoanApplication;
+import com.portfolio.LOC.repository.LoanApplicationRepository;
+import com.portfolio.LOC.service.BulkIngestionService;
+import com.portfolio.LOC.service.CashFlowProjectionService;
+import com.portfolio.LOC.service.DashboardAggregateService;
+import com.portfolio.LOC.service.DocumentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Test data shared by the integration tests. Each test class owns a five-letter PAN prefix: it ingests its
+// applicants through the bulk CSV path with PANs under that prefix and deletes everything hanging off them
+// by the same prefix once it is done.
+@Component
+public class LoanTestFixtures {
+
+    public static final String SALES_USER = "sales@smartloan.com";
+
+    public static final String CSV_HEADER =
+        "personalInfo.firstName,personalInfo.lastName,personalInfo.dateOfBirth,personalInfo.gender,personalInfo.maritalStatus,"
+            + "personalInfo.panNumber,personalInfo.aadhaarNumber,personalInfo.phoneNumber,personalInfo.email,"
+            + "addressInfo.currentAddress,addressInfo.currentCity,addressInfo.currentState,addressInfo.currentPincode,"
+            + "addressInfo.residenceType,financialInfo.employmentType,financialInfo.monthlyIncome,financialInfo.employer,"
+            + "financialInfo.workExperience,financialInfo.loanAmount,financialInfo.loanPurpose,financialInfo.loanTenure";
+
+    // Children of loan_applications, deleted in this order before the applications themselves
+    private static final List<String> DEPENDENT_TABLES = List.of(
+        "loan_reschedules", "loan_delinquency", "loan_ledgers", "emi_schedule", "loan_terms", "loan_offer_letters",
+        "approval_history", "rcpu_reports", "documents", "applicant_fingerprints");
+
+    @Autowired
+    private BulkIngestionService bulkIngestionService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DashboardAggregateService dashboardAggregateService;
+
+    @Autowired
+    private CashFlowProjectionService cashFlowProjectionService;
+
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    // Ingests the CSV rows (without the header) as the sales user and returns the applications in row order
+    public List<LoanApplication> ingest(String... rows) {
+        return ingest(List.of(rows));
+    }
+
+    public List<LoanApplication> ingest(List<String> rows) {
+        String csv = CSV_HEADER + "\n" + String.join("\n", rows);
+        BulkIngestionReport report = bulkIngestionService.ingest(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkIngestionService.Format.CSV, SALES_USER);
+        assertEquals(rows.size(), report.getCreated(), () -> report.getRows().toString());
+        return report.getRows().stream()
+            .map(row -> loanApplicationRepository.findByApplicationId(row.getApplicationId()).orElseThrow())
+            .toList();
+    }
+
+    public List<Long> ingestIds(String... rows) {
+        return ingest(rows).stream().map(LoanApplication::getId).toList();
+    }
+
+    public List<Long> ingestIds(List<String> rows) {
+        return ingest(rows).stream().map(LoanApplication::getId).toList();
+    }
+
+    public Document uploadDocument(Long applicationId, Document.DocumentType documentType, String fileName, byte[] content) {
+        return documentService.uploadDocument(applicationId, documentType, new ByteArrayInputStream(content), content.length,
+            fileName, "application/pdf", null, SALES_USER);
+    }
+
+    // Logs the sales user in against a running server and returns the bearer token
+    public String login(int port) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + SALES_USER + "\",\"password\":\"password\"}"))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return response.body().replaceAll(".*\"token\"\\s*:\\s*\"([^\"]+)\".*", "$1");
+    }
+
+    // Deletes the applications whose PAN starts with panPrefix, every row that refers to them, and their stored
+    // files and blobs. The deletes bypass the dashboard counters and the projection cache, so both are reset.
+    public void deleteApplications(String panPrefix) throws IOException {
+        String pattern = panPrefix + "%";
+        String applications = "SELECT id FROM loan_applications WHERE pan_number LIKE ?";
+        String storedFiles = "SELECT file_path AS stored_path, sha256 FROM documents WHERE loan_application_id IN (" + applications + ") "
+            + "UNION ALL SELECT report_file_path, sha256 FROM rcpu_reports WHERE loan_application_id IN (" + applications + ") "
+            + "UNION ALL SELECT file_path, sha256 FROM loan_offer_letters WHERE loan_application_id IN (" + applications + ")";
+        for (Map<String, Object> file : jdbcTemplate.queryForList(storedFiles, pattern, pattern, pattern)) {
+            if (file.get("stored_path") != null) {
+                Files.deleteIfExists(Paths.get((String) file.get("stored_path")));
+            }
+            if (file.get("sha256") != null) {
+                jdbcTemplate.update("DELETE FROM blobs WHERE sha256 = ?", file.get("sha256"));
+            }
+        }
+
+        jdbcTemplate.update("DELETE FROM emi_settlements WHERE emi_schedule_id IN "
+            + "(SELECT id FROM emi_schedule WHERE loan_application_id IN (" + applications + "))", pattern);
+        for (String table : DEPENDENT_TABLES) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE loan_application_id IN (" + applications + ")", pattern);
+        }
+        jdbcTemplate.update("DELETE FROM loan_applications WHERE pan_number LIKE ?", pattern);
+
+        dashboardAggregateService.rebuild();
+        cashFlowProjectionService.invalidate();
+    }
+}
@@ -0,0 +1,213 @@
+package com.portfolio.LOC.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AmortizationCalculatorTest {
+
+    // Produced by the BigDecimal schedule generator this engine replaced
+    private static final String[] GOLDEN_FILES = {
+        "home-30y-8.50", "home-20y-10.75", "minimum-5y-12.00", "maximum-15y-9.25", "fractional-10y-7.35", "zero-rate-1y"
+    };
+
+    @Test
+    void schedulesMatchGoldenFilesExactly() throws Exception {
+        for (String name : GOLDEN_FILES) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    getClass().getResourceAsStream("/amortization/" + name + ".csv"), StandardCharsets.UTF_8))) {
+                Map<String, String> parameters = parseHeader(reader.readLine());
+                reader.readLine(); // column names
+
+                int months = Integer.parseInt(parameters.get("tenureYears")) * 12;
+                AmortizationCalculator.Schedule schedule = AmortizationCalculator.schedule(
+                    new BigDecimal(parameters.get("loanAmount")),
+                    new BigDecimal(parameters.get("annualInterestRate")),
+                    months,
+                    new BigDecimal(parameters.get("emiAmount")));
+
+                assertEquals(months, schedule.getMonths());
+                for (int i = 0; i < months; i++) {
+                    String[] expected = reader.readLine().split(",");
+                    String row = name + " EMI " + expected[0];
+                    assertEquals(i + 1, Integer.parseInt(expected[0]), row);
+                    assertEquals(new BigDecimal(expected[1]), AmortizationCalculator.fromPaise(schedule.getEmiPaise(i)), row);
+                    assertEquals(new BigDecimal(expected[2]), AmortizationCalculator.fromPaise(schedule.getPrincipalPaise(i)), row);
+                    assertEquals(new BigDecimal(expected[3]), AmortizationCalculator.fromPaise(schedule.getInterestPaise(i)), row);
+                    assertEquals(new BigDecimal(expected[4]), AmortizationCalculator.fromPaise(schedule.getBalancePaise(i)), row);
+                }
+                assertEquals(null, reader.readLine(), name + " has more rows than the schedule");
+            }
+        }
+    }
+
+    @Test
+    void interestRoundingMatchesBigDecimalAcrossTheColumnRange() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // Up to the NUMERIC(12,2) column limit, at rates up to 60% a year
+            long balance = (random.nextLong() >>> 1) % 1_000_000_000_000L;
+            long rateE10 = random.nextInt(500_000_000);
+            if (i % 3 == 0) {
+                balance = -balance;
+            }
+            BigDecimal expected = BigDecimal.valueOf(balance, 2).multiply(BigDecimal.valueOf(rateE10, 10))
+                .setScale(2, RoundingMode.HALF_UP);
+
+            assertEquals(expected, AmortizationCalculator.fromPaise(AmortizationCalculator.interestPaise(balance, rateE10)),
+                "balance=" + balance + " rate=" + rateE10);
+        }
+    }
+
+    @Test
+    void emiMatchesTheExactPowEvaluationToThePaisa() {
+        Random random = new Random(7);
+        for (int i = 0; i < 3_000; i++) {
+            BigDecimal principal = BigDecimal.valueOf(5_000_000L + (random.nextLong() >>> 1) % 1_000_000_000L, 2);
+            BigDecimal rate = BigDecimal.valueOf(random.nextInt(3_001), 2);
+            int months = (1 + random.nextInt(30)) * 12;
+
+            assertEquals(exactEmi(principal, rate, months), AmortizationCalculator.emi(principal, rate, months),
+                "principal=" + principal + " rate=" + rate + " months=" + months);
+        }
+    }
+
+    @Test
+    void schedulesBuiltOnTheEmiRepayWithinTheRoundingBound() {
+        Random random = new Random(11);
+        for (int i = 0; i < 3_000; i++) {
+            BigDecimal principal = BigDecimal.valueOf(50_000 + random.nextInt(9_950_001));
+            BigDecimal rate = BigDecimal.valueOf(1 + random.nextInt(3_000), 2);
+            int months = (1 + random.nextInt(30)) * 12;
+            BigDecimal emi = AmortizationCalculator.emi(principal, rate, months);
+            AmortizationCalculator.Schedule schedule = AmortizationCalculator.schedule(principal, rate, months, emi);
+
+            String loan = "principal=" + principal + " rate=" + rate + " months=" + months;
+            long principalPaid = 0;
+            for (int m = 0; m < months - 1; m++) {
+                assertEquals(AmortizationCalculator.toPaise(emi), schedule.getEmiPaise(m), loan);
+                principalPaid += schedule.getPrincipalPaise(m);
+            }
+            principalPaid += schedule.getPrincipalPaise(months - 1);
+            assertEquals(AmortizationCalculator.toPaise(principal), principalPaid, loan);
+            assertEquals(0, schedule.getBalancePaise(months - 1), loan);
+
+            // Half a paisa each of EMI and interest rounding a month, compounded over the tenure, is all the final instalment absorbs
+            double growth = Math.pow(1 + rate.doubleValue() / 1200, months);
+            long drift = Math.abs(schedule.getEmiPaise(months - 1) - AmortizationCalculator.toPaise(emi));
+            assertTrue(drift <= months * growth + 1, loan + " drift=" + drift);
+        }
+    }
+
+    @Test
+    void walkStopsEarlyOnTheSameInstalments() {
+        BigDecimal principal = new BigDecimal("2500000");
+        BigDecimal rate = new BigDecimal("10.75");
+        BigDecimal emi = AmortizationCalculator.emi(principal, rate, 240);
+        AmortizationCalculator.Schedule schedule = AmortizationCalculator.schedule(principal, rate, 240, emi);
+
+        long[] visited = new long[1];
+        AmortizationCalculator.walk(AmortizationCalculator.toPaise(principal), AmortizationCalculator.monthlyRateE10(rate), 240,
+            AmortizationCalculator.toPaise(emi), 37, (index, principalPaise, interestPaise, balancePaise) -> {
+                assertEquals(schedule.getPrincipalPaise(index), principalPaise);
+                assertEquals(schedule.getInterestPaise(index), interestPaise);
+                assertEquals(schedule.getBalancePaise(index), balancePaise);
+                visited[0]++;
+            });
+        assertEquals(37, visited[0]);
+    }
+
+    @Test
+    void tenureOfAnEmiIsTheScheduleItWasComputedFor() {
+        Random random = new Random(13);
+        for (int i = 0; i < 1_000; i++) {
+            BigDecimal principal = BigDecimal.valueOf(50_000 + random.nextInt(9_950_001));
+            BigDecimal rate = BigDecimal.valueOf(random.nextInt(3_001), 2);
+            int months = (1 + random.nextInt(30)) * 12;
+            BigDecimal emi = AmortizationCalculator.emi(principal, rate, months);
+
+            // The EMI is rounded to the paisa, so a rounded-down one can leave a few paise for one more instalment
+            int tenure = AmortizationCalculator.tenure(AmortizationCalculator.toPaise(principal),
+                AmortizationCalculator.monthlyRateE10(rate), AmortizationCalculator.toPaise(emi), 480);
+            String loan = "principal=" + principal + " rate=" + rate + " months=" + months + " tenure=" + tenure;
+            assertTrue(tenure == months || tenure == months + 1, loan);
+            if (tenure > months) {
+                AmortizationCalculator.Schedule schedule = AmortizationCalculator.schedule(principal, rate, tenure, emi);
+                assertTrue(schedule.getEmiPaise(tenure - 1) < schedule.getEmiPaise(0), loan);
+            }
+        }
+
+        // An EMI that only covers the interest never repays the loan
+        long rate = AmortizationCalculator.monthlyRateE10(new BigDecimal("12.00"));
+        assertEquals(-1, AmortizationCalculator.tenure(100_000_000L, rate, 1_000_000L, 480));
+        assertEquals(-1, AmortizationCalculator.tenure(100_000_000L, rate, 1_000_001L, 12));
+    }
+
+    // JMH is not on the build; these log single-thread throughput figures
+    @Test
+    void emiThroughputAgainstExactPow() {
+        BigDecimal rate = new BigDecimal("8.50");
+        int iterations = 500_000;
+        BigDecimal sink = BigDecimal.ZERO;
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = sink.add(AmortizationCalculator.emi(BigDecimal.valueOf(5_000_000L + i), rate, 360));
+        }
+        long cachedNanos = System.nanoTime() - started;
+
+        int exactIterations = 200;
+        started = System.nanoTime();
+        for (int i = 0; i < exactIterations; i++) {
+            sink = sink.add(exactEmi(BigDecimal.valueOf(5_000_000L + i), rate, 360));
+        }
+        long exactNanos = System.nanoTime() - started;
+        System.out.printf("AmortizationCalculator - 30-year EMI: %.2f microseconds cached, %.1f microseconds with exact pow (checksum %s)%n",
+            cachedNanos / 1_000.0 / iterations, exactNanos / 1_000.0 / exactIterations, sink);
+    }
+
+
+    @Test
+    void thirtyYearScheduleThroughput() {
+        long rate = AmortizationCalculator.monthlyRateE10(new BigDecimal("8.50"));
+        int iterations = 200_000;
+        long sink = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            AmortizationCalculator.Schedule schedule = AmortizationCalculator.schedule(500_000_000L + i, rate, 360, 3_844_567L);
+            sink += schedule.getBalancePaise(359);
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        System.out.printf("AmortizationCalculator - %d thirty-year schedules, %.1f microseconds each (checksum %d)%n",
+            iterations, elapsedNanos / 1_000.0 / iterations, sink);
+    }
+
+    // The offer letter's original EMI: exact (1+r)^n with BigDecimal.pow, kept here as the reference
+    private static BigDecimal exactEmi(BigDecimal principal, BigDecimal annualRate, int months) {
+        BigDecimal monthlyRate = annualRate.divide(BigDecimal.valueOf(1200), 10, RoundingMode.HALF_UP);
+        if (monthlyRate.compareTo(BigDecimal.ZERO) == 0) {
+            return principal.divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP);
+        }
+        BigDecimal onePlusRPowN = BigDecimal.ONE.add(monthlyRate).pow(months);
+        return principal.multiply(monthlyRate).multiply(onePlusRPowN)
+            .divide(onePlusRPowN.subtract(BigDecimal.ONE), 2, RoundingMode.HALF_UP);
+    }
+
+    private static Map<String, String> parseHeader(String header) {
+        Map<String, String> parameters = new HashMap<>();
+        for (String pair : header.substring(1).trim().split(" ")) {
+            String[] keyValue = pair.split("=");
+            parameters.put(keyValue[0], keyValue[1]);
+        }
+        return parameters;
+    }
+}
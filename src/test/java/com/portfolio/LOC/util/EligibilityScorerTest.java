@@ -0,0 +1,135 @@
+package com.portfolio.LOC.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.LOC.entity.LoanApplication;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EligibilityScorerTest {
+
+    private static final long[] INCOMES = {1, 29_999, 30_000, 45_500, 49_999, 50_000, 83_333, 99_999, 100_000, 250_000};
+    private static final long[] LOAN_AMOUNTS = {50_000, 1_500_000, 2_999_999, 3_000_000, 4_800_000, 7_500_000, 10_000_000};
+    private static final int[] EXPERIENCE = {0, 1, 2, 4, 5, 30};
+
+    @Test
+    void versionOneRulesMatchTheOriginalHardCodedScore() throws Exception {
+        EligibilityScorer scorer = loadDefaultRules();
+
+        int checked = 0;
+        for (long income : INCOMES) {
+            for (long loan : LOAN_AMOUNTS) {
+                for (int experience : EXPERIENCE) {
+                    for (LoanApplication.EmploymentType type : LoanApplication.EmploymentType.values()) {
+                        for (boolean coApplicant : new boolean[] {true, false}) {
+                            BigDecimal monthlyIncome = BigDecimal.valueOf(income);
+                            BigDecimal loanAmount = BigDecimal.valueOf(loan);
+                            assertEquals(
+                                legacyScore(monthlyIncome, type, experience, coApplicant, loanAmount),
+                                scorer.score(EligibilityScorer.toPaise(monthlyIncome), type, experience, coApplicant,
+                                    EligibilityScorer.toPaise(loanAmount)),
+                                "income=" + income + " loan=" + loan + " experience=" + experience + " type=" + type);
+                            checked++;
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(INCOMES.length * LOAN_AMOUNTS.length * EXPERIENCE.length * 4 * 2, checked);
+    }
+
+    @Test
+    void parallelBatchScoringMatchesSingleScores() throws Exception {
+        EligibilityScorer scorer = loadDefaultRules();
+        int rows = 50_000;
+        EligibilityScorer.Batch batch = new EligibilityScorer.Batch(rows);
+        LoanApplication.EmploymentType[] types = LoanApplication.EmploymentType.values();
+        for (int i = 0; i < rows; i++) {
+            batch.add(BigDecimal.valueOf(INCOMES[i % INCOMES.length]), types[i % types.length], i % 12, i % 3 == 0,
+                BigDecimal.valueOf(LOAN_AMOUNTS[i % LOAN_AMOUNTS.length]));
+        }
+
+        scorer.scoreAll(batch);
+
+        for (int i = 0; i < rows; i++) {
+            int expected = scorer.score(EligibilityScorer.toPaise(BigDecimal.valueOf(INCOMES[i % INCOMES.length])),
+                types[i % types.length], i % 12, i % 3 == 0,
+                EligibilityScorer.toPaise(BigDecimal.valueOf(LOAN_AMOUNTS[i % LOAN_AMOUNTS.length])));
+            assertEquals(expected, batch.scoreAt(i));
+        }
+    }
+
+    @Test
+    void rejectsMalformedRuleTables() throws Exception {
+        EligibilityRules rules = readDefaultRules();
+        rules.getMonthlyIncome().setPoints(new int[] {40, 30});
+        assertThrows(RuntimeException.class, () -> EligibilityScorer.compile(rules));
+
+        EligibilityRules unordered = readDefaultRules();
+        unordered.getWorkExperienceYears().setThresholds(new BigDecimal[] {BigDecimal.valueOf(2), BigDecimal.valueOf(5)});
+        assertThrows(RuntimeException.class, () -> EligibilityScorer.compile(unordered));
+    }
+
+    // Single-threaded throughput figure; JMH is not on the build, so this is a smoke benchmark only
+    @Test
+    void scoresMillionsPerSecondOnOneThread() throws Exception {
+        EligibilityScorer scorer = loadDefaultRules();
+        int iterations = 20_000_000;
+        long sink = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += scorer.score(3_000_000L + (i & 0xFFFF) * 100L, i & 3, i & 15, (i & 1) == 0, 250_000_000L + i);
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        System.out.printf("EligibilityScorer - %d scores on one thread, %.1f million scores/s (checksum %d)%n",
+            iterations, iterations / (elapsedNanos / 1_000.0), sink);
+    }
+
+    private static EligibilityScorer loadDefaultRules() throws Exception {
+        return EligibilityScorer.compile(readDefaultRules());
+    }
+
+    private static EligibilityRules readDefaultRules() throws Exception {
+        try (InputStream input = EligibilityScorerTest.class.getResourceAsStream("/scoring/eligibility-rules.json")) {
+            return new ObjectMapper().readValue(input, EligibilityRules.class);
+        }
+    }
+
+    // The BigDecimal scoring that shipped before the rule table, kept here as the parity reference
+    private static int legacyScore(BigDecimal monthlyIncome, LoanApplication.EmploymentType employmentType,
+                                   int workExp, boolean hasCoApplicant, BigDecimal loanAmount) {
+        int score = 0;
+        if (monthlyIncome.compareTo(BigDecimal.valueOf(100000)) >= 0) {
+            score += 40;
+        } else if (monthlyIncome.compareTo(BigDecimal.valueOf(50000)) >= 0) {
+            score += 30;
+        } else if (monthlyIncome.compareTo(BigDecimal.valueOf(30000)) >= 0) {
+            score += 20;
+        } else {
+            score += 10;
+        }
+        score += employmentType == LoanApplication.EmploymentType.SALARIED ? 20 : 15;
+        if (workExp >= 5) {
+            score += 20;
+        } else if (workExp >= 2) {
+            score += 15;
+        } else {
+            score += 10;
+        }
+        score += hasCoApplicant ? 10 : 5;
+        BigDecimal loanToIncomeRatio = loanAmount.divide(monthlyIncome.multiply(BigDecimal.valueOf(12)), 2, RoundingMode.HALF_UP);
+        if (loanToIncomeRatio.compareTo(BigDecimal.valueOf(5)) <= 0) {
+            score += 10;
+        } else if (loanToIncomeRatio.compareTo(BigDecimal.valueOf(8)) <= 0) {
+            score += 7;
+        } else {
+            score += 3;
+        }
+        return Math.min(score, 100);
+    }
+}
@@ -0,0 +1,190 @@
+package com.portfolio.LOC.util;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OfferLetterTemplateTest {
+
+    private static final String TERMS =
+        "1. The loan is subject to the terms and conditions mentioned in the loan agreement.\n" +
+        "2. EMI payments must be made on or before the due date.\n" +
+        "3. Late payment charges will be applicable for delayed payments.\n" +
+        "4. The loan is secured against the property being purchased.\n" +
+        "5. Insurance coverage is mandatory for the loan tenure.";
+
+    private static final OfferLetterTemplate TEMPLATE = OfferLetterTemplate.compile(TERMS);
+
+    @Test
+    void lettersCarryEveryFieldAndTheTemplateText() throws Exception {
+        OfferLetterTemplate.Letter letter = letter(1, 3);
+        String text = extractText(TEMPLATE.render(letter));
+
+        for (String expected : new String[] {
+                "SMARTLOAN FINANCIAL SERVICES", "LOAN OFFER LETTER", "Date: 14-03-2026", "Application ID: LA0000000001",
+                "Dear Anjali Deshpande 1,", "Loan Amount", "1500000.00", "9.25% per annum", "20 years", "13737.52", "15000.00",
+                "Approval History:", "L2 - APPROVED by Approver 2 on 14-03-2026 10:02", "Terms and Conditions:",
+                "5. Insurance coverage is mandatory for the loan tenure.", "Sincerely,", "SmartLoan Financial Services"}) {
+            assertTrue(text.contains(expected), expected + " missing from:\n" + text);
+        }
+        // The opening paragraph is wrapped once, when the template is compiled
+        assertTrue(text.contains("We are pleased to inform you that your loan application has been approved."), text);
+    }
+
+    @Test
+    void longApprovalHistoriesRunOntoAnotherPage() throws Exception {
+        byte[] pdf = TEMPLATE.render(letter(2, 60));
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            assertEquals(2, document.getNumberOfPages());
+            StringBuilder text = new StringBuilder();
+            for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(document.getPage(page))).append('\n');
+            }
+            for (int i = 0; i < 60; i++) {
+                assertTrue(text.toString().contains("by Approver " + i + " on"), "approval " + i);
+            }
+            assertTrue(PdfTextExtractor.getTextFromPage(document.getPage(2)).contains("SmartLoan Financial Services"));
+        }
+    }
+
+    // JMH is not on the build; this logs single-letter latency and allocation on one thread, then batch
+    // throughput with one rendering thread per core
+    @Test
+    void renderLatencyAndAllocationAgainstTheLayoutRenderer() throws Exception {
+        OfferLetterTemplate.Letter letter = letter(3, 3);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long sink = 0;
+        for (int i = 0; i < 200; i++) {
+            sink += TEMPLATE.render(letter).length + layoutRender(letter).length;
+        }
+
+        int iterations = 2_000;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += TEMPLATE.render(letter).length;
+        }
+        long templateNanos = System.nanoTime() - started;
+        long templateBytes = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        int layoutIterations = 500;
+        allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        started = System.nanoTime();
+        for (int i = 0; i < layoutIterations; i++) {
+            sink += layoutRender(letter).length;
+        }
+        long layoutNanos = System.nanoTime() - started;
+        long layoutBytes = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        System.out.printf("OfferLetterTemplate - compiled template %.0f microseconds and %d KB allocated a letter; "
+                + "layout renderer %.0f microseconds and %d KB (checksum %d)%n",
+            templateNanos / 1_000.0 / iterations, templateBytes / iterations / 1024,
+            layoutNanos / 1_000.0 / layoutIterations, layoutBytes / layoutIterations / 1024, sink);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(cores);
+        try {
+            int letters = 2_000;
+            started = System.nanoTime();
+            List<Future<Integer>> rendered = new ArrayList<>(letters);
+            for (int i = 0; i < letters; i++) {
+                OfferLetterTemplate.Letter batchLetter = letter(i, 3);
+                rendered.add(pool.submit(() -> TEMPLATE.render(batchLetter).length));
+            }
+            for (Future<Integer> size : rendered) {
+                sink += size.get();
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("OfferLetterTemplate - %d letters on %d threads: %.0f letters a second (checksum %d)%n",
+                letters, cores, letters / seconds, sink);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static OfferLetterTemplate.Letter letter(int number, int approvals) {
+        LocalDateTime offeredAt = LocalDateTime.of(2026, 3, 14, 10, 0);
+        List<String> history = new ArrayList<>();
+        String[] stages = {"RCPU", "L1", "L2", "L3"};
+        for (int i = 0; i < approvals; i++) {
+            history.add(stages[i % stages.length] + " - APPROVED by Approver " + i + " on "
+                + offeredAt.plusMinutes(i).format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm")));
+        }
+        return new OfferLetterTemplate.Letter(offeredAt, String.format("LA%010d", number), "Anjali Deshpande " + number,
+            new BigDecimal("1500000.00"), new BigDecimal("9.25"), 20, new BigDecimal("13737.52"), new BigDecimal("15000.00"),
+            history);
+    }
+
+    private static String extractText(byte[] pdf) throws Exception {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            assertEquals(1, document.getNumberOfPages());
+            return PdfTextExtractor.getTextFromPage(document.getPage(1));
+        }
+    }
+
+    // The offer letter's original Document/Paragraph/Table renderer, kept here as the reference
+    private static byte[] layoutRender(OfferLetterTemplate.Letter letter) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(new PdfDocument(new PdfWriter(baos)));
+        document.add(new Paragraph("SMARTLOAN FINANCIAL SERVICES").setTextAlignment(TextAlignment.CENTER).setFontSize(18).setBold());
+        document.add(new Paragraph("LOAN OFFER LETTER").setTextAlignment(TextAlignment.CENTER).setFontSize(16).setBold());
+        document.add(new Paragraph("\n"));
+        document.add(new Paragraph("Date: " + letter.offeredAt().format(DateTimeFormatter.ofPattern("dd-MM-yyyy"))));
+        document.add(new Paragraph("Application ID: " + letter.applicationId()));
+        document.add(new Paragraph("\n"));
+        document.add(new Paragraph("Dear " + letter.applicantName() + ",").setBold());
+        document.add(new Paragraph("\n"));
+        document.add(new Paragraph("We are pleased to inform you that your loan application has been approved. " +
+            "Please find the loan offer details below:"));
+        document.add(new Paragraph("\n"));
+        Table table = new Table(UnitValue.createPercentArray(new float[]{3, 4}));
+        table.setWidth(UnitValue.createPercentValue(100));
+        String[][] rows = {
+            {"Loan Amount", "₹ " + letter.approvedAmount()}, {"Interest Rate", letter.interestRate() + "% per annum"},
+            {"Loan Tenure", letter.tenureYears() + " years"}, {"Monthly EMI", "₹ " + letter.emiAmount()},
+            {"Processing Fee", "₹ " + letter.processingFee()}};
+        for (String[] row : rows) {
+            table.addCell(new Cell().add(new Paragraph(row[0]).setBold()));
+            table.addCell(new Cell().add(new Paragraph(row[1])));
+        }
+        document.add(table);
+        document.add(new Paragraph("\n"));
+        document.add(new Paragraph("Approval History:").setBold());
+        for (String approval : letter.approvals()) {
+            document.add(new Paragraph(approval));
+        }
+        document.add(new Paragraph("\n"));
+        document.add(new Paragraph("Terms and Conditions:").setBold());
+        document.add(new Paragraph(TERMS));
+        document.add(new Paragraph("\n"));
+        document.add(new Paragraph("Congratulations on your loan approval!"));
+        document.add(new Paragraph("\n"));
+        document.add(new Paragraph("Sincerely,"));
+        document.add(new Paragraph("SmartLoan Financial Services"));
+        document.close();
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,89 @@
+package com.portfolio.LOC.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 500_000;
+
+    @Test
+    void parallelGenerationProducesNoDuplicates() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> batches = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            batches.add(executor.submit(() -> {
+                long[] ids = new long[IDS_PER_THREAD];
+                start.await();
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        long[] all = new long[THREADS * IDS_PER_THREAD];
+        int offset = 0;
+        for (Future<long[]> batch : batches) {
+            long[] ids = batch.get();
+            // Each thread must observe strictly increasing IDs
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(ids[i] > ids[i - 1], "IDs went backwards within a thread");
+            }
+            System.arraycopy(ids, 0, all, offset, ids.length);
+            offset += ids.length;
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        executor.shutdown();
+
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertNotEquals(all[i - 1], all[i], "Duplicate ID generated");
+        }
+        System.out.printf("SnowflakeIdGenerator - %d IDs on %d threads, %.1f million IDs/s%n",
+            all.length, THREADS, all.length / (elapsedNanos / 1_000.0));
+    }
+
+    @Test
+    void nodesNeverShareIds() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(2);
+
+        long a = first.nextId();
+        long b = second.nextId();
+
+        long nodeMask = SnowflakeIdGenerator.MAX_NODE_ID << SnowflakeIdGenerator.SEQUENCE_BITS;
+        assertEquals(1L << SnowflakeIdGenerator.SEQUENCE_BITS, a & nodeMask);
+        assertEquals(2L << SnowflakeIdGenerator.SEQUENCE_BITS, b & nodeMask);
+    }
+
+    @Test
+    void encodedIdsAreShortAndPrefixed() {
+        String id = new SnowflakeIdGenerator(0).nextId(IdGenerator.APPLICATION_PREFIX);
+
+        assertTrue(id.matches("LA[0-9A-Z]{1,13}"), id);
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(RuntimeException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+}